@@ -0,0 +1,23 @@
+package com.sonar.workflow.controller;
+
+import com.sonar.workflow.dto.ApiResponse;
+import com.sonar.workflow.dto.BadgeCountsDTO;
+import com.sonar.workflow.service.BadgeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/badges")
+@RequiredArgsConstructor
+public class BadgeController {
+
+    private final BadgeService badgeService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<BadgeCountsDTO>> getMyBadges() {
+        return ResponseEntity.ok(ApiResponse.success(badgeService.getMyBadges()));
+    }
+}
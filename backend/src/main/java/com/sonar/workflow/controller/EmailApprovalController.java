@@ -4,7 +4,6 @@ import com.sonar.workflow.dto.ApiResponse;
 import com.sonar.workflow.dto.ApprovalRequest;
 import com.sonar.workflow.dto.WorkflowInstanceDTO;
 import com.sonar.workflow.entity.ApprovalHistory;
-import com.sonar.workflow.entity.EmailApprovalToken;
 import com.sonar.workflow.entity.User;
 import com.sonar.workflow.entity.WorkflowInstance;
 import com.sonar.workflow.repository.UserRepository;
@@ -51,7 +50,7 @@ public class EmailApprovalController {
                     .body(ApiResponse.error("Email approvals are not enabled"));
         }
 
-        Optional<EmailApprovalToken> tokenOpt = emailApprovalService.validateToken(token);
+        Optional<EmailApprovalService.VerifiedToken> tokenOpt = emailApprovalService.validateToken(token);
         if (tokenOpt.isEmpty()) {
             // Check if token exists but is expired or used
             String reason = emailApprovalService.getTokenInvalidReason(token);
@@ -60,8 +59,8 @@ public class EmailApprovalController {
                     .body(ApiResponse.error(reason));
         }
 
-        EmailApprovalToken approvalToken = tokenOpt.get();
-        WorkflowInstance instance = approvalToken.getWorkflowInstance();
+        EmailApprovalService.VerifiedToken approvalToken = tokenOpt.get();
+        WorkflowInstance instance = approvalToken.workflowInstance();
 
         // Check if instance is still pending and at the correct level
         if (instance.getStatus() != WorkflowInstance.Status.PENDING &&
@@ -70,7 +69,7 @@ public class EmailApprovalController {
                     .body(ApiResponse.error("This request has already been processed"));
         }
 
-        if (!instance.getCurrentLevel().equals(approvalToken.getApprovalLevel())) {
+        if (!emailApprovalService.isForCurrentStep(approvalToken)) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("This approval level has already been processed"));
         }
@@ -80,9 +79,9 @@ public class EmailApprovalController {
         response.put("referenceNumber", instance.getReferenceNumber());
         response.put("workflowName", instance.getWorkflow().getName());
         response.put("initiatorName", instance.getInitiator() != null ? instance.getInitiator().getFullName() : "Unknown");
-        response.put("approverEmail", approvalToken.getApproverEmail());
-        response.put("approverName", approvalToken.getApproverName());
-        response.put("actionType", approvalToken.getActionType());
+        response.put("approverEmail", approvalToken.approverEmail());
+        response.put("approverName", approvalToken.approverName());
+        response.put("actionType", approvalToken.actionType());
         response.put("currentLevel", instance.getCurrentLevel());
         response.put("requiresAuth", true); // Frontend will check if user is logged in
 
@@ -107,16 +106,15 @@ public class EmailApprovalController {
         }
 
         // Validate token
-        Optional<EmailApprovalToken> tokenOpt = emailApprovalService.validateToken(token);
+        Optional<EmailApprovalService.VerifiedToken> tokenOpt = emailApprovalService.validateToken(token);
         if (tokenOpt.isEmpty()) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Invalid or expired token"));
         }
 
-        EmailApprovalToken approvalToken = tokenOpt.get();
-        WorkflowInstance instance = approvalToken.getWorkflowInstance();
+        EmailApprovalService.VerifiedToken approvalToken = tokenOpt.get();
+        WorkflowInstance instance = approvalToken.workflowInstance();
         UUID instanceId = instance.getId();
-        Integer approvalLevel = approvalToken.getApprovalLevel();
 
         // Verify the user - prefer JWT auth, but fall back to email token identity
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -132,17 +130,17 @@ public class EmailApprovalController {
                 authenticatedEmail = ((org.springframework.security.core.userdetails.UserDetails) principal).getUsername();
             }
 
-            if (authenticatedEmail != null && !authenticatedEmail.equalsIgnoreCase(approvalToken.getApproverEmail())) {
+            if (authenticatedEmail != null && !authenticatedEmail.equalsIgnoreCase(approvalToken.approverEmail())) {
                 log.warn("Email approval: authenticated user email '{}' does not match token approver email '{}'",
-                        authenticatedEmail, approvalToken.getApproverEmail());
+                        authenticatedEmail, approvalToken.approverEmail());
                 return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("You are not authorized to perform this action. Please log in with the account associated with " + approvalToken.getApproverEmail()));
+                        .body(ApiResponse.error("You are not authorized to perform this action. Please log in with the account associated with " + approvalToken.approverEmail()));
             }
         }
 
         // If no valid JWT, authenticate from the email token's approver
         if (!jwtAuthenticated) {
-            Optional<User> approverUser = userRepository.findByEmail(approvalToken.getApproverEmail());
+            Optional<User> approverUser = userRepository.findByEmail(approvalToken.approverEmail());
             if (approverUser.isPresent()) {
                 User user = approverUser.get();
                 CustomUserDetails userDetails = new CustomUserDetails(user);
@@ -152,7 +150,7 @@ public class EmailApprovalController {
                 log.info("Email approval: set security context from token for approver {}", user.getEmail());
             } else {
                 return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Approver account not found for email: " + approvalToken.getApproverEmail()));
+                        .body(ApiResponse.error("Approver account not found for email: " + approvalToken.approverEmail()));
             }
         }
 
@@ -163,8 +161,8 @@ public class EmailApprovalController {
                     .body(ApiResponse.error("This request has already been processed"));
         }
 
-        // Check if instance is still at the correct level
-        if (!instance.getCurrentLevel().equals(approvalLevel)) {
+        // Check if instance is still at the token's level and approver
+        if (!emailApprovalService.isForCurrentStep(approvalToken)) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("This approval level has already been processed"));
         }
@@ -219,12 +217,9 @@ public class EmailApprovalController {
 
             WorkflowInstanceDTO result = workflowInstanceService.processApproval(requestBuilder.build());
 
-            // Mark token as used
+            // Mark token as used; other links for this step die with the level/approver check
             emailApprovalService.markTokenAsUsed(approvalToken);
 
-            // Invalidate other tokens for this instance and level
-            emailApprovalService.invalidateTokensForInstanceAndLevel(instanceId, approvalLevel);
-
             return ResponseEntity.ok(ApiResponse.success(successMessage, result));
 
         } catch (Exception e) {
@@ -246,15 +241,15 @@ public class EmailApprovalController {
                     .body(ApiResponse.error("Email approvals are not enabled"));
         }
 
-        Optional<EmailApprovalToken> tokenOpt = emailApprovalService.validateToken(token);
+        Optional<EmailApprovalService.VerifiedToken> tokenOpt = emailApprovalService.validateToken(token);
         if (tokenOpt.isEmpty()) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Invalid or expired token"));
         }
 
-        EmailApprovalToken approvalToken = tokenOpt.get();
+        EmailApprovalService.VerifiedToken approvalToken = tokenOpt.get();
         List<Map<String, Object>> targets = workflowInstanceService.getEscalationTargets(
-                approvalToken.getWorkflowInstance().getId()
+                approvalToken.workflowInstance().getId()
         );
 
         return ResponseEntity.ok(ApiResponse.success(targets));
@@ -271,15 +266,15 @@ public class EmailApprovalController {
                     .body(ApiResponse.error("Email approvals are not enabled"));
         }
 
-        Optional<EmailApprovalToken> tokenOpt = emailApprovalService.validateToken(token);
+        Optional<EmailApprovalService.VerifiedToken> tokenOpt = emailApprovalService.validateToken(token);
         if (tokenOpt.isEmpty()) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Invalid or expired token"));
         }
 
-        EmailApprovalToken approvalToken = tokenOpt.get();
+        EmailApprovalService.VerifiedToken approvalToken = tokenOpt.get();
         WorkflowInstanceDTO instanceDTO = workflowInstanceService.getInstanceById(
-                approvalToken.getWorkflowInstance().getId()
+                approvalToken.workflowInstance().getId()
         );
 
         return ResponseEntity.ok(ApiResponse.success(instanceDTO));
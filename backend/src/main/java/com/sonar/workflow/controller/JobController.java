@@ -0,0 +1,30 @@
+package com.sonar.workflow.controller;
+
+import com.sonar.workflow.dto.ApiResponse;
+import com.sonar.workflow.dto.JobLeaseDTO;
+import com.sonar.workflow.service.JobLeaseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN') or hasRole('ROLE_ADMIN')")
+public class JobController {
+
+    private final JobLeaseService jobLeaseService;
+
+    /**
+     * Scheduled jobs with their current lease holder and the outcome of their last run.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<JobLeaseDTO>>> getJobs() {
+        return ResponseEntity.ok(ApiResponse.success(jobLeaseService.getJobs()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.sonar.workflow.controller;
+
+import com.sonar.workflow.service.NotificationHubService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class LiveEventController {
+
+    private final NotificationHubService notificationHubService;
+
+    /**
+     * Server-Sent Events stream of {@code notification}, {@code badges} and {@code resync}
+     * events for the current user. EventSource cannot set headers, so the browser passes its JWT
+     * as the {@code token} query parameter; it sends {@code Last-Event-ID} itself when it
+     * reconnects, and {@code lastEventId} covers a stream the client reopens on its own.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                             @RequestParam(required = false) String lastEventId) {
+        return notificationHubService.connect(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sonar.workflow.controller;
 
 import com.sonar.workflow.dto.ApiResponse;
+import com.sonar.workflow.dto.SqlDataPageDTO;
 import com.sonar.workflow.dto.SqlObjectDTO;
 import com.sonar.workflow.service.SqlObjectService;
 import jakarta.validation.Valid;
@@ -12,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -79,6 +81,27 @@ public class SqlObjectController {
         return ResponseEntity.ok(ApiResponse.success(sqlObjectService.getTableData(id)));
     }
 
+    @GetMapping("/{id}/data/page")
+    public ResponseEntity<ApiResponse<SqlDataPageDTO>> getTableDataPage(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String searchColumn,
+            @RequestParam(defaultValue = "prefix") String searchMode,
+            @RequestParam(required = false) Map<String, String> params) {
+        // Any query parameter prefixed with "filter." is an exact-match column filter
+        Map<String, String> filters = new LinkedHashMap<>();
+        params.forEach((key, value) -> {
+            if (key.startsWith("filter.")) {
+                filters.put(key.substring("filter.".length()), value);
+            }
+        });
+        return ResponseEntity.ok(ApiResponse.success(sqlObjectService.getTableDataPage(
+                id, afterId, size, direction, search, searchColumn, searchMode, filters)));
+    }
+
     @PostMapping("/{id}/data")
     @PreAuthorize("hasAuthority('ADMIN') or hasRole('ROLE_ADMIN')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> addTableRow(
@@ -102,11 +125,13 @@ public class SqlObjectController {
 
     // SQL Table query execution endpoint
     @PostMapping("/execute-query")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> executeSqlTableQuery(@RequestBody Map<String, String> body) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> executeSqlTableQuery(@RequestBody Map<String, Object> body) {
         try {
-            String query = body.get("query");
-            String columnsJson = body.get("columns");
-            return ResponseEntity.ok(ApiResponse.success(sqlObjectService.executeSqlTableQuery(query, columnsJson)));
+            String query = (String) body.get("query");
+            String columnsJson = (String) body.get("columns");
+            // The cache TTL is the field's configured one; without a field id results are not cached
+            UUID fieldId = body.get("fieldId") instanceof String id && !id.isBlank() ? UUID.fromString(id) : null;
+            return ResponseEntity.ok(ApiResponse.success(sqlObjectService.executeSqlTableQuery(query, columnsJson, fieldId)));
         } catch (Exception e) {
             return ResponseEntity.ok(ApiResponse.error(e.getMessage() != null ? e.getMessage() : "Query execution failed"));
         }
@@ -118,12 +143,29 @@ public class SqlObjectController {
         return ResponseEntity.ok(ApiResponse.success(sqlObjectService.executeFunctionQuery(body)));
     }
 
+    // Batched variant: one response entry per request, lookups against the same table/column share a query
+    @PostMapping("/function-query/batch")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> executeFunctionQueryBatch(
+            @RequestBody List<Map<String, Object>> requests) {
+        return ResponseEntity.ok(ApiResponse.success(sqlObjectService.executeFunctionQueryBatch(requests)));
+    }
+
     // Options Endpoint for dropdown fields
     @GetMapping("/{id}/options")
     public ResponseEntity<ApiResponse<List<Map<String, String>>>> getOptions(@PathVariable UUID id) {
         return ResponseEntity.ok(ApiResponse.success(sqlObjectService.getOptionsFromSqlObject(id)));
     }
 
+    // Type-ahead options for dropdown fields backed by large SQL Objects
+    @GetMapping("/{id}/options/search")
+    public ResponseEntity<ApiResponse<List<Map<String, String>>>> searchOptions(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "prefix") String mode,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(sqlObjectService.searchOptionsFromSqlObject(id, q, mode, limit)));
+    }
+
     // Template / Import / Export
     @GetMapping("/{id}/template")
     public ResponseEntity<byte[]> downloadTemplate(@PathVariable UUID id) throws Exception {
@@ -145,8 +187,9 @@ public class SqlObjectController {
 
     @PostMapping("/{id}/import")
     public ResponseEntity<byte[]> importData(
-            @PathVariable UUID id, @RequestParam("file") MultipartFile file) throws Exception {
-        byte[] resultExcel = sqlObjectService.importData(id, file);
+            @PathVariable UUID id, @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean upsert) throws Exception {
+        byte[] resultExcel = sqlObjectService.importData(id, file, upsert);
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=import_results.xlsx")
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
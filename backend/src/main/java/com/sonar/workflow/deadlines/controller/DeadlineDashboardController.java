@@ -1,15 +1,21 @@
 package com.sonar.workflow.deadlines.controller;
 
 import com.sonar.workflow.deadlines.dto.DeadlineDashboardDTO;
+import com.sonar.workflow.deadlines.dto.DeadlineInstanceDTO;
 import com.sonar.workflow.deadlines.service.DeadlineDashboardService;
 import com.sonar.workflow.dto.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/deadlines/dashboard")
@@ -23,6 +29,18 @@ public class DeadlineDashboardController {
         return ResponseEntity.ok(ApiResponse.success(dashboardService.getDashboard()));
     }
 
+    /**
+     * Pages through this month's completions; pass the completedAt and id of the last row shown
+     * to get the next page.
+     */
+    @GetMapping("/recently-completed")
+    public ResponseEntity<ApiResponse<List<DeadlineInstanceDTO>>> getRecentlyCompleted(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeCompletedAt,
+            @RequestParam(required = false) UUID beforeId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getRecentlyCompleted(beforeCompletedAt, beforeId, size)));
+    }
+
     @GetMapping("/badge-counts")
     public ResponseEntity<ApiResponse<Map<String, Long>>> getBadgeCounts() {
         return ResponseEntity.ok(ApiResponse.success(dashboardService.getBadgeCounts()));
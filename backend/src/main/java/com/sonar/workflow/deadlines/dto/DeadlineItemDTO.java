@@ -25,6 +25,7 @@ public class DeadlineItemDTO {
     private String priority;
     private String status;
     private String recurrenceType;
+    private String businessDayAdjustment;
     private String reminderDaysBefore;
 
     private UUID ownerId;
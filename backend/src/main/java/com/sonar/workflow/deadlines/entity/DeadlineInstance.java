@@ -1,6 +1,7 @@
 package com.sonar.workflow.deadlines.entity;
 
 import com.sonar.workflow.entity.BaseEntity;
+import com.sonar.workflow.entity.listener.BadgeChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,7 +11,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "deadline_instances")
+@EntityListeners(BadgeChangeListener.class)
+@Table(name = "deadline_instances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_deadline_instances_item_due_date", columnNames = {"deadline_item_id", "due_date"})
+}, indexes = {
+        @Index(name = "idx_deadline_instances_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_deadline_instances_status_completed_at", columnList = "status, completed_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +32,10 @@ public class DeadlineInstance extends BaseEntity {
     @Column(name = "due_date", nullable = false)
     private LocalDate dueDate;
 
+    // Occurrence date in the item's recurrence series, before business-day adjustment
+    @Column(name = "scheduled_date")
+    private LocalDate scheduledDate;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
@@ -46,6 +46,19 @@ public class DeadlineItem extends BaseEntity {
     @Builder.Default
     private RecurrenceType recurrenceType = RecurrenceType.ONE_TIME;
 
+    // First occurrence of the recurrence series; later occurrences are whole months from it
+    @Column(name = "recurrence_anchor")
+    private LocalDate recurrenceAnchor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "business_day_adjustment")
+    @Builder.Default
+    private BusinessDayAdjustment businessDayAdjustment = BusinessDayAdjustment.NONE;
+
+    // Instances exist for every occurrence up to this date
+    @Column(name = "materialized_through")
+    private LocalDate materializedThrough;
+
     @Column(name = "reminder_days_before")
     @Builder.Default
     private String reminderDaysBefore = "30,7,1";
@@ -83,4 +96,12 @@ public class DeadlineItem extends BaseEntity {
     public enum RecurrenceType {
         ONE_TIME, MONTHLY, QUARTERLY, SEMI_ANNUAL, ANNUAL
     }
+
+    /**
+     * How an occurrence falling on a weekend or public holiday is moved: to the next working day,
+     * the next unless that crosses into the next month, or the previous working day.
+     */
+    public enum BusinessDayAdjustment {
+        NONE, FOLLOWING, MODIFIED_FOLLOWING, PRECEDING
+    }
 }
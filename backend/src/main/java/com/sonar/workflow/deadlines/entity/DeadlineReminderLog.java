@@ -7,7 +7,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deadline_reminder_logs")
+@Table(name = "deadline_reminder_logs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_deadline_reminder_logs_instance_type_email",
+                columnNames = {"deadline_instance_id", "reminder_type", "recipient_email"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,40 @@
+package com.sonar.workflow.deadlines.entity;
+
+import com.sonar.workflow.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+/**
+ * A reminder due on {@code fireDate} for an open deadline instance, precomputed from the item's
+ * reminder days when instances are created or the item changes (see DeadlineReminderScheduleService).
+ * The daily run reads today's rows instead of re-deriving reminder days for every open instance.
+ * The reminder type matches the one recorded in DeadlineReminderLog, which keeps sends idempotent.
+ */
+@Entity
+@Table(name = "deadline_reminder_schedule", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_deadline_reminder_schedule_instance_type", columnNames = {"deadline_instance_id", "reminder_type"})
+}, indexes = {
+        @Index(name = "idx_deadline_reminder_schedule_fire_date", columnList = "fire_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeadlineReminderSchedule extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "deadline_instance_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private DeadlineInstance deadlineInstance;
+
+    @Column(name = "fire_date", nullable = false)
+    private LocalDate fireDate;
+
+    @Column(name = "reminder_type", nullable = false)
+    private String reminderType;
+}
@@ -0,0 +1,81 @@
+package com.sonar.workflow.deadlines.repository;
+
+import com.sonar.workflow.deadlines.entity.DeadlineInstance;
+import com.sonar.workflow.deadlines.entity.DeadlineItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only queries behind the deadline dashboard. The counts come from one aggregate over the
+ * open instances and this month's completions; the lists are top-N projections ordered along the
+ * (status, due_date) and (status, completed_at) indexes, so neither grows with completed history.
+ */
+public interface DeadlineDashboardRepository extends Repository<DeadlineInstance, UUID> {
+
+    String INSTANCE_ROW = "SELECT i.id AS id, d.id AS deadlineItemId, d.name AS deadlineItemName, " +
+            "d.code AS deadlineItemCode, c.name AS categoryName, d.priority AS priority, i.dueDate AS dueDate, " +
+            "i.status AS status, i.completedAt AS completedAt, i.completedBy AS completedBy, i.notes AS notes " +
+            "FROM DeadlineInstance i JOIN i.deadlineItem d LEFT JOIN d.category c ";
+
+    interface Counts {
+        Long getTotalActive();
+        Long getUpcoming();
+        Long getDueSoon();
+        Long getOverdue();
+        Long getCompletedSince();
+    }
+
+    interface InstanceRow {
+        UUID getId();
+        UUID getDeadlineItemId();
+        String getDeadlineItemName();
+        String getDeadlineItemCode();
+        String getCategoryName();
+        DeadlineItem.DeadlinePriority getPriority();
+        LocalDate getDueDate();
+        DeadlineInstance.InstanceStatus getStatus();
+        LocalDateTime getCompletedAt();
+        String getCompletedBy();
+        String getNotes();
+    }
+
+    @Query("SELECT (SELECT COUNT(d) FROM DeadlineItem d WHERE d.status = 'ACTIVE') AS totalActive, " +
+           "COUNT(i) FILTER (WHERE i.status = 'UPCOMING') AS upcoming, " +
+           "COUNT(i) FILTER (WHERE i.status = 'DUE_SOON') AS dueSoon, " +
+           "COUNT(i) FILTER (WHERE i.status = 'OVERDUE') AS overdue, " +
+           "COUNT(i) FILTER (WHERE i.status = 'COMPLETED') AS completedSince " +
+           "FROM DeadlineInstance i " +
+           "WHERE i.status IN ('UPCOMING', 'DUE_SOON', 'OVERDUE') " +
+           "OR (i.status = 'COMPLETED' AND i.completedAt >= :since)")
+    Counts countByStatus(@Param("since") LocalDateTime since);
+
+    @Query(INSTANCE_ROW + "WHERE i.dueDate BETWEEN :from AND :to AND d.isActive = true " +
+           "ORDER BY i.dueDate ASC, i.id ASC")
+    List<InstanceRow> findUpcoming(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    @Query(INSTANCE_ROW + "WHERE i.status = 'OVERDUE' AND d.isActive = true ORDER BY i.dueDate ASC, i.id ASC")
+    List<InstanceRow> findOverdue(Pageable pageable);
+
+    @Query(INSTANCE_ROW + "WHERE i.status = 'COMPLETED' AND i.completedAt >= :since " +
+           "ORDER BY i.completedAt DESC, i.id DESC")
+    List<InstanceRow> findCompletedSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * The page of completions after the keyset ({@code beforeAt}, {@code beforeId}), i.e. the
+     * last row of the previous page.
+     */
+    @Query(INSTANCE_ROW + "WHERE i.status = 'COMPLETED' AND i.completedAt >= :since " +
+           "AND (i.completedAt < :beforeAt OR (i.completedAt = :beforeAt AND i.id < :beforeId)) " +
+           "ORDER BY i.completedAt DESC, i.id DESC")
+    List<InstanceRow> findCompletedSinceBefore(@Param("since") LocalDateTime since,
+                                               @Param("beforeAt") LocalDateTime beforeAt,
+                                               @Param("beforeId") UUID beforeId,
+                                               Pageable pageable);
+}
@@ -1,12 +1,15 @@
 package com.sonar.workflow.deadlines.repository;
 
 import com.sonar.workflow.deadlines.entity.DeadlineInstance;
+import com.sonar.workflow.deadlines.entity.DeadlineItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +40,30 @@ public interface DeadlineInstanceRepository extends JpaRepository<DeadlineInstan
 
     long countByStatus(DeadlineInstance.InstanceStatus status);
 
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DeadlineInstance i SET i.status = :overdue, i.updatedAt = CURRENT_TIMESTAMP, i.version = i.version + 1 " +
+           "WHERE i.status IN :openStatuses AND i.dueDate < :today")
+    int markOverdue(@Param("overdue") DeadlineInstance.InstanceStatus overdue,
+                    @Param("openStatuses") List<DeadlineInstance.InstanceStatus> openStatuses,
+                    @Param("today") LocalDate today);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DeadlineInstance i SET i.status = :dueSoon, i.updatedAt = CURRENT_TIMESTAMP, i.version = i.version + 1 " +
+           "WHERE i.status = :upcoming AND i.dueDate BETWEEN :today AND :threshold")
+    int markDueSoon(@Param("dueSoon") DeadlineInstance.InstanceStatus dueSoon,
+                    @Param("upcoming") DeadlineInstance.InstanceStatus upcoming,
+                    @Param("today") LocalDate today,
+                    @Param("threshold") LocalDate threshold);
+
+    @Query("SELECT i.id FROM DeadlineInstance i JOIN i.deadlineItem d " +
+           "WHERE i.status = :status AND d.isActive = true AND d.status = :itemStatus " +
+           "ORDER BY i.dueDate ASC, i.id ASC")
+    List<UUID> findIdsByStatusForActiveItems(@Param("status") DeadlineInstance.InstanceStatus status,
+                                             @Param("itemStatus") DeadlineItem.DeadlineItemStatus itemStatus);
+
+    @Query("SELECT i FROM DeadlineInstance i JOIN FETCH i.deadlineItem WHERE i.id IN :ids ORDER BY i.dueDate ASC")
+    List<DeadlineInstance> findAllWithItemByIdIn(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT COUNT(i) FROM DeadlineInstance i WHERE i.status = 'COMPLETED' AND i.completedAt >= :since")
     long countCompletedSince(@Param("since") java.time.LocalDateTime since);
 
@@ -45,6 +72,40 @@ public interface DeadlineInstanceRepository extends JpaRepository<DeadlineInstan
     @Query("SELECT i FROM DeadlineInstance i WHERE i.deadlineItem.id = :itemId AND i.status NOT IN ('COMPLETED', 'SKIPPED') ORDER BY i.dueDate ASC")
     List<DeadlineInstance> findActiveByDeadlineItemId(@Param("itemId") UUID itemId);
 
+    @Query("SELECT MIN(COALESCE(i.scheduledDate, i.dueDate)) FROM DeadlineInstance i WHERE i.deadlineItem.id = :itemId")
+    LocalDate findFirstScheduledDate(@Param("itemId") UUID itemId);
+
+    @Query("SELECT MAX(COALESCE(i.scheduledDate, i.dueDate)) FROM DeadlineInstance i WHERE i.deadlineItem.id = :itemId")
+    LocalDate findLastScheduledDate(@Param("itemId") UUID itemId);
+
+    /**
+     * Inserts one UPCOMING instance per (due date, scheduled date) pair, given as PostgreSQL date
+     * array literals. Occurrences that already exist under either date are skipped, so reruns
+     * are harmless.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO deadline_instances (id, deadline_item_id, due_date, scheduled_date, status, " +
+            "created_at, updated_at, created_by, updated_by, is_active, version) " +
+            "SELECT gen_random_uuid(), :itemId, o.due_date, o.scheduled_date, 'UPCOMING', " +
+            "LOCALTIMESTAMP, LOCALTIMESTAMP, 'system', 'system', true, 0 " +
+            "FROM unnest(CAST(:dueDates AS date[]), CAST(:scheduledDates AS date[])) AS o(due_date, scheduled_date) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM deadline_instances i WHERE i.deadline_item_id = :itemId " +
+            "AND (i.due_date = o.due_date OR i.scheduled_date = o.scheduled_date)) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertOccurrences(@Param("itemId") UUID itemId,
+                          @Param("dueDates") String dueDates,
+                          @Param("scheduledDates") String scheduledDates);
+
+    /**
+     * Removes materialized occurrences after {@code after} that nobody has acted on yet, so the
+     * series can be regenerated after its schedule changed. Pending changes are flushed first;
+     * the persistence context is kept, so callers must not go on using instances it removed.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DeadlineInstance i WHERE i.deadlineItem.id = :itemId AND i.status = 'UPCOMING' " +
+           "AND i.dueDate > :after AND NOT EXISTS (SELECT l.id FROM DeadlineReminderLog l WHERE l.deadlineInstance = i)")
+    int deleteUntouchedAfter(@Param("itemId") UUID itemId, @Param("after") LocalDate after);
+
     @Query("SELECT COUNT(i) FROM DeadlineInstance i WHERE i.status = 'OVERDUE' " +
            "AND i.deadlineItem.isActive = true " +
            "AND (i.deadlineItem.owner.id = :userId " +
@@ -57,4 +118,10 @@ public interface DeadlineInstanceRepository extends JpaRepository<DeadlineInstan
            "AND (i.deadlineItem.owner.id = :userId " +
            "OR i.deadlineItem.id IN (SELECT r.deadlineItem.id FROM DeadlineRecipient r WHERE r.user.id = :userId AND r.notifyOnReminder = true))")
     long countDueSoonForUser(@Param("userId") UUID userId, @Param("reminderDate") LocalDate reminderDate);
+
+    /** Users whose overdue or due-soon counts include instances of these items. */
+    @Query("SELECT u.id FROM User u " +
+           "WHERE u.id IN (SELECT d.owner.id FROM DeadlineItem d WHERE d.id IN :itemIds) " +
+           "OR u.id IN (SELECT r.user.id FROM DeadlineRecipient r WHERE r.deadlineItem.id IN :itemIds)")
+    List<UUID> findCountedUserIdsByItemIds(@Param("itemIds") Collection<UUID> itemIds);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,4 +37,11 @@ public interface DeadlineItemRepository extends JpaRepository<DeadlineItem, UUID
     long countByStatus(DeadlineItem.DeadlineItemStatus status);
 
     long countByCodeStartingWith(String codePrefix);
+
+    @Query("SELECT d.id FROM DeadlineItem d WHERE d.isActive = true AND d.status = :status " +
+           "AND d.recurrenceType <> :oneTime " +
+           "AND (d.materializedThrough IS NULL OR d.materializedThrough < :horizonEnd)")
+    List<UUID> findIdsToMaterialize(@Param("status") DeadlineItem.DeadlineItemStatus status,
+                                    @Param("oneTime") DeadlineItem.RecurrenceType oneTime,
+                                    @Param("horizonEnd") LocalDate horizonEnd);
 }
@@ -4,6 +4,7 @@ import com.sonar.workflow.deadlines.entity.DeadlineRecipient;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,4 +18,8 @@ public interface DeadlineRecipientRepository extends JpaRepository<DeadlineRecip
     List<DeadlineRecipient> findByDeadlineItemIdAndNotifyOnOverdueTrue(UUID deadlineItemId);
 
     List<DeadlineRecipient> findByDeadlineItemIdAndNotifyOnCompletionTrue(UUID deadlineItemId);
+
+    List<DeadlineRecipient> findByDeadlineItemIdInAndNotifyOnReminderTrue(Collection<UUID> deadlineItemIds);
+
+    List<DeadlineRecipient> findByDeadlineItemIdInAndNotifyOnOverdueTrue(Collection<UUID> deadlineItemIds);
 }
@@ -0,0 +1,70 @@
+package com.sonar.workflow.deadlines.repository;
+
+import com.sonar.workflow.deadlines.entity.DeadlineInstance;
+import com.sonar.workflow.deadlines.entity.DeadlineItem;
+import com.sonar.workflow.deadlines.entity.DeadlineReminderSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DeadlineReminderScheduleRepository extends JpaRepository<DeadlineReminderSchedule, UUID> {
+
+    /**
+     * One row per open instance and reminder day parsed from the item's comma-separated
+     * 'reminder_days_before', fired that many days before the due date. Entries that are not
+     * whole numbers are ignored, as are fire dates already behind {@code today}.
+     */
+    String INSERT_SCHEDULE = "INSERT INTO deadline_reminder_schedule (id, deadline_instance_id, fire_date, reminder_type, " +
+            "created_at, updated_at, created_by, updated_by, is_active, version) " +
+            "SELECT gen_random_uuid(), i.id, i.due_date - r.days, CAST(r.days AS varchar) || '_DAY', " +
+            "LOCALTIMESTAMP, LOCALTIMESTAMP, 'system', 'system', true, 0 " +
+            "FROM deadline_instances i " +
+            "JOIN deadline_items d ON d.id = i.deadline_item_id " +
+            "CROSS JOIN LATERAL (SELECT DISTINCT CAST(trim(p) AS integer) AS days " +
+            "FROM unnest(string_to_array(d.reminder_days_before, ',')) AS p WHERE trim(p) ~ '^[0-9]+$') r " +
+            "WHERE i.status IN ('UPCOMING', 'DUE_SOON') AND i.due_date - r.days >= :today ";
+
+    interface DueReminder {
+        UUID getInstanceId();
+        String getReminderType();
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_SCHEDULE + "AND i.deadline_item_id = :itemId ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertForItem(@Param("itemId") UUID itemId, @Param("today") LocalDate today);
+
+    @Modifying
+    @Query(value = INSERT_SCHEDULE + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertForAll(@Param("today") LocalDate today);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM deadline_reminder_schedule s USING deadline_instances i " +
+            "WHERE s.deadline_instance_id = i.id AND i.deadline_item_id = :itemId", nativeQuery = true)
+    int deleteForItem(@Param("itemId") UUID itemId);
+
+    @Modifying
+    @Query("DELETE FROM DeadlineReminderSchedule s WHERE s.fireDate < :today")
+    int deleteFiredBefore(@Param("today") LocalDate today);
+
+    /**
+     * Reminders firing on {@code fireDate} for open instances, due by {@code dueBy}, of active
+     * items that have at least one reminder recipient.
+     */
+    @Query("SELECT i.id AS instanceId, s.reminderType AS reminderType " +
+           "FROM DeadlineReminderSchedule s JOIN s.deadlineInstance i JOIN i.deadlineItem d " +
+           "WHERE s.fireDate = :fireDate AND i.status IN :statuses AND i.dueDate <= :dueBy " +
+           "AND d.isActive = true AND d.status = :itemStatus " +
+           "AND EXISTS (SELECT r.id FROM DeadlineRecipient r WHERE r.deadlineItem = d AND r.notifyOnReminder = true) " +
+           "ORDER BY i.dueDate ASC, i.id ASC")
+    List<DueReminder> findDue(@Param("fireDate") LocalDate fireDate,
+                              @Param("dueBy") LocalDate dueBy,
+                              @Param("statuses") List<DeadlineInstance.InstanceStatus> statuses,
+                              @Param("itemStatus") DeadlineItem.DeadlineItemStatus itemStatus);
+}
@@ -2,109 +2,210 @@ package com.sonar.workflow.deadlines.service;
 
 import com.sonar.workflow.deadlines.dto.DeadlineDashboardDTO;
 import com.sonar.workflow.deadlines.dto.DeadlineInstanceDTO;
-import com.sonar.workflow.deadlines.entity.DeadlineInstance;
-import com.sonar.workflow.deadlines.entity.DeadlineItem;
+import com.sonar.workflow.deadlines.repository.DeadlineDashboardRepository;
+import com.sonar.workflow.deadlines.repository.DeadlineDashboardRepository.InstanceRow;
 import com.sonar.workflow.deadlines.repository.DeadlineInstanceRepository;
-import com.sonar.workflow.deadlines.repository.DeadlineItemRepository;
 import com.sonar.workflow.entity.User;
 import com.sonar.workflow.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.sonar.workflow.security.CustomUserDetails;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Deadline dashboard: status counts from a single aggregate query, bounded top-N lists, and the
+ * current user's own counts. Each user's dashboard is kept for a short TTL
+ * ('app.deadlines.dashboard-cache-seconds') and dropped earlier when deadline instances change,
+ * which BadgeService reports through {@link #invalidateDashboards()}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DeadlineDashboardService {
 
-    private final DeadlineItemRepository itemRepository;
+    private static final int UPCOMING_DAYS = 30;
+    private static final int UPCOMING_LIMIT = 10;
+    private static final int OVERDUE_LIMIT = 20;
+    private static final int RECENTLY_COMPLETED_LIMIT = 5;
+    private static final int MAX_COMPLETED_PAGE = 100;
+    private static final int MAX_CACHED_DASHBOARDS = 1000;
+
+    private final DeadlineDashboardRepository dashboardRepository;
     private final DeadlineInstanceRepository instanceRepository;
-    private final DeadlineItemService itemService;
     private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${app.deadlines.dashboard-cache-seconds:30}")
+    private long cacheSeconds;
+
+    private final Map<UUID, Snapshot> dashboards = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public DeadlineDashboardService(DeadlineDashboardRepository dashboardRepository,
+                                    DeadlineInstanceRepository instanceRepository,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.dashboardRepository = dashboardRepository;
+        this.instanceRepository = instanceRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
-    @Transactional(readOnly = true)
     public DeadlineDashboardDTO getDashboard() {
+        UUID userId = currentUserId();
+        if (userId == null) {
+            return readOnlyTransaction.execute(status -> compute(null));
+        }
+
+        long currentGeneration = generation.get();
+        Snapshot snapshot = dashboards.get(userId);
+        if (snapshot != null && snapshot.isFresh(currentGeneration, cacheSeconds)) {
+            return snapshot.dashboard();
+        }
+        DeadlineDashboardDTO dashboard = readOnlyTransaction.execute(status -> compute(userId));
+        if (dashboards.size() >= MAX_CACHED_DASHBOARDS) {
+            dashboards.values().removeIf(s -> !s.isFresh(currentGeneration, cacheSeconds));
+        }
+        dashboards.put(userId, new Snapshot(dashboard, currentGeneration, System.currentTimeMillis()));
+        return dashboard;
+    }
+
+    /**
+     * Makes cached dashboards stale, e.g. after deadline instances changed.
+     */
+    public void invalidateDashboards() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Owners and recipients of the given items, whose badge counts include their instances.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findBadgeUserIds(Collection<UUID> deadlineItemIds) {
+        return deadlineItemIds.isEmpty() ? List.of() : instanceRepository.findCountedUserIdsByItemIds(deadlineItemIds);
+    }
+
+    /**
+     * This month's completions, newest first, continuing after the given keyset (the completion
+     * time and id of the last row already shown) when one is passed.
+     */
+    @Transactional(readOnly = true)
+    public List<DeadlineInstanceDTO> getRecentlyCompleted(LocalDateTime beforeCompletedAt, UUID beforeId, int size) {
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        PageRequest page = PageRequest.of(0, Math.clamp(size, 1, MAX_COMPLETED_PAGE));
+        List<InstanceRow> rows = beforeCompletedAt == null || beforeId == null
+                ? dashboardRepository.findCompletedSince(monthStart, page)
+                : dashboardRepository.findCompletedSinceBefore(monthStart, beforeCompletedAt, beforeId, page);
+        return toDTOs(rows, LocalDate.now());
+    }
+
+    private DeadlineDashboardDTO compute(UUID userId) {
         LocalDate today = LocalDate.now();
-        LocalDate monthStart = today.withDayOfMonth(1);
-
-        long totalActive = itemRepository.countByStatus(DeadlineItem.DeadlineItemStatus.ACTIVE);
-        long upcomingCount = instanceRepository.countByStatus(DeadlineInstance.InstanceStatus.UPCOMING);
-        long dueSoonCount = instanceRepository.countByStatus(DeadlineInstance.InstanceStatus.DUE_SOON);
-        long overdueCount = instanceRepository.countByStatus(DeadlineInstance.InstanceStatus.OVERDUE);
-        long completedThisMonth = instanceRepository.countCompletedSince(monthStart.atStartOfDay());
-
-        List<DeadlineInstanceDTO> upcoming = instanceRepository
-                .findUpcomingWithItem(today, today.plusDays(30)).stream()
-                .limit(10)
-                .map(itemService::toInstanceDTO)
-                .collect(Collectors.toList());
-
-        List<DeadlineInstanceDTO> overdue = instanceRepository
-                .findOverdueWithItem().stream()
-                .map(itemService::toInstanceDTO)
-                .collect(Collectors.toList());
-
-        List<DeadlineInstanceDTO> recentlyCompleted = instanceRepository
-                .findByStatusIn(List.of(DeadlineInstance.InstanceStatus.COMPLETED)).stream()
-                .filter(i -> i.getCompletedAt() != null && i.getCompletedAt().isAfter(monthStart.atStartOfDay()))
-                .limit(5)
-                .map(itemService::toInstanceDTO)
-                .collect(Collectors.toList());
+        LocalDateTime monthStart = today.withDayOfMonth(1).atStartOfDay();
+
+        DeadlineDashboardRepository.Counts counts = dashboardRepository.countByStatus(monthStart);
+
+        List<DeadlineInstanceDTO> upcoming = toDTOs(dashboardRepository.findUpcoming(
+                today, today.plusDays(UPCOMING_DAYS), PageRequest.of(0, UPCOMING_LIMIT)), today);
+        List<DeadlineInstanceDTO> overdue = toDTOs(dashboardRepository.findOverdue(
+                PageRequest.of(0, OVERDUE_LIMIT)), today);
+        List<DeadlineInstanceDTO> recentlyCompleted = toDTOs(dashboardRepository.findCompletedSince(
+                monthStart, PageRequest.of(0, RECENTLY_COMPLETED_LIMIT)), today);
 
         // User-specific badge counts
-        long myOverdueCount = 0;
-        long myDueSoonCount = 0;
-        try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User currentUser = userRepository.findByUsername(username).orElse(null);
-            if (currentUser != null) {
-                myOverdueCount = instanceRepository.countOverdueForUser(currentUser.getId());
-                // Due soon = within 30 days reminder window
-                LocalDate reminderDate = today.plusDays(30);
-                myDueSoonCount = instanceRepository.countDueSoonForUser(currentUser.getId(), reminderDate);
-            }
-        } catch (Exception e) {
-            log.debug("Could not load user-specific deadline counts: {}", e.getMessage());
-        }
+        Map<String, Long> mine = userId != null ? getBadgeCounts(userId) : Map.of();
 
         return DeadlineDashboardDTO.builder()
-                .totalActive(totalActive)
-                .upcomingCount(upcomingCount)
-                .dueSoonCount(dueSoonCount)
-                .overdueCount(overdueCount)
-                .completedThisMonth(completedThisMonth)
+                .totalActive(valueOf(counts.getTotalActive()))
+                .upcomingCount(valueOf(counts.getUpcoming()))
+                .dueSoonCount(valueOf(counts.getDueSoon()))
+                .overdueCount(valueOf(counts.getOverdue()))
+                .completedThisMonth(valueOf(counts.getCompletedSince()))
                 .upcomingDeadlines(upcoming)
                 .overdueDeadlines(overdue)
                 .recentlyCompleted(recentlyCompleted)
-                .myOverdueCount(myOverdueCount)
-                .myDueSoonCount(myDueSoonCount)
+                .myOverdueCount(mine.getOrDefault("overdue", 0L))
+                .myDueSoonCount(mine.getOrDefault("dueSoon", 0L))
                 .build();
     }
 
     @Transactional(readOnly = true)
     public Map<String, Long> getBadgeCounts() {
-        long myOverdueCount = 0;
-        long myDueSoonCount = 0;
+        UUID userId = currentUserId();
+        if (userId != null) {
+            return getBadgeCounts(userId);
+        }
+        return Map.of("overdue", 0L, "dueSoon", 0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> getBadgeCounts(UUID userId) {
+        long myOverdueCount = instanceRepository.countOverdueForUser(userId);
+        // Due soon = within 30 days reminder window
+        LocalDate reminderDate = LocalDate.now().plusDays(UPCOMING_DAYS);
+        long myDueSoonCount = instanceRepository.countDueSoonForUser(userId, reminderDate);
+        return Map.of("overdue", myOverdueCount, "dueSoon", myDueSoonCount);
+    }
+
+    private UUID currentUserId() {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User currentUser = userRepository.findByUsername(username).orElse(null);
-            if (currentUser != null) {
-                myOverdueCount = instanceRepository.countOverdueForUser(currentUser.getId());
-                LocalDate reminderDate = LocalDate.now().plusDays(30);
-                myDueSoonCount = instanceRepository.countDueSoonForUser(currentUser.getId(), reminderDate);
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null) {
+                return null;
+            }
+            if (authentication.getPrincipal() instanceof CustomUserDetails details && details.getId() != null) {
+                return details.getId();
             }
+            return userRepository.findByUsername(authentication.getName()).map(User::getId).orElse(null);
         } catch (Exception e) {
-            log.debug("Could not load user-specific deadline counts: {}", e.getMessage());
+            log.debug("Could not resolve the current user for deadline counts: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<DeadlineInstanceDTO> toDTOs(List<InstanceRow> rows, LocalDate today) {
+        return rows.stream()
+                .map(row -> DeadlineInstanceDTO.builder()
+                        .id(row.getId())
+                        .deadlineItemId(row.getDeadlineItemId())
+                        .deadlineItemName(row.getDeadlineItemName())
+                        .deadlineItemCode(row.getDeadlineItemCode())
+                        .categoryName(row.getCategoryName())
+                        .priority(row.getPriority() != null ? row.getPriority().name() : null)
+                        .dueDate(row.getDueDate())
+                        .status(row.getStatus().name())
+                        .completedAt(row.getCompletedAt())
+                        .completedBy(row.getCompletedBy())
+                        .notes(row.getNotes())
+                        .daysRemaining(ChronoUnit.DAYS.between(today, row.getDueDate()))
+                        .build())
+                .toList();
+    }
+
+    private static long valueOf(Long count) {
+        return count != null ? count : 0L;
+    }
+
+    private record Snapshot(DeadlineDashboardDTO dashboard, long generation, long createdAt) {
+        boolean isFresh(long currentGeneration, long ttlSeconds) {
+            return generation == currentGeneration
+                    && System.currentTimeMillis() - createdAt < ttlSeconds * 1000;
         }
-        return Map.of("overdue", myOverdueCount, "dueSoon", myDueSoonCount);
     }
 }
@@ -3,11 +3,13 @@ package com.sonar.workflow.deadlines.service;
 import com.sonar.workflow.deadlines.dto.*;
 import com.sonar.workflow.deadlines.entity.*;
 import com.sonar.workflow.deadlines.repository.*;
+import com.sonar.workflow.dto.LiveEventDTO;
 import com.sonar.workflow.entity.SBU;
 import com.sonar.workflow.entity.User;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.repository.SBURepository;
 import com.sonar.workflow.repository.UserRepository;
+import com.sonar.workflow.service.NotificationHubService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -34,6 +36,9 @@ public class DeadlineItemService {
     private final DeadlineCategoryRepository deadlineCategoryRepository;
     private final UserRepository userRepository;
     private final SBURepository sbuRepository;
+    private final NotificationHubService notificationHubService;
+    private final DeadlineRecurrenceService recurrenceService;
+    private final DeadlineReminderScheduleService reminderScheduleService;
 
     // ==================== CRUD ====================
 
@@ -76,9 +81,12 @@ public class DeadlineItemService {
         processActions(item, dto.getActions());
         processRecipients(item, dto.getRecipients());
 
-        // Create the first instance based on the due date
+        // Create the first instance based on the due date; recurring items get the rest of the horizon
         if (dto.getNextDueDate() != null) {
+            item.setRecurrenceAnchor(dto.getNextDueDate());
             createInstance(item, dto.getNextDueDate());
+            recurrenceService.materialize(item, recurrenceService.horizonEnd(LocalDate.now()));
+            reminderScheduleService.scheduleNew(item.getId());
         }
 
         log.info("Created deadline item: {} ({})", item.getName(), item.getCode());
@@ -90,6 +98,8 @@ public class DeadlineItemService {
         DeadlineItem item = deadlineItemRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Deadline item not found"));
 
+        DeadlineItem.RecurrenceType previousRecurrence = item.getRecurrenceType();
+        DeadlineItem.BusinessDayAdjustment previousAdjustment = item.getBusinessDayAdjustment();
         mapDtoToEntity(dto, item);
         item = deadlineItemRepository.save(item);
 
@@ -100,14 +110,33 @@ public class DeadlineItemService {
         // Update/create instance if due date changed
         if (dto.getNextDueDate() != null) {
             List<DeadlineInstance> activeInstances = deadlineInstanceRepository.findActiveByDeadlineItemId(id);
-            if (activeInstances.isEmpty()) {
+            DeadlineInstance nextInstance = activeInstances.isEmpty() ? null : activeInstances.get(0);
+            LocalDate nextScheduled = nextInstance == null ? null
+                    : nextInstance.getScheduledDate() != null ? nextInstance.getScheduledDate() : nextInstance.getDueDate();
+            boolean scheduleChanged = !dto.getNextDueDate().equals(nextScheduled)
+                    || item.getRecurrenceType() != previousRecurrence
+                    || item.getBusinessDayAdjustment() != previousAdjustment;
+
+            if (scheduleChanged) {
+                // Regenerate the series from the new date; occurrences already acted on are kept
+                item.setRecurrenceAnchor(dto.getNextDueDate());
+                item.setMaterializedThrough(null);
+                if (nextInstance != null) {
+                    // Only later occurrences go; item and nextInstance stay managed
+                    deadlineInstanceRepository.deleteUntouchedAfter(id, nextInstance.getDueDate());
+                }
+            }
+            if (nextInstance == null) {
                 createInstance(item, dto.getNextDueDate());
             } else {
-                DeadlineInstance nextInstance = activeInstances.get(0);
-                nextInstance.setDueDate(dto.getNextDueDate());
-                deadlineInstanceRepository.save(nextInstance);
+                nextInstance.setScheduledDate(dto.getNextDueDate());
+                nextInstance.setDueDate(recurrenceService.adjust(dto.getNextDueDate(), item.getBusinessDayAdjustment()));
+                deadlineInstanceRepository.saveAndFlush(nextInstance);
             }
+            recurrenceService.materialize(item, recurrenceService.horizonEnd(LocalDate.now()));
         }
+        // Due dates or reminder days may have changed
+        reminderScheduleService.reschedule(item.getId());
 
         log.info("Updated deadline item: {} ({})", item.getName(), item.getCode());
         return toDetailDTO(deadlineItemRepository.findById(item.getId()).orElse(item));
@@ -137,16 +166,9 @@ public class DeadlineItemService {
         }
         deadlineInstanceRepository.save(instance);
 
-        // Auto-advance: create next instance for recurring deadlines
-        DeadlineItem item = instance.getDeadlineItem();
-        if (item.getRecurrenceType() != DeadlineItem.RecurrenceType.ONE_TIME) {
-            LocalDate nextDueDate = calculateNextDueDate(instance.getDueDate(), item.getRecurrenceType());
-            // Only create if no active instance exists for that date
-            if (deadlineInstanceRepository.findByDeadlineItemIdAndDueDate(item.getId(), nextDueDate).isEmpty()) {
-                createInstance(item, nextDueDate);
-                log.info("Auto-created next instance for {} due {}", item.getName(), nextDueDate);
-            }
-        }
+        // Recurring items are normally materialized ahead; this covers completing beyond the horizon
+        recurrenceService.materializeFollowing(instance.getDeadlineItem(), instance);
+        publishStatusChange(instance);
 
         return toInstanceDTO(instance);
     }
@@ -163,10 +185,39 @@ public class DeadlineItemService {
             instance.setNotes(notes);
         }
         deadlineInstanceRepository.save(instance);
+        recurrenceService.materializeFollowing(instance.getDeadlineItem(), instance);
+        publishStatusChange(instance);
 
         return toInstanceDTO(instance);
     }
 
+    /**
+     * Tells the item's owner and completion recipients, other than whoever acted, that an
+     * instance was completed or skipped.
+     */
+    private void publishStatusChange(DeadlineInstance instance) {
+        DeadlineItem item = instance.getDeadlineItem();
+        Set<UUID> userIds = new LinkedHashSet<>();
+        if (item.getOwner() != null) {
+            userIds.add(item.getOwner().getId());
+        }
+        for (DeadlineRecipient recipient : deadlineRecipientRepository.findByDeadlineItemIdAndNotifyOnCompletionTrue(item.getId())) {
+            userIds.add(notificationHubService.resolveUserId(recipient.getUser(), recipient.getRecipientEmail()));
+        }
+        userRepository.findByUsername(instance.getCompletedBy()).map(User::getId).ifPresent(userIds::remove);
+
+        notificationHubService.publish(userIds, LiveEventDTO.builder()
+                .type(LiveEventDTO.Type.STATUS_CHANGED)
+                .module(LiveEventDTO.Module.DEADLINE)
+                .entityId(instance.getId())
+                .referenceNumber(item.getCode())
+                .title(item.getName())
+                .status(instance.getStatus().name())
+                .message(instance.getDueDate().toString())
+                .actorName(instance.getCompletedBy())
+                .build());
+    }
+
     @Transactional(readOnly = true)
     public List<DeadlineInstanceDTO> getInstancesByItem(UUID deadlineItemId) {
         return deadlineInstanceRepository.findByDeadlineItemIdOrderByDueDateAsc(deadlineItemId).stream()
@@ -193,23 +244,14 @@ public class DeadlineItemService {
 
     // ==================== HELPERS ====================
 
-    private DeadlineInstance createInstance(DeadlineItem item, LocalDate dueDate) {
+    private DeadlineInstance createInstance(DeadlineItem item, LocalDate scheduledDate) {
         DeadlineInstance instance = DeadlineInstance.builder()
                 .deadlineItem(item)
-                .dueDate(dueDate)
+                .scheduledDate(scheduledDate)
+                .dueDate(recurrenceService.adjust(scheduledDate, item.getBusinessDayAdjustment()))
                 .status(DeadlineInstance.InstanceStatus.UPCOMING)
                 .build();
-        return deadlineInstanceRepository.save(instance);
-    }
-
-    private LocalDate calculateNextDueDate(LocalDate currentDueDate, DeadlineItem.RecurrenceType type) {
-        return switch (type) {
-            case MONTHLY -> currentDueDate.plusMonths(1);
-            case QUARTERLY -> currentDueDate.plusMonths(3);
-            case SEMI_ANNUAL -> currentDueDate.plusMonths(6);
-            case ANNUAL -> currentDueDate.plusYears(1);
-            default -> currentDueDate;
-        };
+        return deadlineInstanceRepository.saveAndFlush(instance);
     }
 
     private void processActions(DeadlineItem item, List<DeadlineActionDTO> actionDtos) {
@@ -328,6 +370,9 @@ public class DeadlineItemService {
         if (dto.getRecurrenceType() != null) {
             item.setRecurrenceType(DeadlineItem.RecurrenceType.valueOf(dto.getRecurrenceType()));
         }
+        if (dto.getBusinessDayAdjustment() != null) {
+            item.setBusinessDayAdjustment(DeadlineItem.BusinessDayAdjustment.valueOf(dto.getBusinessDayAdjustment()));
+        }
 
         if (dto.getOwnerId() != null) {
             User owner = userRepository.findById(dto.getOwnerId()).orElse(null);
@@ -404,6 +449,7 @@ public class DeadlineItemService {
                 .priority(item.getPriority().name())
                 .status(item.getStatus().name())
                 .recurrenceType(item.getRecurrenceType().name())
+                .businessDayAdjustment(item.getBusinessDayAdjustment() != null ? item.getBusinessDayAdjustment().name() : null)
                 .reminderDaysBefore(item.getReminderDaysBefore())
                 .ownerId(ownerId)
                 .ownerName(ownerName)
@@ -0,0 +1,201 @@
+package com.sonar.workflow.deadlines.service;
+
+import com.sonar.workflow.deadlines.entity.DeadlineInstance;
+import com.sonar.workflow.deadlines.entity.DeadlineItem;
+import com.sonar.workflow.deadlines.entity.DeadlineItem.BusinessDayAdjustment;
+import com.sonar.workflow.deadlines.repository.DeadlineInstanceRepository;
+import com.sonar.workflow.deadlines.repository.DeadlineItemRepository;
+import com.sonar.workflow.leave.service.LeaveCalculationService;
+import com.sonar.workflow.service.SettingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes the instances of recurring deadline items up to a rolling horizon
+ * ('deadline.materialize.horizon.months', default 18), so the dashboard and the reminder run see
+ * future occurrences rather than only the next one.
+ * <p>
+ * Occurrence n of a series is the anchor plus n periods, counted from the anchor so a month-end
+ * anchor does not drift (31 Jan, 28 Feb, 31 Mar). An occurrence on a weekend or public holiday is
+ * then moved according to the item's {@link BusinessDayAdjustment}, using the leave module's
+ * working-day calendar. The nominal date is kept as the instance's scheduled date; with the
+ * unique (item, due date) key that makes materializing idempotent. Each item records how far it
+ * has been materialized, so the daily run only adds occurrences that rolled into the horizon.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineRecurrenceService {
+
+    // Longest stretch of non-working days searched before leaving an occurrence where it is
+    private static final int MAX_ADJUSTMENT_DAYS = 31;
+
+    private final DeadlineItemRepository itemRepository;
+    private final DeadlineInstanceRepository instanceRepository;
+    private final DeadlineReminderScheduleService reminderScheduleService;
+    private final LeaveCalculationService calendar;
+    private final SettingService settingService;
+    private final TransactionTemplate transactionTemplate;
+
+    public LocalDate horizonEnd(LocalDate today) {
+        int months = Math.max(1, settingService.getIntValue("deadline.materialize.horizon.months", 18));
+        return today.plusMonths(months);
+    }
+
+    /**
+     * Materializes every recurring item whose instances stop short of the horizon. Each item
+     * commits on its own; a failing item is logged and retried on the next run.
+     */
+    public int materializeAll(LocalDate today) {
+        LocalDate horizonEnd = horizonEnd(today);
+        List<UUID> itemIds = itemRepository.findIdsToMaterialize(
+                DeadlineItem.DeadlineItemStatus.ACTIVE, DeadlineItem.RecurrenceType.ONE_TIME, horizonEnd);
+
+        int created = 0;
+        for (UUID itemId : itemIds) {
+            try {
+                Integer count = transactionTemplate.execute(status -> itemRepository.findById(itemId)
+                        .map(item -> materialize(item, horizonEnd))
+                        .orElse(0));
+                created += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                log.error("Could not materialize instances of deadline item {}", itemId, e);
+            }
+        }
+        if (created > 0) {
+            log.info("Materialized {} deadline instances for {} items through {}", created, itemIds.size(), horizonEnd);
+        }
+        return created;
+    }
+
+    /**
+     * Creates the item's missing occurrences up to {@code horizonEnd}.
+     *
+     * @return the number of instances inserted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int materialize(DeadlineItem item, LocalDate horizonEnd) {
+        int months = periodMonths(item.getRecurrenceType());
+        if (months == 0 || item.getStatus() != DeadlineItem.DeadlineItemStatus.ACTIVE
+                || !Boolean.TRUE.equals(item.getIsActive())) {
+            return 0;
+        }
+
+        LocalDate anchor = item.getRecurrenceAnchor();
+        if (anchor == null) {
+            // Items created before materializing recur from their earliest instance
+            anchor = instanceRepository.findFirstScheduledDate(item.getId());
+            if (anchor == null) {
+                return 0;
+            }
+            item.setRecurrenceAnchor(anchor);
+        }
+
+        LocalDate after = instanceRepository.findLastScheduledDate(item.getId());
+        if (after == null) {
+            after = anchor.minusDays(1);
+        }
+        if (item.getMaterializedThrough() != null && item.getMaterializedThrough().isAfter(after)) {
+            after = item.getMaterializedThrough();
+        }
+
+        List<LocalDate> scheduled = new ArrayList<>();
+        // Earlier occurrences all fall on or before 'after'
+        long n = Math.max(0, ChronoUnit.MONTHS.between(anchor, after) / months);
+        for (LocalDate date = occurrence(anchor, months, n); !date.isAfter(horizonEnd); date = occurrence(anchor, months, ++n)) {
+            if (date.isAfter(after)) {
+                scheduled.add(date);
+            }
+        }
+
+        int created = 0;
+        if (!scheduled.isEmpty()) {
+            BusinessDayAdjustment adjustment = item.getBusinessDayAdjustment();
+            List<LocalDate> due = scheduled.stream().map(date -> adjust(date, adjustment)).toList();
+            created = instanceRepository.insertOccurrences(item.getId(), toArrayLiteral(due), toArrayLiteral(scheduled));
+            if (created > 0) {
+                reminderScheduleService.scheduleNew(item.getId());
+            }
+        }
+        item.setMaterializedThrough(horizonEnd);
+        itemRepository.save(item);
+        return created;
+    }
+
+    /**
+     * Makes sure the occurrence after {@code instance} exists, materializing to the horizon or,
+     * for an instance already beyond it, to that next occurrence.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int materializeFollowing(DeadlineItem item, DeadlineInstance instance) {
+        int months = periodMonths(item.getRecurrenceType());
+        if (months == 0) {
+            return 0;
+        }
+        LocalDate scheduled = instance.getScheduledDate() != null ? instance.getScheduledDate() : instance.getDueDate();
+        LocalDate next = scheduled.plusMonths(months);
+        LocalDate horizonEnd = horizonEnd(LocalDate.now());
+        return materialize(item, next.isAfter(horizonEnd) ? next : horizonEnd);
+    }
+
+    /**
+     * Moves {@code date} off weekends and public holidays as {@code adjustment} says.
+     */
+    public LocalDate adjust(LocalDate date, BusinessDayAdjustment adjustment) {
+        if (adjustment == null) {
+            return date;
+        }
+        return switch (adjustment) {
+            case FOLLOWING -> nearestWorkingDay(date, 1);
+            case PRECEDING -> nearestWorkingDay(date, -1);
+            case MODIFIED_FOLLOWING -> {
+                LocalDate following = nearestWorkingDay(date, 1);
+                yield following.getMonth() == date.getMonth() ? following : nearestWorkingDay(date, -1);
+            }
+            case NONE -> date;
+        };
+    }
+
+    public static int periodMonths(DeadlineItem.RecurrenceType type) {
+        if (type == null) {
+            return 0;
+        }
+        return switch (type) {
+            case MONTHLY -> 1;
+            case QUARTERLY -> 3;
+            case SEMI_ANNUAL -> 6;
+            case ANNUAL -> 12;
+            case ONE_TIME -> 0;
+        };
+    }
+
+    private static LocalDate occurrence(LocalDate anchor, int months, long n) {
+        return anchor.plusMonths(n * months);
+    }
+
+    private LocalDate nearestWorkingDay(LocalDate date, int step) {
+        LocalDate candidate = date;
+        for (int i = 0; i < MAX_ADJUSTMENT_DAYS; i++) {
+            if (calendar.isWorkingDay(candidate)) {
+                return candidate;
+            }
+            candidate = candidate.plusDays(step);
+        }
+        return date;
+    }
+
+    private static String toArrayLiteral(List<LocalDate> dates) {
+        return dates.stream().map(LocalDate::toString).collect(Collectors.joining(",", "{", "}"));
+    }
+}
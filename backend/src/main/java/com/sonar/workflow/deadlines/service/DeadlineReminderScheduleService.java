@@ -0,0 +1,65 @@
+package com.sonar.workflow.deadlines.service;
+
+import com.sonar.workflow.deadlines.repository.DeadlineReminderScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Maintains the precomputed reminder fire dates in deadline_reminder_schedule. New instances get
+ * their rows added; an item whose due dates or reminder days changed has its rows rebuilt. Rows
+ * are derived data, so a rebuild may drop and re-add rows freely: what was actually sent is
+ * recorded in the reminder log.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadlineReminderScheduleService {
+
+    private final DeadlineReminderScheduleRepository scheduleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Schedules instances created before the schedule table existed, or while it was behind.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Integer inserted = transactionTemplate.execute(status -> scheduleRepository.insertForAll(LocalDate.now()));
+        if (inserted != null && inserted > 0) {
+            log.info("Scheduled {} deadline reminders", inserted);
+        }
+    }
+
+    /**
+     * Adds rows for the item's instances that have none yet, e.g. after new occurrences were
+     * materialized.
+     */
+    @Transactional
+    public int scheduleNew(UUID itemId) {
+        return scheduleRepository.insertForItem(itemId, LocalDate.now());
+    }
+
+    /**
+     * Recomputes the item's rows from its current instances and reminder days.
+     */
+    @Transactional
+    public int reschedule(UUID itemId) {
+        scheduleRepository.deleteForItem(itemId);
+        return scheduleRepository.insertForItem(itemId, LocalDate.now());
+    }
+
+    /**
+     * Drops rows whose fire date has passed.
+     */
+    @Transactional
+    public int purgeFiredBefore(LocalDate today) {
+        return scheduleRepository.deleteFiredBefore(today);
+    }
+}
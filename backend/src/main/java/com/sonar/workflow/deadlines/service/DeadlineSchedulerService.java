@@ -5,17 +5,32 @@ import com.sonar.workflow.deadlines.entity.DeadlineItem;
 import com.sonar.workflow.deadlines.entity.DeadlineRecipient;
 import com.sonar.workflow.deadlines.repository.DeadlineInstanceRepository;
 import com.sonar.workflow.deadlines.repository.DeadlineRecipientRepository;
+import com.sonar.workflow.deadlines.repository.DeadlineReminderScheduleRepository;
+import com.sonar.workflow.deadlines.repository.DeadlineReminderScheduleRepository.DueReminder;
+import com.sonar.workflow.service.BadgeService;
+import com.sonar.workflow.service.JobLeaseService;
+import com.sonar.workflow.service.SettingChangedEvent;
 import com.sonar.workflow.service.SettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,120 +40,195 @@ public class DeadlineSchedulerService {
     private final DeadlineInstanceRepository instanceRepository;
     private final DeadlineRecipientRepository recipientRepository;
     private final DeadlineNotificationService notificationService;
+    private final DeadlineRecurrenceService recurrenceService;
+    private final DeadlineReminderScheduleRepository reminderScheduleRepository;
+    private final DeadlineReminderScheduleService reminderScheduleService;
     private final SettingService settingService;
+    private final JobLeaseService jobLeaseService;
+    private final BadgeService badgeService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+
+    private static final String JOB_NAME = "deadline-reminders";
+    private static final String SCHEDULE_SETTING_PREFIX = "deadline.scheduler.";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(30);
+    // The work runs once a day, so hold the lease well past the scheduled minute on every node's clock
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(10);
+    private static final List<DeadlineInstance.InstanceStatus> OPEN_STATUSES =
+            List.of(DeadlineInstance.InstanceStatus.UPCOMING, DeadlineInstance.InstanceStatus.DUE_SOON);
+
+    @Value("${app.deadlines.reminder-chunk-size:100}")
+    private int chunkSize;
+
+    private ScheduledFuture<?> scheduledRun;
+    private String scheduledCron;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleDailyRun() {
+        reschedule();
+    }
 
     /**
-     * Runs every hour and checks if the current hour/minute matches the configured schedule.
-     * Schedule is configured via 'deadline.scheduler.hour' and 'deadline.scheduler.minute' settings.
-     * Default: runs at 7:00 AM daily.
+     * Moves the daily trigger when 'deadline.scheduler.hour' or 'deadline.scheduler.minute' change.
      */
-    @Scheduled(cron = "0 * * * * *")
-    @Transactional
-    public void processDeadlineReminders() {
-        // Check if current time matches the configured schedule
-        int scheduledHour = settingService.getIntValue("deadline.scheduler.hour", 7);
-        int scheduledMinute = settingService.getIntValue("deadline.scheduler.minute", 0);
-        java.time.LocalTime now = java.time.LocalTime.now();
-        if (now.getHour() != scheduledHour || now.getMinute() != scheduledMinute) {
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSettingChanged(SettingChangedEvent event) {
+        if (event.matches(SCHEDULE_SETTING_PREFIX)) {
+            reschedule();
+        }
+    }
+
+    /**
+     * Schedules the daily run at the configured 'deadline.scheduler.hour' and 'deadline.scheduler.minute'
+     * (default 7:00 AM), replacing any previous trigger.
+     */
+    private synchronized void reschedule() {
+        int hour = Math.clamp(settingService.getIntValue("deadline.scheduler.hour", 7), 0, 23);
+        int minute = Math.clamp(settingService.getIntValue("deadline.scheduler.minute", 0), 0, 59);
+        String cron = "0 " + minute + " " + hour + " * * *";
+        if (cron.equals(scheduledCron) && scheduledRun != null && !scheduledRun.isCancelled()) {
             return;
         }
+        if (scheduledRun != null) {
+            scheduledRun.cancel(false);
+        }
+        scheduledRun = taskScheduler.schedule(this::processDeadlineReminders, new CronTrigger(cron));
+        scheduledCron = cron;
+        log.info("Deadline reminders scheduled daily at {}:{}", hour, String.format("%02d", minute));
+    }
+
+    /**
+     * Daily deadline run: horizon materialization and status transitions, then reminder and
+     * overdue fan-out. Only the node holding the job lease does the work.
+     */
+    public void processDeadlineReminders() {
         if (!settingService.getBooleanValue("module.deadlines.enabled", false)) {
             return;
         }
         if (!settingService.getBooleanValue("deadline.scheduler.enabled", true)) {
             return;
         }
+        jobLeaseService.runExclusive(JOB_NAME, LOCK_AT_MOST, LOCK_AT_LEAST, this::runDailyProcessing);
+    }
 
+    private int runDailyProcessing() {
         log.info("Starting deadline reminder processing...");
         LocalDate today = LocalDate.now();
 
-        // 1. Update instance statuses
-        updateInstanceStatuses(today);
+        // 1. Roll the materialized horizon of recurring items forward
+        int materialized = recurrenceService.materializeAll(today);
 
-        // 2. Process reminders for upcoming deadlines
-        processUpcomingReminders(today);
+        // 2. Update instance statuses
+        Integer updated = transactionTemplate.execute(status -> updateInstanceStatuses(today));
+        int processed = updated != null ? updated : 0;
+        if (processed > 0 || materialized > 0) {
+            // Bulk updates bypass the entity listener that keeps badge counts current
+            badgeService.markChanged();
+        }
+
+        // 3. Send the reminders scheduled for today
+        processed += processUpcomingReminders(today);
+        reminderScheduleService.purgeFiredBefore(today);
 
-        // 3. Process overdue notifications
+        // 4. Process overdue notifications
         if (settingService.getBooleanValue("deadline.email.notifications.enabled", true)) {
-            processOverdueNotifications();
+            processed += processOverdueNotifications();
         }
 
         log.info("Deadline reminder processing completed.");
+        return processed + materialized;
     }
 
-    private void updateInstanceStatuses(LocalDate today) {
+    /**
+     * Set-based status transitions: past due becomes OVERDUE, due within the threshold becomes DUE_SOON.
+     */
+    private int updateInstanceStatuses(LocalDate today) {
         int dueSoonThreshold = settingService.getIntValue("deadline.due.soon.threshold.days", 7);
 
-        // Mark overdue instances
-        List<DeadlineInstance> upcoming = instanceRepository.findByStatusIn(
-                List.of(DeadlineInstance.InstanceStatus.UPCOMING, DeadlineInstance.InstanceStatus.DUE_SOON));
-
-        for (DeadlineInstance instance : upcoming) {
-            if (instance.getDueDate().isBefore(today)) {
-                instance.setStatus(DeadlineInstance.InstanceStatus.OVERDUE);
-                instanceRepository.save(instance);
-            } else if (ChronoUnit.DAYS.between(today, instance.getDueDate()) <= dueSoonThreshold) {
-                if (instance.getStatus() != DeadlineInstance.InstanceStatus.DUE_SOON) {
-                    instance.setStatus(DeadlineInstance.InstanceStatus.DUE_SOON);
-                    instanceRepository.save(instance);
-                }
-            }
+        int overdue = instanceRepository.markOverdue(DeadlineInstance.InstanceStatus.OVERDUE, OPEN_STATUSES, today);
+        int dueSoon = instanceRepository.markDueSoon(DeadlineInstance.InstanceStatus.DUE_SOON,
+                DeadlineInstance.InstanceStatus.UPCOMING, today, today.plusDays(dueSoonThreshold));
+        if (overdue > 0 || dueSoon > 0) {
+            log.info("Deadline statuses updated: {} overdue, {} due soon", overdue, dueSoon);
         }
+        return overdue + dueSoon;
     }
 
-    private void processUpcomingReminders(LocalDate today) {
+    /**
+     * Sends the reminders whose precomputed fire date is today (see DeadlineReminderScheduleService).
+     */
+    private int processUpcomingReminders(LocalDate today) {
         int lookAheadDays = settingService.getIntValue("deadline.look.ahead.days", 60);
-        LocalDate maxLookAhead = today.plusDays(lookAheadDays);
-        List<DeadlineInstance> instances = instanceRepository.findByStatusInAndDueDateBetween(
-                List.of(DeadlineInstance.InstanceStatus.UPCOMING, DeadlineInstance.InstanceStatus.DUE_SOON),
-                today, maxLookAhead);
-
-        for (DeadlineInstance instance : instances) {
-            DeadlineItem item = instance.getDeadlineItem();
-            if (item.getStatus() != DeadlineItem.DeadlineItemStatus.ACTIVE || !Boolean.TRUE.equals(item.getIsActive())) {
-                continue;
-            }
-
-            String reminderConfig = item.getReminderDaysBefore();
-            if (reminderConfig == null || reminderConfig.isBlank()) continue;
-
-            List<Integer> reminderDays = Arrays.stream(reminderConfig.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .map(Integer::parseInt)
-                    .toList();
-
-            long daysUntilDue = ChronoUnit.DAYS.between(today, instance.getDueDate());
-
-            for (int days : reminderDays) {
-                if (daysUntilDue == days) {
-                    String reminderType = days + "_DAY";
-                    sendToRecipients(instance, item, reminderType);
-                }
-            }
-        }
+        Map<UUID, List<String>> typesByInstance = reminderScheduleRepository
+                .findDue(today, today.plusDays(lookAheadDays), OPEN_STATUSES, DeadlineItem.DeadlineItemStatus.ACTIVE).stream()
+                .collect(Collectors.groupingBy(DueReminder::getInstanceId, LinkedHashMap::new,
+                        Collectors.mapping(DueReminder::getReminderType, Collectors.toList())));
+
+        return fanOut(new ArrayList<>(typesByInstance.keySet()), recipientRepository::findByDeadlineItemIdInAndNotifyOnReminderTrue,
+                (instance, recipients) -> {
+                    int sent = 0;
+                    for (String reminderType : typesByInstance.getOrDefault(instance.getId(), List.of())) {
+                        for (DeadlineRecipient recipient : recipients) {
+                            notificationService.sendReminderEmail(instance, recipient.getRecipientEmail(),
+                                    recipient.getRecipientName(), reminderType);
+                            sent++;
+                        }
+                    }
+                    return sent;
+                });
     }
 
-    private void processOverdueNotifications() {
-        List<DeadlineInstance> overdueInstances = instanceRepository.findOverdueWithItem();
-
-        for (DeadlineInstance instance : overdueInstances) {
-            DeadlineItem item = instance.getDeadlineItem();
-            if (item.getStatus() != DeadlineItem.DeadlineItemStatus.ACTIVE) continue;
+    private int processOverdueNotifications() {
+        List<UUID> overdueIds = instanceRepository.findIdsByStatusForActiveItems(
+                DeadlineInstance.InstanceStatus.OVERDUE, DeadlineItem.DeadlineItemStatus.ACTIVE);
 
-            // Send overdue notification once per day per recipient
-            List<DeadlineRecipient> recipients = recipientRepository.findByDeadlineItemIdAndNotifyOnOverdueTrue(item.getId());
-            for (DeadlineRecipient recipient : recipients) {
-                notificationService.sendOverdueEmail(instance, recipient.getRecipientEmail(), recipient.getRecipientName());
-            }
-        }
+        // Send overdue notification once per day per recipient
+        return fanOut(overdueIds, recipientRepository::findByDeadlineItemIdInAndNotifyOnOverdueTrue,
+                (instance, recipients) -> {
+                    for (DeadlineRecipient recipient : recipients) {
+                        notificationService.sendOverdueEmail(instance, recipient.getRecipientEmail(), recipient.getRecipientName());
+                    }
+                    return recipients.size();
+                });
     }
 
-    private void sendToRecipients(DeadlineInstance instance, DeadlineItem item, String reminderType) {
-        List<DeadlineRecipient> recipients = recipientRepository.findByDeadlineItemIdAndNotifyOnReminderTrue(item.getId());
-        for (DeadlineRecipient recipient : recipients) {
-            notificationService.sendReminderEmail(instance, recipient.getRecipientEmail(), recipient.getRecipientName(), reminderType);
+    /**
+     * Sends notifications for {@code instanceIds} in chunks, each in its own transaction with the
+     * chunk's instances, items and recipients loaded in two queries. A failing chunk is logged and
+     * skipped; already-sent reminders are deduplicated by the reminder log on the next run. Stops
+     * between chunks when the job lease is lost.
+     */
+    private int fanOut(List<UUID> instanceIds,
+                       Function<Collection<UUID>, List<DeadlineRecipient>> recipientLoader,
+                       BiFunction<DeadlineInstance, List<DeadlineRecipient>, Integer> sender) {
+        int sent = 0;
+        for (int start = 0; start < instanceIds.size() && !jobLeaseService.isLeaseLost(); start += chunkSize) {
+            List<UUID> chunk = instanceIds.subList(start, Math.min(start + chunkSize, instanceIds.size()));
+            try {
+                Integer count = transactionTemplate.execute(status -> {
+                    List<DeadlineInstance> instances = instanceRepository.findAllWithItemByIdIn(chunk);
+                    Set<UUID> itemIds = instances.stream()
+                            .map(i -> i.getDeadlineItem().getId())
+                            .collect(Collectors.toSet());
+                    Map<UUID, List<DeadlineRecipient>> recipientsByItem = recipientLoader.apply(itemIds).stream()
+                            .collect(Collectors.groupingBy(r -> r.getDeadlineItem().getId()));
+
+                    int chunkSent = 0;
+                    for (DeadlineInstance instance : instances) {
+                        List<DeadlineRecipient> recipients =
+                                recipientsByItem.getOrDefault(instance.getDeadlineItem().getId(), List.of());
+                        if (!recipients.isEmpty()) {
+                            chunkSent += sender.apply(instance, recipients);
+                        }
+                    }
+                    return chunkSent;
+                });
+                sent += count != null ? count : 0;
+            } catch (Exception e) {
+                log.error("Failed to process deadline notification chunk of {} instances", chunk.size(), e);
+            }
         }
+        return sent;
     }
 
     /**
@@ -0,0 +1,21 @@
+package com.sonar.workflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BadgeCountsDTO {
+    private long pendingApprovals;
+    private long mySubmissions;
+    private long myPendingSubmissions;
+    private long leavePendingApprovals;
+    private long leaveMyPending;
+    private long leaveApprovedUpcoming;
+    private long deadlineOverdue;
+    private long deadlineDueSoon;
+}
@@ -0,0 +1,27 @@
+package com.sonar.workflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLeaseDTO {
+
+    private String jobName;
+    private String ownerNode;
+    private LocalDateTime leaseUntil;
+    private LocalDateTime heartbeatAt;
+    private Boolean running;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private Integer lastItemsProcessed;
+    private String lastStatus;
+    private String lastError;
+}
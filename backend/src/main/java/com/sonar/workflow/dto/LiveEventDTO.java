@@ -0,0 +1,41 @@
+package com.sonar.workflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change pushed to connected users over the live event stream. Events are hints to refresh,
+ * not a record: the entity itself remains the source of truth.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveEventDTO {
+
+    public enum Type {
+        APPROVAL_REQUESTED,  // something is now waiting for the recipient's decision
+        APPROVAL_WITHDRAWN,  // something no longer waits for the recipient (recalled, cancelled, reassigned)
+        STATUS_CHANGED       // the recipient's own item moved on (approved, rejected, escalated, completed)
+    }
+
+    public enum Module {
+        WORKFLOW, LEAVE, DEADLINE
+    }
+
+    private String id;
+    private Type type;
+    private Module module;
+    private UUID entityId;
+    private String referenceNumber;
+    private String title;
+    private String status;
+    private String message;
+    private String actorName;
+    private LocalDateTime occurredAt;
+}
@@ -17,6 +17,7 @@ public class SqlColumnDTO {
     private Boolean isNullable;
     private Boolean isPrimaryKey;
     private String defaultValue;
+    private Boolean isIndexed;
     private Integer displayOrder;
     private String booleanControl;
 }
@@ -0,0 +1,21 @@
+package com.sonar.workflow.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One keyset page of rows from a SQL Object table. Pass {@code nextCursor}
+ * back as {@code afterId} to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SqlDataPageDTO {
+    private List<Map<String, Object>> rows;
+    private Long nextCursor;
+    private Boolean hasMore;
+    private Integer pageSize;
+}
@@ -89,6 +89,7 @@ public class WorkflowFieldDTO {
     private Integer width;
     private String cssClass;
     private List<FieldOptionDTO> options;
+    private Boolean optionsPartial; // SQL options beyond the first page are fetched by type-ahead search
     private String optionsLayout;
     private String dropdownSource;
     private String dropdownDisplayField;
@@ -167,4 +168,5 @@ public class WorkflowFieldDTO {
     // SQL_TABLE field configuration
     private String sqlQuery;
     private String sqlTableColumns; // JSON: [{key: "db_column", label: "Display Name"}]
+    private Integer sqlCacheTtlSeconds;
 }
@@ -6,6 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Record of a consumed email approval token. Tokens themselves are signed and stateless
+ * (see EmailApprovalService); {@code token} holds the SHA-256 digest of the used token.
+ */
 @Entity
 @Table(name = "email_approval_tokens")
 @Getter
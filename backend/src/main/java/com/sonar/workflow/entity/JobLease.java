@@ -0,0 +1,51 @@
+package com.sonar.workflow.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cluster-wide lease for one scheduled job plus the outcome of its last run. Rows are
+ * claimed and released with conditional native updates (see JobLeaseRepository), so
+ * only the node holding an unexpired lease runs the job.
+ */
+@Entity
+@Table(name = "job_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLease extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, unique = true)
+    private String jobName;
+
+    @Column(name = "owner_node")
+    private String ownerNode;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "last_started_at")
+    private LocalDateTime lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_items_processed")
+    private Integer lastItemsProcessed;
+
+    @Column(name = "last_status")
+    private String lastStatus;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
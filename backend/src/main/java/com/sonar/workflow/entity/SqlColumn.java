@@ -38,6 +38,9 @@ public class SqlColumn extends BaseEntity {
     @Column(name = "default_value")
     private String defaultValue;
 
+    @Column(name = "is_indexed")
+    private Boolean isIndexed = false;
+
     @Column(name = "display_order")
     private Integer displayOrder = 0;
 
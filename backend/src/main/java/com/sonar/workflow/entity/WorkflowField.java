@@ -292,6 +292,9 @@ public class WorkflowField extends BaseEntity {
     @Column(name = "sql_table_columns", columnDefinition = "TEXT")
     private String sqlTableColumns; // JSON: [{key: "db_column", label: "Display Name"}]
 
+    @Column(name = "sql_cache_ttl_seconds")
+    private Integer sqlCacheTtlSeconds; // 0/null = always run the query
+
     public enum FieldType {
         TEXT, TEXTAREA, NUMBER, CURRENCY, DATE, DATETIME, CHECKBOX, CHECKBOX_GROUP, RADIO, SELECT, MULTISELECT,
         FILE, EMAIL, PHONE, URL, PASSWORD, HIDDEN, LABEL, DIVIDER, USER,
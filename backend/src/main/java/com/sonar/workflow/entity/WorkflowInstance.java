@@ -1,5 +1,6 @@
 package com.sonar.workflow.entity;
 
+import com.sonar.workflow.entity.listener.BadgeChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,8 +8,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
+@EntityListeners(BadgeChangeListener.class)
 @Table(name = "workflow_instances")
 @Getter
 @Setter
@@ -42,6 +45,10 @@ public class WorkflowInstance extends BaseEntity {
     @JoinColumn(name = "current_approver_id")
     private WorkflowApprover currentApprover;
 
+    // Approver as last loaded or flushed, so BadgeChangeListener can refresh the one it moved away from
+    @Transient
+    private UUID badgeApproverId;
+
     @Column(name = "current_level")
     private Integer currentLevel = 0;
 
@@ -92,6 +99,14 @@ public class WorkflowInstance extends BaseEntity {
     @Column(name = "escalated_at")
     private LocalDateTime escalatedAt;
 
+    // Due times maintained by WorkflowReminderService and cleared once the instance leaves PENDING;
+    // indexed by ReminderDueIndexInitializer with partial indexes over pending rows
+    @Column(name = "next_reminder_at")
+    private LocalDateTime nextReminderAt;
+
+    @Column(name = "next_escalation_at")
+    private LocalDateTime nextEscalationAt;
+
     public enum Status {
         DRAFT, PENDING, APPROVED, REJECTED, ESCALATED, CANCELLED, ON_HOLD
     }
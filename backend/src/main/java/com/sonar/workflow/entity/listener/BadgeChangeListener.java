@@ -0,0 +1,67 @@
+package com.sonar.workflow.entity.listener;
+
+import com.sonar.workflow.deadlines.entity.DeadlineInstance;
+import com.sonar.workflow.entity.BaseEntity;
+import com.sonar.workflow.entity.WorkflowInstance;
+import com.sonar.workflow.leave.entity.LeaveRequest;
+import com.sonar.workflow.service.BadgeService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.UUID;
+
+/**
+ * Entity listener on the entities behind the navigation badges (workflow instances, leave
+ * requests, deadline instances). An insert, update or delete tells BadgeService whose counts it
+ * may have changed, which takes effect once the transaction commits:
+ * <ul>
+ *   <li>workflow instance: the initiator and the current approver, plus the approver it had when
+ *       loaded, whose pending count drops when the instance moves on;</li>
+ *   <li>leave request: the employee and the users who approve leave;</li>
+ *   <li>deadline instance: the owner and recipients of its item.</li>
+ * </ul>
+ * Only ids are read, which Hibernate proxies answer without loading. Hibernate creates the
+ * listener through Spring; BadgeService is looked up lazily because entity listeners are built
+ * with the EntityManagerFactory, before most services exist.
+ */
+public class BadgeChangeListener {
+
+    private final ObjectProvider<BadgeService> badgeService;
+
+    public BadgeChangeListener(ObjectProvider<BadgeService> badgeService) {
+        this.badgeService = badgeService;
+    }
+
+    @PostLoad
+    public void loaded(Object entity) {
+        if (entity instanceof WorkflowInstance instance) {
+            instance.setBadgeApproverId(idOf(instance.getCurrentApprover()));
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        BadgeService service = badgeService.getIfAvailable();
+        if (service == null) {
+            return;
+        }
+        if (entity instanceof WorkflowInstance instance) {
+            UUID approverId = idOf(instance.getCurrentApprover());
+            service.workflowInstanceChanged(idOf(instance.getInitiator()), approverId, instance.getBadgeApproverId());
+            instance.setBadgeApproverId(approverId);
+        } else if (entity instanceof LeaveRequest request) {
+            service.leaveRequestChanged(idOf(request.getEmployee()));
+        } else if (entity instanceof DeadlineInstance instance) {
+            service.deadlineInstanceChanged(idOf(instance.getDeadlineItem()));
+        }
+    }
+
+    private static UUID idOf(BaseEntity entity) {
+        return entity != null ? entity.getId() : null;
+    }
+}
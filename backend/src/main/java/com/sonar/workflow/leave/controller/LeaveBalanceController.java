@@ -5,15 +5,19 @@ import com.sonar.workflow.entity.User;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.leave.dto.LeaveBalanceAdjustmentDTO;
 import com.sonar.workflow.leave.dto.LeaveBalanceDTO;
+import com.sonar.workflow.leave.dto.LeaveBalanceInitResultDTO;
+import com.sonar.workflow.leave.service.LeaveBalanceReconciliationService;
 import com.sonar.workflow.leave.service.LeaveBalanceService;
 import com.sonar.workflow.leave.service.LeaveCalculationService;
 import com.sonar.workflow.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,6 +28,7 @@ public class LeaveBalanceController {
 
     private final LeaveBalanceService leaveBalanceService;
     private final LeaveCalculationService calculationService;
+    private final LeaveBalanceReconciliationService reconciliationService;
     private final UserRepository userRepository;
 
     @GetMapping("/my")
@@ -45,6 +50,23 @@ public class LeaveBalanceController {
         return ResponseEntity.ok(ApiResponse.success(leaveBalanceService.getMyBalances(employeeId, targetYear)));
     }
 
+    @GetMapping("/my/as-of")
+    public ResponseEntity<ApiResponse<List<LeaveBalanceDTO>>> getMyBalancesAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User employee = userRepository.findByUsername(username)
+                .orElseThrow(() -> new BusinessException("User not found"));
+        return ResponseEntity.ok(ApiResponse.success(leaveBalanceService.getBalancesAsOf(employee.getId(), date)));
+    }
+
+    @GetMapping("/employee/{employeeId}/as-of")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'LEAVE_ADMIN', 'LEAVE_APPROVE')")
+    public ResponseEntity<ApiResponse<List<LeaveBalanceDTO>>> getEmployeeBalancesAsOf(
+            @PathVariable UUID employeeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(ApiResponse.success(leaveBalanceService.getBalancesAsOf(employeeId, date)));
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'LEAVE_ADMIN')")
     public ResponseEntity<ApiResponse<List<LeaveBalanceDTO>>> getAllBalances(
@@ -61,8 +83,15 @@ public class LeaveBalanceController {
 
     @PostMapping("/initialize/{year}")
     @PreAuthorize("hasAnyAuthority('ADMIN', 'LEAVE_ADMIN')")
-    public ResponseEntity<ApiResponse<List<LeaveBalanceDTO>>> initializeYear(@PathVariable int year) {
+    public ResponseEntity<ApiResponse<LeaveBalanceInitResultDTO>> initializeYear(@PathVariable int year) {
         return ResponseEntity.ok(ApiResponse.success("Balances initialized for year " + year,
                 leaveBalanceService.initializeBalancesForYear(year)));
     }
+
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'LEAVE_ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> reconcile() {
+        int corrected = reconciliationService.reconcile();
+        return ResponseEntity.ok(ApiResponse.success("Corrected " + corrected + " balances", corrected));
+    }
 }
@@ -2,6 +2,7 @@ package com.sonar.workflow.leave.controller;
 
 import com.sonar.workflow.dto.ApiResponse;
 import com.sonar.workflow.leave.dto.LeaveDashboardDTO;
+import com.sonar.workflow.leave.dto.LeaveOccupancyDTO;
 import com.sonar.workflow.leave.dto.LeaveRequestDTO;
 import com.sonar.workflow.leave.service.LeaveDashboardService;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/leave/dashboard")
@@ -36,4 +38,13 @@ public class LeaveDashboardController {
         return ResponseEntity.ok(ApiResponse.success(
                 leaveDashboardService.getTeamCalendar(LocalDate.parse(from), LocalDate.parse(to))));
     }
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<ApiResponse<List<LeaveOccupancyDTO>>> getDepartmentOccupancy(
+            @RequestParam UUID departmentId,
+            @RequestParam String from,
+            @RequestParam String to) {
+        return ResponseEntity.ok(ApiResponse.success(leaveDashboardService.getDepartmentOccupancy(
+                departmentId, LocalDate.parse(from), LocalDate.parse(to))));
+    }
 }
@@ -0,0 +1,17 @@
+package com.sonar.workflow.leave.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveBalanceInitResultDTO {
+    private Integer year;
+    private Integer created;
+    private Long totalForYear;
+    private Long durationMs;
+}
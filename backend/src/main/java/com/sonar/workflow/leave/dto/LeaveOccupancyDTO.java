@@ -0,0 +1,18 @@
+package com.sonar.workflow.leave.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveOccupancyDTO {
+    private LocalDate date;
+    private long onLeave;
+    private long headcount;
+}
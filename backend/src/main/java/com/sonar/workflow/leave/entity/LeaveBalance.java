@@ -10,6 +10,8 @@ import java.math.BigDecimal;
 @Entity
 @Table(name = "leave_balances", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"employee_id", "leave_type_id", "year"})
+}, indexes = {
+    @Index(name = "idx_leave_balances_year_type", columnList = "year, leave_type_id")
 })
 @Getter
 @Setter
@@ -0,0 +1,78 @@
+package com.sonar.workflow.leave.entity;
+
+import com.sonar.workflow.entity.BaseEntity;
+import com.sonar.workflow.entity.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Append-only ledger entry for one change to a leave balance. The {@link LeaveBalance} row is the
+ * running total of its entries; the deltas of all entries up to a date give the balance as of that date.
+ */
+@Entity
+@Table(name = "leave_balance_transactions", indexes = {
+        @Index(name = "idx_leave_balance_tx_balance", columnList = "employee_id, leave_type_id, year, effective_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveBalanceTransaction extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private User employee;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "leave_type_id", nullable = false)
+    private LeaveType leaveType;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "leave_request_id")
+    private LeaveRequest leaveRequest;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionType transactionType;
+
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+
+    @Column(name = "entitled_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal entitledDelta = BigDecimal.ZERO;
+
+    @Column(name = "carried_over_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal carriedOverDelta = BigDecimal.ZERO;
+
+    @Column(name = "adjustment_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal adjustmentDelta = BigDecimal.ZERO;
+
+    @Column(name = "used_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal usedDelta = BigDecimal.ZERO;
+
+    @Column(name = "pending_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal pendingDelta = BigDecimal.ZERO;
+
+    @Column(name = "encashed_delta", precision = 10, scale = 2, nullable = false)
+    @Builder.Default
+    private BigDecimal encashedDelta = BigDecimal.ZERO;
+
+    @Column(columnDefinition = "TEXT")
+    private String reason;
+
+    public enum TransactionType {
+        OPENING, REQUESTED, APPROVED, RELEASED, ADJUSTMENT, IMPORT
+    }
+}
@@ -0,0 +1,26 @@
+package com.sonar.workflow.leave.entity;
+
+import com.sonar.workflow.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Last leave reference number issued for a year. Numbers are taken with a single
+ * {@code UPDATE ... RETURNING} (see LeaveReferenceCounterRepository), so allocation does not
+ * scan leave_requests and concurrent creates queue on the year's row instead of colliding.
+ */
+@Entity
+@Table(name = "leave_reference_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveReferenceCounter extends BaseEntity {
+
+    @Column(nullable = false, unique = true)
+    private Integer year;
+
+    @Column(name = "last_number", nullable = false)
+    private Long lastNumber;
+}
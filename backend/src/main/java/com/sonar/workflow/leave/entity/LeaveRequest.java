@@ -2,6 +2,7 @@ package com.sonar.workflow.leave.entity;
 
 import com.sonar.workflow.entity.BaseEntity;
 import com.sonar.workflow.entity.User;
+import com.sonar.workflow.entity.listener.BadgeChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,7 +13,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "leave_requests")
+@EntityListeners(BadgeChangeListener.class)
+@Table(name = "leave_requests", indexes = {
+        @Index(name = "idx_leave_requests_status_start_date", columnList = "status, start_date"),
+        @Index(name = "idx_leave_requests_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -112,6 +117,14 @@ public class LeaveRequest extends BaseEntity {
     @Column(name = "escalated_at")
     private LocalDateTime escalatedAt;
 
+    // Due times maintained by LeaveReminderService and cleared once the request leaves PENDING;
+    // indexed by ReminderDueIndexInitializer with partial indexes over pending rows
+    @Column(name = "next_reminder_at")
+    private LocalDateTime nextReminderAt;
+
+    @Column(name = "next_escalation_at")
+    private LocalDateTime nextEscalationAt;
+
     @OneToMany(mappedBy = "leaveRequest", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("actionDate ASC")
     @Builder.Default
@@ -2,15 +2,75 @@ package com.sonar.workflow.leave.repository;
 
 import com.sonar.workflow.leave.entity.LeaveBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, UUID> {
 
+    /**
+     * Balance rows for every (employee, active leave type) pair selected by the caller's WHERE clause.
+     * Entitlement comes from the type's active default policy, falling back to the type's default
+     * days; carry-over is the previous year's positive available balance capped at the policy's
+     * max carry-over days. Existing rows are left untouched.
+     */
+    String INITIALIZE_BALANCES =
+            "INSERT INTO leave_balances (id, employee_id, leave_type_id, year, entitled, carried_over, adjustment, " +
+            "used, pending, encashed, available, created_at, created_by, is_active, version) " +
+            "SELECT gen_random_uuid(), u.id, t.id, :year, r.entitled, r.carried_over, 0, 0, 0, 0, " +
+            "r.entitled + r.carried_over, LOCALTIMESTAMP, :createdBy, true, 0 " +
+            "FROM users u CROSS JOIN leave_types t " +
+            "LEFT JOIN LATERAL (SELECT p.days_allowed, p.max_carry_over_days FROM leave_policies p " +
+            "  WHERE p.leave_type_id = t.id AND p.is_default = true AND p.is_active = true " +
+            "  ORDER BY p.created_at LIMIT 1) p ON true " +
+            "LEFT JOIN leave_balances prev ON prev.employee_id = u.id AND prev.leave_type_id = t.id " +
+            "  AND prev.year = :year - 1 " +
+            "CROSS JOIN LATERAL (SELECT COALESCE(p.days_allowed, t.default_days_per_year, 0) AS entitled, " +
+            "  CASE WHEN COALESCE(p.max_carry_over_days, 0) > 0 AND prev.available > 0 " +
+            "    THEN LEAST(prev.available, p.max_carry_over_days) ELSE 0 END AS carried_over) r " +
+            "WHERE t.is_active = true AND ";
+
+    String ON_CONFLICT_SKIP = " ON CONFLICT (employee_id, leave_type_id, year) DO NOTHING";
+
+    @Modifying
+    @Query(value = INITIALIZE_BALANCES +
+            "u.is_active = true AND u.is_locked = false AND u.username <> 'super'" + ON_CONFLICT_SKIP,
+            nativeQuery = true)
+    int initializeForActiveUsers(@Param("year") int year, @Param("createdBy") String createdBy);
+
+    @Modifying
+    @Query(value = INITIALIZE_BALANCES + "u.id = :employeeId" + ON_CONFLICT_SKIP, nativeQuery = true)
+    int initializeForEmployee(@Param("year") int year, @Param("employeeId") UUID employeeId,
+                              @Param("createdBy") String createdBy);
+
+    long countByYear(int year);
+
+    /**
+     * Applies a ledger entry's deltas to the balance in one statement, so concurrent changes to
+     * the same balance serialize on the row lock instead of failing optimistic version checks.
+     * The version is still bumped so entity-based writers holding a stale copy are rejected.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE leave_balances SET entitled = COALESCE(entitled, 0) + :entitled, " +
+            "carried_over = COALESCE(carried_over, 0) + :carriedOver, " +
+            "adjustment = COALESCE(adjustment, 0) + :adjustment, used = COALESCE(used, 0) + :used, " +
+            "pending = COALESCE(pending, 0) + :pending, encashed = COALESCE(encashed, 0) + :encashed, " +
+            "available = COALESCE(available, 0) + :entitled + :carriedOver + :adjustment " +
+            "- :used - :pending - :encashed, " +
+            "updated_at = LOCALTIMESTAMP, updated_by = :updatedBy, version = version + 1 " +
+            "WHERE employee_id = :employeeId AND leave_type_id = :leaveTypeId AND year = :year",
+            nativeQuery = true)
+    int applyDelta(@Param("employeeId") UUID employeeId, @Param("leaveTypeId") UUID leaveTypeId,
+                   @Param("year") int year, @Param("entitled") BigDecimal entitled,
+                   @Param("carriedOver") BigDecimal carriedOver, @Param("adjustment") BigDecimal adjustment,
+                   @Param("used") BigDecimal used, @Param("pending") BigDecimal pending,
+                   @Param("encashed") BigDecimal encashed, @Param("updatedBy") String updatedBy);
+
     List<LeaveBalance> findByEmployeeIdAndYear(UUID employeeId, int year);
 
     Optional<LeaveBalance> findByEmployeeIdAndLeaveTypeIdAndYear(UUID employeeId, UUID leaveTypeId, int year);
@@ -0,0 +1,99 @@
+package com.sonar.workflow.leave.repository;
+
+import com.sonar.workflow.leave.entity.LeaveBalanceTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface LeaveBalanceTransactionRepository extends JpaRepository<LeaveBalanceTransaction, UUID> {
+
+    @Query("SELECT t FROM LeaveBalanceTransaction t WHERE t.employee.id = :employeeId " +
+           "AND t.leaveType.id = :leaveTypeId AND t.year = :year ORDER BY t.effectiveDate, t.createdAt")
+    List<LeaveBalanceTransaction> findHistory(@Param("employeeId") UUID employeeId,
+                                              @Param("leaveTypeId") UUID leaveTypeId,
+                                              @Param("year") int year);
+
+    /**
+     * Per leave type totals of an employee's entries for the year up to and including {@code asOf}:
+     * leave_type_id, entitled, carried_over, adjustment, used, pending, encashed.
+     */
+    @Query(value = "SELECT leave_type_id, SUM(entitled_delta), SUM(carried_over_delta), SUM(adjustment_delta), " +
+            "SUM(used_delta), SUM(pending_delta), SUM(encashed_delta) " +
+            "FROM leave_balance_transactions " +
+            "WHERE employee_id = :employeeId AND year = :year AND effective_date <= :asOf " +
+            "GROUP BY leave_type_id",
+            nativeQuery = true)
+    List<Object[]> sumAsOf(@Param("employeeId") UUID employeeId, @Param("year") int year,
+                           @Param("asOf") LocalDate asOf);
+
+    /**
+     * Opening entry for every balance that has none yet (balances created in bulk or before the
+     * ledger existed), carrying the balance's current figures. Callers append the balance filter;
+     * the unique index on opening entries (see LeaveBalanceReconciliationService) makes concurrent
+     * runs skip rather than duplicate an entry.
+     */
+    String INSERT_OPENING_ENTRIES =
+            "INSERT INTO leave_balance_transactions (id, employee_id, leave_type_id, year, transaction_type, " +
+            "effective_date, entitled_delta, carried_over_delta, adjustment_delta, used_delta, pending_delta, " +
+            "encashed_delta, reason, created_at, created_by, is_active, version) " +
+            "SELECT gen_random_uuid(), b.employee_id, b.leave_type_id, b.year, 'OPENING', " +
+            "CAST(COALESCE(b.created_at, LOCALTIMESTAMP) AS DATE), COALESCE(b.entitled, 0), " +
+            "COALESCE(b.carried_over, 0), COALESCE(b.adjustment, 0), COALESCE(b.used, 0), " +
+            "COALESCE(b.pending, 0), COALESCE(b.encashed, 0), 'Opening balance', LOCALTIMESTAMP, 'system', true, 0 " +
+            "FROM leave_balances b WHERE NOT EXISTS (SELECT 1 FROM leave_balance_transactions t " +
+            "WHERE t.employee_id = b.employee_id AND t.leave_type_id = b.leave_type_id AND t.year = b.year) ";
+
+    String ON_CONFLICT_SKIP = " ON CONFLICT DO NOTHING";
+
+    @Modifying
+    @Query(value = INSERT_OPENING_ENTRIES + ON_CONFLICT_SKIP, nativeQuery = true)
+    int insertMissingOpeningEntries();
+
+    @Modifying
+    @Query(value = INSERT_OPENING_ENTRIES + "AND b.year = :year" + ON_CONFLICT_SKIP, nativeQuery = true)
+    int insertMissingOpeningEntriesForYear(@Param("year") int year);
+
+    @Modifying
+    @Query(value = INSERT_OPENING_ENTRIES + "AND b.employee_id = :employeeId AND b.year = :year" + ON_CONFLICT_SKIP,
+            nativeQuery = true)
+    int insertMissingOpeningEntriesForEmployee(@Param("employeeId") UUID employeeId, @Param("year") int year);
+
+    /**
+     * Removes all but the earliest opening entry of each balance, left behind by concurrent
+     * backfills before opening entries were unique.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM leave_balance_transactions t USING leave_balance_transactions k " +
+            "WHERE t.transaction_type = 'OPENING' AND k.transaction_type = 'OPENING' " +
+            "AND k.employee_id = t.employee_id AND k.leave_type_id = t.leave_type_id AND k.year = t.year " +
+            "AND (k.created_at, k.id) < (t.created_at, t.id)",
+            nativeQuery = true)
+    int deleteDuplicateOpeningEntries();
+
+    /**
+     * Rewrites balance rows from year {@code fromYear} on whose figures differ from the sum of
+     * their ledger entries. Returns the number of balances corrected.
+     */
+    @Modifying
+    @Query(value = "UPDATE leave_balances b SET entitled = s.entitled, carried_over = s.carried_over, " +
+            "adjustment = s.adjustment, used = s.used, pending = s.pending, encashed = s.encashed, " +
+            "available = s.entitled + s.carried_over + s.adjustment - s.used - s.pending - s.encashed, " +
+            "updated_at = LOCALTIMESTAMP, updated_by = 'reconciliation', version = b.version + 1 " +
+            "FROM (SELECT employee_id, leave_type_id, year, SUM(entitled_delta) AS entitled, " +
+            "  SUM(carried_over_delta) AS carried_over, SUM(adjustment_delta) AS adjustment, " +
+            "  SUM(used_delta) AS used, SUM(pending_delta) AS pending, SUM(encashed_delta) AS encashed " +
+            "  FROM leave_balance_transactions WHERE year >= :fromYear " +
+            "  GROUP BY employee_id, leave_type_id, year) s " +
+            "WHERE b.employee_id = s.employee_id AND b.leave_type_id = s.leave_type_id AND b.year = s.year " +
+            "AND (b.entitled IS DISTINCT FROM s.entitled OR b.carried_over IS DISTINCT FROM s.carried_over " +
+            "  OR b.adjustment IS DISTINCT FROM s.adjustment OR b.used IS DISTINCT FROM s.used " +
+            "  OR b.pending IS DISTINCT FROM s.pending OR b.encashed IS DISTINCT FROM s.encashed " +
+            "  OR b.available IS DISTINCT FROM s.entitled + s.carried_over + s.adjustment - s.used - s.pending - s.encashed)",
+            nativeQuery = true)
+    int reconcileFromLedger(@Param("fromYear") int fromYear);
+}
@@ -0,0 +1,46 @@
+package com.sonar.workflow.leave.repository;
+
+import com.sonar.workflow.leave.entity.LeaveReferenceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+public interface LeaveReferenceCounterRepository extends JpaRepository<LeaveReferenceCounter, UUID> {
+
+    /**
+     * Creates the year's counter, starting after the highest number already issued with
+     * {@code prefix} (from before the counter existed). Does nothing if the counter exists.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO leave_reference_counters (id, year, last_number, created_at, is_active, version) " +
+            "SELECT :id, :year, COALESCE(MAX(CAST(SUBSTRING(reference_number FROM :suffixStart) AS bigint)), 0), " +
+            "LOCALTIMESTAMP, true, 0 FROM leave_requests " +
+            "WHERE reference_number LIKE :prefix || '%' " +
+            "AND SUBSTRING(reference_number FROM :suffixStart) ~ '^[0-9]+$' " +
+            "ON CONFLICT (year) DO NOTHING",
+            nativeQuery = true)
+    int insertIfMissing(@Param("id") UUID id, @Param("year") int year,
+                        @Param("prefix") String prefix, @Param("suffixStart") int suffixStart);
+
+    /**
+     * Reserves {@code count} numbers and returns the last of them, or null if the year has no
+     * counter yet. The row stays locked until the calling transaction ends.
+     */
+    @Query(value = "UPDATE leave_reference_counters SET last_number = last_number + :count, " +
+            "updated_at = LOCALTIMESTAMP, version = version + 1 WHERE year = :year RETURNING last_number",
+            nativeQuery = true)
+    Long allocate(@Param("year") int year, @Param("count") int count);
+
+    /**
+     * Hands back the unused tail of a block, provided nothing was allocated after it.
+     */
+    @Modifying
+    @Query(value = "UPDATE leave_reference_counters SET last_number = :lastUsed, " +
+            "updated_at = LOCALTIMESTAMP, version = version + 1 " +
+            "WHERE year = :year AND last_number = :blockEnd",
+            nativeQuery = true)
+    int releaseTail(@Param("year") int year, @Param("blockEnd") long blockEnd, @Param("lastUsed") long lastUsed);
+}
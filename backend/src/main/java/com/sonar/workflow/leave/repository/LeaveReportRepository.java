@@ -0,0 +1,163 @@
+package com.sonar.workflow.leave.repository;
+
+import com.sonar.workflow.leave.entity.LeaveRequest;
+import com.sonar.workflow.leave.entity.LeaveRequest.LeaveRequestStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Read-only projections for the leave reports. Every filter is a query parameter (null means
+ * "any"), and rows are streamed with a JDBC fetch size instead of being loaded as entities, so
+ * report memory does not grow with the persistence context. Streams must be consumed inside a
+ * transaction and closed.
+ * <p>
+ * The department filter takes either a department id, matched against the employee's
+ * department memberships, or the free-text department name on the user record.
+ */
+public interface LeaveReportRepository extends Repository<LeaveRequest, UUID> {
+
+    String FETCH_SIZE = "500";
+
+    String EMPLOYEE_FILTERS =
+            "AND (:departmentId IS NULL OR e.id IN (SELECT u.id FROM User u JOIN u.departments d WHERE d.id = :departmentId)) " +
+            "AND (:departmentName IS NULL OR e.department = :departmentName) ";
+
+    String REQUEST_ROW = "SELECT lr.referenceNumber AS referenceNumber, e.id AS employeeId, " +
+            "e.firstName AS employeeFirstName, e.lastName AS employeeLastName, e.department AS department, " +
+            "lt.name AS leaveType, lr.startDate AS startDate, lr.endDate AS endDate, lr.totalDays AS totalDays, " +
+            "lr.status AS status, ab.firstName AS approvedByFirstName, ab.lastName AS approvedByLastName, " +
+            "lr.approvedAt AS approvedAt, lr.submittedAt AS submittedAt, lr.createdAt AS createdAt, " +
+            "lr.currentLevel AS currentLevel, lr.maxLevel AS maxLevel, ca.approverName AS currentApprover, " +
+            "lr.reminderCount AS reminderCount, lr.escalatedAt AS escalatedAt " +
+            "FROM LeaveRequest lr JOIN lr.employee e JOIN lr.leaveType lt " +
+            "LEFT JOIN lr.approvedBy ab LEFT JOIN lr.currentApprover ca ";
+
+    interface BalanceRow {
+        String getEmployeeFirstName();
+        String getEmployeeLastName();
+        String getStaffId();
+        String getDepartment();
+        String getLeaveType();
+        BigDecimal getEntitled();
+        BigDecimal getCarriedOver();
+        BigDecimal getUsed();
+        BigDecimal getPending();
+        BigDecimal getAvailable();
+    }
+
+    interface RequestRow {
+        String getReferenceNumber();
+        UUID getEmployeeId();
+        String getEmployeeFirstName();
+        String getEmployeeLastName();
+        String getDepartment();
+        String getLeaveType();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+        BigDecimal getTotalDays();
+        LeaveRequestStatus getStatus();
+        String getApprovedByFirstName();
+        String getApprovedByLastName();
+        LocalDateTime getApprovedAt();
+        LocalDateTime getSubmittedAt();
+        LocalDateTime getCreatedAt();
+        Integer getCurrentLevel();
+        Integer getMaxLevel();
+        String getCurrentApprover();
+        Integer getReminderCount();
+        LocalDateTime getEscalatedAt();
+    }
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT e.firstName AS employeeFirstName, e.lastName AS employeeLastName, e.staffId AS staffId, " +
+           "e.department AS department, lt.name AS leaveType, b.entitled AS entitled, " +
+           "b.carriedOver AS carriedOver, b.used AS used, b.pending AS pending, b.available AS available " +
+           "FROM LeaveBalance b JOIN b.employee e JOIN b.leaveType lt " +
+           "WHERE b.year = :year AND (:leaveTypeId IS NULL OR lt.id = :leaveTypeId) " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY e.lastName, e.firstName, lt.name")
+    Stream<BalanceRow> streamBalances(@Param("year") int year,
+                                      @Param("leaveTypeId") UUID leaveTypeId,
+                                      @Param("departmentId") UUID departmentId,
+                                      @Param("departmentName") String departmentName);
+
+    /**
+     * Requests in the given statuses whose leave period overlaps the inclusive date range.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(REQUEST_ROW +
+           "WHERE lr.status IN :statuses AND lr.startDate <= :endDate AND lr.endDate >= :startDate " +
+           "AND (:leaveTypeId IS NULL OR lt.id = :leaveTypeId) " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY lr.startDate")
+    Stream<RequestRow> streamOverlapping(@Param("statuses") Collection<LeaveRequestStatus> statuses,
+                                         @Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         @Param("leaveTypeId") UUID leaveTypeId,
+                                         @Param("departmentId") UUID departmentId,
+                                         @Param("departmentName") String departmentName);
+
+    /**
+     * Requests in the given statuses created in {@code [from, to)}.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(REQUEST_ROW +
+           "WHERE lr.status IN :statuses AND lr.createdAt >= :from AND lr.createdAt < :to " +
+           "AND (:leaveTypeId IS NULL OR lt.id = :leaveTypeId) " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY lr.createdAt")
+    Stream<RequestRow> streamCreatedBetween(@Param("statuses") Collection<LeaveRequestStatus> statuses,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("leaveTypeId") UUID leaveTypeId,
+                                            @Param("departmentId") UUID departmentId,
+                                            @Param("departmentName") String departmentName);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(REQUEST_ROW +
+           "WHERE lr.status = :status AND (:leaveTypeId IS NULL OR lt.id = :leaveTypeId) " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY lr.submittedAt")
+    Stream<RequestRow> streamByStatus(@Param("status") LeaveRequestStatus status,
+                                      @Param("leaveTypeId") UUID leaveTypeId,
+                                      @Param("departmentId") UUID departmentId,
+                                      @Param("departmentName") String departmentName);
+
+    /**
+     * Approved or rejected requests created in {@code [from, to)} that have both a submission
+     * and a decision time.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(REQUEST_ROW +
+           "WHERE lr.status IN ('APPROVED', 'REJECTED') AND lr.createdAt >= :from AND lr.createdAt < :to " +
+           "AND lr.submittedAt IS NOT NULL AND lr.approvedAt IS NOT NULL " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY lr.createdAt")
+    Stream<RequestRow> streamDecidedBetween(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("departmentId") UUID departmentId,
+                                            @Param("departmentName") String departmentName);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(REQUEST_ROW +
+           "WHERE lr.escalatedAt IS NOT NULL AND lr.createdAt >= :from AND lr.createdAt < :to " +
+           EMPLOYEE_FILTERS +
+           "ORDER BY lr.escalatedAt")
+    Stream<RequestRow> streamEscalatedBetween(@Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("departmentId") UUID departmentId,
+                                              @Param("departmentName") String departmentName);
+}
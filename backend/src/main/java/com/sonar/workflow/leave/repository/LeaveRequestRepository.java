@@ -5,10 +5,12 @@ import com.sonar.workflow.leave.entity.LeaveRequest.LeaveRequestStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,12 +32,18 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
            "ORDER BY lr.createdAt DESC")
     Page<LeaveRequest> search(@Param("search") String search, Pageable pageable);
 
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.employee.id = :employeeId " +
-           "AND lr.status NOT IN ('CANCELLED', 'REJECTED') " +
-           "AND lr.startDate <= :endDate AND lr.endDate >= :startDate")
-    List<LeaveRequest> findOverlapping(@Param("employeeId") UUID employeeId,
-                                       @Param("startDate") LocalDate startDate,
-                                       @Param("endDate") LocalDate endDate);
+    /**
+     * Whether the employee has an active request touching any day of the inclusive range. The
+     * predicate matches idx_leave_requests_period (see LeavePeriodIndexInitializer), so this is a
+     * GiST probe on employee and date range.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM leave_requests " +
+            "WHERE employee_id = :employeeId AND status NOT IN ('CANCELLED', 'REJECTED', 'RECALLED') " +
+            "AND daterange(start_date, end_date, '[]') && daterange(:startDate, :endDate, '[]'))",
+            nativeQuery = true)
+    boolean existsOverlapping(@Param("employeeId") UUID employeeId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate);
 
     @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.leaveType JOIN FETCH lr.employee " +
            "WHERE lr.status = 'APPROVED' AND lr.startDate <= :endDate AND lr.endDate >= :startDate " +
@@ -43,6 +51,13 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
     List<LeaveRequest> findApprovedInRange(@Param("startDate") LocalDate startDate,
                                            @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.leaveType JOIN FETCH lr.employee " +
+           "WHERE lr.status = 'APPROVED' AND lr.employee.id = :employeeId " +
+           "AND lr.startDate <= :endDate AND lr.endDate >= :startDate ORDER BY lr.startDate")
+    List<LeaveRequest> findApprovedInRangeForEmployee(@Param("employeeId") UUID employeeId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate);
+
     @Query("SELECT DISTINCT lr FROM LeaveRequest lr JOIN FETCH lr.leaveType JOIN FETCH lr.employee e " +
            "WHERE lr.status = 'APPROVED' AND lr.startDate <= :endDate AND lr.endDate >= :startDate " +
            "AND e.id IN (SELECT u.id FROM User u JOIN u.departments d WHERE d.id IN :departmentIds) " +
@@ -64,6 +79,24 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
     List<LeaveRequest> findByEmployeeIdAndStatusIn(@Param("employeeId") UUID employeeId,
                                                     @Param("statuses") List<LeaveRequestStatus> statuses);
 
+    /**
+     * One row per day of the range: day, active employees of the department on approved leave
+     * that day, and the department's active headcount.
+     */
+    @Query(value = "SELECT CAST(d.day AS date), COUNT(DISTINCT lr.employee_id), " +
+            "  (SELECT COUNT(*) FROM user_departments ud JOIN users u ON u.id = ud.user_id " +
+            "   WHERE ud.department_id = :departmentId AND u.is_active = true) " +
+            "FROM generate_series(CAST(:startDate AS date), CAST(:endDate AS date), INTERVAL '1 day') AS d(day) " +
+            "LEFT JOIN leave_requests lr ON lr.status = 'APPROVED' " +
+            "  AND daterange(lr.start_date, lr.end_date, '[]') @> CAST(d.day AS date) " +
+            "  AND lr.employee_id IN (SELECT ud.user_id FROM user_departments ud JOIN users u ON u.id = ud.user_id " +
+            "    WHERE ud.department_id = :departmentId AND u.is_active = true) " +
+            "GROUP BY d.day ORDER BY d.day",
+            nativeQuery = true)
+    List<Object[]> findDailyOccupancy(@Param("departmentId") UUID departmentId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
     long countByStatus(LeaveRequestStatus status);
 
     @Query("SELECT COUNT(lr) FROM LeaveRequest lr WHERE lr.status = :status " +
@@ -87,12 +120,28 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, UUID
            "AND lr.currentApprover.user.id = :userId")
     long countPendingForApprover(@Param("userId") UUID userId);
 
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.status = 'PENDING' AND lr.submittedAt IS NOT NULL")
-    List<LeaveRequest> findPendingWithSubmittedAt();
+    /**
+     * Locks the next batch of pending requests whose reminder or escalation is due, skipping rows
+     * locked by another node.
+     */
+    @Query(value = "SELECT lr.id FROM leave_requests lr " +
+            "WHERE lr.status = 'PENDING' AND (lr.next_reminder_at <= :now OR lr.next_escalation_at <= :now) " +
+            "ORDER BY LEAST(lr.next_reminder_at, lr.next_escalation_at) " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockDueForReminders(@Param("now") LocalDateTime now, @Param("limit") int limit);
 
-    Optional<LeaveRequest> findByReferenceNumber(String referenceNumber);
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee JOIN FETCH lr.leaveType " +
+           "LEFT JOIN FETCH lr.currentApprover WHERE lr.id IN :ids")
+    List<LeaveRequest> findAllForRemindersByIdIn(@Param("ids") List<UUID> ids);
+
+    /**
+     * Marks pending requests that predate the due-time columns as due now.
+     */
+    @Modifying
+    @Query(value = "UPDATE leave_requests SET next_reminder_at = submitted_at " +
+            "WHERE status = 'PENDING' AND submitted_at IS NOT NULL " +
+            "AND next_reminder_at IS NULL AND next_escalation_at IS NULL", nativeQuery = true)
+    int backfillReminderDueTimes();
 
-    @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(lr.referenceNumber, 9) AS int)), 0) " +
-           "FROM LeaveRequest lr WHERE lr.referenceNumber LIKE :prefix")
-    int findMaxReferenceNumberForPrefix(@Param("prefix") String prefix);
+    Optional<LeaveRequest> findByReferenceNumber(String referenceNumber);
 }
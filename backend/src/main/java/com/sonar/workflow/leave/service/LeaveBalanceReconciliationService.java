@@ -0,0 +1,101 @@
+package com.sonar.workflow.leave.service;
+
+import com.sonar.workflow.leave.repository.LeaveBalanceTransactionRepository;
+import com.sonar.workflow.service.JobLeaseService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Keeps leave balance rows in line with the balance ledger. Balances without ledger entries
+ * (created in bulk, or before the ledger existed) get an opening entry, and balances of the
+ * current and previous leave year whose figures drifted from the sum of their entries are
+ * rewritten from the ledger.
+ * <p>
+ * Each balance has at most one opening entry, enforced by a unique partial index created at
+ * startup; opening entries duplicated by earlier concurrent backfills are removed first, and the
+ * next reconciliation corrects the balances they inflated.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveBalanceReconciliationService {
+
+    private static final String JOB_NAME = "leave-balance-reconciliation";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(30);
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(10);
+    private static final String BACKFILL_JOB_NAME = "leave-opening-entries-backfill";
+    private static final String OPENING_INDEX = "uk_leave_balance_tx_opening";
+
+    private final LeaveBalanceTransactionRepository transactionRepository;
+    private final LeaveCalculationService calculationService;
+    private final JobLeaseService jobLeaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOpeningEntries() {
+        jobLeaseService.runExclusive(BACKFILL_JOB_NAME, LOCK_AT_MOST, Duration.ZERO, this::backfill);
+    }
+
+    private int backfill() {
+        createOpeningIndex();
+        Integer inserted = transactionTemplate.execute(status -> transactionRepository.insertMissingOpeningEntries());
+        if (inserted != null && inserted > 0) {
+            log.info("Recorded opening ledger entries for {} leave balances", inserted);
+        }
+        return inserted != null ? inserted : 0;
+    }
+
+    private void createOpeningIndex() {
+        Boolean exists = transactionTemplate.execute(status -> (Boolean) entityManager.createNativeQuery(
+                        "SELECT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = :name)")
+                .setParameter("name", OPENING_INDEX)
+                .getSingleResult());
+        if (Boolean.TRUE.equals(exists)) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int removed = transactionRepository.deleteDuplicateOpeningEntries();
+                if (removed > 0) {
+                    log.warn("Removed {} duplicate opening ledger entries", removed);
+                }
+                entityManager.createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS " + OPENING_INDEX +
+                        " ON leave_balance_transactions (employee_id, leave_type_id, year) " +
+                        "WHERE transaction_type = 'OPENING'").executeUpdate();
+            });
+        } catch (Exception e) {
+            log.warn("Could not create the opening ledger entry index: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void scheduledReconcile() {
+        jobLeaseService.runExclusive(JOB_NAME, LOCK_AT_MOST, LOCK_AT_LEAST, this::reconcile);
+    }
+
+    /**
+     * Returns the number of balances that were corrected.
+     */
+    public int reconcile() {
+        int fromYear = calculationService.getCurrentLeaveYear() - 1;
+        Integer corrected = transactionTemplate.execute(status -> {
+            transactionRepository.insertMissingOpeningEntries();
+            return transactionRepository.reconcileFromLedger(fromYear);
+        });
+        int count = corrected != null ? corrected : 0;
+        if (count > 0) {
+            log.warn("Corrected {} leave balances that had drifted from the ledger", count);
+        }
+        return count;
+    }
+}
@@ -4,22 +4,27 @@ import com.sonar.workflow.entity.User;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.leave.dto.LeaveBalanceAdjustmentDTO;
 import com.sonar.workflow.leave.dto.LeaveBalanceDTO;
+import com.sonar.workflow.leave.dto.LeaveBalanceInitResultDTO;
 import com.sonar.workflow.leave.entity.LeaveBalance;
-import com.sonar.workflow.leave.entity.LeavePolicy;
+import com.sonar.workflow.leave.entity.LeaveBalanceTransaction;
 import com.sonar.workflow.leave.entity.LeaveRequest;
 import com.sonar.workflow.leave.entity.LeaveType;
 import com.sonar.workflow.leave.repository.LeaveBalanceRepository;
-import com.sonar.workflow.leave.repository.LeavePolicyRepository;
+import com.sonar.workflow.leave.repository.LeaveBalanceTransactionRepository;
 import com.sonar.workflow.leave.repository.LeaveTypeRepository;
 import com.sonar.workflow.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,10 +34,11 @@ import java.util.stream.Collectors;
 public class LeaveBalanceService {
 
     private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveBalanceTransactionRepository leaveBalanceTransactionRepository;
     private final LeaveTypeRepository leaveTypeRepository;
-    private final LeavePolicyRepository leavePolicyRepository;
     private final UserRepository userRepository;
     private final LeaveCalculationService calculationService;
+    private final AuditorAware<String> auditorProvider;
 
     @Transactional(readOnly = true)
     public List<LeaveBalanceDTO> getMyBalances(UUID employeeId, int year) {
@@ -48,38 +54,35 @@ public class LeaveBalanceService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Creates the year's balances for every active employee and active leave type in one
+     * INSERT ... SELECT, skipping pairs that already have one. Entitlement and carry-over are
+     * resolved in SQL (see LeaveBalanceRepository.INITIALIZE_BALANCES).
+     */
     @Transactional
-    public List<LeaveBalanceDTO> initializeBalancesForYear(int year) {
-        List<User> activeUsers = userRepository.findAllActiveUsers();
-        List<LeaveType> activeTypes = leaveTypeRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
-        List<LeaveBalance> created = new ArrayList<>();
-
-        for (User user : activeUsers) {
-            for (LeaveType leaveType : activeTypes) {
-                if (leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                        user.getId(), leaveType.getId(), year).isEmpty()) {
-                    LeaveBalance balance = createBalance(user, leaveType, year);
-                    created.add(balance);
-                }
-            }
-        }
+    public LeaveBalanceInitResultDTO initializeBalancesForYear(int year) {
+        long started = System.currentTimeMillis();
+        int created = leaveBalanceRepository.initializeForActiveUsers(year, currentAuditor());
+        leaveBalanceTransactionRepository.insertMissingOpeningEntriesForYear(year);
+        long total = leaveBalanceRepository.countByYear(year);
+        long durationMs = System.currentTimeMillis() - started;
 
-        log.info("Initialized {} leave balances for year {}", created.size(), year);
-        return created.stream().map(this::toDTO).collect(Collectors.toList());
+        log.info("Initialized {} leave balances for year {} in {} ms ({} in total)", created, year, durationMs, total);
+        return LeaveBalanceInitResultDTO.builder()
+                .year(year)
+                .created(created)
+                .totalForYear(total)
+                .durationMs(durationMs)
+                .build();
     }
 
     @Transactional
     public LeaveBalanceDTO initializeBalanceForEmployee(UUID employeeId, int year) {
-        User employee = userRepository.findById(employeeId)
-                .orElseThrow(() -> new BusinessException("Employee not found"));
-
-        List<LeaveType> activeTypes = leaveTypeRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
-        for (LeaveType leaveType : activeTypes) {
-            if (leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                    employeeId, leaveType.getId(), year).isEmpty()) {
-                createBalance(employee, leaveType, year);
-            }
+        if (!userRepository.existsById(employeeId)) {
+            throw new BusinessException("Employee not found");
         }
+        leaveBalanceRepository.initializeForEmployee(year, employeeId, currentAuditor());
+        leaveBalanceTransactionRepository.insertMissingOpeningEntriesForEmployee(employeeId, year);
 
         List<LeaveBalance> balances = leaveBalanceRepository.findByEmployeeIdAndYear(employeeId, year);
         return balances.isEmpty() ? null : toDTO(balances.get(0));
@@ -87,82 +90,180 @@ public class LeaveBalanceService {
 
     @Transactional
     public LeaveBalanceDTO adjustBalance(LeaveBalanceAdjustmentDTO dto) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                dto.getEmployeeId(), dto.getLeaveTypeId(), dto.getYear())
-                .orElseThrow(() -> new BusinessException("Leave balance not found for the specified employee, type, and year"));
-
-        balance.setAdjustment(balance.getAdjustment().add(dto.getAdjustmentDays()));
-        balance.recalculateAvailable();
-        balance = leaveBalanceRepository.save(balance);
+        BalanceDelta delta = new BalanceDelta();
+        delta.adjustment = dto.getAdjustmentDays();
+        record(userRepository.getReferenceById(dto.getEmployeeId()),
+                leaveTypeRepository.getReferenceById(dto.getLeaveTypeId()), dto.getYear(), null,
+                LeaveBalanceTransaction.TransactionType.ADJUSTMENT, delta, dto.getReason(),
+                "Leave balance not found for the specified employee, type, and year");
         log.info("Adjusted leave balance for employee {} type {} by {} days. Reason: {}",
                 dto.getEmployeeId(), dto.getLeaveTypeId(), dto.getAdjustmentDays(), dto.getReason());
+
+        // Read after the update so the DTO reflects the row as written
+        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
+                dto.getEmployeeId(), dto.getLeaveTypeId(), dto.getYear())
+                .orElseThrow(() -> new BusinessException("Leave balance not found"));
         return toDTO(balance);
     }
 
     @Transactional
     public void deductBalance(LeaveRequest request) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                request.getEmployee().getId(), request.getLeaveType().getId(),
-                calculationService.getCurrentLeaveYear())
-                .orElseThrow(() -> new BusinessException("Leave balance not found"));
-
-        balance.setPending(balance.getPending().subtract(request.getTotalDays()));
-        balance.setUsed(balance.getUsed().add(request.getTotalDays()));
-        balance.recalculateAvailable();
-        leaveBalanceRepository.save(balance);
+        BalanceDelta delta = new BalanceDelta();
+        delta.pending = request.getTotalDays().negate();
+        delta.used = request.getTotalDays();
+        recordForRequest(request, LeaveBalanceTransaction.TransactionType.APPROVED, delta);
     }
 
     @Transactional
     public void addPending(LeaveRequest request) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                request.getEmployee().getId(), request.getLeaveType().getId(),
-                calculationService.getCurrentLeaveYear())
-                .orElseThrow(() -> new BusinessException("Leave balance not found"));
-
-        balance.setPending(balance.getPending().add(request.getTotalDays()));
-        balance.recalculateAvailable();
-        leaveBalanceRepository.save(balance);
+        BalanceDelta delta = new BalanceDelta();
+        delta.pending = request.getTotalDays();
+        recordForRequest(request, LeaveBalanceTransaction.TransactionType.REQUESTED, delta);
     }
 
+    /**
+     * Gives back the days a request was holding, taken from {@code used} if it had been approved
+     * and from {@code pending} otherwise.
+     */
     @Transactional
     public void restoreBalance(LeaveRequest request) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                request.getEmployee().getId(), request.getLeaveType().getId(),
-                calculationService.getCurrentLeaveYear())
-                .orElseThrow(() -> new BusinessException("Leave balance not found"));
+        restoreBalance(request, request.getStatus());
+    }
 
-        if (request.getStatus() == LeaveRequest.LeaveRequestStatus.APPROVED) {
-            balance.setUsed(balance.getUsed().subtract(request.getTotalDays()));
+    @Transactional
+    public void restoreBalance(LeaveRequest request, LeaveRequest.LeaveRequestStatus heldAs) {
+        BalanceDelta delta = new BalanceDelta();
+        if (heldAs == LeaveRequest.LeaveRequestStatus.APPROVED) {
+            delta.used = request.getTotalDays().negate();
         } else {
-            balance.setPending(balance.getPending().subtract(request.getTotalDays()));
+            delta.pending = request.getTotalDays().negate();
+        }
+        recordForRequest(request, LeaveBalanceTransaction.TransactionType.RELEASED, delta);
+    }
+
+    /**
+     * Sets a balance's entitlement, carry-over and adjustment from an import, creating the balance
+     * if needed. Null values are left unchanged. The difference to the current figures is
+     * recorded as one IMPORT ledger entry.
+     */
+    @Transactional
+    public void importBalance(User employee, LeaveType leaveType, int year,
+                              BigDecimal entitled, BigDecimal carriedOver, BigDecimal adjustment) {
+        LeaveBalance existing = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
+                employee.getId(), leaveType.getId(), year).orElse(null);
+
+        BalanceDelta delta = new BalanceDelta();
+        if (existing == null) {
+            LeaveBalance balance = LeaveBalance.builder()
+                    .employee(employee)
+                    .leaveType(leaveType)
+                    .year(year)
+                    .build();
+            balance.recalculateAvailable();
+            leaveBalanceRepository.saveAndFlush(balance);
         }
-        balance.recalculateAvailable();
-        leaveBalanceRepository.save(balance);
+        delta.entitled = difference(entitled, existing != null ? existing.getEntitled() : null);
+        delta.carriedOver = difference(carriedOver, existing != null ? existing.getCarriedOver() : null);
+        delta.adjustment = difference(adjustment, existing != null ? existing.getAdjustment() : null);
+        if (existing != null && delta.isZero()) {
+            return;
+        }
+        record(employee, leaveType, year, null, LeaveBalanceTransaction.TransactionType.IMPORT, delta,
+                "Imported", "Leave balance not found");
     }
 
-    private LeaveBalance createBalance(User employee, LeaveType leaveType, int year) {
-        BigDecimal entitled = BigDecimal.valueOf(leaveType.getDefaultDaysPerYear());
+    /**
+     * Balances as they stood at the end of {@code asOf}, summed from the ledger entries of that
+     * date's leave year that took effect on or before it.
+     */
+    @Transactional(readOnly = true)
+    public List<LeaveBalanceDTO> getBalancesAsOf(UUID employeeId, LocalDate asOf) {
+        int year = calculationService.getLeaveYear(asOf);
+        Map<UUID, Object[]> sums = new HashMap<>();
+        for (Object[] row : leaveBalanceTransactionRepository.sumAsOf(employeeId, year, asOf)) {
+            sums.put((UUID) row[0], row);
+        }
+
+        List<LeaveBalanceDTO> result = new ArrayList<>();
+        for (LeaveBalance balance : leaveBalanceRepository.findByEmployeeWithDetailsForYear(employeeId, year)) {
+            Object[] row = sums.get(balance.getLeaveType().getId());
+            LeaveBalanceDTO dto = toDTO(balance);
+            dto.setEntitled(amount(row, 1));
+            dto.setCarriedOver(amount(row, 2));
+            dto.setAdjustment(amount(row, 3));
+            dto.setUsed(amount(row, 4));
+            dto.setPending(amount(row, 5));
+            dto.setEncashed(amount(row, 6));
+            dto.setAvailable(dto.getEntitled().add(dto.getCarriedOver()).add(dto.getAdjustment())
+                    .subtract(dto.getUsed()).subtract(dto.getPending()).subtract(dto.getEncashed()));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private void recordForRequest(LeaveRequest request, LeaveBalanceTransaction.TransactionType type,
+                                  BalanceDelta delta) {
+        record(request.getEmployee(), request.getLeaveType(), calculationService.getCurrentLeaveYear(),
+                request, type, delta, request.getReferenceNumber(), "Leave balance not found");
+    }
 
-        // Check for a default policy override
-        leavePolicyRepository.findByLeaveTypeIdAndIsDefaultTrue(leaveType.getId())
-                .ifPresent(policy -> {
-                    // Pro-rata calculation could be applied here if employee has a join date
-                });
+    /**
+     * Applies {@code delta} to the balance row in a single UPDATE and appends the matching
+     * ledger entry, in the caller's transaction.
+     */
+    private void record(User employee, LeaveType leaveType, int year, LeaveRequest request,
+                        LeaveBalanceTransaction.TransactionType type, BalanceDelta delta,
+                        String reason, String notFoundMessage) {
+        int updated = leaveBalanceRepository.applyDelta(employee.getId(), leaveType.getId(), year,
+                delta.entitled, delta.carriedOver, delta.adjustment, delta.used, delta.pending, delta.encashed,
+                currentAuditor());
+        if (updated == 0) {
+            throw new BusinessException(notFoundMessage);
+        }
 
-        LeaveBalance balance = LeaveBalance.builder()
+        leaveBalanceTransactionRepository.save(LeaveBalanceTransaction.builder()
                 .employee(employee)
                 .leaveType(leaveType)
                 .year(year)
-                .entitled(entitled)
-                .carriedOver(BigDecimal.ZERO)
-                .adjustment(BigDecimal.ZERO)
-                .used(BigDecimal.ZERO)
-                .pending(BigDecimal.ZERO)
-                .encashed(BigDecimal.ZERO)
-                .available(entitled)
-                .build();
+                .leaveRequest(request)
+                .transactionType(type)
+                .effectiveDate(LocalDate.now())
+                .entitledDelta(delta.entitled)
+                .carriedOverDelta(delta.carriedOver)
+                .adjustmentDelta(delta.adjustment)
+                .usedDelta(delta.used)
+                .pendingDelta(delta.pending)
+                .encashedDelta(delta.encashed)
+                .reason(reason)
+                .build());
+    }
+
+    private static BigDecimal difference(BigDecimal target, BigDecimal current) {
+        if (target == null) return BigDecimal.ZERO;
+        return target.subtract(current != null ? current : BigDecimal.ZERO);
+    }
+
+    private static BigDecimal amount(Object[] row, int index) {
+        if (row == null || row[index] == null) return BigDecimal.ZERO;
+        return row[index] instanceof BigDecimal value ? value : new BigDecimal(row[index].toString());
+    }
+
+    private static final class BalanceDelta {
+        BigDecimal entitled = BigDecimal.ZERO;
+        BigDecimal carriedOver = BigDecimal.ZERO;
+        BigDecimal adjustment = BigDecimal.ZERO;
+        BigDecimal used = BigDecimal.ZERO;
+        BigDecimal pending = BigDecimal.ZERO;
+        BigDecimal encashed = BigDecimal.ZERO;
+
+        boolean isZero() {
+            return entitled.signum() == 0 && carriedOver.signum() == 0 && adjustment.signum() == 0
+                    && used.signum() == 0 && pending.signum() == 0 && encashed.signum() == 0;
+        }
+    }
 
-        return leaveBalanceRepository.save(balance);
+    private String currentAuditor() {
+        return auditorProvider.getCurrentAuditor().orElse("system");
     }
 
     public LeaveBalanceDTO toDTO(LeaveBalance entity) {
@@ -1,18 +1,26 @@
 package com.sonar.workflow.leave.service;
 
 import com.sonar.workflow.leave.repository.PublicHolidayRepository;
+import com.sonar.workflow.service.PgNotificationListener;
+import com.sonar.workflow.service.SettingChangedEvent;
 import com.sonar.workflow.service.SettingService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,11 +28,26 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LeaveCalculationService {
 
+    private static final String CALENDAR_CHANNEL = "leave_calendar_changed";
+    private static final String WEEKEND_SETTING = "leave.weekend.days";
+    private static final BigDecimal HALF_DAY = new BigDecimal("0.5");
+
     private final PublicHolidayRepository publicHolidayRepository;
     private final SettingService settingService;
+    private final PgNotificationListener notificationListener;
+
+    private final Map<Integer, WorkingDayCalendar> calendars = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a calendar built across one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        notificationListener.subscribe(CALENDAR_CHANNEL, payload -> clearCalendars());
+    }
 
     /**
      * Calculate working days between two dates, excluding weekends and public holidays.
+     * A half day at either end counts 0.5 when that day is a working day.
      */
     public BigDecimal calculateWorkingDays(LocalDate startDate, LocalDate endDate,
                                             boolean startHalfDay, boolean endHalfDay) {
@@ -32,26 +55,88 @@ public class LeaveCalculationService {
             return BigDecimal.ZERO;
         }
 
-        Set<DayOfWeek> weekendDays = getWeekendDays();
-        List<LocalDate> holidays = getPublicHolidayDates(startDate, endDate);
+        long fullDays = countWorkingDays(startDate, endDate);
+        int halfDays = 0;
+        if (startHalfDay && isWorkingDay(startDate)) {
+            halfDays++;
+        }
+        // A single half day is only deducted once
+        if (endHalfDay && isWorkingDay(endDate) && !(startHalfDay && startDate.equals(endDate))) {
+            halfDays++;
+        }
+        if (halfDays == 0) {
+            return BigDecimal.valueOf(fullDays);
+        }
+        return BigDecimal.valueOf(fullDays).subtract(HALF_DAY.multiply(BigDecimal.valueOf(halfDays)));
+    }
 
-        BigDecimal totalDays = BigDecimal.ZERO;
-        LocalDate current = startDate;
+    /**
+     * Working days from {@code start} to {@code end} inclusive, summed over the per-year calendars.
+     */
+    public long countWorkingDays(LocalDate start, LocalDate end) {
+        long total = 0;
+        LocalDate segmentStart = start;
+        while (!segmentStart.isAfter(end)) {
+            LocalDate yearEnd = LocalDate.of(segmentStart.getYear(), 12, 31);
+            LocalDate segmentEnd = end.isBefore(yearEnd) ? end : yearEnd;
+            total += calendarFor(segmentStart.getYear()).countWorkingDays(segmentStart, segmentEnd);
+            segmentStart = segmentEnd.plusDays(1);
+        }
+        return total;
+    }
 
-        while (!current.isAfter(endDate)) {
-            if (!weekendDays.contains(current.getDayOfWeek()) && !holidays.contains(current)) {
-                if (current.equals(startDate) && startHalfDay) {
-                    totalDays = totalDays.add(new BigDecimal("0.5"));
-                } else if (current.equals(endDate) && endHalfDay) {
-                    totalDays = totalDays.add(new BigDecimal("0.5"));
-                } else {
-                    totalDays = totalDays.add(BigDecimal.ONE);
+    public boolean isWorkingDay(LocalDate date) {
+        return calendarFor(date.getYear()).isWorkingDay(date);
+    }
+
+    /**
+     * Drops the cached calendars on this node now and after commit, and on the other nodes once
+     * the surrounding transaction commits. Call after public holidays change.
+     */
+    public void invalidateCalendars() {
+        clearLocally();
+        notificationListener.publish(CALENDAR_CHANNEL, null);
+    }
+
+    /**
+     * Every node gets its own event for a setting saved on any node, so the calendars are only
+     * dropped here; broadcasting from each node would multiply the notifications.
+     */
+    @EventListener
+    public void onSettingChanged(SettingChangedEvent event) {
+        if (event.matches(WEEKEND_SETTING)) {
+            clearLocally();
+        }
+    }
+
+    private void clearLocally() {
+        clearCalendars();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearCalendars();
                 }
-            }
-            current = current.plusDays(1);
+            });
         }
+    }
 
-        return totalDays;
+    private void clearCalendars() {
+        invalidations.incrementAndGet();
+        calendars.clear();
+    }
+
+    private WorkingDayCalendar calendarFor(int year) {
+        WorkingDayCalendar cached = calendars.get(year);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        WorkingDayCalendar built = new WorkingDayCalendar(year, getWeekendDays(),
+                getPublicHolidayDates(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)));
+        // Built from data an invalidation may have replaced meanwhile: use it once, don't cache it
+        calendars.compute(year, (y, existing) -> existing != null || invalidations.get() != stamp ? existing : built);
+        return built;
     }
 
     /**
@@ -94,9 +179,7 @@ public class LeaveCalculationService {
     }
 
     public Set<DayOfWeek> getWeekendDays() {
-        String weekendSetting = settingService.getValue("leave.weekend.days", "SATURDAY,SUNDAY");
-        return Arrays.stream(weekendSetting.split(","))
-                .map(String::trim)
+        return settingService.getListValue(WEEKEND_SETTING, "SATURDAY,SUNDAY").stream()
                 .map(DayOfWeek::valueOf)
                 .collect(Collectors.toSet());
     }
@@ -113,11 +196,14 @@ public class LeaveCalculationService {
     }
 
     public int getCurrentLeaveYear() {
+        return getLeaveYear(LocalDate.now());
+    }
+
+    public int getLeaveYear(LocalDate date) {
         int startMonth = getLeaveYearStartMonth();
-        LocalDate now = LocalDate.now();
-        if (now.getMonthValue() < startMonth) {
-            return now.getYear() - 1;
+        if (date.getMonthValue() < startMonth) {
+            return date.getYear() - 1;
         }
-        return now.getYear();
+        return date.getYear();
     }
 }
@@ -4,6 +4,7 @@ import com.sonar.workflow.entity.Department;
 import com.sonar.workflow.entity.User;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.leave.dto.LeaveDashboardDTO;
+import com.sonar.workflow.leave.dto.LeaveOccupancyDTO;
 import com.sonar.workflow.leave.dto.LeaveRequestDTO;
 import com.sonar.workflow.leave.entity.LeaveRequest;
 import com.sonar.workflow.leave.entity.LeaveRequest.LeaveRequestStatus;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -32,6 +34,8 @@ public class LeaveDashboardService {
     private final LeaveCalculationService calculationService;
     private final UserRepository userRepository;
 
+    private static final int MAX_OCCUPANCY_DAYS = 366;
+
     @Transactional(readOnly = true)
     public LeaveDashboardDTO getDashboard() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -49,10 +53,7 @@ public class LeaveDashboardService {
 
         // My upcoming approved leave
         List<LeaveRequest> upcomingLeave = leaveRequestRepository
-                .findApprovedInRange(today, thirtyDaysFromNow)
-                .stream()
-                .filter(lr -> lr.getEmployee().getId().equals(employee.getId()))
-                .collect(Collectors.toList());
+                .findApprovedInRangeForEmployee(employee.getId(), today, thirtyDaysFromNow);
 
         // Team on leave today (filtered by approvable employees)
         List<LeaveRequest> teamOnLeave = getApprovedLeaveForUser(employee, today, today);
@@ -79,12 +80,55 @@ public class LeaveDashboardService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Per-day count of a department's employees on approved leave, for the team calendar.
+     * Admins may query any department; everyone else only departments they belong to.
+     */
+    @Transactional(readOnly = true)
+    public List<LeaveOccupancyDTO> getDepartmentOccupancy(UUID departmentId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("End date must be on or after start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_OCCUPANCY_DAYS) {
+            throw new BusinessException("Occupancy range cannot exceed " + MAX_OCCUPANCY_DAYS + " days");
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new BusinessException("User not found"));
+        boolean admin = currentUser.hasPrivilege("ADMIN") || currentUser.hasPrivilege("LEAVE_ADMIN");
+        boolean member = currentUser.getDepartments().stream().anyMatch(d -> d.getId().equals(departmentId));
+        if (!admin && !member) {
+            throw new BusinessException("You can only view occupancy for your own department");
+        }
+
+        return leaveRequestRepository.findDailyOccupancy(departmentId, from, to).stream()
+                .map(row -> LeaveOccupancyDTO.builder()
+                        .date(toLocalDate(row[0]))
+                        .onLeave(((Number) row[1]).longValue())
+                        .headcount(((Number) row[2]).longValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public Map<String, Long> getBadgeCounts() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User employee = userRepository.findByUsername(username)
                 .orElseThrow(() -> new BusinessException("User not found"));
+        return getBadgeCounts(employee);
+    }
+
+    /**
+     * Whether the user's pending-approval badge counts other employees' requests, so any pending
+     * request may change it.
+     */
+    public boolean isLeaveApprover(User user) {
+        return user.hasPrivilege("ADMIN") || user.hasPrivilege("LEAVE_ADMIN") || user.hasPrivilege("LEAVE_APPROVE");
+    }
 
+    @Transactional(readOnly = true)
+    public Map<String, Long> getBadgeCounts(User employee) {
         // 1. Pending approvals for current user (based on privilege)
         long pendingApprovals = 0;
         if (employee.hasPrivilege("ADMIN") || employee.hasPrivilege("LEAVE_ADMIN")) {
@@ -134,8 +178,10 @@ public class LeaveDashboardService {
         }
 
         // Regular user: only their own approved leave
-        return leaveRequestRepository.findApprovedInRange(from, to).stream()
-                .filter(lr -> lr.getEmployee().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+        return leaveRequestRepository.findApprovedInRangeForEmployee(user.getId(), from, to);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
     }
 }
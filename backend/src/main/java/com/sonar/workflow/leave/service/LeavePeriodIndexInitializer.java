@@ -0,0 +1,88 @@
+package com.sonar.workflow.leave.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the GiST index that serves leave overlap checks: leave requests are indexed by
+ * employee and {@code daterange(start_date, end_date, '[]')}, so "does this employee already
+ * have leave touching these dates" is a single index probe with the {@code &&} operator.
+ * <p>
+ * With {@code app.leave.overlap-constraint} enabled the same expression backs an exclusion
+ * constraint, making overlapping active requests impossible even under concurrent submissions.
+ * Only enable it when the {@code leave.overlap.allowed} setting is false.
+ * <p>
+ * Each statement runs in its own transaction; a failure (for example no privilege to create
+ * the btree_gist extension) is logged and the remaining statements still run.
+ */
+@Component
+@Slf4j
+public class LeavePeriodIndexInitializer {
+
+    /** Matches the status filter of LeaveRequestRepository.existsOverlapping. */
+    static final String ACTIVE_PREDICATE = "status NOT IN ('CANCELLED', 'REJECTED', 'RECALLED')";
+    static final String PERIOD = "daterange(start_date, end_date, '[]')";
+
+    private static final String CONSTRAINT_NAME = "leave_requests_no_overlap";
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.leave.overlap-constraint:false}")
+    private boolean overlapConstraint;
+
+    public LeavePeriodIndexInitializer(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        // btree_gist lets the uuid employee_id share a GiST index with the date range
+        boolean btreeGist = execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        String columns = btreeGist ? "employee_id, " + PERIOD : PERIOD;
+        execute("CREATE INDEX IF NOT EXISTS idx_leave_requests_period ON leave_requests " +
+                "USING gist (" + columns + ") WHERE " + ACTIVE_PREDICATE);
+
+        if (!overlapConstraint) {
+            execute("ALTER TABLE leave_requests DROP CONSTRAINT IF EXISTS " + CONSTRAINT_NAME);
+            return;
+        }
+        if (!btreeGist) {
+            log.warn("Leave overlap constraint needs the btree_gist extension; not created");
+            return;
+        }
+        if (constraintExists()) return;
+        if (execute("ALTER TABLE leave_requests ADD CONSTRAINT " + CONSTRAINT_NAME + " EXCLUDE USING gist " +
+                "(employee_id WITH =, " + PERIOD + " WITH &&) WHERE (" + ACTIVE_PREDICATE + ")")) {
+            log.info("Created leave overlap exclusion constraint");
+        } else {
+            log.warn("Could not create the leave overlap constraint; existing requests may overlap");
+        }
+    }
+
+    private boolean constraintExists() {
+        Boolean exists = transactionTemplate.execute(status -> (Boolean) entityManager.createNativeQuery(
+                        "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = :name)")
+                .setParameter("name", CONSTRAINT_NAME)
+                .getSingleResult());
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private boolean execute(String sql) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery(sql).executeUpdate());
+            return true;
+        } catch (Exception e) {
+            log.debug("Leave period DDL failed ({}): {}", sql, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.sonar.workflow.leave.service;
+
+import com.sonar.workflow.leave.repository.LeaveReferenceCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Issues leave reference numbers ({@code LR-<year>-0001}) from a per-year counter row.
+ * <p>
+ * {@link #next()} takes its number in the caller's transaction: the counter row stays locked
+ * until that transaction ends, so a rolled-back create returns its number and the sequence has
+ * no gaps. Call it as late as possible in the transaction to keep the lock short.
+ * <p>
+ * Imports reserve a {@link Block} up front in a transaction of its own and hand the unused
+ * tail back when done.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveReferenceNumberService {
+
+    private final LeaveReferenceCounterRepository counterRepository;
+
+    /**
+     * Takes the next number for the current year. Joins the caller's transaction and holds the
+     * year's counter row until it ends; it never runs in a transaction of its own.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String next() {
+        int year = LocalDate.now().getYear();
+        return format(year, allocate(year, 1));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Block reserveBlock(int count) {
+        int year = LocalDate.now().getYear();
+        long last = allocate(year, Math.max(1, count));
+        return new Block(year, last - Math.max(1, count) + 1, last);
+    }
+
+    /**
+     * Returns the numbers of {@code block} that were not used to the counter, if no later block
+     * or single number was issued in the meantime.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(Block block) {
+        if (block.next > block.end) return;
+        int released = counterRepository.releaseTail(block.year, block.end, block.next - 1);
+        if (released == 0) {
+            log.debug("Leave reference numbers {}..{} for {} left unused", block.next, block.end, block.year);
+        }
+    }
+
+    private long allocate(int year, int count) {
+        Long last = counterRepository.allocate(year, count);
+        if (last == null) {
+            counterRepository.insertIfMissing(UUID.randomUUID(), year, prefix(year), prefix(year).length() + 1);
+            last = counterRepository.allocate(year, count);
+        }
+        return last;
+    }
+
+    private static String prefix(int year) {
+        return "LR-" + year + "-";
+    }
+
+    private static String format(int year, long number) {
+        return prefix(year) + String.format("%04d", number);
+    }
+
+    /**
+     * A reserved range of reference numbers. Take {@link #peek()} for the row being written and
+     * {@link #consume()} once it is saved, so a failed row does not burn a number.
+     */
+    public static final class Block {
+        private final int year;
+        private final long end;
+        private long next;
+
+        private Block(int year, long start, long end) {
+            this.year = year;
+            this.next = start;
+            this.end = end;
+        }
+
+        public boolean hasNext() {
+            return next <= end;
+        }
+
+        public String peek() {
+            if (!hasNext()) {
+                throw new IllegalStateException("Reference block exhausted");
+            }
+            return format(year, next);
+        }
+
+        public void consume() {
+            next++;
+        }
+    }
+}
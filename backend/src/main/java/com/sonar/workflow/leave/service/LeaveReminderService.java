@@ -1,5 +1,6 @@
 package com.sonar.workflow.leave.service;
 
+import com.sonar.workflow.dto.LiveEventDTO;
 import com.sonar.workflow.entity.Department;
 import com.sonar.workflow.leave.entity.LeaveApprovalHistory;
 import com.sonar.workflow.leave.entity.LeaveApprover;
@@ -8,13 +9,19 @@ import com.sonar.workflow.leave.repository.LeaveApprovalHistoryRepository;
 import com.sonar.workflow.leave.repository.LeaveApproverRepository;
 import com.sonar.workflow.leave.repository.LeaveRequestRepository;
 import com.sonar.workflow.service.EmailService;
+import com.sonar.workflow.service.JobLeaseService;
+import com.sonar.workflow.service.NotificationHubService;
 import com.sonar.workflow.service.SettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -30,26 +37,125 @@ public class LeaveReminderService {
     private final LeaveApprovalHistoryRepository historyRepository;
     private final EmailService emailService;
     private final SettingService settingService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final NotificationHubService notificationHubService;
 
+    private static final String JOB_NAME = "leave-reminders";
+    private static final String BACKFILL_JOB_NAME = "leave-reminders-backfill";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(1);
+    private static final int MAX_BATCHES_PER_RUN = 200;
+    private static final int RETRY_MINUTES = 15;
+
+    @Value("${app.reminders.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Gives pending requests created before due-time tracking a due time so the
+     * scheduler picks them up once. Runs on the node that takes the backfill lease; the
+     * others skip it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDueTimes() {
+        jobLeaseService.runExclusive(BACKFILL_JOB_NAME, LOCK_AT_MOST, Duration.ZERO, this::backfill);
+    }
+
+    private int backfill() {
+        Integer updated = transactionTemplate.execute(status -> requestRepository.backfillReminderDueTimes());
+        if (updated != null && updated > 0) {
+            log.info("Scheduled reminder evaluation for {} pending leave requests", updated);
+        }
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Works through leave requests whose reminder or escalation is due, one short transaction
+     * per batch, claiming rows with FOR UPDATE SKIP LOCKED. Only the node holding the job
+     * lease runs it.
+     */
     @Scheduled(cron = "0 */15 * * * *")
-    @Transactional
     public void processReminders() {
         if (!settingService.getBooleanValue("leave.reminders.enabled", true)) return;
+        jobLeaseService.runExclusive(JOB_NAME, LOCK_AT_MOST, LOCK_AT_LEAST, this::processDueReminders);
+    }
 
-        List<LeaveRequest> pending;
-        try {
-            pending = requestRepository.findPendingWithSubmittedAt();
-        } catch (Exception e) {
-            log.error("Failed to fetch pending leave requests for reminders", e);
-            return;
+    private int processDueReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        int processed = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN && !jobLeaseService.isLeaseLost(); batch++) {
+            Integer count = transactionTemplate.execute(status -> processDueBatch(now));
+            processed += count != null ? count : 0;
+            if (count == null || count < batchSize) break;
         }
+        return processed;
+    }
 
-        for (LeaveRequest request : pending) {
+    private int processDueBatch(LocalDateTime now) {
+        List<UUID> dueIds = requestRepository.lockDueForReminders(now, batchSize);
+        if (dueIds.isEmpty()) return 0;
+
+        for (LeaveRequest request : requestRepository.findAllForRemindersByIdIn(dueIds)) {
             try {
                 processRequest(request);
+                reschedule(request, now);
             } catch (Exception e) {
                 log.error("Failed to process leave reminder for {}", request.getReferenceNumber(), e);
+                request.setNextReminderAt(now.plusMinutes(RETRY_MINUTES));
+                request.setNextEscalationAt(null);
             }
+            requestRepository.save(request);
+        }
+        return dueIds.size();
+    }
+
+    /**
+     * Recomputes the request's reminder and escalation due times from its submission time,
+     * reminder history, current approver and the leave reminder settings. Call whenever
+     * those or its status change; requests that are no longer pending get none.
+     */
+    public void scheduleNext(LeaveRequest request) {
+        LeaveApprover currentApprover = request.getCurrentApprover();
+        if (request.getSubmittedAt() == null || currentApprover == null
+                || request.getStatus() != LeaveRequest.LeaveRequestStatus.PENDING) {
+            request.setNextReminderAt(null);
+            request.setNextEscalationAt(null);
+            return;
+        }
+
+        int startAfterHours = settingService.getIntValue("leave.reminders.start.after.hours", 24);
+        int frequencyHours = settingService.getIntValue("leave.reminders.frequency.hours", 24);
+        int maxCount = settingService.getIntValue("leave.reminders.max.count", 3);
+        int remindersSent = request.getReminderCount() != null ? request.getReminderCount() : 0;
+
+        LocalDateTime nextReminder = null;
+        if (remindersSent < maxCount) {
+            nextReminder = request.getSubmittedAt().plusHours(startAfterHours);
+            LocalDateTime lastReminder = request.getLastReminderSentAt();
+            if (lastReminder != null && lastReminder.plusHours(frequencyHours).isAfter(nextReminder)) {
+                nextReminder = lastReminder.plusHours(frequencyHours);
+            }
+        }
+
+        // Escalation is only considered once reminders are exhausted
+        LocalDateTime nextEscalation = null;
+        Integer timeout = currentApprover.getEscalationTimeoutHours();
+        if (Boolean.TRUE.equals(currentApprover.getCanEscalate()) && request.getEscalatedAt() == null
+                && timeout != null && timeout > 0 && remindersSent >= maxCount) {
+            nextEscalation = request.getSubmittedAt().plusHours(timeout);
+        }
+
+        request.setNextReminderAt(nextReminder);
+        request.setNextEscalationAt(nextEscalation);
+    }
+
+    private void reschedule(LeaveRequest request, LocalDateTime now) {
+        scheduleNext(request);
+        if (request.getNextReminderAt() != null && !request.getNextReminderAt().isAfter(now)) {
+            request.setNextReminderAt(now.plusMinutes(RETRY_MINUTES));
+        }
+        if (request.getNextEscalationAt() != null && !request.getNextEscalationAt().isAfter(now)) {
+            request.setNextEscalationAt(now.plusMinutes(RETRY_MINUTES));
         }
     }
 
@@ -133,6 +239,7 @@ public class LeaveReminderService {
             // Advance to next level
             List<LeaveApprover> nextApprovers = approverRepository.findByDepartmentIdAndLevel(deptId, currentLevel + 1);
             if (!nextApprovers.isEmpty()) {
+                LeaveApprover previous = request.getCurrentApprover();
                 LeaveApprover next = nextApprovers.get(0);
                 request.setCurrentApprover(next);
                 request.setCurrentLevel(currentLevel + 1);
@@ -150,6 +257,10 @@ public class LeaveReminderService {
                         .actionDate(LocalDateTime.now())
                         .build();
                 historyRepository.save(history);
+                publishToApprover(request, previous, LiveEventDTO.Type.APPROVAL_WITHDRAWN);
+                publishToApprover(request, next, LiveEventDTO.Type.APPROVAL_REQUESTED);
+                notificationHubService.publish(request.getEmployee().getId(),
+                        liveEvent(request, LiveEventDTO.Type.STATUS_CHANGED));
 
                 log.info("Escalated leave request {} from level {} to {}", request.getReferenceNumber(), currentLevel, currentLevel + 1);
                 return;
@@ -174,6 +285,26 @@ public class LeaveReminderService {
         }
     }
 
+    private void publishToApprover(LeaveRequest request, LeaveApprover approver, LiveEventDTO.Type type) {
+        if (approver == null) return;
+        notificationHubService.publish(
+                notificationHubService.resolveUserId(approver.getUser(), approver.getApproverEmail()),
+                liveEvent(request, type));
+    }
+
+    private LiveEventDTO liveEvent(LeaveRequest request, LiveEventDTO.Type type) {
+        return LiveEventDTO.builder()
+                .type(type)
+                .module(LiveEventDTO.Module.LEAVE)
+                .entityId(request.getId())
+                .referenceNumber(request.getReferenceNumber())
+                .title(request.getEmployee().getFullName())
+                .status(request.getStatus().name())
+                .message(request.getLeaveType().getName())
+                .actorName("System")
+                .build();
+    }
+
     private String row(String label, String value) {
         return "<tr><td style='padding: 8px; border: 1px solid #ddd; font-weight: bold;'>" + label +
                 "</td><td style='padding: 8px; border: 1px solid #ddd;'>" + (value != null ? value : "-") + "</td></tr>";
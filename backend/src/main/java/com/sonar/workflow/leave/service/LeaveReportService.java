@@ -1,11 +1,10 @@
 package com.sonar.workflow.leave.service;
 
 import com.sonar.workflow.dto.ReportResultDTO;
-import com.sonar.workflow.leave.entity.LeaveRequest;
 import com.sonar.workflow.leave.entity.LeaveRequest.LeaveRequestStatus;
-import com.sonar.workflow.leave.entity.LeaveBalance;
-import com.sonar.workflow.leave.repository.LeaveBalanceRepository;
-import com.sonar.workflow.leave.repository.LeaveRequestRepository;
+import com.sonar.workflow.leave.repository.LeaveReportRepository;
+import com.sonar.workflow.leave.repository.LeaveReportRepository.BalanceRow;
+import com.sonar.workflow.leave.repository.LeaveReportRepository.RequestRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,15 +16,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Leave reports. Filters are applied in SQL (see {@link LeaveReportRepository}) and rows are
+ * mapped and summarised as they stream from the database.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LeaveReportService {
 
-    private final LeaveRequestRepository requestRepository;
-    private final LeaveBalanceRepository balanceRepository;
+    private final LeaveReportRepository reportRepository;
 
     @Transactional(readOnly = true)
     public ReportResultDTO generateReport(String reportId, Map<String, String> parameters) {
@@ -41,23 +43,8 @@ public class LeaveReportService {
 
     private ReportResultDTO generateLeaveBalances(Map<String, String> parameters) {
         int year = parseYear(parameters.get("year"), LocalDate.now().getYear());
-        String departmentFilter = parameters.get("departmentId");
-        String leaveTypeFilter = parameters.get("leaveTypeId");
-
-        List<LeaveBalance> balances = balanceRepository.findByYear(year);
-
-        if (departmentFilter != null && !departmentFilter.isEmpty()) {
-            balances = balances.stream()
-                    .filter(b -> departmentFilter.equals(
-                            b.getEmployee().getDepartment()))
-                    .collect(Collectors.toList());
-        }
-        if (leaveTypeFilter != null && !leaveTypeFilter.isEmpty()) {
-            UUID ltId = UUID.fromString(leaveTypeFilter);
-            balances = balances.stream()
-                    .filter(b -> b.getLeaveType().getId().equals(ltId))
-                    .collect(Collectors.toList());
-        }
+        DepartmentFilter department = DepartmentFilter.parse(parameters.get("departmentId"));
+        UUID leaveTypeId = parseUuid(parameters.get("leaveTypeId"));
 
         List<Map<String, Object>> columns = List.of(
                 Map.of("field", "employeeName", "header", "Employee", "type", "string"),
@@ -71,26 +58,32 @@ public class LeaveReportService {
                 Map.of("field", "available", "header", "Available", "type", "number")
         );
 
-        List<Map<String, Object>> data = balances.stream().map(b -> {
-            Map<String, Object> row = new HashMap<>();
-            row.put("employeeName", b.getEmployee().getFullName());
-            row.put("staffId", b.getEmployee().getStaffId());
-            row.put("department", b.getEmployee().getDepartment());
-            row.put("leaveType", b.getLeaveType().getName());
-            row.put("entitled", b.getEntitled());
-            row.put("carriedOver", b.getCarriedOver());
-            row.put("used", b.getUsed());
-            row.put("pending", b.getPending());
-            row.put("available", b.getAvailable());
-            return row;
-        }).collect(Collectors.toList());
-
-        BigDecimal totalEntitled = balances.stream().map(LeaveBalance::getEntitled).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalUsed = balances.stream().map(LeaveBalance::getUsed).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalAvailable = balances.stream().map(LeaveBalance::getAvailable).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<Map<String, Object>> data = new ArrayList<>();
+        BigDecimal totalEntitled = BigDecimal.ZERO;
+        BigDecimal totalUsed = BigDecimal.ZERO;
+        BigDecimal totalAvailable = BigDecimal.ZERO;
+        try (Stream<BalanceRow> rows = reportRepository.streamBalances(year, leaveTypeId, department.id(), department.name())) {
+            for (BalanceRow b : (Iterable<BalanceRow>) rows::iterator) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("employeeName", fullName(b.getEmployeeFirstName(), b.getEmployeeLastName()));
+                row.put("staffId", b.getStaffId());
+                row.put("department", b.getDepartment());
+                row.put("leaveType", b.getLeaveType());
+                row.put("entitled", b.getEntitled());
+                row.put("carriedOver", b.getCarriedOver());
+                row.put("used", b.getUsed());
+                row.put("pending", b.getPending());
+                row.put("available", b.getAvailable());
+                data.add(row);
+
+                totalEntitled = add(totalEntitled, b.getEntitled());
+                totalUsed = add(totalUsed, b.getUsed());
+                totalAvailable = add(totalAvailable, b.getAvailable());
+            }
+        }
 
         Map<String, Object> summary = Map.of(
-                "totalRecords", balances.size(),
+                "totalRecords", data.size(),
                 "totalEntitled", totalEntitled,
                 "totalUsed", totalUsed,
                 "totalAvailable", totalAvailable,
@@ -105,18 +98,8 @@ public class LeaveReportService {
         LocalDate startDate = parseDate(parameters.get("startDate"), LocalDate.now().minusMonths(6));
         LocalDate endDate = parseDate(parameters.get("endDate"), LocalDate.now());
         String statusFilter = parameters.get("status");
-        String departmentFilter = parameters.get("departmentId");
-        String leaveTypeFilter = parameters.get("leaveTypeId");
-
-        List<LeaveRequest> requests = requestRepository.findApprovedInRange(startDate, endDate);
-        // Also include other statuses if requested
-        if (statusFilter != null && !statusFilter.isEmpty() && !"APPROVED".equals(statusFilter)) {
-            requests = getAllRequestsInRange(startDate, endDate);
-            LeaveRequestStatus st = LeaveRequestStatus.valueOf(statusFilter);
-            requests = requests.stream().filter(r -> r.getStatus() == st).collect(Collectors.toList());
-        }
-
-        requests = applyFilters(requests, departmentFilter, leaveTypeFilter);
+        DepartmentFilter department = DepartmentFilter.parse(parameters.get("departmentId"));
+        UUID leaveTypeId = parseUuid(parameters.get("leaveTypeId"));
 
         List<Map<String, Object>> columns = List.of(
                 Map.of("field", "referenceNumber", "header", "Reference", "type", "string"),
@@ -131,39 +114,51 @@ public class LeaveReportService {
                 Map.of("field", "approvedAt", "header", "Approved At", "type", "datetime")
         );
 
-        List<Map<String, Object>> data = requests.stream().map(r -> {
-            Map<String, Object> row = new HashMap<>();
-            row.put("referenceNumber", r.getReferenceNumber());
-            row.put("employeeName", r.getEmployee().getFullName());
-            row.put("department", r.getEmployee().getDepartment());
-            row.put("leaveType", r.getLeaveType().getName());
-            row.put("startDate", r.getStartDate().toString());
-            row.put("endDate", r.getEndDate().toString());
-            row.put("totalDays", r.getTotalDays());
-            row.put("status", r.getStatus().name());
-            row.put("approvedBy", r.getApprovedBy() != null ? r.getApprovedBy().getFullName() : "-");
-            row.put("approvedAt", r.getApprovedAt() != null ? r.getApprovedAt().toString() : null);
-            return row;
-        }).collect(Collectors.toList());
-
-        BigDecimal totalDays = requests.stream().map(LeaveRequest::getTotalDays).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Approved leave is selected by when it is taken; other statuses by when they were requested
+        Stream<RequestRow> requests;
+        if (statusFilter == null || statusFilter.isEmpty() || "APPROVED".equals(statusFilter)) {
+            requests = reportRepository.streamOverlapping(List.of(LeaveRequestStatus.APPROVED), startDate, endDate,
+                    leaveTypeId, department.id(), department.name());
+        } else {
+            requests = reportRepository.streamCreatedBetween(List.of(LeaveRequestStatus.valueOf(statusFilter)),
+                    startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(),
+                    leaveTypeId, department.id(), department.name());
+        }
+
+        List<Map<String, Object>> data = new ArrayList<>();
+        BigDecimal totalDays = BigDecimal.ZERO;
+        Set<UUID> employees = new HashSet<>();
+        try (requests) {
+            for (RequestRow r : (Iterable<RequestRow>) requests::iterator) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("referenceNumber", r.getReferenceNumber());
+                row.put("employeeName", fullName(r.getEmployeeFirstName(), r.getEmployeeLastName()));
+                row.put("department", r.getDepartment());
+                row.put("leaveType", r.getLeaveType());
+                row.put("startDate", r.getStartDate().toString());
+                row.put("endDate", r.getEndDate().toString());
+                row.put("totalDays", r.getTotalDays());
+                row.put("status", r.getStatus().name());
+                row.put("approvedBy", approvedBy(r));
+                row.put("approvedAt", r.getApprovedAt() != null ? r.getApprovedAt().toString() : null);
+                data.add(row);
+
+                totalDays = add(totalDays, r.getTotalDays());
+                employees.add(r.getEmployeeId());
+            }
+        }
+
         Map<String, Object> summary = Map.of(
-                "totalRecords", requests.size(),
+                "totalRecords", data.size(),
                 "totalDays", totalDays,
-                "uniqueEmployees", requests.stream().map(r -> r.getEmployee().getId()).distinct().count()
+                "uniqueEmployees", employees.size()
         );
         return new ReportResultDTO(columns, data, summary, LocalDateTime.now().toString());
     }
 
     private ReportResultDTO generateRunningApplications(Map<String, String> parameters) {
-        String departmentFilter = parameters.get("departmentId");
-        String leaveTypeFilter = parameters.get("leaveTypeId");
-
-        List<LeaveRequest> pending = requestRepository.findAll().stream()
-                .filter(r -> r.getStatus() == LeaveRequestStatus.PENDING)
-                .collect(Collectors.toList());
-
-        pending = applyFilters(pending, departmentFilter, leaveTypeFilter);
+        DepartmentFilter department = DepartmentFilter.parse(parameters.get("departmentId"));
+        UUID leaveTypeId = parseUuid(parameters.get("leaveTypeId"));
 
         List<Map<String, Object>> columns = List.of(
                 Map.of("field", "referenceNumber", "header", "Reference", "type", "string"),
@@ -180,31 +175,39 @@ public class LeaveReportService {
                 Map.of("field", "remindersSent", "header", "Reminders Sent", "type", "number")
         );
 
-        List<Map<String, Object>> data = pending.stream().map(r -> {
-            Map<String, Object> row = new HashMap<>();
-            row.put("referenceNumber", r.getReferenceNumber());
-            row.put("employeeName", r.getEmployee().getFullName());
-            row.put("department", r.getEmployee().getDepartment());
-            row.put("leaveType", r.getLeaveType().getName());
-            row.put("startDate", r.getStartDate().toString());
-            row.put("endDate", r.getEndDate().toString());
-            row.put("totalDays", r.getTotalDays());
-            row.put("currentLevel", r.getCurrentLevel() != null && r.getMaxLevel() != null
-                    ? r.getCurrentLevel() + "/" + r.getMaxLevel() : "1/1");
-            row.put("currentApprover", r.getCurrentApprover() != null ? r.getCurrentApprover().getApproverName() : "-");
-            row.put("submittedAt", r.getSubmittedAt() != null ? r.getSubmittedAt().toString() : r.getCreatedAt().toString());
-            row.put("waitingDays", r.getSubmittedAt() != null
-                    ? ChronoUnit.DAYS.between(r.getSubmittedAt(), LocalDateTime.now()) : 0);
-            row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
-            return row;
-        }).collect(Collectors.toList());
-
-        long overdue3Days = data.stream().filter(d -> ((Number) d.get("waitingDays")).longValue() > 3).count();
+        LocalDateTime now = LocalDateTime.now();
+        List<Map<String, Object>> data = new ArrayList<>();
+        long totalWaitingDays = 0;
+        long overdue3Days = 0;
+        try (Stream<RequestRow> rows = reportRepository.streamByStatus(LeaveRequestStatus.PENDING,
+                leaveTypeId, department.id(), department.name())) {
+            for (RequestRow r : (Iterable<RequestRow>) rows::iterator) {
+                long waitingDays = r.getSubmittedAt() != null ? ChronoUnit.DAYS.between(r.getSubmittedAt(), now) : 0;
+                Map<String, Object> row = new HashMap<>();
+                row.put("referenceNumber", r.getReferenceNumber());
+                row.put("employeeName", fullName(r.getEmployeeFirstName(), r.getEmployeeLastName()));
+                row.put("department", r.getDepartment());
+                row.put("leaveType", r.getLeaveType());
+                row.put("startDate", r.getStartDate().toString());
+                row.put("endDate", r.getEndDate().toString());
+                row.put("totalDays", r.getTotalDays());
+                row.put("currentLevel", r.getCurrentLevel() != null && r.getMaxLevel() != null
+                        ? r.getCurrentLevel() + "/" + r.getMaxLevel() : "1/1");
+                row.put("currentApprover", r.getCurrentApprover() != null ? r.getCurrentApprover() : "-");
+                row.put("submittedAt", r.getSubmittedAt() != null ? r.getSubmittedAt().toString() : r.getCreatedAt().toString());
+                row.put("waitingDays", waitingDays);
+                row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
+                data.add(row);
+
+                totalWaitingDays += waitingDays;
+                if (waitingDays > 3) overdue3Days++;
+            }
+        }
+
         Map<String, Object> summary = Map.of(
-                "totalRecords", pending.size(),
+                "totalRecords", data.size(),
                 "overdue3Days", overdue3Days,
-                "avgWaitingDays", pending.isEmpty() ? 0 : data.stream()
-                        .mapToLong(d -> ((Number) d.get("waitingDays")).longValue()).average().orElse(0)
+                "avgWaitingDays", data.isEmpty() ? 0 : (double) totalWaitingDays / data.size()
         );
         return new ReportResultDTO(columns, data, summary, LocalDateTime.now().toString());
     }
@@ -212,18 +215,7 @@ public class LeaveReportService {
     private ReportResultDTO generateApprovalDelays(Map<String, String> parameters) {
         LocalDate startDate = parseDate(parameters.get("startDate"), LocalDate.now().minusMonths(3));
         LocalDate endDate = parseDate(parameters.get("endDate"), LocalDate.now());
-        String departmentFilter = parameters.get("departmentId");
-
-        List<LeaveRequest> processed = getAllRequestsInRange(startDate, endDate).stream()
-                .filter(r -> r.getStatus() == LeaveRequestStatus.APPROVED || r.getStatus() == LeaveRequestStatus.REJECTED)
-                .filter(r -> r.getSubmittedAt() != null && r.getApprovedAt() != null)
-                .collect(Collectors.toList());
-
-        if (departmentFilter != null && !departmentFilter.isEmpty()) {
-            processed = processed.stream()
-                    .filter(r -> departmentFilter.equals(r.getEmployee().getDepartment()))
-                    .collect(Collectors.toList());
-        }
+        DepartmentFilter department = DepartmentFilter.parse(parameters.get("departmentId"));
 
         List<Map<String, Object>> columns = List.of(
                 Map.of("field", "referenceNumber", "header", "Reference", "type", "string"),
@@ -239,30 +231,38 @@ public class LeaveReportService {
                 Map.of("field", "remindersSent", "header", "Reminders Sent", "type", "number")
         );
 
-        List<Map<String, Object>> data = processed.stream().map(r -> {
-            long hours = ChronoUnit.HOURS.between(r.getSubmittedAt(), r.getApprovedAt());
-            Map<String, Object> row = new HashMap<>();
-            row.put("referenceNumber", r.getReferenceNumber());
-            row.put("employeeName", r.getEmployee().getFullName());
-            row.put("department", r.getEmployee().getDepartment());
-            row.put("leaveType", r.getLeaveType().getName());
-            row.put("totalDays", r.getTotalDays());
-            row.put("submittedAt", r.getSubmittedAt().toString());
-            row.put("approvedAt", r.getApprovedAt().toString());
-            row.put("turnaroundHours", hours);
-            row.put("status", r.getStatus().name());
-            row.put("approvedBy", r.getApprovedBy() != null ? r.getApprovedBy().getFullName() : "-");
-            row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
-            return row;
-        }).collect(Collectors.toList());
-
-        double avgHours = data.stream().mapToLong(d -> ((Number) d.get("turnaroundHours")).longValue()).average().orElse(0);
-        long delayed24h = data.stream().filter(d -> ((Number) d.get("turnaroundHours")).longValue() > 24).count();
+        List<Map<String, Object>> data = new ArrayList<>();
+        long totalHours = 0;
+        long delayed24h = 0;
+        try (Stream<RequestRow> rows = reportRepository.streamDecidedBetween(startDate.atStartOfDay(),
+                endDate.plusDays(1).atStartOfDay(), department.id(), department.name())) {
+            for (RequestRow r : (Iterable<RequestRow>) rows::iterator) {
+                long hours = ChronoUnit.HOURS.between(r.getSubmittedAt(), r.getApprovedAt());
+                Map<String, Object> row = new HashMap<>();
+                row.put("referenceNumber", r.getReferenceNumber());
+                row.put("employeeName", fullName(r.getEmployeeFirstName(), r.getEmployeeLastName()));
+                row.put("department", r.getDepartment());
+                row.put("leaveType", r.getLeaveType());
+                row.put("totalDays", r.getTotalDays());
+                row.put("submittedAt", r.getSubmittedAt().toString());
+                row.put("approvedAt", r.getApprovedAt().toString());
+                row.put("turnaroundHours", hours);
+                row.put("status", r.getStatus().name());
+                row.put("approvedBy", approvedBy(r));
+                row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
+                data.add(row);
+
+                totalHours += hours;
+                if (hours > 24) delayed24h++;
+            }
+        }
+
+        double avgHours = data.isEmpty() ? 0 : (double) totalHours / data.size();
         Map<String, Object> summary = Map.of(
-                "totalRecords", processed.size(),
+                "totalRecords", data.size(),
                 "avgTurnaroundHours", Math.round(avgHours),
                 "delayedOver24h", delayed24h,
-                "delayRate", processed.isEmpty() ? "0%" : Math.round(delayed24h * 100.0 / processed.size()) + "%"
+                "delayRate", data.isEmpty() ? "0%" : Math.round(delayed24h * 100.0 / data.size()) + "%"
         );
         return new ReportResultDTO(columns, data, summary, LocalDateTime.now().toString());
     }
@@ -270,17 +270,7 @@ public class LeaveReportService {
     private ReportResultDTO generateEscalated(Map<String, String> parameters) {
         LocalDate startDate = parseDate(parameters.get("startDate"), LocalDate.now().minusMonths(6));
         LocalDate endDate = parseDate(parameters.get("endDate"), LocalDate.now());
-        String departmentFilter = parameters.get("departmentId");
-
-        List<LeaveRequest> escalated = getAllRequestsInRange(startDate, endDate).stream()
-                .filter(r -> r.getEscalatedAt() != null)
-                .collect(Collectors.toList());
-
-        if (departmentFilter != null && !departmentFilter.isEmpty()) {
-            escalated = escalated.stream()
-                    .filter(r -> departmentFilter.equals(r.getEmployee().getDepartment()))
-                    .collect(Collectors.toList());
-        }
+        DepartmentFilter department = DepartmentFilter.parse(parameters.get("departmentId"));
 
         List<Map<String, Object>> columns = List.of(
                 Map.of("field", "referenceNumber", "header", "Reference", "type", "string"),
@@ -297,57 +287,69 @@ public class LeaveReportService {
                 Map.of("field", "status", "header", "Current Status", "type", "status")
         );
 
-        List<Map<String, Object>> data = escalated.stream().map(r -> {
-            Map<String, Object> row = new HashMap<>();
-            row.put("referenceNumber", r.getReferenceNumber());
-            row.put("employeeName", r.getEmployee().getFullName());
-            row.put("department", r.getEmployee().getDepartment());
-            row.put("leaveType", r.getLeaveType().getName());
-            row.put("startDate", r.getStartDate().toString());
-            row.put("endDate", r.getEndDate().toString());
-            row.put("totalDays", r.getTotalDays());
-            row.put("submittedAt", r.getSubmittedAt() != null ? r.getSubmittedAt().toString() : null);
-            row.put("escalatedAt", r.getEscalatedAt().toString());
-            row.put("hoursBeforeEscalation", r.getSubmittedAt() != null
-                    ? ChronoUnit.HOURS.between(r.getSubmittedAt(), r.getEscalatedAt()) : 0);
-            row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
-            row.put("status", r.getStatus().name());
-            return row;
-        }).collect(Collectors.toList());
+        List<Map<String, Object>> data = new ArrayList<>();
+        long stillPending = 0;
+        try (Stream<RequestRow> rows = reportRepository.streamEscalatedBetween(startDate.atStartOfDay(),
+                endDate.plusDays(1).atStartOfDay(), department.id(), department.name())) {
+            for (RequestRow r : (Iterable<RequestRow>) rows::iterator) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("referenceNumber", r.getReferenceNumber());
+                row.put("employeeName", fullName(r.getEmployeeFirstName(), r.getEmployeeLastName()));
+                row.put("department", r.getDepartment());
+                row.put("leaveType", r.getLeaveType());
+                row.put("startDate", r.getStartDate().toString());
+                row.put("endDate", r.getEndDate().toString());
+                row.put("totalDays", r.getTotalDays());
+                row.put("submittedAt", r.getSubmittedAt() != null ? r.getSubmittedAt().toString() : null);
+                row.put("escalatedAt", r.getEscalatedAt().toString());
+                row.put("hoursBeforeEscalation", r.getSubmittedAt() != null
+                        ? ChronoUnit.HOURS.between(r.getSubmittedAt(), r.getEscalatedAt()) : 0);
+                row.put("remindersSent", r.getReminderCount() != null ? r.getReminderCount() : 0);
+                row.put("status", r.getStatus().name());
+                data.add(row);
+
+                if (r.getStatus() == LeaveRequestStatus.PENDING) stillPending++;
+            }
+        }
 
         Map<String, Object> summary = Map.of(
-                "totalRecords", escalated.size(),
-                "stillPending", escalated.stream().filter(r -> r.getStatus() == LeaveRequestStatus.PENDING).count(),
-                "resolved", escalated.stream().filter(r -> r.getStatus() != LeaveRequestStatus.PENDING).count()
+                "totalRecords", data.size(),
+                "stillPending", stillPending,
+                "resolved", data.size() - stillPending
         );
         return new ReportResultDTO(columns, data, summary, LocalDateTime.now().toString());
     }
 
     // --- Helpers ---
 
-    private List<LeaveRequest> getAllRequestsInRange(LocalDate startDate, LocalDate endDate) {
-        return requestRepository.findAll().stream()
-                .filter(r -> {
-                    LocalDate created = r.getCreatedAt() != null ? r.getCreatedAt().toLocalDate() : null;
-                    if (created == null) return true;
-                    return !created.isBefore(startDate) && !created.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
+    /**
+     * The departmentId report parameter: a department id, or a department name as stored on users.
+     */
+    private record DepartmentFilter(UUID id, String name) {
+        static DepartmentFilter parse(String value) {
+            if (value == null || value.isEmpty()) return new DepartmentFilter(null, null);
+            UUID id = parseUuid(value);
+            return id != null ? new DepartmentFilter(id, null) : new DepartmentFilter(null, value);
+        }
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        return (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
     }
 
-    private List<LeaveRequest> applyFilters(List<LeaveRequest> requests, String departmentFilter, String leaveTypeFilter) {
-        if (departmentFilter != null && !departmentFilter.isEmpty()) {
-            requests = requests.stream()
-                    .filter(r -> departmentFilter.equals(r.getEmployee().getDepartment()))
-                    .collect(Collectors.toList());
-        }
-        if (leaveTypeFilter != null && !leaveTypeFilter.isEmpty()) {
-            UUID ltId = UUID.fromString(leaveTypeFilter);
-            requests = requests.stream()
-                    .filter(r -> r.getLeaveType().getId().equals(ltId))
-                    .collect(Collectors.toList());
-        }
-        return requests;
+    private static String approvedBy(RequestRow r) {
+        if (r.getApprovedByFirstName() == null && r.getApprovedByLastName() == null) return "-";
+        return fullName(r.getApprovedByFirstName(), r.getApprovedByLastName());
+    }
+
+    private static BigDecimal add(BigDecimal total, BigDecimal value) {
+        return value != null ? total.add(value) : total;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try { return UUID.fromString(value); }
+        catch (IllegalArgumentException e) { return null; }
     }
 
     private LocalDate parseDate(String dateStr, LocalDate defaultValue) {
@@ -1,5 +1,6 @@
 package com.sonar.workflow.leave.service;
 
+import com.sonar.workflow.dto.LiveEventDTO;
 import com.sonar.workflow.entity.Department;
 import com.sonar.workflow.entity.User;
 import com.sonar.workflow.exception.BusinessException;
@@ -16,9 +17,11 @@ import com.sonar.workflow.leave.repository.LeaveApproverRepository;
 import com.sonar.workflow.leave.repository.LeaveRequestRepository;
 import com.sonar.workflow.leave.repository.LeaveTypeRepository;
 import com.sonar.workflow.repository.UserRepository;
+import com.sonar.workflow.service.NotificationHubService;
 import com.sonar.workflow.service.SettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -46,6 +49,9 @@ public class LeaveRequestService {
     private final LeaveApproverRepository leaveApproverRepository;
     private final LeaveApprovalHistoryRepository approvalHistoryRepository;
     private final LeaveNotificationService notificationService;
+    private final LeaveReminderService leaveReminderService;
+    private final LeaveReferenceNumberService referenceNumberService;
+    private final NotificationHubService notificationHubService;
 
     @Transactional(readOnly = true)
     public Page<LeaveRequestDTO> getMyRequests(UUID employeeId, Pageable pageable) {
@@ -112,9 +118,7 @@ public class LeaveRequestService {
 
         boolean allowOverlap = settingService.getBooleanValue("leave.overlap.allowed", false);
         if (!allowOverlap) {
-            List<LeaveRequest> overlapping = leaveRequestRepository.findOverlapping(
-                    employee.getId(), startDate, endDate);
-            if (!overlapping.isEmpty()) {
+            if (leaveRequestRepository.existsOverlapping(employee.getId(), startDate, endDate)) {
                 throw new BusinessException("You already have a leave request for the selected dates");
             }
         }
@@ -131,7 +135,6 @@ public class LeaveRequestService {
         LeaveRequest request = LeaveRequest.builder()
                 .employee(employee)
                 .leaveType(leaveType)
-                .referenceNumber(generateReferenceNumber())
                 .startDate(startDate)
                 .endDate(endDate)
                 .startDateHalfDay(dto.getStartDateHalfDay() != null ? dto.getStartDateHalfDay() : false)
@@ -155,8 +158,19 @@ public class LeaveRequestService {
 
         // Determine approval chain from employee's departments
         assignApprovalChain(request, employee);
+        leaveReminderService.scheduleNext(request);
 
-        request = leaveRequestRepository.save(request);
+        // Taken last: the year's counter row stays locked until this transaction commits
+        request.setReferenceNumber(referenceNumberService.next());
+        try {
+            request = leaveRequestRepository.saveAndFlush(request);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission won the race for the optional overlap constraint
+            if (String.valueOf(e.getMostSpecificCause().getMessage()).contains("leave_requests_no_overlap")) {
+                throw new BusinessException("You already have a leave request for the selected dates");
+            }
+            throw e;
+        }
 
         // Record submission history
         addHistory(request, employee, request.getCurrentLevel(), LeaveApprovalHistory.Action.SUBMITTED, null);
@@ -167,6 +181,7 @@ public class LeaveRequestService {
         // Notify the current approver
         if (request.getCurrentApprover() != null) {
             notificationService.notifyApproverOfPendingRequest(request, request.getCurrentApprover());
+            publishToApprover(request, request.getCurrentApprover(), LiveEventDTO.Type.APPROVAL_REQUESTED, null);
         }
 
         log.info("Created leave request {} for employee {}", request.getReferenceNumber(), username);
@@ -204,9 +219,12 @@ public class LeaveRequestService {
                 request.setReminderCount(0);
                 request.setLastReminderSentAt(null);
                 request.setEscalatedAt(null);
+                leaveReminderService.scheduleNext(request);
                 request = leaveRequestRepository.save(request);
 
                 notificationService.notifyApproverOfPendingRequest(request, nextApprovers.get(0));
+                publishToApprover(request, nextApprovers.get(0), LiveEventDTO.Type.APPROVAL_REQUESTED, null);
+                publishToEmployee(request, approver.getFullName());
                 log.info("Leave request {} approved at level {}, advanced to level {}", request.getReferenceNumber(), currentLevel, currentLevel + 1);
                 return toDTO(request);
             }
@@ -217,10 +235,12 @@ public class LeaveRequestService {
         request.setApprovedBy(approver);
         request.setApprovedAt(LocalDateTime.now());
         request.setApproverComments(comments);
+        leaveReminderService.scheduleNext(request);
         request = leaveRequestRepository.save(request);
 
         leaveBalanceService.deductBalance(request);
         notificationService.notifySubmitterOfDecision(request, "APPROVED", approver.getFullName(), comments);
+        publishToEmployee(request, approver.getFullName());
 
         log.info("Leave request {} fully approved by {}", request.getReferenceNumber(), username);
         return toDTO(request);
@@ -245,10 +265,12 @@ public class LeaveRequestService {
         request.setApprovedBy(approver);
         request.setApprovedAt(LocalDateTime.now());
         request.setApproverComments(comments);
+        leaveReminderService.scheduleNext(request);
         request = leaveRequestRepository.save(request);
 
         leaveBalanceService.restoreBalance(request);
         notificationService.notifySubmitterOfDecision(request, "REJECTED", approver.getFullName(), comments);
+        publishToEmployee(request, approver.getFullName());
 
         log.info("Rejected leave request {} by {}", request.getReferenceNumber(), username);
         return toDTO(request);
@@ -272,15 +294,13 @@ public class LeaveRequestService {
         request.setCancellationReason(reason);
         LeaveRequestStatus previousStatus = request.getStatus();
         request.setStatus(LeaveRequestStatus.CANCELLED);
+        leaveReminderService.scheduleNext(request);
         request = leaveRequestRepository.save(request);
 
-        if (previousStatus == LeaveRequestStatus.APPROVED) {
-            leaveBalanceService.restoreBalance(request);
-        } else {
-            LeaveRequest tempRequest = request;
-            tempRequest.setStatus(LeaveRequestStatus.PENDING);
-            leaveBalanceService.restoreBalance(tempRequest);
-            request.setStatus(LeaveRequestStatus.CANCELLED);
+        leaveBalanceService.restoreBalance(request, previousStatus);
+        if (previousStatus == LeaveRequestStatus.PENDING) {
+            publishToApprover(request, request.getCurrentApprover(), LiveEventDTO.Type.APPROVAL_WITHDRAWN,
+                    user != null ? user.getFullName() : null);
         }
 
         log.info("Cancelled leave request {}", request.getReferenceNumber());
@@ -302,9 +322,12 @@ public class LeaveRequestService {
         addHistory(request, user, request.getCurrentLevel(), LeaveApprovalHistory.Action.RECALLED, null);
 
         request.setStatus(LeaveRequestStatus.RECALLED);
+        leaveReminderService.scheduleNext(request);
         request = leaveRequestRepository.save(request);
 
         leaveBalanceService.restoreBalance(request);
+        publishToApprover(request, request.getCurrentApprover(), LiveEventDTO.Type.APPROVAL_WITHDRAWN,
+                user != null ? user.getFullName() : null);
 
         log.info("Recalled leave request {}", request.getReferenceNumber());
         return toDTO(request);
@@ -333,6 +356,8 @@ public class LeaveRequestService {
                     .orElse(null);
         }
 
+        LeaveApprover previousApprover = request.getCurrentApprover();
+
         // If not a configured approver, create a temporary assignment
         if (newApprover == null) {
             // Just update the tracking fields directly
@@ -344,12 +369,17 @@ public class LeaveRequestService {
         request.setReminderCount(0);
         request.setLastReminderSentAt(null);
         request.setEscalatedAt(null);
+        leaveReminderService.scheduleNext(request);
         request = leaveRequestRepository.save(request);
 
         addHistory(request, currentUser, request.getCurrentLevel(), LeaveApprovalHistory.Action.REASSIGNED,
                 "Reassigned to " + newApproverUser.getFullName() + (reason != null ? ": " + reason : ""));
 
         notificationService.notifyOfReassignment(request, newApproverUser.getFullName(), reason);
+        String actorName = currentUser != null ? currentUser.getFullName() : null;
+        publishToApprover(request, previousApprover, LiveEventDTO.Type.APPROVAL_WITHDRAWN, actorName);
+        notificationHubService.publish(newApproverUser.getId(),
+                liveEvent(request, LiveEventDTO.Type.APPROVAL_REQUESTED, actorName));
 
         log.info("Reassigned leave request {} to {}", request.getReferenceNumber(), newApproverUser.getFullName());
         return toDTO(request);
@@ -383,6 +413,32 @@ public class LeaveRequestService {
         }
     }
 
+    private void publishToApprover(LeaveRequest request, LeaveApprover approver, LiveEventDTO.Type type,
+                                   String actorName) {
+        if (approver == null) return;
+        notificationHubService.publish(
+                notificationHubService.resolveUserId(approver.getUser(), approver.getApproverEmail()),
+                liveEvent(request, type, actorName));
+    }
+
+    private void publishToEmployee(LeaveRequest request, String actorName) {
+        notificationHubService.publish(request.getEmployee().getId(),
+                liveEvent(request, LiveEventDTO.Type.STATUS_CHANGED, actorName));
+    }
+
+    private LiveEventDTO liveEvent(LeaveRequest request, LiveEventDTO.Type type, String actorName) {
+        return LiveEventDTO.builder()
+                .type(type)
+                .module(LiveEventDTO.Module.LEAVE)
+                .entityId(request.getId())
+                .referenceNumber(request.getReferenceNumber())
+                .title(request.getEmployee().getFullName())
+                .status(request.getStatus().name())
+                .message(request.getLeaveType().getName())
+                .actorName(actorName)
+                .build();
+    }
+
     private UUID getRequestDepartmentId(LeaveRequest request) {
         return request.getEmployee().getDepartments().stream()
                 .findFirst().map(Department::getId).orElse(null);
@@ -403,17 +459,6 @@ public class LeaveRequestService {
         approvalHistoryRepository.save(history);
     }
 
-    private String generateReferenceNumber() {
-        int year = LocalDate.now().getYear();
-        String prefix = "LR-" + year + "-";
-        try {
-            int maxNum = leaveRequestRepository.findMaxReferenceNumberForPrefix(prefix + "%");
-            return prefix + String.format("%04d", maxNum + 1);
-        } catch (Exception e) {
-            return prefix + "0001";
-        }
-    }
-
     public LeaveRequestDTO toDTO(LeaveRequest entity) {
         User employee = entity.getEmployee();
         LeaveType leaveType = entity.getLeaveType();
@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 public class PublicHolidayService {
 
     private final PublicHolidayRepository publicHolidayRepository;
+    private final LeaveCalculationService calculationService;
 
     @Transactional(readOnly = true)
     public List<PublicHolidayDTO> getAll() {
@@ -54,6 +55,7 @@ public class PublicHolidayService {
         PublicHoliday entity = new PublicHoliday();
         mapDtoToEntity(dto, entity);
         entity = publicHolidayRepository.save(entity);
+        calculationService.invalidateCalendars();
         log.info("Created public holiday: {} on {}", entity.getName(), entity.getDate());
         return toDTO(entity);
     }
@@ -64,6 +66,7 @@ public class PublicHolidayService {
                 .orElseThrow(() -> new BusinessException("Public holiday not found"));
         mapDtoToEntity(dto, entity);
         entity = publicHolidayRepository.save(entity);
+        calculationService.invalidateCalendars();
         log.info("Updated public holiday: {}", entity.getName());
         return toDTO(entity);
     }
@@ -74,16 +77,19 @@ public class PublicHolidayService {
                 .orElseThrow(() -> new BusinessException("Public holiday not found"));
         entity.setIsActive(false);
         publicHolidayRepository.save(entity);
+        calculationService.invalidateCalendars();
         log.info("Soft-deleted public holiday: {}", entity.getName());
     }
 
     @Transactional
     public List<PublicHolidayDTO> bulkImport(List<PublicHolidayDTO> holidays) {
-        return holidays.stream().map(dto -> {
+        List<PublicHolidayDTO> imported = holidays.stream().map(dto -> {
             PublicHoliday entity = new PublicHoliday();
             mapDtoToEntity(dto, entity);
             return toDTO(publicHolidayRepository.save(entity));
         }).collect(Collectors.toList());
+        calculationService.invalidateCalendars();
+        return imported;
     }
 
     private void mapDtoToEntity(PublicHolidayDTO dto, PublicHoliday entity) {
@@ -0,0 +1,73 @@
+package com.sonar.workflow.leave.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Immutable working-day calendar for one calendar year: a bitset of working days (not a weekend
+ * day, not an active public holiday) and a prefix sum over it, so counting working days in any
+ * range of the year is two array reads.
+ */
+public final class WorkingDayCalendar {
+
+    private final int year;
+    private final BitSet workingDays;
+    // prefix[i] = working days among the first i days of the year
+    private final int[] prefix;
+
+    WorkingDayCalendar(int year, Set<DayOfWeek> weekendDays, Collection<LocalDate> holidays) {
+        this.year = year;
+        int length = Year.of(year).length();
+        LocalDate jan1 = LocalDate.of(year, 1, 1);
+
+        BitSet working = new BitSet(length);
+        DayOfWeek dayOfWeek = jan1.getDayOfWeek();
+        for (int i = 0; i < length; i++) {
+            if (!weekendDays.contains(dayOfWeek)) {
+                working.set(i);
+            }
+            dayOfWeek = dayOfWeek.plus(1);
+        }
+        for (LocalDate holiday : holidays) {
+            if (holiday.getYear() == year) {
+                working.clear(holiday.getDayOfYear() - 1);
+            }
+        }
+
+        int[] sums = new int[length + 1];
+        for (int i = 0; i < length; i++) {
+            sums[i + 1] = sums[i] + (working.get(i) ? 1 : 0);
+        }
+        this.workingDays = working;
+        this.prefix = sums;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        checkYear(date);
+        return workingDays.get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Working days from {@code start} to {@code end} inclusive; both must fall in this year.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        checkYear(start);
+        checkYear(end);
+        if (start.isAfter(end)) return 0;
+        return prefix[end.getDayOfYear()] - prefix[start.getDayOfYear() - 1];
+    }
+
+    private void checkYear(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException(date + " is outside the " + year + " calendar");
+        }
+    }
+}
@@ -17,6 +17,10 @@ public class GanttChartDTO {
     private List<GanttTask> tasks;
     private LocalDate projectStartDate;
     private LocalDate projectEndDate;
+    // Latest early finish of the computed schedule
+    private LocalDate scheduledFinishDate;
+    // Tasks in or behind a dependency cycle, which have no computed schedule
+    private List<UUID> unscheduledTaskIds;
 
     @Data
     @Builder
@@ -35,5 +39,11 @@ public class GanttChartDTO {
         private String assigneeName;
         private Boolean isCriticalPath;
         private Boolean isMilestone;
+        private LocalDate earlyStart;
+        private LocalDate earlyFinish;
+        private LocalDate lateStart;
+        private LocalDate lateFinish;
+        // Days the task can slip without moving the scheduled finish
+        private Integer totalFloat;
     }
 }
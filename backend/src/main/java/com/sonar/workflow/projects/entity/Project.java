@@ -14,7 +14,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = {
+        @Index(name = "idx_projects_active_created_at", columnList = "is_active, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -80,10 +80,27 @@ public class ProjectTask extends BaseEntity {
     @Builder.Default
     private Integer sortOrder = 0;
 
+    // Set by ProjectScheduleService: zero total float on the computed schedule
     @Column(name = "is_critical_path")
     @Builder.Default
     private Boolean isCriticalPath = false;
 
+    // Computed schedule (ProjectScheduleService); finish dates are inclusive
+    @Column(name = "early_start")
+    private LocalDate earlyStart;
+
+    @Column(name = "early_finish")
+    private LocalDate earlyFinish;
+
+    @Column(name = "late_start")
+    private LocalDate lateStart;
+
+    @Column(name = "late_finish")
+    private LocalDate lateFinish;
+
+    @Column(name = "total_float")
+    private Integer totalFloat;
+
     @OneToMany(mappedBy = "parentTask", cascade = CascadeType.ALL)
     @Builder.Default
     private List<ProjectTask> subTasks = new ArrayList<>();
@@ -0,0 +1,75 @@
+package com.sonar.workflow.projects.repository;
+
+import com.sonar.workflow.projects.entity.Project;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only aggregates behind the project dashboard. Every query applies the same scope as
+ * ProjectService.canAccessProject: unrestricted users see everything, others see projects without
+ * an SBU, projects in one of their SBUs, and projects they manage.
+ */
+public interface ProjectDashboardRepository extends Repository<Project, UUID> {
+
+    String SCOPE = "AND (:unrestricted = true OR p.sbu IS NULL OR p.manager.id = :userId " +
+            "OR p.sbu.id IN (SELECT s.id FROM User u JOIN u.sbus s WHERE u.id = :userId)) ";
+
+    /**
+     * Totals for one (status, priority, stage) combination. There are few combinations, so the
+     * dashboard folds them into its breakdowns and totals in memory.
+     */
+    interface Cell {
+        Project.ProjectStatus getStatus();
+        Project.ProjectPriority getPriority();
+        Project.ProjectStage getStage();
+        Long getProjects();
+        Long getOverdue();
+        BigDecimal getEstimatedBudget();
+        BigDecimal getActualCost();
+        Long getCompletionTotal();
+    }
+
+    interface SummaryRow {
+        UUID getId();
+        String getCode();
+        String getName();
+        Project.ProjectStatus getStatus();
+        Project.ProjectStage getStage();
+        Project.ProjectPriority getPriority();
+        String getManagerFirstName();
+        String getManagerLastName();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+        Integer getCompletionPercentage();
+        Long getTaskCount();
+        Long getCompletedTaskCount();
+        BigDecimal getEstimatedBudget();
+        BigDecimal getActualCost();
+    }
+
+    @Query("SELECT p.status AS status, p.priority AS priority, p.stage AS stage, COUNT(p) AS projects, " +
+           "COUNT(p) FILTER (WHERE p.endDate < CURRENT_DATE AND p.status NOT IN ('COMPLETED', 'CANCELLED', 'ARCHIVED')) AS overdue, " +
+           "COALESCE(SUM(p.estimatedBudget), 0) AS estimatedBudget, COALESCE(SUM(p.actualCost), 0) AS actualCost, " +
+           "COALESCE(SUM(COALESCE(p.completionPercentage, 0)), 0) AS completionTotal " +
+           "FROM Project p WHERE p.isActive = true " + SCOPE +
+           "GROUP BY p.status, p.priority, p.stage")
+    List<Cell> summarize(@Param("unrestricted") boolean unrestricted, @Param("userId") UUID userId);
+
+    @Query("SELECT p.id AS id, p.code AS code, p.name AS name, p.status AS status, p.stage AS stage, " +
+           "p.priority AS priority, m.firstName AS managerFirstName, m.lastName AS managerLastName, " +
+           "p.startDate AS startDate, p.endDate AS endDate, p.completionPercentage AS completionPercentage, " +
+           "(SELECT COUNT(t) FROM ProjectTask t WHERE t.project = p AND t.isActive = true) AS taskCount, " +
+           "(SELECT COUNT(t) FROM ProjectTask t WHERE t.project = p AND t.status = 'DONE') AS completedTaskCount, " +
+           "p.estimatedBudget AS estimatedBudget, p.actualCost AS actualCost " +
+           "FROM Project p LEFT JOIN p.manager m WHERE p.isActive = true " + SCOPE +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<SummaryRow> findRecent(@Param("unrestricted") boolean unrestricted, @Param("userId") UUID userId,
+                                Pageable pageable);
+}
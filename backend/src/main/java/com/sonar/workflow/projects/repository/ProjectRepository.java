@@ -34,9 +34,6 @@ public interface ProjectRepository extends JpaRepository<Project, UUID> {
 
     long countByIsActiveTrue();
 
-    @Query("SELECT p FROM Project p WHERE p.isActive = true AND p.endDate < CURRENT_DATE AND p.status NOT IN (com.sonar.workflow.projects.entity.Project.ProjectStatus.COMPLETED, com.sonar.workflow.projects.entity.Project.ProjectStatus.CANCELLED, com.sonar.workflow.projects.entity.Project.ProjectStatus.ARCHIVED)")
-    List<Project> findOverdueProjects();
-
     boolean existsByCategoryId(UUID categoryId);
 
     long countByCodeStartingWith(String codePrefix);
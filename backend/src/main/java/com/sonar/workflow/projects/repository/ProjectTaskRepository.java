@@ -2,14 +2,53 @@ package com.sonar.workflow.projects.repository;
 
 import com.sonar.workflow.projects.entity.ProjectTask;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProjectTaskRepository extends JpaRepository<ProjectTask, UUID> {
 
+    /** The fields of an active task that the schedule is computed from and stored in. */
+    interface ScheduleRow {
+        UUID getId();
+        String getName();
+        UUID getMilestoneId();
+        LocalDate getStartDate();
+        LocalDate getDueDate();
+        BigDecimal getEstimatedHours();
+        LocalDate getEarlyStart();
+        LocalDate getEarlyFinish();
+        LocalDate getLateStart();
+        LocalDate getLateFinish();
+        Integer getTotalFloat();
+        Boolean getIsCriticalPath();
+    }
+
+    interface DependencyRow {
+        UUID getTaskId();
+        UUID getDependsOnTaskId();
+    }
+
+    @Query("SELECT t.id AS id, t.name AS name, t.milestone.id AS milestoneId, t.startDate AS startDate, " +
+           "t.dueDate AS dueDate, t.estimatedHours AS estimatedHours, t.earlyStart AS earlyStart, " +
+           "t.earlyFinish AS earlyFinish, t.lateStart AS lateStart, t.lateFinish AS lateFinish, " +
+           "t.totalFloat AS totalFloat, t.isCriticalPath AS isCriticalPath " +
+           "FROM ProjectTask t WHERE t.project.id = :projectId AND t.isActive = true")
+    List<ScheduleRow> findScheduleRows(@Param("projectId") UUID projectId);
+
+    @Query("SELECT t.id AS taskId, d AS dependsOnTaskId FROM ProjectTask t JOIN t.dependencyTaskIds d " +
+           "WHERE t.project.id = :projectId AND t.isActive = true")
+    List<DependencyRow> findDependencyRows(@Param("projectId") UUID projectId);
+
+    @Query("SELECT DISTINCT t.project.id FROM ProjectTask t WHERE t.isActive = true AND t.earlyStart IS NULL")
+    List<UUID> findProjectIdsWithUnscheduledTasks();
+
     List<ProjectTask> findByProjectIdOrderBySortOrder(UUID projectId);
 
     List<ProjectTask> findByProjectIdAndIsActiveTrue(UUID projectId);
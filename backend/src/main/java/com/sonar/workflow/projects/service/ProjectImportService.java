@@ -35,6 +35,7 @@ public class ProjectImportService {
     private final ProjectIssueRepository issueRepository;
     private final UserRepository userRepository;
     private final ProjectService projectService;
+    private final ProjectScheduleService scheduleService;
 
     public byte[] generateProjectTemplate() throws IOException {
         try (XSSFWorkbook workbook = new XSSFWorkbook()) {
@@ -217,6 +218,7 @@ public class ProjectImportService {
     public Map<String, Object> importTasks(MultipartFile file) throws IOException {
         List<String> errors = new ArrayList<>();
         List<String> successes = new ArrayList<>();
+        Set<UUID> projectIds = new LinkedHashSet<>();
         int rowCount = 0;
 
         try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
@@ -288,6 +290,7 @@ public class ProjectImportService {
                     task.setTags(getCellStringValue(row.getCell(9)));
 
                     taskRepository.save(task);
+                    projectIds.add(task.getProject().getId());
                     successes.add("Row " + (i + 1) + ": Task '" + taskName + "' imported successfully");
 
                 } catch (Exception e) {
@@ -295,6 +298,8 @@ public class ProjectImportService {
                 }
             }
         }
+        // Imported tasks have no dependencies yet, but each full pass stores their schedule
+        projectIds.forEach(scheduleService::recalculate);
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("totalRows", rowCount);
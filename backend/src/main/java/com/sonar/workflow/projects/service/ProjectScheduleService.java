@@ -0,0 +1,373 @@
+package com.sonar.workflow.projects.service;
+
+import com.sonar.workflow.exception.BusinessException;
+import com.sonar.workflow.projects.entity.Project;
+import com.sonar.workflow.projects.entity.ProjectTask;
+import com.sonar.workflow.projects.repository.ProjectRepository;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository.DependencyRow;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository.ScheduleRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Critical path schedule of a project's active tasks. Dependencies are finish-to-start edges;
+ * a task lasts from its start to its due date, or its estimated hours at eight hours a day, and
+ * cannot start before its own start date (or the project's, when it has none).
+ * <p>
+ * A forward pass in topological order gives early start/finish, a backward pass from the latest
+ * early finish gives late start/finish, and tasks with zero total float are flagged as critical.
+ * The results are stored on the tasks. After a change to a few tasks only their successors are
+ * recomputed forwards and only their predecessors backwards, stopping where values no longer
+ * change, and only tasks whose schedule changed are written. Tasks in or behind a dependency
+ * cycle (possible only in data from before cycles were rejected) are left unscheduled.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectScheduleService {
+
+    private static final int HOURS_PER_DAY = 8;
+
+    private final ProjectRepository projectRepository;
+    private final ProjectTaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Recomputes the whole schedule.
+     *
+     * @return the number of tasks whose schedule changed
+     */
+    @Transactional
+    public int recalculate(UUID projectId) {
+        return schedule(projectId, null, null);
+    }
+
+    /**
+     * Updates the schedule after {@code changedTaskIds} changed their dates, estimate or
+     * dependencies. {@code affectedPredecessorIds} are tasks that gained or lost a successor.
+     * Falls back to a full pass when part of the stored schedule is missing.
+     */
+    @Transactional
+    public int reschedule(UUID projectId, Collection<UUID> changedTaskIds, Collection<UUID> affectedPredecessorIds) {
+        return schedule(projectId, new HashSet<>(changedTaskIds), new HashSet<>(affectedPredecessorIds));
+    }
+
+    /**
+     * Schedules projects with tasks that have no stored schedule yet, e.g. tasks created before
+     * scheduling existed, so that reads never have to compute it. Each project commits on its own.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = 0;
+        for (UUID projectId : taskRepository.findProjectIdsWithUnscheduledTasks()) {
+            try {
+                Integer changed = transactionTemplate.execute(status -> schedule(projectId, null, null));
+                updated += changed != null ? changed : 0;
+            } catch (Exception e) {
+                log.warn("Could not schedule project {}: {}", projectId, e.getMessage());
+            }
+        }
+        if (updated > 0) {
+            log.info("Scheduled {} project tasks", updated);
+        }
+    }
+
+    /**
+     * Rejects dependencies that would make {@code taskId} depend on itself, directly or through
+     * other tasks.
+     */
+    @Transactional(readOnly = true)
+    public void assertAcyclic(UUID projectId, UUID taskId, Collection<UUID> dependsOnTaskIds) {
+        if (dependsOnTaskIds.contains(taskId)) {
+            throw new BusinessException("A task cannot depend on itself");
+        }
+        Map<UUID, List<UUID>> dependencies = new HashMap<>();
+        for (DependencyRow row : taskRepository.findDependencyRows(projectId)) {
+            dependencies.computeIfAbsent(row.getTaskId(), k -> new ArrayList<>()).add(row.getDependsOnTaskId());
+        }
+        dependencies.put(taskId, new ArrayList<>(dependsOnTaskIds));
+
+        // Walk the dependencies of taskId; reaching it again closes a cycle
+        Map<UUID, UUID> reachedFrom = new HashMap<>();
+        Deque<UUID> stack = new ArrayDeque<>();
+        for (UUID dependsOn : dependsOnTaskIds) {
+            if (reachedFrom.putIfAbsent(dependsOn, taskId) == null) {
+                stack.push(dependsOn);
+            }
+        }
+        while (!stack.isEmpty()) {
+            UUID current = stack.pop();
+            for (UUID next : dependencies.getOrDefault(current, List.of())) {
+                if (next.equals(taskId)) {
+                    reachedFrom.put(taskId, current);
+                    throw new BusinessException("Dependency would create a cycle: " + describeCycle(taskId, reachedFrom));
+                }
+                if (reachedFrom.putIfAbsent(next, current) == null) {
+                    stack.push(next);
+                }
+            }
+        }
+    }
+
+    private String describeCycle(UUID taskId, Map<UUID, UUID> reachedFrom) {
+        LinkedList<UUID> cycle = new LinkedList<>();
+        cycle.addFirst(taskId);
+        for (UUID id = reachedFrom.get(taskId); !id.equals(taskId); id = reachedFrom.get(id)) {
+            cycle.addFirst(id);
+        }
+        cycle.addFirst(taskId);
+        Map<UUID, String> names = taskRepository.findAllById(new HashSet<>(cycle)).stream()
+                .collect(Collectors.toMap(ProjectTask::getId, ProjectTask::getName));
+        return cycle.stream()
+                .map(id -> "'" + names.getOrDefault(id, id.toString()) + "'")
+                .collect(Collectors.joining(" depends on "));
+    }
+
+    /**
+     * Runs the passes; {@code null} seeds mean a full recomputation.
+     */
+    private int schedule(UUID projectId, Set<UUID> changedIds, Set<UUID> predecessorIds) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new BusinessException("Project not found"));
+        List<ScheduleRow> rows = taskRepository.findScheduleRows(projectId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        long projectStart = projectStart(project, rows).toEpochDay();
+        Map<UUID, Node> nodes = new LinkedHashMap<>();
+        for (ScheduleRow row : rows) {
+            nodes.put(row.getId(), new Node(row, projectStart));
+        }
+        for (DependencyRow dependency : taskRepository.findDependencyRows(projectId)) {
+            Node task = nodes.get(dependency.getTaskId());
+            Node predecessor = nodes.get(dependency.getDependsOnTaskId());
+            // Dependencies on inactive tasks or tasks of other projects do not constrain the schedule
+            if (task != null && predecessor != null && task != predecessor) {
+                task.predecessors.add(predecessor);
+                predecessor.successors.add(task);
+            }
+        }
+
+        List<Node> order = topologicalOrder(nodes.values());
+        boolean full = changedIds == null || order.stream().anyMatch(n -> !n.hasStoredSchedule());
+        if (order.size() < nodes.size()) {
+            log.warn("Project {} has {} tasks in or behind a dependency cycle; they are left unscheduled",
+                    project.getCode(), nodes.size() - order.size());
+        }
+
+        // Forward pass: early start and finish
+        long previousFinish = order.stream().mapToLong(n -> n.ef).max().orElse(projectStart);
+        Set<Node> pending = full ? new HashSet<>(order) : nodesOf(nodes, changedIds);
+        for (Node node : order) {
+            if (!pending.contains(node)) {
+                continue;
+            }
+            long es = node.lowerBound;
+            for (Node predecessor : node.predecessors) {
+                es = Math.max(es, predecessor.ef);
+            }
+            long ef = es + node.duration;
+            if (es != node.es || ef != node.ef) {
+                node.es = es;
+                node.ef = ef;
+                pending.addAll(node.successors);
+            }
+        }
+
+        // Backward pass: late start and finish against the latest early finish
+        long finish = order.stream().mapToLong(n -> n.ef).max().orElse(projectStart);
+        if (full || finish != previousFinish) {
+            pending = new HashSet<>(order);
+        } else {
+            pending = nodesOf(nodes, changedIds);
+            pending.addAll(nodesOf(nodes, predecessorIds));
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            if (!pending.contains(node)) {
+                continue;
+            }
+            long lf = finish;
+            for (Node successor : node.successors) {
+                lf = Math.min(lf, successor.ls);
+            }
+            long ls = lf - node.duration;
+            if (ls != node.ls || lf != node.lf) {
+                node.ls = ls;
+                node.lf = lf;
+                pending.addAll(node.predecessors);
+            }
+        }
+
+        Set<Node> scheduled = new HashSet<>(order);
+        Map<UUID, Node> changed = new HashMap<>();
+        for (Node node : nodes.values()) {
+            if (!scheduled.contains(node)) {
+                node.markUnscheduled();
+            }
+            if (node.differsFromStored()) {
+                changed.put(node.row.getId(), node);
+            }
+        }
+        for (ProjectTask task : taskRepository.findAllById(changed.keySet())) {
+            changed.get(task.getId()).applyTo(task);
+        }
+        if (!changed.isEmpty()) {
+            log.debug("Rescheduled {} of {} tasks in project {} ({})", changed.size(), nodes.size(),
+                    project.getCode(), full ? "full" : "incremental");
+        }
+        return changed.size();
+    }
+
+    private static LocalDate projectStart(Project project, List<ScheduleRow> rows) {
+        if (project.getStartDate() != null) {
+            return project.getStartDate();
+        }
+        return rows.stream()
+                .map(ScheduleRow::getStartDate)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(project.getCreatedAt() != null ? project.getCreatedAt().toLocalDate() : LocalDate.now());
+    }
+
+    /**
+     * Kahn's algorithm; nodes in or behind a cycle are never released and are left out.
+     */
+    private static List<Node> topologicalOrder(Collection<Node> nodes) {
+        Map<Node, Integer> remaining = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes) {
+            remaining.put(node, node.predecessors.size());
+            if (node.predecessors.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<Node> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            order.add(node);
+            for (Node successor : node.successors) {
+                if (remaining.merge(successor, -1, Integer::sum) == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static Set<Node> nodesOf(Map<UUID, Node> nodes, Set<UUID> ids) {
+        Set<Node> result = new HashSet<>();
+        for (UUID id : ids) {
+            Node node = nodes.get(id);
+            if (node != null) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A task in the schedule graph. Times are epoch days with exclusive finishes, so a one-day
+     * task starting on day d has ef = d + 1; stored finish dates are inclusive.
+     */
+    private static final class Node {
+        final ScheduleRow row;
+        final long duration;
+        final long lowerBound;
+        final List<Node> predecessors = new ArrayList<>();
+        final List<Node> successors = new ArrayList<>();
+        long es;
+        long ef;
+        long ls;
+        long lf;
+        boolean unscheduled;
+
+        Node(ScheduleRow row, long projectStart) {
+            this.row = row;
+            this.duration = duration(row);
+            this.lowerBound = row.getStartDate() != null ? row.getStartDate().toEpochDay() : projectStart;
+            if (hasStoredSchedule()) {
+                es = row.getEarlyStart().toEpochDay();
+                ef = row.getEarlyFinish().toEpochDay() + 1;
+                ls = row.getLateStart().toEpochDay();
+                lf = row.getLateFinish().toEpochDay() + 1;
+            }
+        }
+
+        boolean hasStoredSchedule() {
+            return row.getEarlyStart() != null && row.getEarlyFinish() != null
+                    && row.getLateStart() != null && row.getLateFinish() != null;
+        }
+
+        void markUnscheduled() {
+            unscheduled = true;
+        }
+
+        LocalDate earlyStart() {
+            return unscheduled ? null : LocalDate.ofEpochDay(es);
+        }
+
+        LocalDate earlyFinish() {
+            return unscheduled ? null : LocalDate.ofEpochDay(ef - 1);
+        }
+
+        LocalDate lateStart() {
+            return unscheduled ? null : LocalDate.ofEpochDay(ls);
+        }
+
+        LocalDate lateFinish() {
+            return unscheduled ? null : LocalDate.ofEpochDay(lf - 1);
+        }
+
+        Integer totalFloat() {
+            return unscheduled ? null : (int) (ls - es);
+        }
+
+        boolean critical() {
+            return !unscheduled && ls == es;
+        }
+
+        boolean differsFromStored() {
+            return !Objects.equals(earlyStart(), row.getEarlyStart())
+                    || !Objects.equals(earlyFinish(), row.getEarlyFinish())
+                    || !Objects.equals(lateStart(), row.getLateStart())
+                    || !Objects.equals(lateFinish(), row.getLateFinish())
+                    || !Objects.equals(totalFloat(), row.getTotalFloat())
+                    || critical() != Boolean.TRUE.equals(row.getIsCriticalPath());
+        }
+
+        void applyTo(ProjectTask task) {
+            task.setEarlyStart(earlyStart());
+            task.setEarlyFinish(earlyFinish());
+            task.setLateStart(lateStart());
+            task.setLateFinish(lateFinish());
+            task.setTotalFloat(totalFloat());
+            task.setIsCriticalPath(critical());
+        }
+
+        private static long duration(ScheduleRow row) {
+            if (row.getStartDate() != null && row.getDueDate() != null && !row.getDueDate().isBefore(row.getStartDate())) {
+                return ChronoUnit.DAYS.between(row.getStartDate(), row.getDueDate()) + 1;
+            }
+            BigDecimal hours = row.getEstimatedHours();
+            if (hours != null && hours.signum() > 0) {
+                return Math.max(1, hours.divide(BigDecimal.valueOf(HOURS_PER_DAY), 0, RoundingMode.CEILING).longValue());
+            }
+            return 1;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.stream.Collectors;
 public class ProjectService {
 
     private final ProjectRepository projectRepository;
+    private final ProjectDashboardRepository dashboardRepository;
     private final ProjectTaskRepository taskRepository;
     private final ProjectPhaseRepository phaseRepository;
     private final ProjectMilestoneRepository milestoneRepository;
@@ -64,6 +65,7 @@ public class ProjectService {
     private final RiskIssueCategoryRepository riskIssueCategoryRepository;
     private final AuditService auditService;
     private final AccessScopeService accessScopeService;
+    private final ProjectScheduleService scheduleService;
 
     // ==================== PROJECT CODE GENERATION ====================
 
@@ -254,6 +256,7 @@ public class ProjectService {
             ProjectCategory cat = projectCategoryRepository.findByCode(request.getCategory()).orElse(null);
             project.setCategory(cat);
         }
+        LocalDate previousStartDate = project.getStartDate();
         if (request.getStartDate() != null) project.setStartDate(request.getStartDate());
         if (request.getEndDate() != null) project.setEndDate(request.getEndDate());
         if (request.getActualStartDate() != null) project.setActualStartDate(request.getActualStartDate());
@@ -284,6 +287,10 @@ public class ProjectService {
         }
 
         Project saved = projectRepository.save(project);
+        if (!Objects.equals(previousStartDate, saved.getStartDate())) {
+            // Tasks without a start date of their own are scheduled from the project start
+            scheduleService.recalculate(saved.getId());
+        }
         activityService.recordActivity(saved, "PROJECT_UPDATED", "Project '" + saved.getName() + "' updated", "PROJECT", saved.getId());
         auditService.log(AuditLog.AuditAction.UPDATE, "Project", saved.getId(), saved.getName(), "Project updated: " + saved.getCode(), null, toDTO(saved));
         log.info("Project updated: {} ({})", saved.getName(), saved.getCode());
@@ -1221,55 +1228,54 @@ public class ProjectService {
 
     // ==================== DASHBOARD ====================
 
+    /**
+     * Portfolio dashboard over the projects the current user may access, built from one grouped
+     * aggregate and a top-N projection of the most recent projects.
+     */
     @Transactional(readOnly = true)
     public ProjectDashboardDTO getDashboard() {
-        long totalProjects = projectRepository.countByIsActiveTrue();
-        long activeProjects = projectRepository.countByStatus(ProjectStatus.ACTIVE);
-        long completedProjects = projectRepository.countByStatus(ProjectStatus.COMPLETED);
-        long overdueProjects = projectRepository.findOverdueProjects().size();
+        User user = accessScopeService.getCurrentUser();
+        boolean unrestricted = user == null || accessScopeService.isUnrestricted(user);
+        UUID userId = user != null ? user.getId() : null;
 
         Map<String, Long> projectsByStatus = new HashMap<>();
         for (ProjectStatus status : ProjectStatus.values()) {
-            projectsByStatus.put(status.name(), projectRepository.countByStatus(status));
+            projectsByStatus.put(status.name(), 0L);
         }
-
         Map<String, Long> projectsByPriority = new HashMap<>();
         Map<String, Long> projectsByStage = new HashMap<>();
 
-        List<Project> allActive = projectRepository.findByIsActiveTrueOrderByCreatedAtDesc();
-        for (Project p : allActive) {
-            projectsByPriority.merge(p.getPriority().name(), 1L, Long::sum);
-            projectsByStage.merge(p.getStage().name(), 1L, Long::sum);
+        long totalProjects = 0;
+        long overdueProjects = 0;
+        long completionTotal = 0;
+        BigDecimal totalBudget = BigDecimal.ZERO;
+        BigDecimal totalActualCost = BigDecimal.ZERO;
+
+        for (ProjectDashboardRepository.Cell cell : dashboardRepository.summarize(unrestricted, userId)) {
+            long count = cell.getProjects();
+            totalProjects += count;
+            overdueProjects += cell.getOverdue();
+            completionTotal += cell.getCompletionTotal();
+            totalBudget = totalBudget.add(cell.getEstimatedBudget());
+            totalActualCost = totalActualCost.add(cell.getActualCost());
+            projectsByStatus.merge(cell.getStatus().name(), count, Long::sum);
+            projectsByPriority.merge(cell.getPriority().name(), count, Long::sum);
+            projectsByStage.merge(cell.getStage().name(), count, Long::sum);
         }
 
-        BigDecimal totalBudget = allActive.stream()
-                .map(Project::getEstimatedBudget)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalActualCost = allActive.stream()
-                .map(Project::getActualCost)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        double averageCompletion = allActive.stream()
-                .mapToInt(p -> p.getCompletionPercentage() != null ? p.getCompletionPercentage() : 0)
-                .average()
-                .orElse(0.0);
-
-        List<ProjectSummaryDTO> recentProjects = allActive.stream()
-                .limit(10)
+        List<ProjectSummaryDTO> recentProjects = dashboardRepository
+                .findRecent(unrestricted, userId, PageRequest.of(0, 10)).stream()
                 .map(this::toSummaryDTO)
                 .collect(Collectors.toList());
 
         return ProjectDashboardDTO.builder()
                 .totalProjects(totalProjects)
-                .activeProjects(activeProjects)
-                .completedProjects(completedProjects)
+                .activeProjects(projectsByStatus.get(ProjectStatus.ACTIVE.name()))
+                .completedProjects(projectsByStatus.get(ProjectStatus.COMPLETED.name()))
                 .overdueProjects(overdueProjects)
                 .totalBudget(totalBudget)
                 .totalActualCost(totalActualCost)
-                .averageCompletion(averageCompletion)
+                .averageCompletion(totalProjects > 0 ? (double) completionTotal / totalProjects : 0.0)
                 .projectsByStatus(projectsByStatus)
                 .projectsByPriority(projectsByPriority)
                 .projectsByStage(projectsByStage)
@@ -1404,6 +1410,28 @@ public class ProjectService {
                 .build();
     }
 
+    private ProjectSummaryDTO toSummaryDTO(ProjectDashboardRepository.SummaryRow row) {
+        String managerName = row.getManagerFirstName() == null && row.getManagerLastName() == null ? null
+                : (row.getManagerFirstName() != null ? row.getManagerFirstName() : "") + " "
+                + (row.getManagerLastName() != null ? row.getManagerLastName() : "");
+        return ProjectSummaryDTO.builder()
+                .id(row.getId())
+                .code(row.getCode())
+                .name(row.getName())
+                .status(row.getStatus() != null ? row.getStatus().name() : null)
+                .stage(row.getStage() != null ? row.getStage().name() : null)
+                .priority(row.getPriority() != null ? row.getPriority().name() : null)
+                .managerName(managerName)
+                .startDate(row.getStartDate())
+                .endDate(row.getEndDate())
+                .completionPercentage(row.getCompletionPercentage())
+                .taskCount(row.getTaskCount().intValue())
+                .completedTaskCount(row.getCompletedTaskCount().intValue())
+                .estimatedBudget(row.getEstimatedBudget())
+                .actualCost(row.getActualCost())
+                .build();
+    }
+
     private ProjectTeamMemberDTO toTeamMemberDTO(ProjectTeamMember m) {
         return ProjectTeamMemberDTO.builder()
                 .id(m.getId())
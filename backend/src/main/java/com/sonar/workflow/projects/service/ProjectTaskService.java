@@ -16,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,6 +36,7 @@ public class ProjectTaskService {
     private final ProjectActivityService activityService;
     private final AuditService auditService;
     private final ProjectSettingsService settingsService;
+    private final ProjectScheduleService scheduleService;
 
     // ==================== TASK CRUD ====================
 
@@ -97,7 +99,6 @@ public class ProjectTaskService {
                 .estimatedHours(dto.getEstimatedHours() != null ? dto.getEstimatedHours() :
                         new BigDecimal(settingsService.getSettingValue("project.task.default_hours", "8")))
                 .sortOrder(dto.getSortOrder() != null ? dto.getSortOrder() : 0)
-                .isCriticalPath(dto.getIsCriticalPath() != null ? dto.getIsCriticalPath() : false)
                 .tags(dto.getTags())
                 .build();
 
@@ -126,6 +127,8 @@ public class ProjectTaskService {
         }
 
         ProjectTask saved = taskRepository.save(task);
+        // A new task has no successors yet, so its dependencies cannot close a cycle
+        scheduleService.reschedule(projectId, List.of(saved.getId()), saved.getDependencyTaskIds());
         updateProjectCompletion(projectId);
         activityService.recordActivity(project, "TASK_CREATED", "Task '" + saved.getName() + "' created", "TASK", saved.getId());
         auditService.log(AuditLog.AuditAction.CREATE, "ProjectTask", saved.getId(), saved.getName(), "Task created", null, toDTO(saved));
@@ -160,7 +163,6 @@ public class ProjectTaskService {
         if (dto.getEstimatedHours() != null) task.setEstimatedHours(dto.getEstimatedHours());
         if (dto.getCompletionPercentage() != null) task.setCompletionPercentage(dto.getCompletionPercentage());
         if (dto.getSortOrder() != null) task.setSortOrder(dto.getSortOrder());
-        if (dto.getIsCriticalPath() != null) task.setIsCriticalPath(dto.getIsCriticalPath());
         if (dto.getTags() != null) task.setTags(dto.getTags());
 
         if (dto.getAssigneeId() != null) {
@@ -178,11 +180,18 @@ public class ProjectTaskService {
                     .orElseThrow(() -> new BusinessException("Milestone not found"));
             task.setMilestone(milestone);
         }
+        Set<UUID> affectedPredecessors = new HashSet<>(task.getDependencyTaskIds());
         if (dto.getDependencyTaskIds() != null) {
+            scheduleService.assertAcyclic(task.getProject().getId(), taskId, dto.getDependencyTaskIds());
             task.setDependencyTaskIds(dto.getDependencyTaskIds());
+            affectedPredecessors.addAll(dto.getDependencyTaskIds());
         }
 
         ProjectTask saved = taskRepository.save(task);
+        if (dto.getStartDate() != null || dto.getDueDate() != null || dto.getEstimatedHours() != null
+                || dto.getDependencyTaskIds() != null) {
+            scheduleService.reschedule(saved.getProject().getId(), List.of(taskId), affectedPredecessors);
+        }
         updateProjectCompletion(projectId);
         auditService.log(AuditLog.AuditAction.UPDATE, "ProjectTask", saved.getId(), saved.getName(), "Task updated", null, toDTO(saved));
         return toDTO(saved);
@@ -195,6 +204,7 @@ public class ProjectTaskService {
         auditService.log(AuditLog.AuditAction.DELETE, "ProjectTask", taskId, task.getName(), "Task deleted", null, null);
         task.setIsActive(false);
         taskRepository.save(task);
+        scheduleService.recalculate(task.getProject().getId());
         updateProjectCompletion(projectId);
     }
 
@@ -348,12 +358,33 @@ public class ProjectTaskService {
 
     // ==================== GANTT CHART ====================
 
+    /**
+     * Tasks and milestones with their computed schedule. Milestones follow the latest early
+     * finish of their tasks and float to the scheduled project finish. The schedule itself is
+     * stored by the write paths; tasks without one are reported as unscheduled.
+     */
     @Transactional(readOnly = true)
     public GanttChartDTO getGanttChart(UUID projectId) {
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new BusinessException("Project not found"));
 
         List<ProjectTask> tasks = taskRepository.findByProjectIdAndIsActiveTrue(projectId);
+        LocalDate scheduledFinish = tasks.stream()
+                .map(ProjectTask::getEarlyFinish)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        Map<UUID, LocalDate> milestoneEarlyDates = new HashMap<>();
+        for (ProjectTask task : tasks) {
+            if (task.getMilestone() != null && task.getEarlyFinish() != null) {
+                milestoneEarlyDates.merge(task.getMilestone().getId(), task.getEarlyFinish(),
+                        (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        List<UUID> unscheduled = tasks.stream()
+                .filter(t -> t.getEarlyStart() == null)
+                .map(ProjectTask::getId)
+                .collect(Collectors.toList());
         List<ProjectMilestone> milestones = milestoneRepository.findByProjectIdOrderBySortOrder(projectId);
 
         List<GanttChartDTO.GanttTask> ganttTasks = new ArrayList<>();
@@ -373,12 +404,19 @@ public class ProjectTaskService {
                     .assigneeName(task.getAssignee() != null ? task.getAssignee().getFullName() : null)
                     .isCriticalPath(task.getIsCriticalPath())
                     .isMilestone(false)
+                    .earlyStart(task.getEarlyStart())
+                    .earlyFinish(task.getEarlyFinish())
+                    .lateStart(task.getLateStart())
+                    .lateFinish(task.getLateFinish())
+                    .totalFloat(task.getTotalFloat())
                     .build();
             ganttTasks.add(ganttTask);
         }
 
         // Add milestones
         for (ProjectMilestone milestone : milestones) {
+            LocalDate earlyDate = milestoneEarlyDates.get(milestone.getId());
+            Integer totalFloat = earlyDate != null ? (int) ChronoUnit.DAYS.between(earlyDate, scheduledFinish) : null;
             GanttChartDTO.GanttTask ganttMilestone = GanttChartDTO.GanttTask.builder()
                     .id(milestone.getId())
                     .name(milestone.getName())
@@ -387,8 +425,13 @@ public class ProjectTaskService {
                     .startDate(milestone.getDueDate())
                     .endDate(milestone.getDueDate())
                     .completionPercentage(milestone.getStatus() == ProjectMilestone.MilestoneStatus.COMPLETED ? 100 : 0)
-                    .isCriticalPath(milestone.getIsCritical())
+                    .isCriticalPath(totalFloat != null && totalFloat == 0)
                     .isMilestone(true)
+                    .earlyStart(earlyDate)
+                    .earlyFinish(earlyDate)
+                    .lateStart(earlyDate != null ? scheduledFinish : null)
+                    .lateFinish(earlyDate != null ? scheduledFinish : null)
+                    .totalFloat(totalFloat)
                     .build();
             ganttTasks.add(ganttMilestone);
         }
@@ -397,6 +440,8 @@ public class ProjectTaskService {
                 .tasks(ganttTasks)
                 .projectStartDate(project.getStartDate())
                 .projectEndDate(project.getEndDate())
+                .scheduledFinishDate(scheduledFinish)
+                .unscheduledTaskIds(unscheduled)
                 .build();
     }
 
@@ -415,8 +460,13 @@ public class ProjectTaskService {
         }
 
         if (!task.getDependencyTaskIds().contains(dependsOnTaskId)) {
+            List<UUID> dependencies = new ArrayList<>(task.getDependencyTaskIds());
+            dependencies.add(dependsOnTaskId);
+            UUID projectId = task.getProject().getId();
+            scheduleService.assertAcyclic(projectId, taskId, dependencies);
             task.getDependencyTaskIds().add(dependsOnTaskId);
             task = taskRepository.save(task);
+            scheduleService.reschedule(projectId, List.of(taskId), List.of(dependsOnTaskId));
         }
         return toDTO(task);
     }
@@ -426,8 +476,10 @@ public class ProjectTaskService {
         ProjectTask task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new BusinessException("Task not found"));
 
-        task.getDependencyTaskIds().remove(dependsOnTaskId);
-        task = taskRepository.save(task);
+        if (task.getDependencyTaskIds().remove(dependsOnTaskId)) {
+            task = taskRepository.save(task);
+            scheduleService.reschedule(task.getProject().getId(), List.of(taskId), List.of(dependsOnTaskId));
+        }
         return toDTO(task);
     }
 
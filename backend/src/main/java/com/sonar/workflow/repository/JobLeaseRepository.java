@@ -0,0 +1,64 @@
+package com.sonar.workflow.repository;
+
+import com.sonar.workflow.entity.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lease statements compare against the database clock (LOCALTIMESTAMP) so nodes with
+ * skewed clocks still agree on who holds a lease.
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, UUID> {
+
+    List<JobLease> findAllByOrderByJobNameAsc();
+
+    @Modifying
+    @Query(value = "INSERT INTO job_leases (id, job_name, created_at, is_active, version) " +
+            "VALUES (:id, :jobName, LOCALTIMESTAMP, true, 0) ON CONFLICT (job_name) DO NOTHING",
+            nativeQuery = true)
+    int insertIfMissing(@Param("id") UUID id, @Param("jobName") String jobName);
+
+    /**
+     * Takes the lease when it is free or expired. Returns 1 when acquired. A lease this node still
+     * holds is not taken again, so a tick that overlaps a run still in progress skips.
+     */
+    @Modifying
+    @Query(value = "UPDATE job_leases SET owner_node = :owner, " +
+            "lease_until = LOCALTIMESTAMP + (:lockSeconds * INTERVAL '1 second'), " +
+            "heartbeat_at = LOCALTIMESTAMP, last_started_at = LOCALTIMESTAMP " +
+            "WHERE job_name = :jobName " +
+            "AND (lease_until IS NULL OR lease_until <= LOCALTIMESTAMP)",
+            nativeQuery = true)
+    int tryAcquire(@Param("jobName") String jobName, @Param("owner") String owner,
+                   @Param("lockSeconds") long lockSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE job_leases SET lease_until = LOCALTIMESTAMP + (:lockSeconds * INTERVAL '1 second'), " +
+            "heartbeat_at = LOCALTIMESTAMP WHERE job_name = :jobName AND owner_node = :owner",
+            nativeQuery = true)
+    int extend(@Param("jobName") String jobName, @Param("owner") String owner,
+               @Param("lockSeconds") long lockSeconds);
+
+    /**
+     * Records the run and keeps the lease until at least {@code minSeconds} after the start,
+     * so nodes whose scheduler fires slightly later in the same tick skip it.
+     */
+    @Modifying
+    @Query(value = "UPDATE job_leases SET " +
+            "lease_until = GREATEST(LOCALTIMESTAMP, last_started_at + (:minSeconds * INTERVAL '1 second')), " +
+            "last_finished_at = LOCALTIMESTAMP, last_duration_ms = :durationMs, " +
+            "last_items_processed = :items, last_status = :status, last_error = CAST(:error AS TEXT) " +
+            "WHERE job_name = :jobName AND owner_node = :owner",
+            nativeQuery = true)
+    int release(@Param("jobName") String jobName, @Param("owner") String owner,
+                @Param("minSeconds") long minSeconds, @Param("durationMs") long durationMs,
+                @Param("items") int items, @Param("status") String status,
+                @Param("error") String error);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -51,4 +52,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findByUserType(@Param("userType") User.UserType userType);
 
     List<User> findByIsLockedTrue();
+
+    /** Users a workflow approver entry points at, by user or by approver email. */
+    @Query("SELECT u.id FROM User u " +
+           "WHERE u.id IN (SELECT a.user.id FROM WorkflowApprover a WHERE a.id IN :approverIds) " +
+           "OR u.email IN (SELECT a.approverEmail FROM WorkflowApprover a WHERE a.id IN :approverIds)")
+    List<UUID> findIdsByWorkflowApproverIds(@Param("approverIds") Collection<UUID> approverIds);
 }
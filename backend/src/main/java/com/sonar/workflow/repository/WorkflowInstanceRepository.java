@@ -4,6 +4,7 @@ import com.sonar.workflow.entity.WorkflowInstance;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -70,7 +71,31 @@ public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstan
     @Query("SELECT i FROM WorkflowInstance i WHERE i.parentInstance.id = :parentInstanceId AND i.isActive = true ORDER BY i.createdAt ASC")
     List<WorkflowInstance> findChildInstances(@Param("parentInstanceId") UUID parentInstanceId);
 
-    @Query("SELECT i FROM WorkflowInstance i JOIN FETCH i.workflow w JOIN FETCH i.initiator " +
-           "WHERE i.status = 'PENDING' AND i.isActive = true AND w.reminderEnabled = true")
-    List<WorkflowInstance> findPendingWithRemindersEnabled();
+    /**
+     * Locks the next batch of pending instances whose reminder or escalation is due. Rows locked by
+     * another node are skipped, so several schedulers can drain the queue concurrently.
+     */
+    @Query(value = "SELECT i.id FROM workflow_instances i JOIN workflows w ON w.id = i.workflow_id " +
+            "WHERE i.status = 'PENDING' AND i.is_active = true AND w.reminder_enabled = true " +
+            "AND (i.next_reminder_at <= :now OR i.next_escalation_at <= :now) " +
+            "ORDER BY LEAST(i.next_reminder_at, i.next_escalation_at) " +
+            "LIMIT :limit FOR UPDATE OF i SKIP LOCKED", nativeQuery = true)
+    List<UUID> lockDueForReminders(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT i FROM WorkflowInstance i JOIN FETCH i.workflow " +
+           "WHERE i.workflow.id = :workflowId AND i.status = 'PENDING' AND i.isActive = true")
+    List<WorkflowInstance> findPendingByWorkflowId(@Param("workflowId") UUID workflowId);
+
+    @Query("SELECT i FROM WorkflowInstance i JOIN FETCH i.workflow LEFT JOIN FETCH i.initiator WHERE i.id IN :ids")
+    List<WorkflowInstance> findAllWithWorkflowByIdIn(@Param("ids") List<UUID> ids);
+
+    /**
+     * Marks pending instances that predate the due-time columns as due now, so the scheduler
+     * evaluates them once and computes their real due times.
+     */
+    @Modifying
+    @Query(value = "UPDATE workflow_instances SET next_reminder_at = submitted_at " +
+            "WHERE status = 'PENDING' AND submitted_at IS NOT NULL " +
+            "AND next_reminder_at IS NULL AND next_escalation_at IS NULL", nativeQuery = true)
+    int backfillReminderDueTimes();
 }
@@ -1,5 +1,6 @@
 package com.sonar.workflow.security;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -22,6 +23,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -31,12 +33,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract JWT token from request
             String token = extractTokenFromRequest(request);
 
-            // Validate token and set authentication
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String username = jwtTokenProvider.getUsernameFromToken(token);
+            // Verify token and read its claims in one parse
+            Claims claims = StringUtils.hasText(token) ? jwtTokenProvider.parseClaims(token).orElse(null) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
+                long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
 
-                // Load user details and create authentication token
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Load user details (cached briefly per token) and create authentication token
+                UserDetails userDetails = principalCache.get(username, issuedAt,
+                        () -> userDetailsService.loadUserByUsername(username));
                 UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
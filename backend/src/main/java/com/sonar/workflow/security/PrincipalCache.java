@@ -0,0 +1,153 @@
+package com.sonar.workflow.security;
+
+import com.sonar.workflow.service.PgNotificationListener;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of authenticated principals keyed by (username, token iat, security stamp).
+ * The security stamp is a per-user generation number bumped whenever the user's account state
+ * or roles change, so entries loaded before the change can never be served again.
+ * <p>
+ * Invalidations are broadcast to the other nodes over {@link PgNotificationListener} when the
+ * transaction commits, so a user locked or re-roled on one node is dropped everywhere. Stamps are
+ * only kept for users bumped within the last two TTLs; after that no entry from before the bump
+ * can still be cached, and the user's entries are dropped together with the stamp.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String CHANGE_CHANNEL = "principals_invalidated";
+    private static final String ALL_USERS = "*";
+
+    private final PgNotificationListener notificationListener;
+
+    @Value("${app.jwt.principal-cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.jwt.principal-cache-max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Stamp> securityStamps = new ConcurrentHashMap<>();
+    private final AtomicLong stampSequence = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<PrincipalKey, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    private record PrincipalKey(String username, long issuedAt, long securityStamp, long generation) {}
+
+    private record CachedPrincipal(UserDetails userDetails, long expiresAt) {}
+
+    private record Stamp(long value, long bumpedAt) {}
+
+    public PrincipalCache(PgNotificationListener notificationListener) {
+        this.notificationListener = notificationListener;
+    }
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        notificationListener.subscribe(CHANGE_CHANNEL, username -> {
+            // A null payload means notifications may have been missed
+            if (username == null || username.isEmpty() || ALL_USERS.equals(username)) {
+                clearAll();
+            } else {
+                bump(username);
+            }
+        });
+    }
+
+    /**
+     * Returns the cached principal for this token or loads and caches it.
+     */
+    public UserDetails get(String username, long issuedAt, Supplier<UserDetails> loader) {
+        if (ttlSeconds <= 0) {
+            return loader.get();
+        }
+        // Read the stamp before loading so a concurrent invalidation strands the stale entry
+        PrincipalKey key = new PrincipalKey(username, issuedAt, stampOf(username), generation.get());
+        CachedPrincipal cached = principals.get(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.userDetails();
+        }
+
+        UserDetails userDetails = loader.get();
+        evictIfFull(now);
+        principals.put(key, new CachedPrincipal(userDetails, now + ttlSeconds * 1000L));
+        return userDetails;
+    }
+
+    /**
+     * Bumps the user's security stamp and drops their cached principals, on this node and the
+     * others. When called inside a transaction the stamp is bumped again after commit, so a
+     * request that reloaded the user before the commit became visible cannot keep the old state
+     * cached.
+     */
+    public void invalidate(String username) {
+        if (username == null) return;
+        bumpNowAndAfterCommit(() -> bump(username));
+        notificationListener.publish(CHANGE_CHANNEL, username);
+    }
+
+    /**
+     * Drops every cached principal on every node, e.g. after a role's privileges were changed.
+     */
+    public void invalidateAll() {
+        bumpNowAndAfterCommit(this::clearAll);
+        notificationListener.publish(CHANGE_CHANNEL, ALL_USERS);
+    }
+
+    private void bumpNowAndAfterCommit(Runnable bump) {
+        bump.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        }
+    }
+
+    private long stampOf(String username) {
+        Stamp stamp = securityStamps.get(username);
+        return stamp != null ? stamp.value() : 0L;
+    }
+
+    private void bump(String username) {
+        long now = System.currentTimeMillis();
+        securityStamps.put(username, new Stamp(stampSequence.incrementAndGet(), now));
+        principals.keySet().removeIf(key -> key.username().equals(username));
+        pruneStamps(now);
+    }
+
+    private void clearAll() {
+        generation.incrementAndGet();
+        principals.clear();
+    }
+
+    private void pruneStamps(long now) {
+        long keepAfter = now - 2 * ttlSeconds * 1000L;
+        securityStamps.entrySet().removeIf(entry -> {
+            if (entry.getValue().bumpedAt() > keepAfter) return false;
+            principals.keySet().removeIf(key -> key.username().equals(entry.getKey()));
+            return true;
+        });
+    }
+
+    private void evictIfFull(long now) {
+        if (principals.size() < maxEntries) return;
+        principals.values().removeIf(p -> p.expiresAt() <= now);
+        if (principals.size() >= maxEntries) {
+            principals.clear();
+        }
+    }
+}
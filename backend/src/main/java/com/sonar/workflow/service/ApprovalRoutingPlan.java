@@ -0,0 +1,181 @@
+package com.sonar.workflow.service;
+
+import com.sonar.workflow.entity.WorkflowApprover;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Immutable approval routing table for one workflow version: levels with their approvers in
+ * display order, the max level, and limit ladders that answer "who can approve this amount"
+ * with a binary search instead of a scan.
+ */
+public final class ApprovalRoutingPlan {
+
+    /**
+     * Snapshot of a {@link WorkflowApprover} row, detached from the persistence context.
+     */
+    public record Step(UUID id, UUID userId, String name, String email, int level, int order,
+                       BigDecimal approvalLimit, boolean unlimited, boolean notifyOnPending) {
+
+        public boolean canApprove(BigDecimal amount) {
+            return unlimited || (approvalLimit != null && amount.compareTo(approvalLimit) <= 0);
+        }
+    }
+
+    private final UUID workflowId;
+    private final Integer versionNumber;
+    private final Map<Integer, List<Step>> stepsByLevel;
+    private final Map<UUID, Step> stepsById;
+    private final Integer maxLevel;
+    private final LimitLadder levelLadder;
+    private final Map<Integer, LimitLadder> approverLadders;
+
+    ApprovalRoutingPlan(UUID workflowId, Integer versionNumber, List<WorkflowApprover> approvers) {
+        this.workflowId = workflowId;
+        this.versionNumber = versionNumber;
+
+        // Approvers arrive ordered by level, displayOrder
+        Map<Integer, List<Step>> byLevel = new TreeMap<>();
+        Map<UUID, Step> byId = new HashMap<>();
+        for (WorkflowApprover a : approvers) {
+            List<Step> levelSteps = byLevel.computeIfAbsent(a.getLevel(), k -> new ArrayList<>());
+            Step step = new Step(
+                    a.getId(),
+                    a.getUser() != null ? a.getUser().getId() : null,
+                    a.getApproverName(),
+                    a.getApproverEmail(),
+                    a.getLevel(),
+                    levelSteps.size(),
+                    a.getApprovalLimit(),
+                    Boolean.TRUE.equals(a.getIsUnlimited()),
+                    !Boolean.FALSE.equals(a.getNotifyOnPending()));
+            levelSteps.add(step);
+            byId.put(step.id(), step);
+        }
+
+        Map<Integer, List<Step>> frozen = new LinkedHashMap<>();
+        Map<Integer, LimitLadder> ladders = new HashMap<>();
+        List<Integer> levelKeys = new ArrayList<>();
+        List<Step> levelCapacities = new ArrayList<>();
+        for (Map.Entry<Integer, List<Step>> entry : byLevel.entrySet()) {
+            List<Step> steps = List.copyOf(entry.getValue());
+            frozen.put(entry.getKey(), steps);
+            ladders.put(entry.getKey(), LimitLadder.of(steps));
+            levelKeys.add(entry.getKey());
+            levelCapacities.add(strongest(steps));
+        }
+
+        this.stepsByLevel = Collections.unmodifiableMap(frozen);
+        this.stepsById = Map.copyOf(byId);
+        this.maxLevel = levelKeys.isEmpty() ? null : levelKeys.get(levelKeys.size() - 1);
+        this.approverLadders = Map.copyOf(ladders);
+        this.levelLadder = LimitLadder.of(levelCapacities);
+    }
+
+    public UUID getWorkflowId() {
+        return workflowId;
+    }
+
+    public Integer getVersionNumber() {
+        return versionNumber;
+    }
+
+    /** Highest configured level, or null when the workflow has no approvers. */
+    public Integer getMaxLevel() {
+        return maxLevel;
+    }
+
+    /** Levels in ascending order with their approvers in display order. */
+    public Map<Integer, List<Step>> getLevels() {
+        return stepsByLevel;
+    }
+
+    public List<Step> getApprovers(int level) {
+        return stepsByLevel.getOrDefault(level, List.of());
+    }
+
+    public int countApprovers(int level) {
+        return getApprovers(level).size();
+    }
+
+    public Optional<Step> getStep(UUID approverId) {
+        return Optional.ofNullable(approverId != null ? stepsById.get(approverId) : null);
+    }
+
+    public Optional<Step> findByUserId(UUID userId) {
+        if (userId == null) return Optional.empty();
+        return stepsById.values().stream().filter(s -> userId.equals(s.userId())).findFirst();
+    }
+
+    /** Lowest level that has an approver able to approve {@code amount}, or null if none can. */
+    public Integer findMinLevelForAmount(BigDecimal amount) {
+        Step step = levelLadder.firstAbleToApprove(amount);
+        return step != null ? step.level() : null;
+    }
+
+    /** First approver in display order at {@code level} able to approve {@code amount}, or null. */
+    public Step findApproverWithSufficientLimit(int level, BigDecimal amount) {
+        LimitLadder ladder = approverLadders.get(level);
+        return ladder != null ? ladder.firstAbleToApprove(amount) : null;
+    }
+
+    private static Step strongest(List<Step> steps) {
+        Step best = null;
+        for (Step s : steps) {
+            if (s.unlimited()) return s;
+            if (s.approvalLimit() != null && (best == null || s.approvalLimit().compareTo(best.approvalLimit()) > 0)) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The running maxima of a sequence of limits. The first element able to approve an amount
+     * is always a running maximum, and running maxima strictly increase, so a binary search over
+     * them finds it. Null entries never approve anything.
+     */
+    private static final class LimitLadder {
+        private final BigDecimal[] limits;
+        private final Step[] steps;
+        private final Step firstUnlimited;
+
+        private LimitLadder(BigDecimal[] limits, Step[] steps, Step firstUnlimited) {
+            this.limits = limits;
+            this.steps = steps;
+            this.firstUnlimited = firstUnlimited;
+        }
+
+        static LimitLadder of(List<Step> sequence) {
+            List<BigDecimal> limits = new ArrayList<>();
+            List<Step> steps = new ArrayList<>();
+            for (Step s : sequence) {
+                if (s == null) continue;
+                if (s.unlimited()) {
+                    return new LimitLadder(limits.toArray(new BigDecimal[0]), steps.toArray(new Step[0]), s);
+                }
+                BigDecimal limit = s.approvalLimit();
+                if (limit != null && (limits.isEmpty() || limit.compareTo(limits.get(limits.size() - 1)) > 0)) {
+                    limits.add(limit);
+                    steps.add(s);
+                }
+            }
+            return new LimitLadder(limits.toArray(new BigDecimal[0]), steps.toArray(new Step[0]), null);
+        }
+
+        Step firstAbleToApprove(BigDecimal amount) {
+            int lo = 0;
+            int hi = limits.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (limits[mid].compareTo(amount) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo < limits.length ? steps[lo] : firstUnlimited;
+        }
+    }
+}
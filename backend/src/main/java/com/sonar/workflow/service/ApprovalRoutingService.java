@@ -0,0 +1,103 @@
+package com.sonar.workflow.service;
+
+import com.sonar.workflow.entity.Workflow;
+import com.sonar.workflow.repository.WorkflowApproverRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiles and caches one {@link ApprovalRoutingPlan} per workflow version. Plans are rebuilt
+ * when the workflow's version number changes or when its approvers are edited.
+ * <p>
+ * Invalidations are broadcast to the other nodes over {@link PgNotificationListener}. A plan is
+ * only cached if no invalidation happened while it was being compiled, and never replaces a plan
+ * of a newer workflow version, so a request that read the approvers before an edit committed
+ * cannot put its stale plan back.
+ */
+@Service
+@Slf4j
+public class ApprovalRoutingService {
+
+    private static final String CHANGE_CHANNEL = "routing_plans_invalidated";
+
+    private final WorkflowApproverRepository workflowApproverRepository;
+    private final PgNotificationListener notificationListener;
+
+    private final Map<UUID, ApprovalRoutingPlan> plans = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ApprovalRoutingService(WorkflowApproverRepository workflowApproverRepository,
+                                  PgNotificationListener notificationListener) {
+        this.workflowApproverRepository = workflowApproverRepository;
+        this.notificationListener = notificationListener;
+    }
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        notificationListener.subscribe(CHANGE_CHANNEL, workflowId -> {
+            // A null payload means notifications may have been missed
+            if (workflowId == null || workflowId.isEmpty()) {
+                invalidations.incrementAndGet();
+                plans.clear();
+            } else {
+                drop(UUID.fromString(workflowId));
+            }
+        });
+    }
+
+    public ApprovalRoutingPlan getPlan(Workflow workflow) {
+        ApprovalRoutingPlan plan = plans.get(workflow.getId());
+        if (plan != null && Objects.equals(plan.getVersionNumber(), workflow.getVersionNumber())) {
+            return plan;
+        }
+        long stamp = invalidations.get();
+        ApprovalRoutingPlan compiled = new ApprovalRoutingPlan(workflow.getId(), workflow.getVersionNumber(),
+                workflowApproverRepository.findByWorkflowId(workflow.getId()));
+        plans.compute(workflow.getId(), (id, existing) -> {
+            if (invalidations.get() != stamp) return existing;
+            return existing != null && isNewer(existing, compiled) ? existing : compiled;
+        });
+        log.debug("Compiled approval routing plan for workflow {} v{}: {} levels",
+                workflow.getId(), workflow.getVersionNumber(), compiled.getLevels().size());
+        return compiled;
+    }
+
+    /**
+     * Drops the workflow's plan now and again after the surrounding transaction commits, on this
+     * node and the others, so a plan compiled from pre-commit data is not kept.
+     */
+    public void invalidate(UUID workflowId) {
+        if (workflowId == null) return;
+        drop(workflowId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(workflowId);
+                }
+            });
+        }
+        notificationListener.publish(CHANGE_CHANNEL, workflowId.toString());
+    }
+
+    private void drop(UUID workflowId) {
+        // Bump before removing so a compilation in flight sees the change when it tries to cache
+        invalidations.incrementAndGet();
+        plans.remove(workflowId);
+    }
+
+    private static boolean isNewer(ApprovalRoutingPlan existing, ApprovalRoutingPlan compiled) {
+        Integer existingVersion = existing.getVersionNumber();
+        Integer compiledVersion = compiled.getVersionNumber();
+        return existingVersion != null && (compiledVersion == null || existingVersion > compiledVersion);
+    }
+}
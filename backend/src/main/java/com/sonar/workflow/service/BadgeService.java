@@ -0,0 +1,421 @@
+package com.sonar.workflow.service;
+
+import com.sonar.workflow.deadlines.service.DeadlineDashboardService;
+import com.sonar.workflow.dto.BadgeCountsDTO;
+import com.sonar.workflow.entity.User;
+import com.sonar.workflow.exception.BusinessException;
+import com.sonar.workflow.leave.service.LeaveDashboardService;
+import com.sonar.workflow.repository.UserRepository;
+import com.sonar.workflow.repository.WorkflowInstanceRepository;
+import com.sonar.workflow.security.CustomUserDetails;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Navigation badge counts (workflow approvals and submissions, leave, deadlines) for one user,
+ * served from a per-user snapshot and pushed to open browser sessions as {@code badges} events
+ * on the live event stream ({@link NotificationHubService}).
+ * <p>
+ * A change to a workflow instance, leave request or deadline instance records which users' counts
+ * it can affect (see {@link com.sonar.workflow.entity.listener.BadgeChangeListener}). Once the transaction commits, every push
+ * interval resolves the recorded changes to user ids, drops those users' snapshots, tells the
+ * other nodes over LISTEN/NOTIFY, and recomputes and pushes the counts of the affected users that
+ * have an open stream. Users who are not affected are not recomputed.
+ * <p>
+ * Leave approvers count all pending requests they may approve, so a leave change affects every
+ * leave approver; they are recognised when their counts are computed. Bulk updates that
+ * bypass the listener and the midnight date rollover (due-soon, overdue, upcoming leave) refresh
+ * every connected user. Snapshots also expire after a short TTL for changes that nothing reports,
+ * such as a deadline item's recipients being edited.
+ */
+@Service
+@Slf4j
+public class BadgeService {
+
+    public static final String CHANNEL = "badges_changed";
+    public static final String EVENT_BADGES = "badges";
+
+    private static final String CHANGE_PENDING = BadgeService.class.getName() + ".CHANGE_PENDING";
+    // Payload markers for other nodes; anything else in the payload is a user id
+    private static final String ALL_USERS = "*";
+    private static final String LEAVE_APPROVERS = "leave-approvers";
+    // Stay well below PostgreSQL's 8000-byte NOTIFY payload limit
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final UserRepository userRepository;
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final LeaveDashboardService leaveDashboardService;
+    private final DeadlineDashboardService deadlineDashboardService;
+    private final PgNotificationListener notificationListener;
+    private final NotificationHubService notificationHubService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${app.badges.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Counts last pushed to each connected user, and users whose pending leave count spans employees
+    private final Map<UUID, BadgeCountsDTO> pushed = new ConcurrentHashMap<>();
+    private final Set<UUID> leaveApproverIds = ConcurrentHashMap.newKeySet();
+    // Bumped whenever snapshots are dropped, so a computation that overlapped it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    // Committed changes not yet resolved to users, and resolved users not yet pushed
+    private final Object lock = new Object();
+    private Change committed = new Change();
+    private final Set<UUID> dirtyUsers = new HashSet<>();
+    private boolean leaveApproversDirty;
+    private boolean allDirty;
+
+    public BadgeService(UserRepository userRepository, WorkflowInstanceRepository workflowInstanceRepository,
+                        LeaveDashboardService leaveDashboardService, DeadlineDashboardService deadlineDashboardService,
+                        PgNotificationListener notificationListener, NotificationHubService notificationHubService,
+                        PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.leaveDashboardService = leaveDashboardService;
+        this.deadlineDashboardService = deadlineDashboardService;
+        this.notificationListener = notificationListener;
+        this.notificationHubService = notificationHubService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        notificationListener.subscribe(CHANNEL, this::receive);
+    }
+
+    public BadgeCountsDTO getMyBadges() {
+        return getBadges(currentUserId());
+    }
+
+    public BadgeCountsDTO getBadges(UUID userId) {
+        Snapshot snapshot = snapshots.get(userId);
+        if (snapshot != null && snapshot.isFresh(ttlSeconds)) {
+            return snapshot.counts();
+        }
+        return computeSnapshot(userId).counts();
+    }
+
+    /**
+     * A workflow instance changed: its initiator's submission counts and the pending approvals of
+     * its current and previous approvers may differ.
+     */
+    public void workflowInstanceChanged(UUID initiatorId, UUID approverId, UUID previousApproverId) {
+        recordAfterCommit(change -> {
+            addIfPresent(change.userIds, initiatorId);
+            addIfPresent(change.workflowApproverIds, approverId);
+            addIfPresent(change.workflowApproverIds, previousApproverId);
+        });
+    }
+
+    /**
+     * A leave request changed: its employee's counts and every leave approver's pending count may differ.
+     */
+    public void leaveRequestChanged(UUID employeeId) {
+        recordAfterCommit(change -> {
+            addIfPresent(change.userIds, employeeId);
+            change.leaveApprovers = true;
+        });
+    }
+
+    /**
+     * A deadline instance changed: the counts of its item's owner and recipients may differ.
+     */
+    public void deadlineInstanceChanged(UUID deadlineItemId) {
+        recordAfterCommit(change -> addIfPresent(change.deadlineItemIds, deadlineItemId));
+    }
+
+    /**
+     * Marks every user's counts stale, e.g. after a bulk update that bypassed the entity listener.
+     */
+    public void markChanged() {
+        recordAfterCommit(change -> change.allUsers = true);
+    }
+
+    /**
+     * Due-soon, overdue and upcoming-leave counts depend on today's date; each node refreshes
+     * its own connected users when the date changes.
+     */
+    @Scheduled(cron = "${app.badges.rollover-cron:5 0 0 * * *}")
+    public void refreshAfterDateRollover() {
+        synchronized (lock) {
+            generation.incrementAndGet();
+            snapshots.clear();
+            allDirty = true;
+        }
+        deadlineDashboardService.invalidateDashboards();
+    }
+
+    /**
+     * Resolves the changes committed since the last tick to users, tells other nodes once, then
+     * recomputes and pushes the counts of affected users with an open stream on this node.
+     */
+    @Scheduled(fixedDelayString = "${app.badges.push-interval-ms:2000}")
+    public void pushChanges() {
+        Change change;
+        synchronized (lock) {
+            change = committed;
+            committed = new Change();
+        }
+        if (!change.isEmpty()) {
+            Resolved resolved = resolve(change);
+            apply(resolved);
+            publish(resolved);
+        }
+
+        Set<UUID> users;
+        boolean leaveApprovers;
+        boolean all;
+        synchronized (lock) {
+            if (dirtyUsers.isEmpty() && !leaveApproversDirty && !allDirty) {
+                return;
+            }
+            users = new HashSet<>(dirtyUsers);
+            leaveApprovers = leaveApproversDirty;
+            all = allDirty;
+            dirtyUsers.clear();
+            leaveApproversDirty = false;
+            allDirty = false;
+        }
+
+        snapshots.entrySet().removeIf(e -> !notificationHubService.isConnected(e.getKey())
+                && !e.getValue().isFresh(ttlSeconds));
+        pushed.keySet().removeIf(userId -> !notificationHubService.isConnected(userId));
+        for (UUID userId : notificationHubService.getConnectedUserIds()) {
+            BadgeCountsDTO previous = pushed.get(userId);
+            // A user whose counts were never computed here may be a leave approver
+            boolean affected = all || users.contains(userId)
+                    || (leaveApprovers && (previous == null || leaveApproverIds.contains(userId)));
+            if (!affected) {
+                continue;
+            }
+            BadgeCountsDTO current;
+            try {
+                current = computeSnapshot(userId).counts();
+            } catch (RuntimeException e) {
+                log.warn("Could not compute badge counts for user {}: {}", userId, e.getMessage());
+                continue;
+            }
+            if (!current.equals(previous)) {
+                notificationHubService.sendTransient(userId, EVENT_BADGES, current);
+                pushed.put(userId, current);
+            }
+        }
+    }
+
+    private void recordAfterCommit(Consumer<Change> recorder) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (lock) {
+                recorder.accept(committed);
+            }
+            return;
+        }
+        Change pending = (Change) TransactionSynchronizationManager.getResource(CHANGE_PENDING);
+        if (pending == null) {
+            Change change = new Change();
+            pending = change;
+            TransactionSynchronizationManager.bindResource(CHANGE_PENDING, change);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (lock) {
+                        committed.merge(change);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGE_PENDING);
+                }
+            });
+        }
+        recorder.accept(pending);
+    }
+
+    private Resolved resolve(Change change) {
+        Set<UUID> userIds = new HashSet<>(change.userIds);
+        if (!change.allUsers && (!change.workflowApproverIds.isEmpty() || !change.deadlineItemIds.isEmpty())) {
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    if (!change.workflowApproverIds.isEmpty()) {
+                        userIds.addAll(userRepository.findIdsByWorkflowApproverIds(change.workflowApproverIds));
+                    }
+                    userIds.addAll(deadlineDashboardService.findBadgeUserIds(change.deadlineItemIds));
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not resolve badge changes, refreshing all users: {}", e.getMessage());
+                return new Resolved(Set.of(), false, true);
+            }
+        }
+        return new Resolved(userIds, change.leaveApprovers, change.allUsers);
+    }
+
+    private void apply(Resolved resolved) {
+        // The deadline dashboard caches the same instance counts
+        deadlineDashboardService.invalidateDashboards();
+        synchronized (lock) {
+            generation.incrementAndGet();
+            if (resolved.allUsers()) {
+                snapshots.clear();
+                allDirty = true;
+                return;
+            }
+            for (UUID userId : resolved.userIds()) {
+                snapshots.remove(userId);
+                dirtyUsers.add(userId);
+            }
+            if (resolved.leaveApprovers()) {
+                snapshots.keySet().removeAll(leaveApproverIds);
+                leaveApproversDirty = true;
+            }
+        }
+    }
+
+    private void publish(Resolved resolved) {
+        List<String> parts = new ArrayList<>();
+        if (resolved.allUsers()) {
+            parts.add(ALL_USERS);
+        } else {
+            if (resolved.leaveApprovers()) {
+                parts.add(LEAVE_APPROVERS);
+            }
+            resolved.userIds().forEach(id -> parts.add(id.toString()));
+        }
+        String payload = String.join(",", parts);
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            payload = ALL_USERS;
+        }
+        notificationListener.publish(CHANNEL, payload);
+    }
+
+    /**
+     * Another node committed changes; a null payload means notifications may have been missed.
+     */
+    private void receive(String payload) {
+        if (payload == null || payload.isEmpty()) {
+            apply(new Resolved(Set.of(), false, true));
+            return;
+        }
+        Set<UUID> userIds = new HashSet<>();
+        boolean leaveApprovers = false;
+        boolean all = false;
+        for (String part : payload.split(",")) {
+            if (ALL_USERS.equals(part)) {
+                all = true;
+            } else if (LEAVE_APPROVERS.equals(part)) {
+                leaveApprovers = true;
+            } else {
+                try {
+                    userIds.add(UUID.fromString(part));
+                } catch (IllegalArgumentException e) {
+                    all = true;
+                }
+            }
+        }
+        apply(new Resolved(userIds, leaveApprovers, all));
+    }
+
+    private Snapshot computeSnapshot(UUID userId) {
+        long startGeneration = generation.get();
+        Snapshot snapshot = readOnlyTransaction.execute(status -> {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return new Snapshot(new BadgeCountsDTO(), System.currentTimeMillis());
+            }
+            String email = user.getEmail() != null ? user.getEmail() : "";
+            Map<String, Long> leave = leaveDashboardService.getBadgeCounts(user);
+            Map<String, Long> deadlines = deadlineDashboardService.getBadgeCounts(userId);
+            BadgeCountsDTO counts = BadgeCountsDTO.builder()
+                    .pendingApprovals(workflowInstanceRepository.countPendingApprovalsByUserIdOrEmail(userId, email))
+                    .mySubmissions(workflowInstanceRepository.countByInitiatorId(userId))
+                    .myPendingSubmissions(workflowInstanceRepository.countPendingByInitiatorId(userId))
+                    .leavePendingApprovals(leave.getOrDefault("pendingApprovals", 0L))
+                    .leaveMyPending(leave.getOrDefault("myPending", 0L))
+                    .leaveApprovedUpcoming(leave.getOrDefault("approvedUpcoming", 0L))
+                    .deadlineOverdue(deadlines.getOrDefault("overdue", 0L))
+                    .deadlineDueSoon(deadlines.getOrDefault("dueSoon", 0L))
+                    .build();
+            if (leaveDashboardService.isLeaveApprover(user)) {
+                leaveApproverIds.add(userId);
+            } else {
+                leaveApproverIds.remove(userId);
+            }
+            return new Snapshot(counts, System.currentTimeMillis());
+        });
+        if (snapshot == null) {
+            snapshot = new Snapshot(new BadgeCountsDTO(), System.currentTimeMillis());
+        }
+        synchronized (lock) {
+            if (generation.get() == startGeneration) {
+                snapshots.put(userId, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details
+                && details.getId() != null) {
+            return details.getId();
+        }
+        String username = authentication != null ? authentication.getName() : null;
+        return userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new BusinessException("User not found"));
+    }
+
+    private static void addIfPresent(Set<UUID> ids, UUID id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    /**
+     * What a transaction (or the changes committed since the last tick) touched, before it is
+     * resolved to user ids.
+     */
+    private static final class Change {
+        final Set<UUID> userIds = new HashSet<>();
+        final Set<UUID> workflowApproverIds = new HashSet<>();
+        final Set<UUID> deadlineItemIds = new HashSet<>();
+        boolean leaveApprovers;
+        boolean allUsers;
+
+        void merge(Change other) {
+            userIds.addAll(other.userIds);
+            workflowApproverIds.addAll(other.workflowApproverIds);
+            deadlineItemIds.addAll(other.deadlineItemIds);
+            leaveApprovers |= other.leaveApprovers;
+            allUsers |= other.allUsers;
+        }
+
+        boolean isEmpty() {
+            return userIds.isEmpty() && workflowApproverIds.isEmpty() && deadlineItemIds.isEmpty()
+                    && !leaveApprovers && !allUsers;
+        }
+    }
+
+    private record Resolved(Set<UUID> userIds, boolean leaveApprovers, boolean allUsers) {}
+
+    private record Snapshot(BadgeCountsDTO counts, long computedAt) {
+        boolean isFresh(long ttlSeconds) {
+            return System.currentTimeMillis() - computedAt < ttlSeconds * 1000;
+        }
+    }
+}
@@ -5,9 +5,12 @@ import com.sonar.workflow.repository.AttachmentRepository;
 import com.sonar.workflow.repository.StampRepository;
 import com.sonar.workflow.repository.UserSignatureRepository;
 import com.sonar.workflow.util.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -18,6 +21,7 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.apache.poi.util.Units;
 import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
 import org.apache.poi.xwpf.usermodel.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,11 +33,18 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -45,6 +56,47 @@ public class DocumentStampService {
     private final UserSignatureRepository userSignatureRepository;
     private final EncryptionUtil encryptionUtil;
 
+    /** Upper bound on concurrent stamping threads; 0 sizes the pool from available cores. */
+    @Value("${app.stamping.max-threads:0}")
+    private int maxStampThreads;
+
+    /** Heap budget per PDF before PDFBox spills to a scratch file. */
+    @Value("${app.stamping.pdf-max-main-memory-mb:32}")
+    private long pdfMaxMainMemoryMb;
+
+    private ExecutorService stampExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = maxStampThreads > 0 ? maxStampThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.stampExecutor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "doc-stamp-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("Document stamping pool started with {} threads", Math.max(1, threads));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stampExecutor.shutdown();
+        try {
+            if (!stampExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                stampExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            stampExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Outcome of stamping a single file on a worker thread. Applied to the
+     * managed {@link Attachment} on the calling thread so all saves stay in its transaction.
+     */
+    private record StampedFile(long fileSize, String encryptionIv) {}
+
     /**
      * Stamps all PDF attachments for a workflow instance with the approval stamp,
      * date, and approver's signature. Called when workflow is fully approved.
@@ -128,34 +180,60 @@ public class DocumentStampService {
             }
         }
 
-        int stamped = 0;
+        // Attachments are independent files, so stamp them concurrently on the bounded pool
+        final byte[] sigBytes = signatureBytes;
+        final byte[] sealBytes = stampImageBytes;
+        List<CompletableFuture<StampedFile>> futures = new ArrayList<>(attachments.size());
         for (Attachment attachment : attachments) {
-            try {
-                String fileName = attachment.getOriginalFilename();
-                String contentType = attachment.getContentType();
-                log.info("Processing attachment: {} (type: {})", fileName, contentType);
-                if (isPdf(attachment)) {
-                    log.info("Stamping PDF: {}", fileName);
-                    stampPdfAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
-                    stamped++;
-                } else if (isWord(attachment)) {
-                    log.info("Stamping Word doc: {}", fileName);
-                    stampWordAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
-                    stamped++;
-                } else if (isImage(attachment)) {
-                    log.info("Stamping image: {}", fileName);
-                    stampImageAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
-                    stamped++;
-                } else {
-                    log.info("Skipping unsupported file type for stamping: {} (type: {})", fileName, contentType);
-                }
-            } catch (Exception e) {
-                log.error("Failed to stamp attachment {}: {}", attachment.getOriginalFilename(), e.getMessage());
+            futures.add(CompletableFuture.supplyAsync(() -> stampAttachment(attachment, stampName, stampColor,
+                    dateStr, approverName, sigBytes, sealBytes), stampExecutor));
+        }
+
+        int stamped = 0;
+        for (int i = 0; i < attachments.size(); i++) {
+            Attachment attachment = attachments.get(i);
+            StampedFile result = futures.get(i).join();
+            if (result == null) {
+                continue;
+            }
+            if (result.encryptionIv() != null) {
+                attachment.setEncryptionIv(result.encryptionIv());
             }
+            attachment.setFileSize(result.fileSize());
+            attachmentRepository.save(attachment);
+            stamped++;
         }
         log.info("Stamped {}/{} attachments for instance {}", stamped, attachments.size(), instanceId);
     }
 
+    /**
+     * Stamps one attachment on the current (worker) thread. Returns the new file
+     * metadata, or null when the file was skipped or could not be stamped.
+     */
+    private StampedFile stampAttachment(Attachment attachment, String stampName, String stampColor,
+                                        String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) {
+        String fileName = attachment.getOriginalFilename();
+        String contentType = attachment.getContentType();
+        try {
+            log.info("Processing attachment: {} (type: {})", fileName, contentType);
+            if (isPdf(attachment)) {
+                log.info("Stamping PDF: {}", fileName);
+                return stampPdfAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
+            } else if (isWord(attachment)) {
+                log.info("Stamping Word doc: {}", fileName);
+                return stampWordAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
+            } else if (isImage(attachment)) {
+                log.info("Stamping image: {}", fileName);
+                return stampImageAttachment(attachment, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
+            } else {
+                log.info("Skipping unsupported file type for stamping: {} (type: {})", fileName, contentType);
+            }
+        } catch (Exception e) {
+            log.error("Failed to stamp attachment {}: {}", fileName, e.getMessage());
+        }
+        return null;
+    }
+
     private boolean isPdf(Attachment attachment) {
         String ct = attachment.getContentType();
         String fn = attachment.getOriginalFilename();
@@ -182,71 +260,86 @@ public class DocumentStampService {
         return false;
     }
 
-    private void stampPdfAttachment(Attachment attachment, String stampName, String stampColor,
-                                     String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
+    private StampedFile stampPdfAttachment(Attachment attachment, String stampName, String stampColor,
+                                           String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
         Path filePath = Paths.get(attachment.getFilePath());
         if (!Files.exists(filePath)) {
             log.warn("Attachment file not found: {}", filePath);
-            return;
+            return null;
         }
 
-        // Decrypt the file to memory
-        byte[] decryptedBytes;
-        if (Boolean.TRUE.equals(attachment.getIsEncrypted())) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            if (!encryptionUtil.decryptFile(filePath, baos)) {
-                log.error("Failed to decrypt attachment: {}", attachment.getOriginalFilename());
-                return;
+        // Work through temp files rather than byte arrays so large PDFs stay memory-bounded
+        boolean encrypted = Boolean.TRUE.equals(attachment.getIsEncrypted());
+        Path decryptedPath = null;
+        Path stampedPath = Files.createTempFile("stamp-out-", ".pdf");
+        try {
+            Path sourcePath = filePath;
+            if (encrypted) {
+                decryptedPath = Files.createTempFile("stamp-in-", ".pdf");
+                try (OutputStream os = Files.newOutputStream(decryptedPath)) {
+                    if (!encryptionUtil.decryptFile(filePath, os)) {
+                        log.error("Failed to decrypt attachment: {}", attachment.getOriginalFilename());
+                        return null;
+                    }
+                }
+                sourcePath = decryptedPath;
             }
-            decryptedBytes = baos.toByteArray();
-        } else {
-            decryptedBytes = Files.readAllBytes(filePath);
-        }
 
-        // Load and stamp the PDF
-        byte[] stampedBytes;
-        try (PDDocument doc = Loader.loadPDF(decryptedBytes)) {
-            for (int i = 0; i < doc.getNumberOfPages(); i++) {
-                PDPage page = doc.getPage(i);
-                stampPage(doc, page, stampName, stampColor, dateStr, approverName, signatureBytes, stampImageBytes);
+            // Load and stamp the PDF, spilling to a scratch file beyond the heap budget
+            MemoryUsageSetting memoryUsage = MemoryUsageSetting.setupMixed(pdfMaxMainMemoryMb * 1024 * 1024);
+            try (PDDocument doc = Loader.loadPDF(sourcePath.toFile(), memoryUsage.streamCache)) {
+                // Image XObjects are created once and shared by every page
+                PDImageXObject stampImg = createPdfImage(doc, stampImageBytes, "stamp.png");
+                PDImageXObject sigImage = createPdfImage(doc, signatureBytes, "signature.png");
+                for (PDPage page : doc.getPages()) {
+                    stampPage(doc, page, stampName, stampColor, dateStr, approverName, sigImage, stampImg);
+                }
+                doc.save(stampedPath.toFile());
             }
 
-            ByteArrayOutputStream outBaos = new ByteArrayOutputStream();
-            doc.save(outBaos);
-            stampedBytes = outBaos.toByteArray();
-        }
+            long stampedSize = Files.size(stampedPath);
 
-        // Re-encrypt and write back
-        if (Boolean.TRUE.equals(attachment.getIsEncrypted())) {
-            try (InputStream is = new ByteArrayInputStream(stampedBytes);
-                 OutputStream os = Files.newOutputStream(filePath)) {
-                EncryptionUtil.EncryptionResult result = encryptionUtil.encryptFile(is, os);
-                if (result.success()) {
-                    attachment.setEncryptionIv(result.iv());
-                    attachment.setFileSize((long) stampedBytes.length);
-                    attachmentRepository.save(attachment);
+            // Re-encrypt and write back
+            if (encrypted) {
+                try (InputStream is = Files.newInputStream(stampedPath);
+                     OutputStream os = Files.newOutputStream(filePath)) {
+                    EncryptionUtil.EncryptionResult result = encryptionUtil.encryptFile(is, os);
+                    return result.success() ? new StampedFile(stampedSize, result.iv()) : null;
                 }
             }
-        } else {
-            Files.write(filePath, stampedBytes);
-            attachment.setFileSize((long) stampedBytes.length);
-            attachmentRepository.save(attachment);
+            Files.copy(stampedPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+            return new StampedFile(stampedSize, null);
+        } finally {
+            Files.deleteIfExists(stampedPath);
+            if (decryptedPath != null) {
+                Files.deleteIfExists(decryptedPath);
+            }
+        }
+    }
+
+    private PDImageXObject createPdfImage(PDDocument doc, byte[] imageBytes, String name) {
+        if (imageBytes == null) return null;
+        try {
+            return PDImageXObject.createFromByteArray(doc, imageBytes, name);
+        } catch (Exception e) {
+            log.warn("Could not embed {} in PDF, it will be omitted: {}", name, e.getMessage());
+            return null;
         }
     }
 
-    private void stampWordAttachment(Attachment attachment, String stampName, String stampColor,
-                                      String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
+    private StampedFile stampWordAttachment(Attachment attachment, String stampName, String stampColor,
+                                            String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
         Path filePath = Paths.get(attachment.getFilePath());
         if (!Files.exists(filePath)) {
             log.warn("Attachment file not found: {}", filePath);
-            return;
+            return null;
         }
 
         // Only .docx is supported (not legacy .doc)
         String fn = attachment.getOriginalFilename();
         if (fn != null && fn.toLowerCase().endsWith(".doc") && !fn.toLowerCase().endsWith(".docx")) {
             log.debug("Skipping legacy .doc file: {}", fn);
-            return;
+            return null;
         }
 
         // Decrypt the file to memory
@@ -255,7 +348,7 @@ public class DocumentStampService {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             if (!encryptionUtil.decryptFile(filePath, baos)) {
                 log.error("Failed to decrypt attachment: {}", attachment.getOriginalFilename());
-                return;
+                return null;
             }
             decryptedBytes = baos.toByteArray();
         } else {
@@ -308,22 +401,7 @@ public class DocumentStampService {
             stampedBytes = outBaos.toByteArray();
         }
 
-        // Re-encrypt and write back
-        if (Boolean.TRUE.equals(attachment.getIsEncrypted())) {
-            try (InputStream is = new ByteArrayInputStream(stampedBytes);
-                 OutputStream os = Files.newOutputStream(filePath)) {
-                EncryptionUtil.EncryptionResult result = encryptionUtil.encryptFile(is, os);
-                if (result.success()) {
-                    attachment.setEncryptionIv(result.iv());
-                    attachment.setFileSize((long) stampedBytes.length);
-                    attachmentRepository.save(attachment);
-                }
-            }
-        } else {
-            Files.write(filePath, stampedBytes);
-            attachment.setFileSize((long) stampedBytes.length);
-            attachmentRepository.save(attachment);
-        }
+        return writeBack(attachment, filePath, stampedBytes);
     }
 
     private void addSignaturePlaceholder(XWPFTableCell cell, String stampColor) {
@@ -338,12 +416,12 @@ public class DocumentStampService {
         runSig.setFontFamily("Arial");
     }
 
-    private void stampImageAttachment(Attachment attachment, String stampName, String stampColor,
-                                       String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
+    private StampedFile stampImageAttachment(Attachment attachment, String stampName, String stampColor,
+                                             String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
         Path filePath = Paths.get(attachment.getFilePath());
         if (!Files.exists(filePath)) {
             log.warn("Attachment file not found: {}", filePath);
-            return;
+            return null;
         }
 
         // Decrypt the file to memory
@@ -352,7 +430,7 @@ public class DocumentStampService {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             if (!encryptionUtil.decryptFile(filePath, baos)) {
                 log.error("Failed to decrypt attachment: {}", attachment.getOriginalFilename());
-                return;
+                return null;
             }
             decryptedBytes = baos.toByteArray();
         } else {
@@ -363,7 +441,7 @@ public class DocumentStampService {
         BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(decryptedBytes));
         if (originalImage == null) {
             log.warn("Could not read image: {}", attachment.getOriginalFilename());
-            return;
+            return null;
         }
 
         // Create a copy to draw on
@@ -445,26 +523,24 @@ public class DocumentStampService {
         ImageIO.write(outputImage, format, outBaos);
         byte[] stampedBytes = outBaos.toByteArray();
 
-        // Re-encrypt and write back
+        return writeBack(attachment, filePath, stampedBytes);
+    }
+
+    /** Re-encrypts (when required) and writes the stamped bytes back over the original file. */
+    private StampedFile writeBack(Attachment attachment, Path filePath, byte[] stampedBytes) throws IOException {
         if (Boolean.TRUE.equals(attachment.getIsEncrypted())) {
             try (InputStream is = new ByteArrayInputStream(stampedBytes);
                  OutputStream os = Files.newOutputStream(filePath)) {
                 EncryptionUtil.EncryptionResult result = encryptionUtil.encryptFile(is, os);
-                if (result.success()) {
-                    attachment.setEncryptionIv(result.iv());
-                    attachment.setFileSize((long) stampedBytes.length);
-                    attachmentRepository.save(attachment);
-                }
+                return result.success() ? new StampedFile(stampedBytes.length, result.iv()) : null;
             }
-        } else {
-            Files.write(filePath, stampedBytes);
-            attachment.setFileSize((long) stampedBytes.length);
-            attachmentRepository.save(attachment);
         }
+        Files.write(filePath, stampedBytes);
+        return new StampedFile(stampedBytes.length, null);
     }
 
     private void stampPage(PDDocument doc, PDPage page, String stampName, String stampColor,
-                           String dateStr, String approverName, byte[] signatureBytes, byte[] stampImageBytes) throws Exception {
+                           String dateStr, String approverName, PDImageXObject sigImage, PDImageXObject stampImg) throws Exception {
         PDRectangle mediaBox = page.getMediaBox();
         float pageWidth = mediaBox.getWidth();
 
@@ -478,9 +554,8 @@ public class DocumentStampService {
             cs.setNonStrokingColor(rgb[0], rgb[1], rgb[2]);
 
             // If we have the actual stamp image (SVG rendered to PNG), use it
-            if (stampImageBytes != null) {
+            if (stampImg != null) {
                 try {
-                    PDImageXObject stampImg = PDImageXObject.createFromByteArray(doc, stampImageBytes, "stamp.png");
                     // Scale stamp to fit nicely - about 120pt wide
                     float stampW = 120;
                     float stampH = stampW * stampImg.getHeight() / stampImg.getWidth();
@@ -491,9 +566,8 @@ public class DocumentStampService {
                     cs.drawImage(stampImg, stampX, stampY, stampW, stampH);
 
                     // Draw signature ON TOP of the seal (centered in the seal)
-                    if (signatureBytes != null) {
+                    if (sigImage != null) {
                         try {
-                            PDImageXObject sigImage = PDImageXObject.createFromByteArray(doc, signatureBytes, "signature.png");
                             float sigW = stampW * 0.55f;  // ~55% of seal width
                             float sigH = sigW * sigImage.getHeight() / sigImage.getWidth();
                             if (sigH > stampH * 0.3f) {
@@ -578,9 +652,8 @@ public class DocumentStampService {
             cs.endText();
 
             // Signature centered in the stamp box
-            if (signatureBytes != null) {
+            if (sigImage != null) {
                 try {
-                    PDImageXObject sigImage = PDImageXObject.createFromByteArray(doc, signatureBytes, "signature.png");
                     float sigW = bw * 0.6f;
                     float sigH = sigW * sigImage.getHeight() / sigImage.getWidth();
                     if (sigH > bh * 0.3f) { sigH = bh * 0.3f; sigW = sigH * sigImage.getWidth() / sigImage.getHeight(); }
@@ -3,172 +3,212 @@ package com.sonar.workflow.service;
 import com.sonar.workflow.entity.EmailApprovalToken;
 import com.sonar.workflow.entity.WorkflowInstance;
 import com.sonar.workflow.repository.EmailApprovalTokenRepository;
+import com.sonar.workflow.repository.WorkflowInstanceRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Issues and verifies email approval tokens. Tokens are stateless: an HMAC-SHA256 signed payload
+ * carrying the instance, its submission time, level, approver and action plus an expiry, so
+ * sending a notification writes nothing. A consumed record (keyed by the token's digest) is
+ * written only when a token is used; links for a step that has already moved on, or from an
+ * earlier submission of a recalled or rejected instance, are rejected by checking the instance's
+ * current submission, level and approver.
+ * <p>
+ * Tokens are signed with {@code app.email-approval.token-secret}, or when that is not set with a
+ * key derived from the JWT secret, so a JWT signing key never signs approval links directly.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailApprovalService {
 
+    private static final String TOKEN_VERSION = "2";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String KEY_DERIVATION_LABEL = "email-approval-token";
+
     private final EmailApprovalTokenRepository tokenRepository;
+    private final WorkflowInstanceRepository workflowInstanceRepository;
     private final SettingService settingService;
 
     @Value("${app.base-url:}")
     private String defaultBaseUrl;
 
-    private static final SecureRandom secureRandom = new SecureRandom();
+    @Value("${app.email-approval.token-secret:}")
+    private String tokenSecret;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
+
+    private SecretKeySpec signingKey;
+
     private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder base64Decoder = Base64.getUrlDecoder();
+
+    @PostConstruct
+    public void init() {
+        if (tokenSecret != null && !tokenSecret.isBlank()) {
+            this.signingKey = new SecretKeySpec(tokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+            return;
+        }
+        // HMAC(jwtSecret, label) as the key: tied to the JWT secret but never equal to it
+        SecretKeySpec jwtKey = new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.signingKey = new SecretKeySpec(hmac(jwtKey, KEY_DERIVATION_LABEL.getBytes(StandardCharsets.UTF_8)),
+                HMAC_ALGORITHM);
+    }
 
     /**
-     * Generates a secure random token for email approval
+     * Decoded, signature-checked contents of an email approval token.
      */
-    public String generateSecureToken() {
-        byte[] randomBytes = new byte[32];
-        secureRandom.nextBytes(randomBytes);
-        return base64Encoder.encodeToString(randomBytes);
+    public record TokenClaims(UUID instanceId, long submittedAt, Integer approvalLevel,
+                              EmailApprovalToken.ActionType actionType, LocalDateTime expiresAt,
+                              String approverEmail, String approverName) {
+
+        public boolean isExpired() {
+            return LocalDateTime.now().isAfter(expiresAt);
+        }
     }
 
     /**
-     * Creates an email approval token for a workflow instance
+     * A token that passed signature, expiry and consumption checks, with its workflow instance.
      */
-    @Transactional
-    public EmailApprovalToken createToken(WorkflowInstance instance, String approverEmail,
-                                          String approverName, Integer level,
-                                          EmailApprovalToken.ActionType actionType) {
-        return createToken(instance, approverEmail, approverName, level, actionType, null);
+    public record VerifiedToken(String token, TokenClaims claims, WorkflowInstance workflowInstance) {
+
+        public String approverEmail() { return claims.approverEmail(); }
+        public String approverName() { return claims.approverName(); }
+        public Integer approvalLevel() { return claims.approvalLevel(); }
+        public EmailApprovalToken.ActionType actionType() { return claims.actionType(); }
     }
 
     /**
-     * Creates an email approval token with optional escalation target
+     * Creates a signed email approval token for a workflow instance
      */
-    @Transactional
-    public EmailApprovalToken createToken(WorkflowInstance instance, String approverEmail,
-                                          String approverName, Integer level,
-                                          EmailApprovalToken.ActionType actionType,
-                                          UUID escalationTargetId) {
+    public String createToken(WorkflowInstance instance, String approverEmail, String approverName,
+                              Integer level, EmailApprovalToken.ActionType actionType) {
         // Get token expiry hours from settings (default 48 hours)
         int expiryHours = settingService.getIntValue("workflow.email.token.expiry.hours", 48);
+        long expiresAt = Instant.now().plusSeconds(expiryHours * 3600L).getEpochSecond();
 
-        String tokenString = generateSecureToken();
-        log.info("Creating email approval token for instance {} action {} - token: {}",
-                instance.getId(), actionType, tokenString);
-
-        EmailApprovalToken token = EmailApprovalToken.builder()
-                .token(tokenString)
-                .workflowInstance(instance)
-                .approverEmail(approverEmail)
-                .approverName(approverName)
-                .approvalLevel(level)
-                .actionType(actionType)
-                .escalationTargetId(escalationTargetId)
-                .expiresAt(LocalDateTime.now().plusHours(expiryHours))
-                .isUsed(false)
-                .build();
-
-        EmailApprovalToken savedToken = tokenRepository.save(token);
-        log.info("Saved email approval token with id: {} for action: {}", savedToken.getId(), actionType);
-        return savedToken;
+        // Newline-separated: none of the fields can contain one, and the name goes last
+        String payload = String.join("\n",
+                TOKEN_VERSION,
+                instance.getId().toString(),
+                String.valueOf(submissionStamp(instance.getSubmittedAt())),
+                String.valueOf(level),
+                actionType.name(),
+                String.valueOf(expiresAt),
+                approverEmail != null ? approverEmail : "",
+                approverName != null ? approverName : "");
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return base64Encoder.encodeToString(payloadBytes) + "." + base64Encoder.encodeToString(sign(payloadBytes));
     }
 
     /**
      * Creates all action tokens for an approver (approve, reject, escalate, review)
      */
-    @Transactional
     public EmailApprovalTokens createAllActionTokens(WorkflowInstance instance, String approverEmail,
-                                                      String approverName, Integer level) {
-        EmailApprovalToken approveToken = createToken(instance, approverEmail, approverName, level,
-                EmailApprovalToken.ActionType.APPROVE);
-        EmailApprovalToken rejectToken = createToken(instance, approverEmail, approverName, level,
-                EmailApprovalToken.ActionType.REJECT);
-        EmailApprovalToken escalateToken = createToken(instance, approverEmail, approverName, level,
-                EmailApprovalToken.ActionType.ESCALATE);
-        EmailApprovalToken reviewToken = createToken(instance, approverEmail, approverName, level,
-                EmailApprovalToken.ActionType.REVIEW);
-
-        return new EmailApprovalTokens(approveToken, rejectToken, escalateToken, reviewToken);
+                                                     String approverName, Integer level) {
+        return new EmailApprovalTokens(
+                createToken(instance, approverEmail, approverName, level, EmailApprovalToken.ActionType.APPROVE),
+                createToken(instance, approverEmail, approverName, level, EmailApprovalToken.ActionType.REJECT),
+                createToken(instance, approverEmail, approverName, level, EmailApprovalToken.ActionType.ESCALATE),
+                createToken(instance, approverEmail, approverName, level, EmailApprovalToken.ActionType.REVIEW));
     }
 
     /**
      * Container for all action tokens
      */
     public record EmailApprovalTokens(
-            EmailApprovalToken approveToken,
-            EmailApprovalToken rejectToken,
-            EmailApprovalToken escalateToken,
-            EmailApprovalToken reviewToken
+            String approveToken,
+            String rejectToken,
+            String escalateToken,
+            String reviewToken
     ) {}
 
     /**
-     * Validates and retrieves a token
+     * Validates a token and loads its workflow instance. Empty when the signature is invalid,
+     * the token has expired or it has already been used.
      */
-    public Optional<EmailApprovalToken> validateToken(String tokenString) {
-        log.debug("Validating token: {}", tokenString);
-        Optional<EmailApprovalToken> result = tokenRepository.findValidToken(tokenString, LocalDateTime.now());
-        log.debug("Token validation result: {}", result.isPresent() ? "found valid token" : "no valid token found");
-        return result;
+    @Transactional(readOnly = true)
+    public Optional<VerifiedToken> validateToken(String tokenString) {
+        Optional<TokenClaims> claims = decode(tokenString);
+        if (claims.isEmpty() || claims.get().isExpired() || tokenRepository.existsByToken(digest(tokenString))) {
+            log.debug("Token validation failed");
+            return Optional.empty();
+        }
+        return workflowInstanceRepository.findById(claims.get().instanceId())
+                .map(instance -> new VerifiedToken(tokenString, claims.get(), instance));
     }
 
     /**
      * Gets the reason why a token is invalid (for error messages)
      */
     public String getTokenInvalidReason(String tokenString) {
-        Optional<EmailApprovalToken> tokenOpt = tokenRepository.findByToken(tokenString);
-        if (tokenOpt.isEmpty()) {
-            log.debug("Token not found in database: {}", tokenString);
+        Optional<TokenClaims> claims = decode(tokenString);
+        if (claims.isEmpty()) {
             return "Token not found. The link may be invalid or corrupted.";
         }
-
-        EmailApprovalToken token = tokenOpt.get();
-        if (Boolean.TRUE.equals(token.getIsUsed())) {
-            log.debug("Token already used: {}, usedAt: {}", tokenString, token.getUsedAt());
+        if (tokenRepository.existsByToken(digest(tokenString))) {
             return "This link has already been used. Each approval link can only be used once.";
         }
-        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
-            log.debug("Token expired: {}, expiredAt: {}", tokenString, token.getExpiresAt());
+        if (claims.get().isExpired()) {
             return "This link has expired. Please request a new approval email.";
         }
-
         return "Invalid or expired token";
     }
 
     /**
-     * Marks a token as used
+     * Checks that the token still addresses the instance's current step: it was issued for the
+     * instance's current submission, the instance is at the token's level and, when the current
+     * approver is known, the token was issued to them.
      */
-    @Transactional
-    public void markTokenAsUsed(EmailApprovalToken token) {
-        token.setIsUsed(true);
-        token.setUsedAt(LocalDateTime.now());
-        tokenRepository.save(token);
-    }
-
-    /**
-     * Invalidates all tokens for a specific instance and level
-     * (called when an approval action is taken)
-     */
-    @Transactional
-    public void invalidateTokensForInstanceAndLevel(UUID instanceId, Integer level) {
-        tokenRepository.invalidateTokensForInstanceAndLevel(instanceId, level, LocalDateTime.now());
+    public boolean isForCurrentStep(VerifiedToken token) {
+        WorkflowInstance instance = token.workflowInstance();
+        if (token.claims().submittedAt() != submissionStamp(instance.getSubmittedAt())) {
+            return false;
+        }
+        if (!token.approvalLevel().equals(instance.getCurrentLevel())) {
+            return false;
+        }
+        String currentEmail = instance.getCurrentApprover() != null
+                ? instance.getCurrentApprover().getApproverEmail() : null;
+        return currentEmail == null || currentEmail.equalsIgnoreCase(token.approverEmail());
     }
 
     /**
-     * Invalidates ALL tokens for a specific instance (regardless of level)
-     * (called when workflow is approved or rejected)
+     * Records the token as used. The digest column is unique, so a concurrent second use fails.
      */
     @Transactional
-    public void invalidateAllTokensForInstance(UUID instanceId) {
-        tokenRepository.invalidateAllTokensForInstance(instanceId, LocalDateTime.now());
-        log.info("Invalidated all tokens for instance: {}", instanceId);
+    public void markTokenAsUsed(VerifiedToken token) {
+        LocalDateTime now = LocalDateTime.now();
+        tokenRepository.save(EmailApprovalToken.builder()
+                .token(digest(token.token()))
+                .workflowInstance(token.workflowInstance())
+                .approverEmail(token.approverEmail())
+                .approverName(token.approverName())
+                .approvalLevel(token.approvalLevel())
+                .actionType(token.actionType())
+                .expiresAt(token.claims().expiresAt())
+                .usedAt(now)
+                .isUsed(true)
+                .build());
     }
 
     /**
@@ -191,17 +231,69 @@ public class EmailApprovalService {
     public String generateApprovalUrl(String token, EmailApprovalToken.ActionType actionType) {
         String baseUrl = getBaseUrl();
         String url = baseUrl + "/email-approval?token=" + token + "&action=" + actionType.name().toLowerCase();
-        log.debug("Generated approval URL for action {}: {}", actionType, url);
+        log.debug("Generated approval URL for action {}", actionType);
         return url;
     }
 
+    private Optional<TokenClaims> decode(String tokenString) {
+        if (tokenString == null) return Optional.empty();
+        int dot = tokenString.indexOf('.');
+        if (dot <= 0 || dot == tokenString.length() - 1) return Optional.empty();
+        try {
+            byte[] payloadBytes = base64Decoder.decode(tokenString.substring(0, dot));
+            byte[] signature = base64Decoder.decode(tokenString.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\n", 8);
+            if (parts.length != 8 || !TOKEN_VERSION.equals(parts[0])) {
+                return Optional.empty();
+            }
+            LocalDateTime expiresAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(Long.parseLong(parts[5])), ZoneId.systemDefault());
+            return Optional.of(new TokenClaims(
+                    UUID.fromString(parts[1]),
+                    Long.parseLong(parts[2]),
+                    Integer.valueOf(parts[3]),
+                    EmailApprovalToken.ActionType.valueOf(parts[4]),
+                    expiresAt,
+                    parts[6],
+                    parts[7].isEmpty() ? null : parts[7]));
+        } catch (IllegalArgumentException e) {
+            // Bad base64, UUID, number or action name
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return hmac(signingKey, payload);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Email approval token signing unavailable", e);
+        }
+    }
+
     /**
-     * Scheduled task to clean up expired tokens
+     * Identifies a submission round by its submission time in epoch milliseconds; the column keeps
+     * at least that precision, so a reloaded instance yields the same value. Each resubmission sets
+     * a new submission time.
      */
-    @Scheduled(cron = "0 0 */6 * * *") // Run every 6 hours
-    @Transactional
-    public void cleanupExpiredTokens() {
-        log.info("Cleaning up expired email approval tokens");
-        tokenRepository.deleteExpiredTokens(LocalDateTime.now());
+    private static long submissionStamp(LocalDateTime submittedAt) {
+        return submittedAt != null ? submittedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    private static String digest(String tokenString) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(tokenString.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
     }
 }
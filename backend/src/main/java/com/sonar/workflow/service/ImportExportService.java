@@ -4,9 +4,14 @@ import com.sonar.workflow.entity.*;
 import com.sonar.workflow.repository.*;
 import com.sonar.workflow.deadlines.entity.*;
 import com.sonar.workflow.deadlines.repository.*;
+import com.sonar.workflow.deadlines.service.DeadlineReminderScheduleService;
 import com.sonar.workflow.leave.entity.*;
 import com.sonar.workflow.leave.repository.*;
+import com.sonar.workflow.leave.service.LeaveBalanceService;
+import com.sonar.workflow.leave.service.LeaveCalculationService;
+import com.sonar.workflow.leave.service.LeaveReferenceNumberService;
 import com.sonar.workflow.security.CustomUserDetails;
+import com.sonar.workflow.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -43,17 +48,23 @@ public class ImportExportService {
     private final WorkflowFieldRepository workflowFieldRepository;
     private final WorkflowFieldValueRepository workflowFieldValueRepository;
     private final SettingRepository settingRepository;
+    private final SettingService settingService;
     private final CategoryRepository categoryRepository;
     private final CorporateRepository corporateRepository;
     private final BranchRepository branchRepository;
     private final DepartmentRepository departmentRepository;
     private final AuditService auditService;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
     private final DeadlineItemRepository deadlineItemRepository;
     private final DeadlineCategoryRepository deadlineCategoryRepository;
+    private final DeadlineReminderScheduleService deadlineReminderScheduleService;
     private final LeaveTypeRepository leaveTypeRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveBalanceService leaveBalanceService;
+    private final LeaveReferenceNumberService leaveReferenceNumberService;
     private final PublicHolidayRepository publicHolidayRepository;
+    private final LeaveCalculationService leaveCalculationService;
     private final LeaveRequestRepository leaveRequestRepository;
 
     @Value("${app.storage.templates-path}")
@@ -575,6 +586,9 @@ public class ImportExportService {
                     }
 
                     userRepository.save(user);
+                    if (isExisting) {
+                        principalCache.invalidate(user.getUsername());
+                    }
                     result.addSuccess(rowNum);
                 } catch (Exception e) {
                     result.addError(rowNum, e.getMessage());
@@ -819,6 +833,9 @@ public class ImportExportService {
                 }
             }
         }
+        if (result.getSuccessCount() > 0) {
+            settingService.onSettingsChanged();
+        }
         return result;
     }
 
@@ -2552,7 +2569,12 @@ public class ImportExportService {
                     }
 
                     if (item.getIsActive() == null) item.setIsActive(true);
+                    boolean existing = item.getId() != null;
                     deadlineItemRepository.save(item);
+                    if (existing) {
+                        // Reminder days may have changed for instances already scheduled
+                        deadlineReminderScheduleService.reschedule(item.getId());
+                    }
                     result.setSuccessCount(result.getSuccessCount() + 1);
                     result.getRowStatuses().put(rowNum, "SUCCESS");
                 } catch (Exception e) {
@@ -2709,23 +2731,13 @@ public class ImportExportService {
                             .orElseThrow(() -> new RuntimeException("Leave type not found: " + leaveTypeCode));
                     int year = yearStr != null ? (int) Double.parseDouble(yearStr) : java.time.LocalDate.now().getYear();
 
-                    LeaveBalance lb = leaveBalanceRepository.findByEmployeeIdAndLeaveTypeIdAndYear(
-                            employee.getId(), leaveType.getId(), year).orElse(new LeaveBalance());
-                    lb.setEmployee(employee);
-                    lb.setLeaveType(leaveType);
-                    lb.setYear(year);
-
                     String entitled = getCellValue(row, 3);
-                    if (entitled != null && !entitled.isBlank()) lb.setEntitled(new BigDecimal(entitled));
-
                     String carried = getCellValue(row, 4);
-                    if (carried != null && !carried.isBlank()) lb.setCarriedOver(new BigDecimal(carried));
-
                     String adjustment = getCellValue(row, 5);
-                    if (adjustment != null && !adjustment.isBlank()) lb.setAdjustment(new BigDecimal(adjustment));
-
-                    lb.recalculateAvailable();
-                    leaveBalanceRepository.save(lb);
+                    leaveBalanceService.importBalance(employee, leaveType, year,
+                            entitled != null && !entitled.isBlank() ? new BigDecimal(entitled) : null,
+                            carried != null && !carried.isBlank() ? new BigDecimal(carried) : null,
+                            adjustment != null && !adjustment.isBlank() ? new BigDecimal(adjustment) : null);
                     result.setSuccessCount(result.getSuccessCount() + 1);
                     result.getRowStatuses().put(rowNum, "SUCCESS");
                 } catch (Exception e) {
@@ -2774,6 +2786,9 @@ public class ImportExportService {
             if (!rows.hasNext()) { result.getErrors().add("Empty file"); result.setErrorCount(1); return result; }
             rows.next();
 
+            // One block for the whole sheet; numbers are only consumed by rows that save
+            LeaveReferenceNumberService.Block references = leaveReferenceNumberService.reserveBlock(sheet.getLastRowNum());
+
             while (rows.hasNext()) {
                 Row row = rows.next();
                 int rowNum = row.getRowNum() + 1;
@@ -2797,11 +2812,10 @@ public class ImportExportService {
                     // Calculate total days
                     long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
 
-                    // Generate reference number
-                    String prefix = "LV-" + java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMM"));
-                    int maxRef = 0;
-                    try { maxRef = leaveRequestRepository.findMaxReferenceNumberForPrefix(prefix + "%"); } catch (Exception ignored) {}
-                    String refNumber = prefix + String.format("%04d", maxRef + 1);
+                    if (!references.hasNext()) {
+                        references = leaveReferenceNumberService.reserveBlock(sheet.getLastRowNum());
+                    }
+                    String refNumber = references.peek();
 
                     LeaveRequest lr = LeaveRequest.builder()
                             .employee(employee)
@@ -2836,6 +2850,7 @@ public class ImportExportService {
 
                     lr.setIsActive(true);
                     leaveRequestRepository.save(lr);
+                    references.consume();
                     result.setSuccessCount(result.getSuccessCount() + 1);
                     result.getRowStatuses().put(rowNum, "SUCCESS");
                 } catch (Exception e) {
@@ -2844,6 +2859,7 @@ public class ImportExportService {
                     result.getRowStatuses().put(rowNum, "FAILED");
                 }
             }
+            leaveReferenceNumberService.release(references);
         }
         return result;
     }
@@ -2916,6 +2932,9 @@ public class ImportExportService {
                 }
             }
         }
+        if (result.getSuccessCount() > 0) {
+            leaveCalculationService.invalidateCalendars();
+        }
         return result;
     }
 }
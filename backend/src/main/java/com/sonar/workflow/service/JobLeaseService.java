@@ -0,0 +1,228 @@
+package com.sonar.workflow.service;
+
+import com.sonar.workflow.dto.JobLeaseDTO;
+import com.sonar.workflow.entity.JobLease;
+import com.sonar.workflow.repository.JobLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs scheduled jobs under a database lease so that, with several backend nodes, exactly one
+ * of them runs each job per tick. The holder extends its lease with a heartbeat while the job
+ * runs; if the node dies the lease expires after {@code lockAtMost} and the next tick on any
+ * other node takes over. If the heartbeat finds the lease taken over, or cannot extend it before
+ * it expires, the run is marked as having lost its lease; jobs check {@link #isLeaseLost()}
+ * between batches and stop.
+ */
+@Service
+@Slf4j
+public class JobLeaseService {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate leaseTransaction;
+
+    @Value("${app.jobs.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${app.jobs.enabled:true}")
+    private boolean jobsEnabled;
+
+    private String nodeId;
+    private ScheduledExecutorService heartbeatExecutor;
+    // Lease-lost flag of the job running on the current thread
+    private final ThreadLocal<AtomicBoolean> runningLeaseLost = new ThreadLocal<>();
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        // Lease bookkeeping must commit on its own, independent of any caller transaction
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-lease-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("Scheduled job leases held as node {}", nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * True when the job running on this thread under {@link #runExclusive} no longer holds its
+     * lease, so another node may already be running it.
+     */
+    public boolean isLeaseLost() {
+        AtomicBoolean lost = runningLeaseLost.get();
+        return lost != null && lost.get();
+    }
+
+    public List<JobLeaseDTO> getJobs() {
+        return jobLeaseRepository.findAllByOrderByJobNameAsc().stream().map(this::toDTO).toList();
+    }
+
+    /**
+     * Runs {@code task} if this node can take the job's lease, otherwise returns without running it.
+     *
+     * @param lockAtMost  how long the lease survives without a heartbeat, i.e. the failover delay
+     * @param lockAtLeast minimum time the lease is held after the run starts; keep it shorter than
+     *                    the interval between runs but longer than clock skew between nodes
+     * @param task        the job body, returning the number of items it processed
+     * @return true when the task ran on this node
+     */
+    public boolean runExclusive(String jobName, Duration lockAtMost, Duration lockAtLeast, IntSupplier task) {
+        if (!jobsEnabled) {
+            return false;
+        }
+        long lockSeconds = Math.max(1, lockAtMost.toSeconds());
+        if (!tryAcquire(jobName, lockSeconds)) {
+            log.debug("Skipping job {}: lease held by another node", jobName);
+            return false;
+        }
+
+        long started = System.nanoTime();
+        AtomicBoolean lost = new AtomicBoolean();
+        AtomicLong heldUntil = new AtomicLong(started + TimeUnit.SECONDS.toNanos(lockSeconds));
+        long heartbeatSeconds = Math.max(1, lockSeconds / 3);
+        ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleAtFixedRate(
+                () -> extend(jobName, lockSeconds, lost, heldUntil), heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        runningLeaseLost.set(lost);
+        int items = 0;
+        String status = STATUS_SUCCESS;
+        String error = null;
+        try {
+            items = task.getAsInt();
+            if (lost.get()) {
+                status = STATUS_FAILED;
+                error = "Lease lost while running; stopped early";
+            }
+        } catch (RuntimeException e) {
+            status = STATUS_FAILED;
+            error = truncate(e.toString());
+            log.error("Scheduled job {} failed", jobName, e);
+        } finally {
+            runningLeaseLost.remove();
+            heartbeat.cancel(false);
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            release(jobName, lockAtLeast.toSeconds(), durationMs, items, status, error);
+        }
+        return true;
+    }
+
+    private boolean tryAcquire(String jobName, long lockSeconds) {
+        try {
+            Integer acquired = leaseTransaction.execute(s -> {
+                jobLeaseRepository.insertIfMissing(UUID.randomUUID(), jobName);
+                return jobLeaseRepository.tryAcquire(jobName, nodeId, lockSeconds);
+            });
+            return acquired != null && acquired > 0;
+        } catch (Exception e) {
+            log.warn("Could not acquire lease for job {}: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    private void extend(String jobName, long lockSeconds, AtomicBoolean lost, AtomicLong heldUntil) {
+        if (lost.get()) return;
+        long now = System.nanoTime();
+        try {
+            Integer extended = leaseTransaction.execute(s -> jobLeaseRepository.extend(jobName, nodeId, lockSeconds));
+            if (extended == null || extended == 0) {
+                lost.set(true);
+                log.warn("Lease for job {} was taken over by another node while running; stopping the run", jobName);
+            } else {
+                heldUntil.set(now + TimeUnit.SECONDS.toNanos(lockSeconds));
+            }
+        } catch (Exception e) {
+            if (now - heldUntil.get() >= 0) {
+                lost.set(true);
+                log.warn("Lease for job {} expired before it could be extended; stopping the run: {}",
+                        jobName, e.getMessage());
+            } else {
+                log.warn("Could not extend lease for job {}: {}", jobName, e.getMessage());
+            }
+        }
+    }
+
+    private void release(String jobName, long minSeconds, long durationMs, int items, String status, String error) {
+        try {
+            leaseTransaction.executeWithoutResult(s ->
+                    jobLeaseRepository.release(jobName, nodeId, minSeconds, durationMs, items, status, error));
+        } catch (Exception e) {
+            log.warn("Could not release lease for job {}: {}", jobName, e.getMessage());
+        }
+        if (items > 0 || !STATUS_SUCCESS.equals(status)) {
+            log.info("Job {} finished on {} in {} ms: {} items, {}", jobName, nodeId, durationMs, items, status);
+        }
+    }
+
+    private JobLeaseDTO toDTO(JobLease lease) {
+        // In progress: started, not finished since, and the holder is still heartbeating
+        boolean running = lease.getLastStartedAt() != null
+                && (lease.getLastFinishedAt() == null || lease.getLastFinishedAt().isBefore(lease.getLastStartedAt()))
+                && lease.getLeaseUntil() != null && lease.getLeaseUntil().isAfter(LocalDateTime.now());
+        return JobLeaseDTO.builder()
+                .jobName(lease.getJobName())
+                .ownerNode(lease.getOwnerNode())
+                .leaseUntil(lease.getLeaseUntil())
+                .heartbeatAt(lease.getHeartbeatAt())
+                .running(running)
+                .lastStartedAt(lease.getLastStartedAt())
+                .lastFinishedAt(lease.getLastFinishedAt())
+                .lastDurationMs(lease.getLastDurationMs())
+                .lastItemsProcessed(lease.getLastItemsProcessed())
+                .lastStatus(lease.getLastStatus())
+                .lastError(lease.getLastError())
+                .build();
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = UUID.randomUUID().toString().substring(0, 8);
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,439 @@
+package com.sonar.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sonar.workflow.dto.LiveEventDTO;
+import com.sonar.workflow.entity.User;
+import com.sonar.workflow.exception.BusinessException;
+import com.sonar.workflow.repository.UserRepository;
+import com.sonar.workflow.security.CustomUserDetails;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes {@link LiveEventDTO}s to users' open browser sessions over Server-Sent Events.
+ * <p>
+ * Each connection is served by its own virtual thread draining a bounded queue, so a slow
+ * client only ever blocks itself; a client that falls too far behind is disconnected and
+ * catches up when it reconnects. Every node keeps a short per-user replay buffer, which lets a
+ * reconnecting browser resume from its {@code Last-Event-ID}, on this node or another; if the
+ * id is no longer buffered the client is told to {@code resync}.
+ * <p>
+ * {@link #publish} delivers after the current transaction commits. Other nodes receive the
+ * event through LISTEN/NOTIFY, which PostgreSQL only delivers on commit as well.
+ */
+@Service
+@Slf4j
+public class NotificationHubService {
+
+    public static final String CHANNEL = "live_events";
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_RESYNC = "resync";
+
+    private static final String PENDING_EVENTS = NotificationHubService.class.getName() + ".PENDING_EVENTS";
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_NOTIFY_BYTES = 7500;
+    private static final long HEARTBEAT_INTERVAL_MS = 25000;
+
+    private final UserRepository userRepository;
+    private final PgNotificationListener notificationListener;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.live-events.replay-size:50}")
+    private int replaySize;
+
+    @Value("${app.live-events.replay-minutes:10}")
+    private long replayMinutes;
+
+    @Value("${app.live-events.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${app.live-events.stream-timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+
+    private final Map<UUID, UserChannel> channels = new ConcurrentHashMap<>();
+    private final ThreadFactory connectionThreads = Thread.ofVirtual().name("live-events-", 0).factory();
+
+    public NotificationHubService(UserRepository userRepository, PgNotificationListener notificationListener,
+                                  ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.notificationListener = notificationListener;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void subscribeToOtherNodes() {
+        notificationListener.subscribe(CHANNEL, payload -> {
+            if (payload == null) {
+                // Reconnected to the database: events may have been missed
+                resyncAll();
+                return;
+            }
+            try {
+                deliver(objectMapper.readValue(payload, Envelope.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Ignoring malformed live event: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(UserChannel::closeAll);
+    }
+
+    /**
+     * Sends {@code event} to {@code userIds} once the current transaction commits, or now if
+     * there is none. Null ids are ignored.
+     */
+    public void publish(Collection<UUID> userIds, LiveEventDTO event) {
+        Set<UUID> recipients = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (recipients.isEmpty()) return;
+
+        event.setId(UUID.randomUUID().toString());
+        if (event.getOccurredAt() == null) {
+            event.setOccurredAt(LocalDateTime.now());
+        }
+        Envelope envelope = new Envelope(List.copyOf(recipients), event);
+        notifyOtherNodes(envelope);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(envelope);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Envelope> pending = (List<Envelope>) TransactionSynchronizationManager.getResource(PENDING_EVENTS);
+        if (pending == null) {
+            List<Envelope> events = new ArrayList<>();
+            pending = events;
+            TransactionSynchronizationManager.bindResource(PENDING_EVENTS, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(NotificationHubService.this::deliver);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_EVENTS);
+                }
+            });
+        }
+        pending.add(envelope);
+    }
+
+    public void publish(UUID userId, LiveEventDTO event) {
+        publish(Collections.singletonList(userId), event);
+    }
+
+    /**
+     * Sends a named event to this node's open streams for {@code userId} without buffering it
+     * for replay; for state that is resent in full anyway, such as badge counts.
+     */
+    public void sendTransient(UUID userId, String name, Object data) {
+        UserChannel channel = channels.get(userId);
+        if (channel != null) {
+            channel.broadcast(new Outgoing(null, name, data));
+        }
+    }
+
+    public Set<UUID> getConnectedUserIds() {
+        return channels.entrySet().stream()
+                .filter(e -> e.getValue().isConnected())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    public boolean isConnected(UUID userId) {
+        UserChannel channel = channels.get(userId);
+        return channel != null && channel.isConnected();
+    }
+
+    /**
+     * The user registered for an approver or recipient: the linked account, or else the active
+     * account with the configured email address.
+     */
+    public UUID resolveUserId(User user, String email) {
+        if (user != null) {
+            return user.getId();
+        }
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return userRepository.findByEmailIgnoreCase(email.trim()).map(User::getId).orElse(null);
+    }
+
+    /**
+     * Opens a stream for the current user. Events buffered after {@code lastEventId} are
+     * replayed first; an unknown id gets a {@code resync} event instead.
+     */
+    public SseEmitter connect(String lastEventId) {
+        UUID userId = currentUserId();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMinutes * 60_000);
+        Connection connection = new Connection(userId, emitter, new LinkedBlockingQueue<>(queueCapacity));
+        Runnable detach = () -> detach(connection);
+        emitter.onCompletion(detach);
+        emitter.onTimeout(detach);
+        emitter.onError(e -> detach.run());
+
+        channels.compute(userId, (id, channel) -> {
+            UserChannel c = channel != null ? channel : new UserChannel();
+            c.attach(connection, lastEventId);
+            return c;
+        });
+        connection.thread = connectionThreads.newThread(() -> serve(connection));
+        connection.thread.start();
+        return emitter;
+    }
+
+    /**
+     * Drops replay buffers of users with no open stream and no recent events.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleChannels() {
+        long cutoff = System.currentTimeMillis() - replayMinutes * 60_000;
+        for (UUID userId : channels.keySet()) {
+            channels.computeIfPresent(userId, (id, channel) -> channel.isIdleSince(cutoff) ? null : channel);
+        }
+    }
+
+    private void deliver(Envelope envelope) {
+        long cutoff = System.currentTimeMillis() - replayMinutes * 60_000;
+        for (UUID userId : envelope.userIds()) {
+            channels.compute(userId, (id, channel) -> {
+                UserChannel c = channel != null ? channel : new UserChannel();
+                c.append(envelope.event(), replaySize, cutoff);
+                return c;
+            });
+        }
+    }
+
+    private void resyncAll() {
+        channels.values().forEach(channel -> channel.broadcast(resyncEvent()));
+    }
+
+    private void notifyOtherNodes(Envelope envelope) {
+        try {
+            String payload = objectMapper.writeValueAsString(envelope);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+                // The message is only for display; the rest is what clients need to refresh
+                LiveEventDTO event = envelope.event();
+                LiveEventDTO trimmed = LiveEventDTO.builder()
+                        .id(event.getId()).type(event.getType()).module(event.getModule())
+                        .entityId(event.getEntityId()).referenceNumber(event.getReferenceNumber())
+                        .status(event.getStatus()).occurredAt(event.getOccurredAt())
+                        .build();
+                payload = objectMapper.writeValueAsString(new Envelope(envelope.userIds(), trimmed));
+            }
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_BYTES) {
+                log.warn("Live event {} for {} recipients is too large to forward to other nodes",
+                        envelope.event().getId(), envelope.userIds().size());
+                return;
+            }
+            notificationListener.publish(CHANNEL, payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialise live event: {}", e.getMessage());
+        }
+    }
+
+    private void serve(Connection connection) {
+        try {
+            while (connection.open) {
+                Outgoing event = connection.queue.poll(HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                // A comment keeps idle streams from being closed by proxies and detects dead connections
+                connection.emitter.send(event != null ? event.toSse() : SseEmitter.event().comment("ping"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Live event stream for user {} closed: {}", connection.userId, e.getMessage());
+        } finally {
+            detach(connection);
+        }
+    }
+
+    private void detach(Connection connection) {
+        connection.open = false;
+        if (connection.thread != null && connection.thread != Thread.currentThread()) {
+            connection.thread.interrupt();
+        }
+        UserChannel channel = channels.get(connection.userId);
+        if (channel != null) {
+            channel.detach(connection);
+        }
+    }
+
+    private static Outgoing toOutgoing(LiveEventDTO event) {
+        return new Outgoing(event.getId(), EVENT_NOTIFICATION, event);
+    }
+
+    private static Outgoing resyncEvent() {
+        return new Outgoing(null, EVENT_RESYNC, Map.of());
+    }
+
+    private UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details
+                && details.getId() != null) {
+            return details.getId();
+        }
+        String username = authentication != null ? authentication.getName() : null;
+        return userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> new BusinessException("User not found"));
+    }
+
+    record Envelope(List<UUID> userIds, LiveEventDTO event) {
+    }
+
+    // Queued instead of an SseEventBuilder, which is mutable and must not be shared between streams
+    private record Outgoing(String id, String name, Object data) {
+        SseEmitter.SseEventBuilder toSse() {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? builder.id(id) : builder;
+        }
+    }
+
+    private static final class Connection {
+        final UUID userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Outgoing> queue;
+        volatile boolean open = true;
+        volatile Thread thread;
+
+        Connection(UUID userId, SseEmitter emitter, BlockingQueue<Outgoing> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void offer(Outgoing event) {
+            if (open && !queue.offer(event)) {
+                // Too far behind: drop the connection, the browser reconnects and replays or resyncs
+                log.debug("Live event queue full for user {}; closing stream", userId);
+                close();
+            }
+        }
+
+        void close() {
+            open = false;
+            if (thread != null) {
+                thread.interrupt();
+            }
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed
+            }
+        }
+    }
+
+    /**
+     * One user's replay buffer and open connections on this node. Appending and attaching are
+     * serialised so a connection sees buffered and live events exactly once, in order.
+     */
+    private static final class UserChannel {
+        private final Deque<LiveEventDTO> replay = new ArrayDeque<>();
+        private final List<Connection> connections = new CopyOnWriteArrayList<>();
+        private long lastEventAt = System.currentTimeMillis();
+
+        synchronized void append(LiveEventDTO event, int replaySize, long cutoff) {
+            replay.addLast(event);
+            while (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            while (!replay.isEmpty() && isBefore(replay.peekFirst(), cutoff)) {
+                replay.removeFirst();
+            }
+            lastEventAt = System.currentTimeMillis();
+            Outgoing outgoing = toOutgoing(event);
+            connections.forEach(connection -> connection.offer(outgoing));
+        }
+
+        synchronized void attach(Connection connection, String lastEventId) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<LiveEventDTO> missed = eventsAfter(lastEventId);
+                if (missed == null) {
+                    connection.offer(resyncEvent());
+                } else {
+                    missed.forEach(event -> connection.offer(toOutgoing(event)));
+                }
+            }
+            connections.add(connection);
+        }
+
+        void detach(Connection connection) {
+            connections.remove(connection);
+        }
+
+        void broadcast(Outgoing event) {
+            connections.forEach(connection -> connection.offer(event));
+        }
+
+        void closeAll() {
+            connections.forEach(Connection::close);
+        }
+
+        boolean isConnected() {
+            return !connections.isEmpty();
+        }
+
+        synchronized boolean isIdleSince(long cutoff) {
+            return connections.isEmpty() && lastEventAt < cutoff;
+        }
+
+        private List<LiveEventDTO> eventsAfter(String lastEventId) {
+            List<LiveEventDTO> after = new ArrayList<>();
+            boolean found = false;
+            for (LiveEventDTO event : replay) {
+                if (found) {
+                    after.add(event);
+                } else if (lastEventId.equals(event.getId())) {
+                    found = true;
+                }
+            }
+            return found ? after : null;
+        }
+
+        private static boolean isBefore(LiveEventDTO event, long cutoff) {
+            LocalDateTime occurredAt = event.getOccurredAt();
+            return occurredAt != null && occurredAt
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() < cutoff;
+        }
+    }
+}
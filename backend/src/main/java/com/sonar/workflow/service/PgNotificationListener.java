@@ -0,0 +1,237 @@
+package com.sonar.workflow.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cross-node signalling over PostgreSQL LISTEN/NOTIFY. {@link #publish} queues the notification
+ * once the current transaction commits, and a single sender thread sends it on a connection it
+ * keeps for that purpose. A failed NOTIFY can never abort the caller's transaction, and a commit
+ * never waits for a second pooled connection while still holding its own. Another daemon thread
+ * holds one connection that LISTENs on all subscribed channels and hands payloads from other
+ * nodes to the subscribers.
+ * <p>
+ * After the connection is lost and re-established, subscribers are called with a {@code null}
+ * payload: notifications may have been missed and they should resynchronise. A payload too large
+ * for NOTIFY is delivered the same way.
+ */
+@Service
+@Slf4j
+public class PgNotificationListener {
+
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 10000;
+    // PostgreSQL rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+    private static final int MAX_PENDING_SENDS = 10000;
+    private static final long SENDER_SHUTDOWN_WAIT_MS = 5000;
+
+    private final DataSource dataSource;
+
+    @Value("${app.notify.enabled:true}")
+    private boolean enabled;
+
+    // Prefixed to payloads so a node can ignore its own notifications
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile boolean postgres = true;
+    private volatile boolean running;
+    private Thread listenerThread;
+    private ThreadPoolExecutor sender;
+    // Only used on the sender thread
+    private Connection senderConnection;
+
+    public PgNotificationListener(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void init() {
+        sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(MAX_PENDING_SENDS),
+                r -> {
+                    Thread t = new Thread(r, "pg-notify-sender");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (task, executor) -> log.warn("Notification queue full; a notification was dropped"));
+    }
+
+    /**
+     * Registers a handler for notifications on {@code channel} sent by other nodes. Channel names
+     * must be plain SQL identifiers. Subscribe before the application is ready.
+     */
+    public void subscribe(String channel, Consumer<String> handler) {
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Notifies other nodes. Inside a transaction the notification is sent after it commits, and
+     * not at all if it rolls back. Failures are logged, never thrown.
+     */
+    public void publish(String channel, String payload) {
+        if (!enabled || !postgres) return;
+        String message = origin + ":" + (payload != null ? payload : "");
+        if (message.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            // Without a separator receivers treat it as "anything may have changed"
+            log.debug("Notification on {} too large ({} chars); sending a resync instead", channel, message.length());
+            message = origin;
+        }
+        String notification = message;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sender.execute(() -> send(channel, notification));
+                }
+            });
+        } else {
+            sender.execute(() -> send(channel, notification));
+        }
+    }
+
+    /** Runs on the sender thread; a broken connection is replaced and the send retried once. */
+    private void send(String channel, String message) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (senderConnection == null || senderConnection.isClosed()) {
+                    senderConnection = dataSource.getConnection();
+                    senderConnection.setAutoCommit(true);
+                }
+                try (PreparedStatement stmt = senderConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    stmt.setString(1, channel);
+                    stmt.setString(2, message);
+                    stmt.execute();
+                }
+                return;
+            } catch (SQLException e) {
+                closeSenderConnection();
+                if (attempt == 2) {
+                    log.warn("Could not publish notification on {}: {}", channel, e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void closeSenderConnection() {
+        if (senderConnection == null) return;
+        try {
+            senderConnection.close();
+        } catch (SQLException e) {
+            log.debug("Could not close notification sender connection: {}", e.getMessage());
+        }
+        senderConnection = null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || subscribers.isEmpty()) return;
+        running = true;
+        listenerThread = new Thread(this::listen, "pg-notify-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        // Send what is queued, then release the sender's connection on its own thread
+        sender.execute(this::closeSenderConnection);
+        sender.shutdown();
+        try {
+            sender.awaitTermination(SENDER_SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (!connection.isWrapperFor(PGConnection.class)) {
+                    postgres = false;
+                    log.info("Database is not PostgreSQL; cross-node notifications disabled");
+                    return;
+                }
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement stmt = connection.createStatement()) {
+                    for (String channel : subscribers.keySet()) {
+                        stmt.execute("LISTEN " + channel);
+                    }
+                }
+                log.info("Listening for notifications on {}", subscribers.keySet());
+                if (reconnecting) {
+                    subscribers.keySet().forEach(channel -> dispatch(channel, null));
+                }
+                reconnecting = true;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Notification listener connection lost: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String channel, String rawPayload) {
+        if (rawPayload == null || rawPayload.isEmpty()) return;
+        int separator = rawPayload.indexOf(':');
+        String sender = separator < 0 ? rawPayload : rawPayload.substring(0, separator);
+        if (origin.equals(sender)) return;
+        // An origin without a payload stands in for one that was too large to send
+        dispatch(channel, separator < 0 ? null : rawPayload.substring(separator + 1));
+    }
+
+    private void dispatch(String channel, String payload) {
+        for (Consumer<String> handler : subscribers.getOrDefault(channel, List.of())) {
+            try {
+                handler.accept(payload);
+            } catch (RuntimeException e) {
+                log.error("Notification handler for {} failed", channel, e);
+            }
+        }
+    }
+}
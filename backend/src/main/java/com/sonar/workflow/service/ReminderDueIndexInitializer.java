@@ -0,0 +1,64 @@
+package com.sonar.workflow.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Creates the indexes behind the reminder schedulers' due-time queries. They are partial over
+ * pending rows, matching the {@code status = 'PENDING'} filter of lockDueForReminders in
+ * WorkflowInstanceRepository and LeaveRequestRepository, so their size follows the open queue
+ * rather than the history of finished instances.
+ * <p>
+ * Due times written before they were cleared on completion are cleared once, and the earlier
+ * full-table indexes are dropped. Each statement runs in its own transaction; a failure is
+ * logged and the remaining statements still run.
+ */
+@Component
+@Slf4j
+public class ReminderDueIndexInitializer {
+
+    private static final String PENDING_PREDICATE = "status = 'PENDING'";
+    private static final List<String> TABLES = List.of("workflow_instances", "leave_requests");
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ReminderDueIndexInitializer(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (String table : TABLES) {
+            int cleared = execute("UPDATE " + table + " SET next_reminder_at = NULL, next_escalation_at = NULL " +
+                    "WHERE status <> 'PENDING' AND (next_reminder_at IS NOT NULL OR next_escalation_at IS NOT NULL)");
+            if (cleared > 0) {
+                log.info("Cleared reminder due times of {} finished rows in {}", cleared, table);
+            }
+            for (String column : List.of("next_reminder_at", "next_escalation_at")) {
+                execute("DROP INDEX IF EXISTS idx_" + table + "_" + column);
+                execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_pending_" + column + " ON " + table +
+                        " (" + column + ") WHERE " + PENDING_PREDICATE);
+            }
+        }
+    }
+
+    private int execute(String sql) {
+        try {
+            Integer updated = transactionTemplate.execute(status -> entityManager.createNativeQuery(sql).executeUpdate());
+            return updated != null ? updated : 0;
+        } catch (Exception e) {
+            log.warn("Reminder index statement failed ({}): {}", sql, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.sonar.workflow.entity.Role;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.repository.PrivilegeRepository;
 import com.sonar.workflow.repository.RoleRepository;
+import com.sonar.workflow.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,7 @@ public class RoleService {
     private final RoleRepository roleRepository;
     private final PrivilegeRepository privilegeRepository;
     private final AuditService auditService;
+    private final PrincipalCache principalCache;
 
     public List<RoleDTO> getAllRoles() {
         return roleRepository.findAll().stream()
@@ -88,6 +90,8 @@ public class RoleService {
         }
 
         Role saved = roleRepository.save(role);
+        // Cached principals carry this role's privileges
+        principalCache.invalidateAll();
         auditService.log(AuditLog.AuditAction.UPDATE, "Role", saved.getId(),
                 saved.getName(), "Role updated: " + saved.getName(), oldValues, toDTO(saved));
 
@@ -107,6 +111,7 @@ public class RoleService {
                 role.getName(), "Role deleted: " + role.getName(), toDTO(role), null);
 
         roleRepository.delete(role);
+        principalCache.invalidateAll();
     }
 
     private RoleDTO toDTO(Role role) {
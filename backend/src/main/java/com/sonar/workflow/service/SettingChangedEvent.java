@@ -0,0 +1,13 @@
+package com.sonar.workflow.service;
+
+/**
+ * Published by {@link SettingService} when a setting is saved or deleted, on this node or another.
+ * Listeners that derive state from settings (schedules, caches) use it to refresh instead of
+ * polling. A null key means any setting may have changed.
+ */
+public record SettingChangedEvent(String key) {
+
+    public boolean matches(String prefix) {
+        return key == null || key.startsWith(prefix);
+    }
+}
@@ -5,34 +5,95 @@ import com.sonar.workflow.entity.Setting;
 import com.sonar.workflow.repository.SettingRepository;
 import com.sonar.workflow.security.SuperUserProvider;
 import com.sonar.workflow.util.EncryptionUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Settings are read from an immutable in-memory snapshot of the whole table with encrypted values
+ * already decrypted, so reads never touch the database. Writes through this service replace the
+ * snapshot after commit and notify other nodes over LISTEN/NOTIFY so they reload too.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SettingService {
 
+    private static final String CHANGE_CHANNEL = "settings_changed";
+    private static final Object RELOAD_PENDING = new Object();
+
     private final SettingRepository settingRepository;
     private final EncryptionUtil encryptionUtil;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PgNotificationListener notificationListener;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Immutable key to value map. Holds decrypted secrets, so it deliberately has no useful toString.
+     */
+    private static final class Snapshot {
+        private final Map<String, String> values;
+
+        private Snapshot(Map<String, String> values) {
+            this.values = values;
+        }
+
+        @Override
+        public String toString() {
+            return "SettingSnapshot[" + values.size() + " settings]";
+        }
+    }
+
+    @PostConstruct
+    public void subscribeToChanges() {
+        notificationListener.subscribe(CHANGE_CHANNEL, key -> {
+            reload();
+            // A null key (missed notifications) tells listeners that any setting may have changed
+            eventPublisher.publishEvent(new SettingChangedEvent(key == null || key.isEmpty() ? null : key));
+        });
+    }
+
+    /**
+     * Reloads once startup data seeding has finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Replaces the snapshot with the current contents of the settings table.
+     */
+    public synchronized void reload() {
+        snapshot = loadSnapshot();
+    }
+
+    /**
+     * For code that writes settings through the repository (imports): refreshes this node after
+     * commit and tells the other nodes to do the same.
+     */
+    public void onSettingsChanged() {
+        settingsChanged(null);
+    }
 
     public String getValue(String key, String defaultValue) {
-        return settingRepository.findByKey(key)
-                .map(setting -> {
-                    if (Boolean.TRUE.equals(setting.getIsEncrypted())) {
-                        return encryptionUtil.decrypt(setting.getValue());
-                    }
-                    return setting.getValue();
-                })
-                .orElse(defaultValue);
+        String value = snapshot().values.get(key);
+        return value != null ? value : defaultValue;
     }
 
     public int getIntValue(String key, int defaultValue) {
@@ -45,12 +106,97 @@ public class SettingService {
         }
     }
 
+    public long getLongValue(String key, long defaultValue) {
+        String value = getValue(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public boolean getBooleanValue(String key, boolean defaultValue) {
         String value = getValue(key, null);
         if (value == null) return defaultValue;
         return Boolean.parseBoolean(value);
     }
 
+    /**
+     * Comma-separated value as a list of trimmed, non-empty entries.
+     */
+    public List<String> getListValue(String key, String defaultValue) {
+        String value = getValue(key, defaultValue);
+        if (value == null || value.isBlank()) return List.of();
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = loadSnapshot();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot loadSnapshot() {
+        Map<String, String> values = new HashMap<>();
+        for (Setting setting : settingRepository.findAll()) {
+            if (setting.getKey() == null || setting.getValue() == null) continue;
+            if (Boolean.TRUE.equals(setting.getIsEncrypted())) {
+                try {
+                    values.put(setting.getKey(), encryptionUtil.decrypt(setting.getValue()));
+                } catch (RuntimeException e) {
+                    log.warn("Could not decrypt setting {}; using its default", setting.getKey());
+                }
+            } else {
+                values.put(setting.getKey(), setting.getValue());
+            }
+        }
+        log.debug("Loaded {} settings into memory", values.size());
+        return new Snapshot(Map.copyOf(values));
+    }
+
+    /**
+     * Reloads after the surrounding transaction commits (once per transaction), notifies other
+     * nodes on commit, and publishes a local {@link SettingChangedEvent}.
+     */
+    private void settingsChanged(String key) {
+        notificationListener.publish(CHANGE_CHANNEL, key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+        } else if (!TransactionSynchronizationManager.hasResource(RELOAD_PENDING)) {
+            TransactionSynchronizationManager.bindResource(RELOAD_PENDING, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    // Before transactional event listeners, so they see the new values
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RELOAD_PENDING);
+                }
+            });
+        }
+        eventPublisher.publishEvent(new SettingChangedEvent(key));
+    }
+
     public List<SettingDTO> getAllSettings() {
         return settingRepository.findAll().stream()
                 .map(this::toDTO)
@@ -160,6 +306,7 @@ public class SettingService {
         }
 
         Setting saved = settingRepository.save(setting);
+        settingsChanged(saved.getKey());
         return toDTO(saved);
     }
 
@@ -193,12 +340,16 @@ public class SettingService {
         if (dto.getCategory() != null) setting.setCategory(dto.getCategory());
 
         Setting saved = settingRepository.save(setting);
+        settingsChanged(saved.getKey());
         return toDTO(saved);
     }
 
     @Transactional
     public void deleteSetting(UUID id) {
-        settingRepository.deleteById(id);
+        settingRepository.findById(id).ifPresent(setting -> {
+            settingRepository.delete(setting);
+            settingsChanged(setting.getKey());
+        });
     }
 
     private SettingDTO toDTO(Setting setting) {
@@ -0,0 +1,263 @@
+package com.sonar.workflow.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loader for SQL Object data tables. On PostgreSQL rows are streamed with
+ * COPY FROM STDIN (CSV) into a temporary staging table and merged into the target
+ * with set-based statements; other databases fall back to batched multi-row INSERTs, each
+ * within the driver's 65535 bind-parameter limit.
+ * Values must already be coerced to the column types by the caller.
+ * <p>
+ * If the whole load fails, it is retried chunk by chunk, and a failing chunk row by row,
+ * each attempt under its own savepoint, so only the offending rows are rejected.
+ */
+@Service
+@Slf4j
+public class SqlBulkLoader {
+
+    private static final int RETRY_CHUNK_ROWS = 500;
+    private static final int MAX_BIND_PARAMETERS = 65535;
+    // Qualified so a regular table of the same name on the search path is never used
+    private static final String STAGING_TABLE = "pg_temp.sql_import_staging";
+    // Staging column recording each row's position in the load
+    private static final String ROW_NUMBER_COLUMN = "sql_import_row";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Outcome of a load. {@code failures} maps the index of each rejected row to the
+     * database error; every other row was loaded.
+     */
+    public record LoadResult(int inserted, int updated, boolean usedCopy, Map<Integer, String> failures) {}
+
+    /**
+     * Loads rows into {@code tableName}. When {@code keyColumns} is non-empty, rows whose
+     * key matches an existing row update it and the rest are inserted (upsert); of several
+     * rows with the same key the last one wins. Otherwise every row is inserted. Must run
+     * inside a transaction.
+     */
+    public LoadResult load(String tableName, List<String> columns, List<String> keyColumns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new LoadResult(0, 0, false, Map.of());
+        }
+        LoadResult[] result = new LoadResult[1];
+        org.hibernate.Session session = entityManager.unwrap(org.hibernate.Session.class);
+        session.doWork(connection -> {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            try {
+                result[0] = attempt(connection, () -> postgres
+                        ? copyAndMerge(connection, tableName, columns, keyColumns, rows)
+                        : new LoadResult(batchInsert(connection, tableName, columns, rows), 0, false, Map.of()));
+            } catch (SQLException e) {
+                log.warn("Bulk load into {} failed, retrying in chunks: {}", tableName, e.getMessage());
+                result[0] = loadIsolatingFailures(connection, postgres, tableName, columns, keyColumns, rows);
+            }
+        });
+        log.info("Bulk loaded {}: {} inserted, {} updated, {} rejected (COPY: {})", tableName,
+                result[0].inserted(), result[0].updated(), result[0].failures().size(), result[0].usedCopy());
+        return result[0];
+    }
+
+    private LoadResult loadIsolatingFailures(Connection connection, boolean postgres, String tableName,
+                                             List<String> columns, List<String> keyColumns,
+                                             List<Object[]> rows) throws SQLException {
+        int inserted = 0;
+        int updated = 0;
+        Map<Integer, String> failures = new TreeMap<>();
+        for (int start = 0; start < rows.size(); start += RETRY_CHUNK_ROWS) {
+            List<Object[]> chunk = rows.subList(start, Math.min(start + RETRY_CHUNK_ROWS, rows.size()));
+            try {
+                LoadResult chunkResult = attempt(connection, () -> postgres
+                        ? copyAndMerge(connection, tableName, columns, keyColumns, chunk)
+                        : new LoadResult(batchInsert(connection, tableName, columns, chunk), 0, false, Map.of()));
+                inserted += chunkResult.inserted();
+                updated += chunkResult.updated();
+                continue;
+            } catch (SQLException e) {
+                // Fall through to row-by-row for this chunk
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Object[] row = chunk.get(i);
+                try {
+                    boolean wasUpdate = attempt(connection, () -> upsertRow(connection, tableName, columns, keyColumns, row));
+                    if (wasUpdate) updated++; else inserted++;
+                } catch (SQLException e) {
+                    failures.put(start + i, e.getMessage());
+                }
+            }
+        }
+        return new LoadResult(inserted, updated, false, failures);
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    /** Runs the work under a savepoint; on failure the savepoint is rolled back and the error rethrown. */
+    private <T> T attempt(Connection connection, SqlWork<T> work) throws SQLException {
+        // A failed attempt must not poison the surrounding transaction
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            T result = work.run();
+            connection.releaseSavepoint(savepoint);
+            return result;
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            throw e;
+        } catch (RuntimeException e) {
+            connection.rollback(savepoint);
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /** Updates the row matching the key, or inserts it. Returns true when an existing row was updated. */
+    private boolean upsertRow(Connection connection, String tableName, List<String> columns,
+                              List<String> keyColumns, Object[] row) throws SQLException {
+        List<String> valueColumns = columns.stream().filter(c -> !keyColumns.contains(c)).toList();
+        if (!keyColumns.isEmpty() && !valueColumns.isEmpty()) {
+            String sql = "UPDATE " + tableName + " SET " +
+                    valueColumns.stream().map(c -> c + " = ?").collect(Collectors.joining(", ")) +
+                    " WHERE " + keyColumns.stream().map(k -> k + " = ?").collect(Collectors.joining(" AND "));
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int param = 1;
+                for (String column : valueColumns) {
+                    ps.setObject(param++, row[columns.indexOf(column)]);
+                }
+                for (String key : keyColumns) {
+                    ps.setObject(param++, row[columns.indexOf(key)]);
+                }
+                if (ps.executeUpdate() > 0) return true;
+            }
+        } else if (!keyColumns.isEmpty()) {
+            String sql = "SELECT 1 FROM " + tableName + " WHERE " +
+                    keyColumns.stream().map(k -> k + " = ?").collect(Collectors.joining(" AND "));
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int param = 1;
+                for (String key : keyColumns) {
+                    ps.setObject(param++, row[columns.indexOf(key)]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return true;
+                }
+            }
+        }
+        batchInsert(connection, tableName, columns, List.<Object[]>of(row));
+        return false;
+    }
+
+    private LoadResult copyAndMerge(Connection connection, String tableName, List<String> columns,
+                                    List<String> keyColumns, List<Object[]> rows) throws SQLException {
+        String columnList = String.join(", ", columns);
+        try (Statement stmt = connection.createStatement()) {
+            // Same column types as the target, no constraints, gone at commit; COPY fills the
+            // row number in load order
+            stmt.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+            stmt.execute("CREATE TEMP TABLE " + STAGING_TABLE + " ON COMMIT DROP AS SELECT " + columnList +
+                    " FROM " + tableName + " WITH NO DATA");
+            stmt.execute("ALTER TABLE " + STAGING_TABLE + " ADD COLUMN " + ROW_NUMBER_COLUMN + " BIGSERIAL");
+        }
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        CopyIn copyIn = copyManager.copyIn("COPY " + STAGING_TABLE + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            StringBuilder line = new StringBuilder();
+            for (Object[] row : rows) {
+                line.setLength(0);
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) line.append(',');
+                    appendCsv(line, row[i]);
+                }
+                line.append('\n');
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        int updated = 0;
+        int inserted;
+        try (Statement stmt = connection.createStatement()) {
+            if (keyColumns.isEmpty()) {
+                inserted = stmt.executeUpdate("INSERT INTO " + tableName + " (" + columnList + ") SELECT " +
+                        columnList + " FROM " + STAGING_TABLE + " ORDER BY " + ROW_NUMBER_COLUMN);
+            } else {
+                String keyMatch = keyColumns.stream()
+                        .map(k -> "t." + k + " = s." + k)
+                        .collect(Collectors.joining(" AND "));
+                // The last staged row of each key, as if the rows were applied in order
+                String keyList = String.join(", ", keyColumns);
+                String latest = "(SELECT DISTINCT ON (" + keyList + ") * FROM " + STAGING_TABLE +
+                        " ORDER BY " + keyList + ", " + ROW_NUMBER_COLUMN + " DESC) s";
+                List<String> valueColumns = columns.stream().filter(c -> !keyColumns.contains(c)).toList();
+                if (!valueColumns.isEmpty()) {
+                    String assignments = valueColumns.stream()
+                            .map(c -> c + " = s." + c)
+                            .collect(Collectors.joining(", "));
+                    updated = stmt.executeUpdate("UPDATE " + tableName + " t SET " + assignments +
+                            " FROM " + latest + " WHERE " + keyMatch);
+                }
+                String sourceColumns = columns.stream().map(c -> "s." + c).collect(Collectors.joining(", "));
+                inserted = stmt.executeUpdate("INSERT INTO " + tableName + " (" + columnList + ")" +
+                        " SELECT " + sourceColumns + " FROM " + latest +
+                        " WHERE NOT EXISTS (SELECT 1 FROM " + tableName + " t WHERE " + keyMatch + ")" +
+                        " ORDER BY s." + ROW_NUMBER_COLUMN);
+            }
+            stmt.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+        }
+        return new LoadResult(inserted, updated, true, Map.of());
+    }
+
+    private int batchInsert(Connection connection, String tableName, List<String> columns,
+                            List<Object[]> rows) throws SQLException {
+        String rowPlaceholders = "(" + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+        String columnList = String.join(", ", columns);
+        int rowsPerStatement = Math.max(1, MAX_BIND_PARAMETERS / Math.max(1, columns.size()));
+        int inserted = 0;
+        for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+            List<Object[]> chunk = rows.subList(start, Math.min(start + rowsPerStatement, rows.size()));
+            String sql = "INSERT INTO " + tableName + " (" + columnList + ") VALUES " +
+                    chunk.stream().map(r -> rowPlaceholders).collect(Collectors.joining(", "));
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int param = 1;
+                for (Object[] row : chunk) {
+                    for (Object value : row) {
+                        ps.setObject(param++, value);
+                    }
+                }
+                inserted += ps.executeUpdate();
+            }
+        }
+        return inserted;
+    }
+
+    /** CSV field: NULL as an unquoted empty field, everything else quoted. */
+    private void appendCsv(StringBuilder line, Object value) {
+        if (value == null) return;
+        line.append('"').append(value.toString().replace("\"", "\"\"")).append('"');
+    }
+}
@@ -1,17 +1,24 @@
 package com.sonar.workflow.service;
 
 import com.sonar.workflow.dto.SqlColumnDTO;
+import com.sonar.workflow.dto.SqlDataPageDTO;
 import com.sonar.workflow.dto.SqlObjectDTO;
 import com.sonar.workflow.entity.SqlColumn;
 import com.sonar.workflow.entity.SqlObject;
 import com.sonar.workflow.repository.SqlColumnRepository;
 import com.sonar.workflow.repository.SqlObjectRepository;
+import com.sonar.workflow.repository.WorkflowFieldRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -19,7 +26,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,11 +40,30 @@ public class SqlObjectService {
 
     private final SqlObjectRepository sqlObjectRepository;
     private final SqlColumnRepository sqlColumnRepository;
+    private final SqlQueryExecutor sqlQueryExecutor;
+    private final SqlBulkLoader sqlBulkLoader;
+    private final PlatformTransactionManager transactionManager;
+    private final WorkflowFieldRepository workflowFieldRepository;
+
+    // Each batched function request or group commits or fails on its own
+    private TransactionTemplate functionTransaction;
 
     @PersistenceContext
     private EntityManager entityManager;
 
     private static final String TABLE_PREFIX = "sql_data_";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_INDEX_NAME_LENGTH = 63;
+
+    // Resolved physical table per requested name (lower-cased); cleared whenever SQL Objects change
+    private final Map<String, String> resolvedTableNames = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        functionTransaction = new TransactionTemplate(transactionManager);
+        functionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     public List<SqlObjectDTO> getAllSqlObjects() {
         return sqlObjectRepository.findAll().stream()
@@ -91,6 +121,7 @@ public class SqlObjectService {
                         .isNullable(colDto.getIsNullable() != null ? colDto.getIsNullable() : true)
                         .isPrimaryKey(colDto.getIsPrimaryKey() != null ? colDto.getIsPrimaryKey() : false)
                         .defaultValue(colDto.getDefaultValue())
+                        .isIndexed(Boolean.TRUE.equals(colDto.getIsIndexed()))
                         .displayOrder(i)
                         .booleanControl(parseBooleanControl(colDto.getBooleanControl()))
                         .build();
@@ -102,6 +133,7 @@ public class SqlObjectService {
 
         // Create the actual database table
         createDynamicTable(sqlObject);
+        resolvedTableNames.clear();
 
         return toDTO(sqlObject);
     }
@@ -164,6 +196,12 @@ public class SqlObjectService {
                                 c.setDisplayName(colDto.getDisplayName());
                                 c.setDisplayOrder(colDto.getDisplayOrder());
                                 c.setBooleanControl(parseBooleanControl(colDto.getBooleanControl()));
+                                if (colDto.getIsIndexed() != null) {
+                                    if (Boolean.TRUE.equals(c.getIsIndexed()) && !colDto.getIsIndexed()) {
+                                        dropColumnIndex(sqlObject, c.getColumnName());
+                                    }
+                                    c.setIsIndexed(colDto.getIsIndexed());
+                                }
                             });
                 } else {
                     // Add new column to the database table
@@ -193,11 +231,16 @@ public class SqlObjectService {
                     newCol.setIsPrimaryKey(false);
                     newCol.setDisplayOrder(colDto.getDisplayOrder());
                     newCol.setBooleanControl(parseBooleanControl(colDto.getBooleanControl()));
+                    newCol.setIsIndexed(Boolean.TRUE.equals(colDto.getIsIndexed()));
                     sqlObject.getColumns().add(newCol);
                 }
             }
         }
 
+        // Indexes are idempotent, so re-apply after any column or label change
+        createColumnIndexes(sqlObject);
+        resolvedTableNames.clear();
+
         return toDTO(sqlObjectRepository.save(sqlObject));
     }
 
@@ -230,6 +273,7 @@ public class SqlObjectService {
         dropDynamicTable(sqlObject.getTableName());
 
         sqlObjectRepository.delete(sqlObject);
+        resolvedTableNames.clear();
     }
 
     // Data Management Methods
@@ -264,6 +308,89 @@ public class SqlObjectService {
         }
     }
 
+    /**
+     * Keyset-paged read of a SQL Object table ordered by id. Returns the rows after
+     * {@code afterId} (before it when descending), optionally narrowed by a prefix or
+     * contains search on {@code searchColumn} (the label column by default) and by
+     * exact-match column filters. Only columns defined on the SQL Object are accepted.
+     */
+    @SuppressWarnings("unchecked")
+    public SqlDataPageDTO getTableDataPage(UUID sqlObjectId, Long afterId, Integer size, String direction,
+                                           String search, String searchColumn, String searchMode,
+                                           Map<String, String> filters) {
+        SqlObject sqlObject = sqlObjectRepository.findById(sqlObjectId)
+                .orElseThrow(() -> new RuntimeException("SQL Object not found"));
+
+        Map<String, SqlColumn> columnsByName = new LinkedHashMap<>();
+        for (SqlColumn column : sqlObject.getColumns()) {
+            columnsByName.put(column.getColumnName(), column);
+        }
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        boolean descending = "DESC".equalsIgnoreCase(direction);
+
+        StringBuilder sql = new StringBuilder("SELECT id");
+        for (String columnName : columnsByName.keySet()) {
+            sql.append(", ").append(columnName);
+        }
+        sql.append(" FROM ").append(TABLE_PREFIX).append(sqlObject.getTableName()).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (afterId != null) {
+            sql.append(descending ? " AND id < ?" : " AND id > ?");
+            params.add(afterId);
+        }
+        if (search != null && !search.isBlank()) {
+            String column = searchColumn;
+            if (column == null || column.isBlank()) {
+                String[] optionColumns = resolveOptionColumns(sqlObject);
+                column = optionColumns != null ? optionColumns[1] : null;
+            }
+            requireColumn(columnsByName, column);
+            sql.append(" AND ").append(searchExpression(column)).append(" LIKE ?");
+            params.add(searchPattern(search, searchMode));
+        }
+        if (filters != null) {
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                SqlColumn column = requireColumn(columnsByName, filter.getKey());
+                sql.append(" AND ").append(column.getColumnName()).append(" = CAST(? AS ")
+                        .append(getPostgresType(column.getDataType(), column.getColumnLength())).append(")");
+                params.add(filter.getValue());
+            }
+        }
+        sql.append(" ORDER BY id").append(descending ? " DESC" : " ASC");
+        sql.append(" LIMIT ").append(pageSize + 1);
+
+        var query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        List<Object> results = query.getResultList();
+
+        boolean hasMore = results.size() > pageSize;
+        List<Map<String, Object>> rows = new ArrayList<>(Math.min(results.size(), pageSize));
+        Long nextCursor = null;
+        for (int r = 0; r < Math.min(results.size(), pageSize); r++) {
+            Object result = results.get(r);
+            Object[] row = result instanceof Object[] arr ? arr : new Object[]{result};
+            Map<String, Object> rowMap = new LinkedHashMap<>();
+            rowMap.put("id", row[0]);
+            int i = 1;
+            for (String columnName : columnsByName.keySet()) {
+                rowMap.put(columnName, i < row.length ? row[i] : null);
+                i++;
+            }
+            rows.add(rowMap);
+            nextCursor = row[0] instanceof Number n ? n.longValue() : null;
+        }
+
+        return SqlDataPageDTO.builder()
+                .rows(rows)
+                .nextCursor(hasMore ? nextCursor : null)
+                .hasMore(hasMore)
+                .pageSize(pageSize)
+                .build();
+    }
+
     @Transactional
     public Map<String, Object> addTableRow(UUID sqlObjectId, Map<String, Object> rowData) {
         SqlObject sqlObject = sqlObjectRepository.findById(sqlObjectId)
@@ -293,6 +420,7 @@ public class SqlObjectService {
             query.setParameter(i + 1, values.get(i));
         }
         query.executeUpdate();
+        sqlQueryExecutor.clearCache();
 
         return rowData;
     }
@@ -325,6 +453,7 @@ public class SqlObjectService {
             query.setParameter(i + 1, values.get(i));
         }
         query.executeUpdate();
+        sqlQueryExecutor.clearCache();
 
         return rowData;
     }
@@ -340,16 +469,19 @@ public class SqlObjectService {
         entityManager.createNativeQuery(sql)
                 .setParameter(1, rowId)
                 .executeUpdate();
+        sqlQueryExecutor.clearCache();
     }
 
     /**
      * Execute a read-only SQL query for SQL_TABLE fields and return columns + data.
      * Only SELECT queries are allowed. If column definitions are provided (JSON array of {key, label}),
      * those are used; otherwise column names from the result set metadata are used.
+     * Rows and metadata come from a single bounded execution, cached for the TTL configured on the
+     * field {@code fieldId} when the query is that field's own.
      */
     @SuppressWarnings("unchecked")
     @Transactional
-    public Map<String, Object> executeSqlTableQuery(String query, String columnsJson) {
+    public Map<String, Object> executeSqlTableQuery(String query, String columnsJson, UUID fieldId) {
         if (query == null || query.trim().isEmpty()) {
             throw new RuntimeException("SQL query is required");
         }
@@ -366,9 +498,7 @@ public class SqlObjectService {
         }
 
         try {
-            // Execute using native query to get raw results + metadata
-            var nativeQuery = entityManager.createNativeQuery(query);
-            List<Object[]> rawResults = nativeQuery.getResultList();
+            SqlQueryExecutor.QueryResult result = sqlQueryExecutor.execute(query, List.of(), cacheTtlFor(fieldId, query));
 
             // Parse user-defined columns if provided
             List<Map<String, String>> definedColumns = null;
@@ -383,20 +513,16 @@ public class SqlObjectService {
             }
 
             // If no results, return empty with defined columns or empty
-            if (rawResults.isEmpty()) {
+            if (result.rows().isEmpty()) {
                 List<Map<String, Object>> cols = new ArrayList<>();
                 if (definedColumns != null) {
                     for (Map<String, String> dc : definedColumns) {
                         cols.add(Map.of("field", dc.getOrDefault("key", ""), "header", dc.getOrDefault("label", dc.getOrDefault("key", "")), "type", "string"));
                     }
                 }
-                return Map.of("columns", cols, "data", List.of(), "totalRecords", 0);
+                return Map.of("columns", cols, "data", List.of(), "totalRecords", 0, "truncated", false);
             }
 
-            // Determine actual column names from the first row or a metadata approach
-            // Use a direct JDBC approach for column names
-            List<String> dbColumnNames = getColumnNamesFromQuery(query);
-
             // Build column definitions
             List<Map<String, Object>> columns = new ArrayList<>();
             if (definedColumns != null && !definedColumns.isEmpty()) {
@@ -408,53 +534,28 @@ public class SqlObjectService {
                 }
             } else {
                 // Auto-detect: use db column names
-                for (String col : dbColumnNames) {
+                for (String col : result.columnNames()) {
                     columns.add(Map.of("field", col, "header", col, "type", "string"));
                 }
             }
 
-            // Build data rows
-            List<Map<String, Object>> data = new ArrayList<>();
-            for (Object resultRow : rawResults) {
-                Map<String, Object> rowMap = new LinkedHashMap<>();
-                if (resultRow instanceof Object[] row) {
-                    for (int i = 0; i < Math.min(row.length, dbColumnNames.size()); i++) {
-                        rowMap.put(dbColumnNames.get(i), row[i]);
-                    }
-                } else {
-                    // Single column result
-                    if (!dbColumnNames.isEmpty()) {
-                        rowMap.put(dbColumnNames.get(0), resultRow);
-                    }
-                }
-                data.add(rowMap);
-            }
-
-            return Map.of("columns", columns, "data", data, "totalRecords", data.size());
+            return Map.of("columns", columns, "data", result.rows(), "totalRecords", result.rows().size(),
+                    "truncated", result.truncated());
         } catch (Exception e) {
             log.error("Error executing SQL table query: {}", e.getMessage());
             throw new RuntimeException("Query execution failed: " + e.getMessage());
         }
     }
 
-    private List<String> getColumnNamesFromQuery(String query) {
-        List<String> names = new ArrayList<>();
-        try {
-            // Use Hibernate's doWork to get a JDBC connection safely
-            org.hibernate.Session session = entityManager.unwrap(org.hibernate.Session.class);
-            session.doWork(connection -> {
-                try (var stmt = connection.prepareStatement(query);
-                     var rs = stmt.executeQuery()) {
-                    var meta = rs.getMetaData();
-                    for (int i = 1; i <= meta.getColumnCount(); i++) {
-                        names.add(meta.getColumnLabel(i));
-                    }
-                }
-            });
-        } catch (Exception e) {
-            log.warn("Could not extract column metadata: {}", e.getMessage());
+    // Only a field running its own configured query gets that field's TTL
+    private int cacheTtlFor(UUID fieldId, String query) {
+        if (fieldId == null) {
+            return 0;
         }
-        return names;
+        return workflowFieldRepository.findById(fieldId)
+                .filter(field -> query.equals(field.getSqlQuery()))
+                .map(field -> field.getSqlCacheTtlSeconds() != null ? field.getSqlCacheTtlSeconds() : 0)
+                .orElse(0);
     }
 
     /**
@@ -468,7 +569,7 @@ public class SqlObjectService {
         String table = (String) body.getOrDefault("table", "");
         String column = (String) body.getOrDefault("column", "");
         String whereColumn = (String) body.getOrDefault("whereColumn", "");
-        String whereValue = (String) body.getOrDefault("whereValue", "");
+        Object whereValue = body.getOrDefault("whereValue", "");
         String orderBy = (String) body.getOrDefault("orderBy", "");
         String orderDir = (String) body.getOrDefault("orderDir", "ASC");
         Integer limit = body.get("limit") != null ? Integer.parseInt(body.get("limit").toString()) : null;
@@ -478,151 +579,85 @@ public class SqlObjectService {
         }
 
         // Resolve table: look up by display name or table name from sql_objects
-        String resolvedTable = resolveTableName(table.trim());
-
-        // Security: only allow sql_data_ prefixed tables
-        if (!resolvedTable.startsWith(TABLE_PREFIX)) {
-            resolvedTable = TABLE_PREFIX + resolvedTable;
-        }
+        String resolvedTable = resolveDataTable(table);
 
         // Validate identifiers to prevent SQL injection
-        validateIdentifier(resolvedTable);
         if (column != null && !column.isEmpty()) validateIdentifier(column);
         if (whereColumn != null && !whereColumn.isEmpty()) validateIdentifier(whereColumn);
         if (orderBy != null && !orderBy.isEmpty()) validateIdentifier(orderBy);
 
+        // The where-value is bound as the where-column's type, as in batched lookups;
+        // a value the column cannot hold matches no row
+        String where = "";
+        List<Object> params = new ArrayList<>();
+        if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
+            Object typedValue = toColumnValue(whereValue, findColumnType(resolvedTable, whereColumn));
+            if (typedValue != null) {
+                where = " WHERE " + whereColumn + " = ?";
+                params.add(typedValue);
+            } else {
+                where = " WHERE FALSE";
+            }
+        }
+        String orderClause = orderBy != null && !orderBy.isEmpty()
+                ? " ORDER BY " + orderBy + ("DESC".equalsIgnoreCase(orderDir) ? " DESC" : " ASC")
+                : "";
+
         String upperFunc = function.toUpperCase();
 
         try {
             switch (upperFunc) {
                 case "SQL_LOOKUP": {
-                    // Returns a single value: SELECT column FROM table WHERE whereColumn = whereValue LIMIT 1
-                    String sql = "SELECT " + column + " FROM " + resolvedTable +
-                            " WHERE " + whereColumn + " = ? LIMIT 1";
-                    var query = entityManager.createNativeQuery(sql);
-                    query.setParameter(1, whereValue);
-                    List<?> results = query.getResultList();
+                    // Returns a single value: the first matching row by orderBy, else by id
+                    String sql = "SELECT " + column + " FROM " + resolvedTable + where +
+                            (orderClause.isEmpty() ? " ORDER BY id" : orderClause) + " LIMIT 1";
+                    List<?> results = bind(entityManager.createNativeQuery(sql), params).getResultList();
                     return results.isEmpty() ? null : results.get(0);
                 }
                 case "SQL_QUERY": {
                     // Returns list of rows: SELECT * or column FROM table [WHERE ...] [ORDER BY ...] [LIMIT ...]
                     StringBuilder sql = new StringBuilder("SELECT ");
                     sql.append(column != null && !column.isEmpty() ? column : "*");
-                    sql.append(" FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    if (orderBy != null && !orderBy.isEmpty()) {
-                        sql.append(" ORDER BY ").append(orderBy);
-                        sql.append("DESC".equalsIgnoreCase(orderDir) ? " DESC" : " ASC");
-                    }
+                    sql.append(" FROM ").append(resolvedTable).append(where).append(orderClause);
                     if (limit != null && limit > 0) {
                         sql.append(" LIMIT ").append(limit);
                     }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    List<?> results = query.getResultList();
-                    // Get column names for mapping
-                    List<String> colNames = getColumnNamesFromQuery(sql.toString().replace("?", "'" + whereValue.replace("'", "''") + "'"));
-                    List<Map<String, Object>> data = new ArrayList<>();
-                    for (Object row : results) {
-                        Map<String, Object> rowMap = new LinkedHashMap<>();
-                        if (row instanceof Object[] arr) {
-                            for (int i = 0; i < Math.min(arr.length, colNames.size()); i++) {
-                                rowMap.put(colNames.get(i), arr[i]);
-                            }
-                        } else {
-                            rowMap.put(colNames.isEmpty() ? "value" : colNames.get(0), row);
-                        }
-                        data.add(rowMap);
-                    }
-                    return data;
+                    // Single bound execution; rows come back keyed by column label
+                    return sqlQueryExecutor.execute(sql.toString(), params, 0).rows();
                 }
                 case "SQL_COUNT": {
-                    StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT COUNT(*) FROM " + resolvedTable + where;
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 case "SQL_SUM": {
                     if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_SUM");
-                    StringBuilder sql = new StringBuilder("SELECT COALESCE(SUM(").append(column).append("), 0) FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT COALESCE(SUM(" + column + "), 0) FROM " + resolvedTable + where;
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 case "SQL_AVG": {
                     if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_AVG");
-                    StringBuilder sql = new StringBuilder("SELECT COALESCE(AVG(").append(column).append("), 0) FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT COALESCE(AVG(" + column + "), 0) FROM " + resolvedTable + where;
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 case "SQL_MIN": {
                     if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_MIN");
-                    StringBuilder sql = new StringBuilder("SELECT MIN(").append(column).append(") FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT MIN(" + column + ") FROM " + resolvedTable + where;
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 case "SQL_MAX": {
                     if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_MAX");
-                    StringBuilder sql = new StringBuilder("SELECT MAX(").append(column).append(") FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT MAX(" + column + ") FROM " + resolvedTable + where;
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 case "SQL_DISTINCT": {
                     if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_DISTINCT");
-                    StringBuilder sql = new StringBuilder("SELECT DISTINCT ").append(column).append(" FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    sql.append(" ORDER BY ").append(column).append(" ASC");
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getResultList();
+                    String sql = "SELECT DISTINCT " + column + " FROM " + resolvedTable + where +
+                            " ORDER BY " + column + " ASC";
+                    return bind(entityManager.createNativeQuery(sql), params).getResultList();
                 }
                 case "SQL_EXISTS": {
-                    StringBuilder sql = new StringBuilder("SELECT EXISTS(SELECT 1 FROM ").append(resolvedTable);
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        sql.append(" WHERE ").append(whereColumn).append(" = ?");
-                    }
-                    sql.append(")");
-                    var query = entityManager.createNativeQuery(sql.toString());
-                    if (whereColumn != null && !whereColumn.isEmpty() && whereValue != null) {
-                        query.setParameter(1, whereValue);
-                    }
-                    return query.getSingleResult();
+                    String sql = "SELECT EXISTS(SELECT 1 FROM " + resolvedTable + where + ")";
+                    return bind(entityManager.createNativeQuery(sql), params).getSingleResult();
                 }
                 default:
                     throw new RuntimeException("Unknown SQL function: " + function);
@@ -633,23 +668,258 @@ public class SqlObjectService {
         }
     }
 
-    private String resolveTableName(String nameOrDisplayName) {
+    private static Query bind(Query query, List<Object> params) {
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+        return query;
+    }
+
+    /**
+     * Executes several library SQL function requests in one call. SQL_LOOKUP, SQL_COUNT
+     * and SQL_SUM requests against the same table, column, where-column and ordering are
+     * answered by a single {@code WHERE col IN (...)} query; anything else runs individually.
+     * Returns one {success, data | message} entry per request, in request order.
+     * <p>
+     * Every request or group runs in its own transaction, so a failing statement only
+     * fails its own entries instead of aborting the rest of the batch.
+     */
+    public List<Map<String, Object>> executeFunctionQueryBatch(List<Map<String, Object>> requests) {
+        List<Map<String, Object>> responses = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, Object> request = requests.get(i);
+            String function = ((String) request.getOrDefault("function", "")).toUpperCase();
+            String table = (String) request.getOrDefault("table", "");
+            String column = (String) request.getOrDefault("column", "");
+            String whereColumn = (String) request.getOrDefault("whereColumn", "");
+            String orderBy = (String) request.getOrDefault("orderBy", "");
+            String orderDir = (String) request.getOrDefault("orderDir", "ASC");
+            boolean groupable = ("SQL_LOOKUP".equals(function) || "SQL_COUNT".equals(function) || "SQL_SUM".equals(function))
+                    && table != null && !table.isBlank()
+                    && whereColumn != null && !whereColumn.isEmpty()
+                    && request.get("whereValue") != null;
+            if (groupable) {
+                groups.computeIfAbsent(List.of(function, table.trim().toLowerCase(), column != null ? column : "", whereColumn,
+                                orderBy != null ? orderBy : "", "DESC".equalsIgnoreCase(orderDir) ? "DESC" : "ASC"),
+                        k -> new ArrayList<>()).add(i);
+            } else {
+                responses.set(i, runSingleFunction(request));
+            }
+        }
+
+        for (Map.Entry<List<String>, List<Integer>> group : groups.entrySet()) {
+            // Single requests take the same path, so a value binds and matches the same way alone or grouped
+            List<Integer> indexes = group.getValue();
+            try {
+                List<Object> whereValues = indexes.stream().map(i -> requests.get(i).get("whereValue")).collect(Collectors.toList());
+                List<Object> values = functionTransaction.execute(status ->
+                        runGroupedFunction(requests.get(indexes.get(0)), whereValues));
+                for (int j = 0; j < indexes.size(); j++) {
+                    responses.set(indexes.get(j), functionSuccess(values.get(j)));
+                }
+            } catch (Exception e) {
+                log.error("Error executing batched SQL function {}: {}", group.getKey().get(0), e.getMessage());
+                for (Integer i : indexes) {
+                    responses.set(i, functionError("SQL function error: " + e.getMessage()));
+                }
+            }
+        }
+        return responses;
+    }
+
+    private Map<String, Object> runSingleFunction(Map<String, Object> request) {
+        try {
+            return functionSuccess(functionTransaction.execute(status -> executeFunctionQuery(request)));
+        } catch (Exception e) {
+            return functionError(e.getMessage());
+        }
+    }
+
+    private Map<String, Object> functionSuccess(Object data) {
+        // Map.of rejects nulls, and a lookup miss is a legitimate null result
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        return response;
+    }
+
+    private Map<String, Object> functionError(String message) {
+        return Map.of("success", false, "message", message != null ? message : "SQL function error");
+    }
+
+    /**
+     * Answers a group of SQL_LOOKUP/SQL_COUNT/SQL_SUM requests that differ only by
+     * where-value with one IN query, returning one result per where-value in the same
+     * order. Lookups return the first matching row by the requested ordering, else by id. Where-values are bound as the where-column's type and rows are matched on
+     * that typed value, so 1, "1" and 1.0 all find the row keyed 1. A value that cannot
+     * be converted matches nothing (null for lookups, zero for aggregates).
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> runGroupedFunction(Map<String, Object> template, List<Object> whereValues) {
+        String function = ((String) template.get("function")).toUpperCase();
+        String column = (String) template.getOrDefault("column", "");
+        String whereColumn = (String) template.get("whereColumn");
+        String orderBy = (String) template.getOrDefault("orderBy", "");
+        String orderDir = "DESC".equalsIgnoreCase((String) template.getOrDefault("orderDir", "ASC")) ? " DESC" : " ASC";
+        String resolvedTable = resolveDataTable((String) template.get("table"));
+        if (column != null && !column.isEmpty()) validateIdentifier(column);
+        validateIdentifier(whereColumn);
+        if (orderBy != null && !orderBy.isEmpty()) validateIdentifier(orderBy);
+
+        String selectExpr = switch (function) {
+            case "SQL_LOOKUP" -> column;
+            case "SQL_COUNT" -> "COUNT(*)";
+            case "SQL_SUM" -> {
+                if (column == null || column.isEmpty()) throw new RuntimeException("Column is required for SQL_SUM");
+                yield "COALESCE(SUM(" + column + "), 0)";
+            }
+            default -> throw new RuntimeException("Unknown SQL function: " + function);
+        };
+        Object noMatch = switch (function) {
+            case "SQL_COUNT" -> 0L;
+            case "SQL_SUM" -> BigDecimal.ZERO;
+            default -> null;
+        };
+
+        SqlColumn.ColumnDataType whereType = findColumnType(resolvedTable, whereColumn);
+        List<Object> typedValues = whereValues.stream().map(v -> toColumnValue(v, whereType)).collect(Collectors.toList());
+        List<Object> boundValues = typedValues.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (boundValues.isEmpty()) {
+            return new ArrayList<>(Collections.nCopies(whereValues.size(), noMatch));
+        }
+
+        String placeholders = boundValues.stream().map(v -> "?").collect(Collectors.joining(", "));
+        boolean lookup = "SQL_LOOKUP".equals(function);
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(lookup ? "DISTINCT ON (" + whereColumn + ") " : "")
+                .append(whereColumn).append(", ").append(selectExpr)
+                .append(" FROM ").append(resolvedTable)
+                .append(" WHERE ").append(whereColumn).append(" IN (").append(placeholders).append(")");
+        if (lookup) {
+            sql.append(" ORDER BY ").append(whereColumn).append(", ")
+                    .append(orderBy != null && !orderBy.isEmpty() ? orderBy + orderDir : "id");
+        } else {
+            sql.append(" GROUP BY ").append(whereColumn);
+        }
+
+        var query = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < boundValues.size(); i++) {
+            query.setParameter(i + 1, boundValues.get(i));
+        }
+        List<Object[]> rows = query.getResultList();
+
+        Map<Object, Object> valuesByKey = new HashMap<>();
+        for (Object[] row : rows) {
+            // One row per key for lookups; keys the driver reads back alike share it
+            valuesByKey.putIfAbsent(matchKey(row[0]), row[1]);
+        }
+        List<Object> results = new ArrayList<>(typedValues.size());
+        for (Object value : typedValues) {
+            results.add(value != null ? valuesByKey.getOrDefault(matchKey(value), noMatch) : noMatch);
+        }
+        return results;
+    }
+
+    /**
+     * Data type of a column of a SQL Object table; the generated id is a BIGSERIAL.
+     * Null when the column is not defined, in which case values are compared as text.
+     */
+    private SqlColumn.ColumnDataType findColumnType(String resolvedTable, String columnName) {
+        if ("id".equalsIgnoreCase(columnName)) return SqlColumn.ColumnDataType.BIGINT;
+        return sqlObjectRepository.findByTableName(resolvedTable.substring(TABLE_PREFIX.length()))
+                .flatMap(obj -> obj.getColumns().stream()
+                        .filter(c -> c.getColumnName().equalsIgnoreCase(columnName))
+                        .map(SqlColumn::getDataType)
+                        .findFirst())
+                .orElse(null);
+    }
+
+    /**
+     * Converts a request where-value to the Java type bound for the column, or null
+     * when the value cannot be represented in it.
+     */
+    private Object toColumnValue(Object value, SqlColumn.ColumnDataType dataType) {
+        if (value == null) return null;
+        String text = value.toString().trim();
+        if (dataType == null) return text;
+        try {
+            return switch (dataType) {
+                case VARCHAR, TEXT -> text;
+                case INTEGER -> new BigDecimal(text).intValueExact();
+                case BIGINT -> new BigDecimal(text).longValueExact();
+                case DECIMAL -> new BigDecimal(text);
+                case BOOLEAN -> switch (text.toLowerCase()) {
+                    case "true", "yes", "y", "1" -> true;
+                    case "false", "no", "n", "0" -> false;
+                    default -> null;
+                };
+                case DATE -> text.length() > 10 ? LocalDateTime.parse(text).toLocalDate() : LocalDate.parse(text);
+                case TIMESTAMP -> text.length() <= 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text.replace(' ', 'T'));
+            };
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Normalises a typed value so a bound parameter and the value read back from the
+     * driver compare equal: numbers by numeric value, JDBC dates as java.time.
+     */
+    private Object matchKey(Object value) {
+        if (value instanceof BigDecimal d) return d.signum() == 0 ? BigDecimal.ZERO : d.stripTrailingZeros();
+        if (value instanceof Number n) {
+            try {
+                return matchKey(new BigDecimal(n.toString()));
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        if (value instanceof java.sql.Timestamp t) return t.toLocalDateTime();
+        if (value instanceof java.sql.Date d) return d.toLocalDate();
+        return value;
+    }
+
+    /**
+     * Resolves a table reference to its validated, sql_data_ prefixed physical name.
+     * Names of existing SQL Objects are cached until the next SQL Object create/update/delete,
+     * so the cache holds at most two entries per SQL Object; other names are resolved per call.
+     */
+    private String resolveDataTable(String table) {
+        String key = table.trim().toLowerCase();
+        String cached = resolvedTableNames.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<String> known = findSqlObjectTable(table.trim());
+        String resolvedTable = known.orElse(table.trim());
+
+        // Security: only allow sql_data_ prefixed tables
+        if (!resolvedTable.startsWith(TABLE_PREFIX)) {
+            resolvedTable = TABLE_PREFIX + resolvedTable;
+        }
+        validateIdentifier(resolvedTable);
+        if (known.isPresent()) {
+            resolvedTableNames.put(key, resolvedTable);
+        }
+        return resolvedTable;
+    }
+
+    private Optional<String> findSqlObjectTable(String nameOrDisplayName) {
+        List<SqlObject> sqlObjects = sqlObjectRepository.findAll();
         // Try to find by display name first
-        Optional<SqlObject> byDisplay = sqlObjectRepository.findAll().stream()
+        Optional<SqlObject> byDisplay = sqlObjects.stream()
                 .filter(o -> o.getDisplayName().equalsIgnoreCase(nameOrDisplayName))
                 .findFirst();
         if (byDisplay.isPresent()) {
-            return TABLE_PREFIX + byDisplay.get().getTableName();
+            return Optional.of(TABLE_PREFIX + byDisplay.get().getTableName());
         }
         // Try by table name
-        Optional<SqlObject> byTable = sqlObjectRepository.findAll().stream()
+        return sqlObjects.stream()
                 .filter(o -> o.getTableName().equalsIgnoreCase(nameOrDisplayName))
-                .findFirst();
-        if (byTable.isPresent()) {
-            return TABLE_PREFIX + byTable.get().getTableName();
-        }
-        // Return as-is (with prefix)
-        return nameOrDisplayName;
+                .findFirst()
+                .map(o -> TABLE_PREFIX + o.getTableName());
     }
 
     private void validateIdentifier(String identifier) {
@@ -666,6 +936,79 @@ public class SqlObjectService {
         SqlObject sqlObject = sqlObjectRepository.findById(sqlObjectId)
                 .orElseThrow(() -> new RuntimeException("SQL Object not found"));
 
+        String[] optionColumns = resolveOptionColumns(sqlObject);
+        if (optionColumns == null) {
+            return new ArrayList<>();
+        }
+        String valueColumn = optionColumns[0];
+        String labelColumn = optionColumns[1];
+
+        String tableName = TABLE_PREFIX + sqlObject.getTableName();
+        String sql = "SELECT " + valueColumn + ", " + labelColumn +
+                     " FROM " + tableName + " ORDER BY " + labelColumn;
+
+        try {
+            List<Object[]> results = entityManager.createNativeQuery(sql).getResultList();
+            return toOptions(results);
+        } catch (Exception e) {
+            log.error("Error fetching options from SQL Object '{}': {}", sqlObject.getDisplayName(), e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Type-ahead options for dropdown fields: at most {@code limit} options whose label
+     * matches {@code term} by prefix (default) or contains, ordered by label.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, String>> searchOptionsFromSqlObject(UUID sqlObjectId, String term, String mode, Integer limit) {
+        SqlObject sqlObject = sqlObjectRepository.findById(sqlObjectId)
+                .orElseThrow(() -> new RuntimeException("SQL Object not found"));
+
+        String[] optionColumns = resolveOptionColumns(sqlObject);
+        if (optionColumns == null) {
+            return new ArrayList<>();
+        }
+        String valueColumn = optionColumns[0];
+        String labelColumn = optionColumns[1];
+        int maxResults = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        boolean hasTerm = term != null && !term.isBlank();
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(valueColumn).append(", ").append(labelColumn)
+                .append(" FROM ").append(TABLE_PREFIX).append(sqlObject.getTableName());
+        if (hasTerm) {
+            sql.append(" WHERE ").append(searchExpression(labelColumn)).append(" LIKE ?");
+        }
+        sql.append(" ORDER BY ").append(labelColumn).append(" LIMIT ").append(maxResults);
+
+        try {
+            var query = entityManager.createNativeQuery(sql.toString());
+            if (hasTerm) {
+                query.setParameter(1, searchPattern(term, mode));
+            }
+            return toOptions(query.getResultList());
+        } catch (Exception e) {
+            log.error("Error searching options from SQL Object '{}': {}", sqlObject.getDisplayName(), e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Map<String, String>> toOptions(List<Object[]> results) {
+        List<Map<String, String>> options = new ArrayList<>(results.size());
+        for (Object[] row : results) {
+            Map<String, String> option = new HashMap<>();
+            option.put("value", row[0] != null ? row[0].toString() : "");
+            option.put("label", row[1] != null ? row[1].toString() : "");
+            options.add(option);
+        }
+        return options;
+    }
+
+    /**
+     * Returns {value, label} column names for dropdown options. Falls back to the first
+     * two defined columns when not configured; null when the object has no columns.
+     */
+    private String[] resolveOptionColumns(SqlObject sqlObject) {
         String valueColumn = sqlObject.getValueColumn();
         String labelColumn = sqlObject.getLabelColumn();
 
@@ -690,28 +1033,31 @@ public class SqlObjectService {
             } else {
                 log.error("SQL Object '{}' has no columns configured and no value/label columns set",
                           sqlObject.getDisplayName());
-                return new ArrayList<>();
+                return null;
             }
         }
+        return new String[]{valueColumn, labelColumn};
+    }
 
-        String tableName = TABLE_PREFIX + sqlObject.getTableName();
-        String sql = "SELECT " + valueColumn + ", " + labelColumn +
-                     " FROM " + tableName + " ORDER BY " + labelColumn;
-
-        try {
-            List<Object[]> results = entityManager.createNativeQuery(sql).getResultList();
-            List<Map<String, String>> options = new ArrayList<>();
-            for (Object[] row : results) {
-                Map<String, String> option = new HashMap<>();
-                option.put("value", row[0] != null ? row[0].toString() : "");
-                option.put("label", row[1] != null ? row[1].toString() : "");
-                options.add(option);
-            }
-            return options;
-        } catch (Exception e) {
-            log.error("Error fetching options from SQL Object '{}': {}", sqlObject.getDisplayName(), e.getMessage());
-            return new ArrayList<>();
+    private SqlColumn requireColumn(Map<String, SqlColumn> columnsByName, String columnName) {
+        SqlColumn column = columnName != null ? columnsByName.get(columnName) : null;
+        if (column == null) {
+            throw new RuntimeException("Unknown column: " + columnName);
         }
+        return column;
+    }
+
+    /** Case-insensitive search expression; shared by queries and the label search index. */
+    private String searchExpression(String columnName) {
+        return "LOWER(CAST(" + columnName + " AS VARCHAR))";
+    }
+
+    private String searchPattern(String term, String mode) {
+        String escaped = term.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "contains".equalsIgnoreCase(mode) ? "%" + escaped + "%" : escaped + "%";
     }
 
     // Dynamic Table Management
@@ -752,6 +1098,56 @@ public class SqlObjectService {
             log.error("Error creating dynamic table: " + e.getMessage());
             throw new RuntimeException("Failed to create table: " + e.getMessage());
         }
+
+        createColumnIndexes(sqlObject);
+    }
+
+    /**
+     * Creates a b-tree index for every column flagged as indexed, plus a lower-cased
+     * pattern index on the label column so prefix type-ahead searches avoid a full scan.
+     */
+    private void createColumnIndexes(SqlObject sqlObject) {
+        String tableName = TABLE_PREFIX + sqlObject.getTableName();
+        List<String> statements = new ArrayList<>();
+        for (SqlColumn column : sqlObject.getColumns()) {
+            if (Boolean.TRUE.equals(column.getIsIndexed())) {
+                statements.add("CREATE INDEX IF NOT EXISTS " + indexName(sqlObject, column.getColumnName()) +
+                        " ON " + tableName + " (" + column.getColumnName() + ")");
+            }
+        }
+        String[] optionColumns = resolveOptionColumns(sqlObject);
+        if (optionColumns != null) {
+            statements.add("CREATE INDEX IF NOT EXISTS " + indexName(sqlObject, optionColumns[1] + "_search") +
+                    " ON " + tableName + " (" + searchExpression(optionColumns[1]) + " text_pattern_ops)");
+        }
+
+        for (String statement : statements) {
+            try {
+                entityManager.createNativeQuery(statement).executeUpdate();
+            } catch (Exception e) {
+                log.error("Error creating index on {}: {}", tableName, e.getMessage());
+                throw new RuntimeException("Failed to create index: " + e.getMessage());
+            }
+        }
+    }
+
+    private void dropColumnIndex(SqlObject sqlObject, String columnName) {
+        try {
+            entityManager.createNativeQuery("DROP INDEX IF EXISTS " + indexName(sqlObject, columnName)).executeUpdate();
+        } catch (Exception e) {
+            log.error("Error dropping index for column {}: {}", columnName, e.getMessage());
+            throw new RuntimeException("Failed to drop index: " + e.getMessage());
+        }
+    }
+
+    private String indexName(SqlObject sqlObject, String suffix) {
+        String name = "idx_" + sqlObject.getTableName() + "_" + suffix;
+        if (name.length() <= MAX_INDEX_NAME_LENGTH) {
+            return name;
+        }
+        // PostgreSQL truncates identifiers at 63 chars; keep names unique with a hash suffix
+        String hash = Integer.toHexString(name.hashCode());
+        return name.substring(0, MAX_INDEX_NAME_LENGTH - hash.length() - 1) + "_" + hash;
     }
 
     @Transactional
@@ -824,6 +1220,7 @@ public class SqlObjectService {
                 .isNullable(column.getIsNullable())
                 .isPrimaryKey(column.getIsPrimaryKey())
                 .defaultValue(column.getDefaultValue())
+                .isIndexed(column.getIsIndexed())
                 .displayOrder(column.getDisplayOrder())
                 .booleanControl(column.getBooleanControl() != null ? column.getBooleanControl().name() : "TOGGLE")
                 .build();
@@ -915,8 +1312,12 @@ public class SqlObjectService {
         }
     }
 
+    /**
+     * Imports the first sheet of {@code file}. With {@code upsert}, rows whose primary-key columns
+     * match an existing row update it; otherwise every row is inserted.
+     */
     @Transactional
-    public byte[] importData(UUID sqlObjectId, MultipartFile file) throws IOException {
+    public byte[] importData(UUID sqlObjectId, MultipartFile file, boolean upsert) throws IOException {
         SqlObject obj = sqlObjectRepository.findById(sqlObjectId)
                 .orElseThrow(() -> new RuntimeException("SQL Object not found"));
 
@@ -958,7 +1359,9 @@ public class SqlObjectService {
             Cell detailsH = resultHeader.createCell(lastCol + 1);
             detailsH.setCellValue("Details"); detailsH.setCellStyle(headerStyle);
 
-            // Process each row
+            // Parse and coerce each row; rejected rows are reported, accepted rows are bulk loaded
+            List<Object[]> acceptedRows = new ArrayList<>();
+            List<Row> acceptedResultRows = new ArrayList<>();
             int resultRowIdx = 0;
             for (int i = 1; i <= sourceSheet.getLastRowNum(); i++) {
                 Row sourceRow = sourceSheet.getRow(i);
@@ -973,28 +1376,26 @@ public class SqlObjectService {
                     if (sc != null) rc.setCellValue(getCellStringValue(sc));
                 }
 
-                // Try to import
                 try {
-                    Map<String, Object> rowData = new LinkedHashMap<>();
+                    Object[] values = new Object[columns.size()];
+                    boolean empty = true;
                     for (int j = 0; j < columns.size(); j++) {
-                        Cell cell = sourceRow.getCell(j);
-                        SqlColumn col = columns.get(j);
-                        Object value = getCellValue(cell, col);
-                        if (value != null) {
-                            rowData.put(col.getColumnName(), value);
-                        }
+                        Object raw = getCellValue(sourceRow.getCell(j), columns.get(j));
+                        empty &= raw == null;
+                        values[j] = raw;
                     }
 
-                    if (!rowData.isEmpty()) {
-                        addTableRow(sqlObjectId, rowData);
-                        Cell statusCell = resultRow.createCell(lastCol);
-                        statusCell.setCellValue("SUCCESS"); statusCell.setCellStyle(successStyle);
-                        resultRow.createCell(lastCol + 1).setCellValue("Row imported successfully");
-                    } else {
+                    if (empty) {
                         Cell statusCell = resultRow.createCell(lastCol);
                         statusCell.setCellValue("SKIPPED"); statusCell.setCellStyle(errorStyle);
                         resultRow.createCell(lastCol + 1).setCellValue("Empty row");
+                        continue;
                     }
+                    for (int j = 0; j < columns.size(); j++) {
+                        values[j] = coerceValue(values[j], columns.get(j));
+                    }
+                    acceptedRows.add(values);
+                    acceptedResultRows.add(resultRow);
                 } catch (Exception e) {
                     Cell statusCell = resultRow.createCell(lastCol);
                     statusCell.setCellValue("FAILED"); statusCell.setCellStyle(errorStyle);
@@ -1002,6 +1403,36 @@ public class SqlObjectService {
                 }
             }
 
+            Map<Integer, String> loadFailures;
+            String bulkFailure = null;
+            try {
+                List<String> columnNames = columns.stream().map(SqlColumn::getColumnName).collect(Collectors.toList());
+                List<String> keyColumns = columns.stream()
+                        .filter(c -> upsert && Boolean.TRUE.equals(c.getIsPrimaryKey()))
+                        .map(SqlColumn::getColumnName)
+                        .collect(Collectors.toList());
+                SqlBulkLoader.LoadResult result = sqlBulkLoader.load(TABLE_PREFIX + obj.getTableName(),
+                        columnNames, keyColumns, acceptedRows);
+                sqlQueryExecutor.clearCache();
+                loadFailures = result.failures();
+                log.info("Imported {} rows into {} ({} inserted, {} updated, {} rejected)",
+                        acceptedRows.size() - loadFailures.size(), obj.getTableName(), result.inserted(), result.updated(),
+                        resultRowIdx - acceptedRows.size() + loadFailures.size());
+            } catch (Exception e) {
+                log.error("Bulk import into {} failed: {}", obj.getTableName(), e.getMessage());
+                loadFailures = Map.of();
+                bulkFailure = "Bulk load failed: " + e.getMessage();
+            }
+            // Rows rejected by the database are reported individually; the rest were loaded
+            for (int i = 0; i < acceptedResultRows.size(); i++) {
+                Row resultRow = acceptedResultRows.get(i);
+                String failure = bulkFailure != null ? bulkFailure : loadFailures.get(i);
+                Cell statusCell = resultRow.createCell(lastCol);
+                statusCell.setCellValue(failure != null ? "FAILED" : "SUCCESS");
+                statusCell.setCellStyle(failure != null ? errorStyle : successStyle);
+                resultRow.createCell(lastCol + 1).setCellValue(failure != null ? failure : "Row imported successfully");
+            }
+
             // Auto-size columns
             for (int i = 0; i <= lastCol + 1; i++) {
                 resultSheet.setColumnWidth(i, 5000);
@@ -1034,10 +1465,8 @@ public class SqlObjectService {
         return switch (cell.getCellType()) {
             case STRING -> cell.getStringCellValue().trim().isEmpty() ? null : cell.getStringCellValue().trim();
             case NUMERIC -> {
-                if (column.getDataType() == SqlColumn.ColumnDataType.INTEGER ||
-                    column.getDataType() == SqlColumn.ColumnDataType.BIGINT) {
-                    yield (long) cell.getNumericCellValue();
-                } else if (column.getDataType() == SqlColumn.ColumnDataType.DATE) {
+                // Integer columns take the raw double too; coerceValue rejects fractions and overflow
+                if (column.getDataType() == SqlColumn.ColumnDataType.DATE) {
                     yield cell.getLocalDateTimeCellValue().toLocalDate().toString();
                 } else if (column.getDataType() == SqlColumn.ColumnDataType.TIMESTAMP) {
                     yield cell.getLocalDateTimeCellValue().toString();
@@ -1048,4 +1477,53 @@ public class SqlObjectService {
             default -> null;
         };
     }
+
+    /**
+     * Coerces a parsed cell value to the Java type of the column so bulk loads never
+     * fail mid-stream. Throws with a row-level message when the value is rejected.
+     */
+    private Object coerceValue(Object raw, SqlColumn column) {
+        String name = column.getDisplayName() != null ? column.getDisplayName() : column.getColumnName();
+        if (raw == null || raw.toString().isBlank()) {
+            if (column.getDefaultValue() != null && !column.getDefaultValue().isEmpty()) {
+                raw = column.getDefaultValue();
+            } else if (Boolean.FALSE.equals(column.getIsNullable())) {
+                throw new IllegalArgumentException(name + " is required");
+            } else {
+                return null;
+            }
+        }
+        // Numeric cells are written out exactly, so whole numbers carry no trailing ".0" and
+        // values beyond the column's range fail the exact conversions below instead of wrapping
+        String text = raw instanceof Double d && Double.isFinite(d)
+                ? BigDecimal.valueOf(d).stripTrailingZeros().toPlainString() : raw.toString().trim();
+        try {
+            return switch (column.getDataType()) {
+                case VARCHAR -> {
+                    int max = column.getColumnLength() != null ? column.getColumnLength() : 255;
+                    if (text.length() > max) {
+                        throw new IllegalArgumentException(name + " exceeds " + max + " characters");
+                    }
+                    yield text;
+                }
+                case TEXT -> text;
+                case INTEGER -> new BigDecimal(text).intValueExact();
+                case BIGINT -> new BigDecimal(text).longValueExact();
+                case DECIMAL -> new BigDecimal(text);
+                case BOOLEAN -> switch (text.toLowerCase()) {
+                    case "true", "yes", "y", "1" -> true;
+                    case "false", "no", "n", "0" -> false;
+                    default -> throw new IllegalArgumentException(name + " must be true/false");
+                };
+                case DATE -> text.length() > 10 ? LocalDateTime.parse(text).toLocalDate() : LocalDate.parse(text);
+                case TIMESTAMP -> text.length() <= 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text.replace(' ', 'T'));
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column.getDataType().name().toLowerCase() + " for " + name + ": " + text);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid " + column.getDataType().name().toLowerCase() + " for " + name + ": " + text);
+        }
+    }
 }
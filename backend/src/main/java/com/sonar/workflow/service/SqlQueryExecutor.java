@@ -0,0 +1,131 @@
+package com.sonar.workflow.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs read-only SQL at the JDBC level so rows and column metadata come back from a
+ * single execution. Every statement is bounded by max-rows, fetch-size and a query
+ * timeout; results can be cached per (query, params) for the TTL configured on the calling field.
+ */
+@Service
+@Slf4j
+public class SqlQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.sql-query.max-rows:1000}")
+    private int maxRows;
+
+    @Value("${app.sql-query.fetch-size:200}")
+    private int fetchSize;
+
+    @Value("${app.sql-query.timeout-seconds:15}")
+    private int timeoutSeconds;
+
+    @Value("${app.sql-query.cache-max-entries:500}")
+    private int cacheMaxEntries;
+
+    @Value("${app.sql-query.cache-max-ttl-seconds:3600}")
+    private int cacheMaxTtlSeconds;
+
+    private final Map<CacheKey, CachedResult> cache = new ConcurrentHashMap<>();
+
+    public record QueryResult(List<String> columnNames, List<Map<String, Object>> rows, boolean truncated) {}
+
+    private record CacheKey(String sql, List<Object> params) {}
+
+    private record CachedResult(QueryResult result, long expiresAt) {}
+
+    /**
+     * Executes the query once, returning rows keyed by column label. When
+     * {@code cacheTtlSeconds} is positive the result is served from, and stored in,
+     * the result cache for that long, capped at {@code app.sql-query.cache-max-ttl-seconds}.
+     */
+    public QueryResult execute(String sql, List<Object> params, int cacheTtlSeconds) {
+        cacheTtlSeconds = Math.min(cacheTtlSeconds, cacheMaxTtlSeconds);
+        List<Object> safeParams = params != null ? Collections.unmodifiableList(new ArrayList<>(params)) : List.of();
+        CacheKey key = new CacheKey(sql, safeParams);
+
+        if (cacheTtlSeconds > 0) {
+            CachedResult cached = cache.get(key);
+            if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+                return cached.result();
+            }
+        }
+
+        QueryResult result = executeOnce(sql, safeParams);
+
+        if (cacheTtlSeconds > 0) {
+            evictIfFull();
+            cache.put(key, new CachedResult(result, System.currentTimeMillis() + cacheTtlSeconds * 1000L));
+        }
+        return result;
+    }
+
+    /** Drops all cached results, e.g. after SQL Object data has been changed. */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private QueryResult executeOnce(String sql, List<Object> params) {
+        List<String> columnNames = new ArrayList<>();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        boolean[] truncated = {false};
+
+        org.hibernate.Session session = entityManager.unwrap(org.hibernate.Session.class);
+        session.doWork(connection -> {
+            try (var stmt = connection.prepareStatement(sql)) {
+                // Fetch one extra row so truncation can be reported without a COUNT query
+                stmt.setMaxRows(maxRows + 1);
+                stmt.setFetchSize(fetchSize);
+                stmt.setQueryTimeout(timeoutSeconds);
+                for (int i = 0; i < params.size(); i++) {
+                    stmt.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columnCount = meta.getColumnCount();
+                    for (int i = 1; i <= columnCount; i++) {
+                        columnNames.add(meta.getColumnLabel(i));
+                    }
+                    while (rs.next()) {
+                        if (rows.size() == maxRows) {
+                            truncated[0] = true;
+                            break;
+                        }
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= columnCount; i++) {
+                            row.put(columnNames.get(i - 1), rs.getObject(i));
+                        }
+                        rows.add(Collections.unmodifiableMap(row));
+                    }
+                }
+            }
+        });
+
+        if (truncated[0]) {
+            log.warn("SQL query result truncated to {} rows", maxRows);
+        }
+        return new QueryResult(List.copyOf(columnNames), Collections.unmodifiableList(rows), truncated[0]);
+    }
+
+    private void evictIfFull() {
+        if (cache.size() < cacheMaxEntries) return;
+        long now = System.currentTimeMillis();
+        cache.entrySet().removeIf(e -> e.getValue().expiresAt() <= now);
+        if (cache.size() >= cacheMaxEntries) {
+            // Still full of live entries: drop everything rather than track recency
+            cache.clear();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.sonar.workflow.dto.UserDTO;
 import com.sonar.workflow.entity.*;
 import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.repository.*;
+import com.sonar.workflow.security.PrincipalCache;
 import com.sonar.workflow.security.SuperUserProvider;
 import com.sonar.workflow.util.PasswordValidator;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +37,7 @@ public class UserService {
     private final EmailService emailService;
     private final SettingService settingService;
     private final PasswordHistoryRepository passwordHistoryRepository;
+    private final PrincipalCache principalCache;
 
     private void guardSuperUser(User user) {
         if (SuperUserProvider.SUPER_USERNAME.equalsIgnoreCase(user.getUsername())) {
@@ -205,6 +207,7 @@ public class UserService {
         }
 
         User saved = userRepository.save(user);
+        principalCache.invalidate(saved.getUsername());
         auditService.log(AuditLog.AuditAction.UPDATE, "User", saved.getId(),
                 saved.getUsername(), "User updated: " + saved.getUsername(), oldValues, toDTO(saved));
 
@@ -240,6 +243,7 @@ public class UserService {
         user.setPasswordChangedAt(LocalDateTime.now());
         user.setMustChangePassword(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.PASSWORD_CHANGE, "User", user.getId(),
                 user.getUsername(), "Password changed for user: " + user.getUsername(), null, null);
@@ -327,6 +331,7 @@ public class UserService {
             user.setFailedLoginAttempts(0);
             user.setIsLocked(false);
             userRepository.save(user);
+            principalCache.invalidate(user.getUsername());
 
             // Log audit - wrapped in try-catch to not fail the main operation
             try {
@@ -410,6 +415,7 @@ public class UserService {
         guardSuperUser(user);
         user.setIsActive(true);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.UPDATE, "User", user.getId(),
                 user.getUsername(), "User activated: " + user.getUsername(), null, null);
@@ -422,6 +428,7 @@ public class UserService {
         guardSuperUser(user);
         user.setIsActive(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.UPDATE, "User", user.getId(),
                 user.getUsername(), "User deactivated: " + user.getUsername(), null, null);
@@ -436,6 +443,7 @@ public class UserService {
         user.setLockReason(reason);
         user.setLockedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.LOCK, "User", user.getId(),
                 user.getUsername(), "User locked: " + user.getUsername() + ". Reason: " + reason, null, null);
@@ -452,6 +460,7 @@ public class UserService {
         user.setLockedBy(null);
         user.setFailedLoginAttempts(0);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.UNLOCK, "User", user.getId(),
                 user.getUsername(), "User unlocked: " + user.getUsername(), null, null);
@@ -469,6 +478,7 @@ public class UserService {
                 user.setIsLocked(true);
                 user.setLockReason("Account locked due to too many failed login attempts");
                 user.setLockedAt(LocalDateTime.now());
+                principalCache.invalidate(user.getUsername());
             }
             userRepository.save(user);
         });
@@ -504,6 +514,7 @@ public class UserService {
         user.setFailedLoginAttempts(0);
         user.setIsLocked(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.PASSWORD_RESET, "User", user.getId(),
                 user.getUsername(), "Password reset by admin for: " + user.getUsername(), null, null);
@@ -523,6 +534,7 @@ public class UserService {
         user.setFailedLoginAttempts(0);
         user.setIsLocked(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         auditService.log(AuditLog.AuditAction.PASSWORD_RESET, "User", user.getId(),
                 user.getUsername(), "Password auto-reset by admin for: " + user.getUsername(), null, null);
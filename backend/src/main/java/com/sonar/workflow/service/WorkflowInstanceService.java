@@ -46,6 +46,9 @@ public class WorkflowInstanceService {
     private final StampRepository stampRepository;
     private final UserSignatureRepository userSignatureRepository;
     private final DocumentStampService documentStampService;
+    private final ApprovalRoutingService approvalRoutingService;
+    private final WorkflowReminderService workflowReminderService;
+    private final NotificationHubService notificationHubService;
     private final com.sonar.workflow.service.validation.FieldValidationEngine fieldValidationEngine;
     private final com.sonar.workflow.service.validation.FieldTransformationEngine fieldTransformationEngine;
 
@@ -241,6 +244,7 @@ public class WorkflowInstanceService {
         instance.setCurrentApproverOrder(0);
 
         Workflow workflow = instance.getWorkflow();
+        ApprovalRoutingPlan plan = approvalRoutingService.getPlan(workflow);
         int startingLevel = 1;
 
         // Check if this is a financial workflow and determine starting approval level based on amount
@@ -255,8 +259,7 @@ public class WorkflowInstanceService {
 
                 if (skipUnauthorized) {
                     // Find the minimum level that can approve this amount
-                    Integer minLevel = workflowApproverRepository.findMinLevelForAmount(
-                            workflow.getId(), limitedAmount);
+                    Integer minLevel = plan.findMinLevelForAmount(limitedAmount);
 
                     if (minLevel != null) {
                         startingLevel = minLevel;
@@ -264,7 +267,7 @@ public class WorkflowInstanceService {
                                 limitedAmount, startingLevel);
                     } else {
                         // No approver can approve this amount - escalate to max level
-                        Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(workflow.getId());
+                        Integer maxLevel = plan.getMaxLevel();
                         if (maxLevel != null) {
                             startingLevel = maxLevel;
                             log.warn("No approver with sufficient limit for amount {}. Escalating to max level {}",
@@ -280,21 +283,23 @@ public class WorkflowInstanceService {
         instance.setCurrentLevel(startingLevel);
 
         // Find approvers at the determined level (sorted by displayOrder)
-        List<WorkflowApprover> approvers = workflowApproverRepository
-                .findByWorkflowIdAndLevel(workflow.getId(), startingLevel);
+        List<ApprovalRoutingPlan.Step> approvers = plan.getApprovers(startingLevel);
 
         if (!approvers.isEmpty()) {
             // Get the first approver at this level (lowest displayOrder)
-            WorkflowApprover approver = approvers.get(0);
-            instance.setCurrentApprover(approver);
+            ApprovalRoutingPlan.Step approver = approvers.get(0);
+            assignApprover(instance, approver);
             instance.setCurrentApproverOrder(0);
 
             // Send notification
-            if (approver.getNotifyOnPending()) {
+            if (approver.notifyOnPending()) {
                 sendApprovalRequestNotification(instance, approver);
             }
         }
 
+        // Index the first reminder/escalation due time for the reminder scheduler
+        workflowReminderService.scheduleNext(instance);
+
         WorkflowInstance saved = workflowInstanceRepository.save(instance);
 
         // Create approval history entry
@@ -312,6 +317,7 @@ public class WorkflowInstanceService {
 
         auditService.logWorkflowAction(AuditLog.AuditAction.SUBMIT, saved,
                 "Workflow instance submitted: " + saved.getReferenceNumber(), null, null);
+        publishApprovalRequested(saved);
 
         return toDTO(saved);
     }
@@ -534,6 +540,8 @@ public class WorkflowInstanceService {
                 .build();
         approvalHistoryRepository.save(history);
 
+        WorkflowApprover previousApprover = instance.getCurrentApprover();
+        Integer previousLevel = instance.getCurrentLevel();
         switch (request.getAction()) {
             case APPROVED -> handleApproval(instance, approver);
             case REJECTED -> handleRejection(instance, approver, request.getComments());
@@ -541,6 +549,13 @@ public class WorkflowInstanceService {
             default -> throw new BusinessException("Invalid action");
         }
 
+        // A new level starts its own reminder sequence; finished instances lose their due times
+        if (!Objects.equals(previousLevel, instance.getCurrentLevel())) {
+            instance.setReminderCount(0);
+            instance.setLastReminderSentAt(null);
+        }
+        workflowReminderService.scheduleNext(instance);
+
         WorkflowInstance saved = workflowInstanceRepository.save(instance);
 
         auditService.logWorkflowAction(
@@ -551,29 +566,63 @@ public class WorkflowInstanceService {
                 "Workflow " + request.getAction().name().toLowerCase() + ": " + saved.getReferenceNumber() +
                         (request.getComments() != null ? ". Comments: " + request.getComments() : ""),
                 null, null);
+        publishApprovalOutcome(saved, approver, previousApprover);
 
         return toDTO(saved);
     }
 
+    // ==================== LIVE EVENTS ====================
+
+    private void publishApprovalRequested(WorkflowInstance instance) {
+        WorkflowApprover current = instance.getCurrentApprover();
+        if (current == null) return;
+        notificationHubService.publish(
+                notificationHubService.resolveUserId(current.getUser(), current.getApproverEmail()),
+                liveEvent(instance, LiveEventDTO.Type.APPROVAL_REQUESTED, null));
+    }
+
+    /**
+     * Tells the initiator their submission moved on, and the next approver, if it changed,
+     * that it now waits for them.
+     */
+    private void publishApprovalOutcome(WorkflowInstance instance, User actor, WorkflowApprover previousApprover) {
+        User initiator = instance.getInitiator();
+        if (initiator != null && !initiator.getId().equals(actor.getId())) {
+            notificationHubService.publish(initiator.getId(),
+                    liveEvent(instance, LiveEventDTO.Type.STATUS_CHANGED, actor.getFullName()));
+        }
+        WorkflowApprover current = instance.getCurrentApprover();
+        if (current != null && (previousApprover == null || !current.getId().equals(previousApprover.getId()))) {
+            publishApprovalRequested(instance);
+        }
+    }
+
+    private LiveEventDTO liveEvent(WorkflowInstance instance, LiveEventDTO.Type type, String actorName) {
+        return LiveEventDTO.builder()
+                .type(type)
+                .module(LiveEventDTO.Module.WORKFLOW)
+                .entityId(instance.getId())
+                .referenceNumber(instance.getReferenceNumber())
+                .title(instance.getTitle())
+                .status(instance.getStatus().name())
+                .message(instance.getWorkflow().getName())
+                .actorName(actorName)
+                .build();
+    }
+
     private void handleApproval(WorkflowInstance instance, User approver) {
         Workflow workflow = instance.getWorkflow();
-        Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(workflow.getId());
+        ApprovalRoutingPlan plan = approvalRoutingService.getPlan(workflow);
+        Integer maxLevel = plan.getMaxLevel();
         int currentLevel = instance.getCurrentLevel();
 
         // For financial workflows, check approver's limit
         if (workflow.getWorkflowCategory() == Workflow.WorkflowCategory.FINANCIAL &&
                 instance.getAmount() != null) {
-            WorkflowApprover currentApprover = instance.getCurrentApprover();
-
-            // Check if approver has sufficient limit
-            boolean hasSufficientLimit = false;
-            if (currentApprover != null) {
-                if (Boolean.TRUE.equals(currentApprover.getIsUnlimited())) {
-                    hasSufficientLimit = true;
-                } else if (currentApprover.getApprovalLimit() != null) {
-                    hasSufficientLimit = instance.getAmount().compareTo(currentApprover.getApprovalLimit()) <= 0;
-                }
-            }
+            // Check if approver has sufficient limit (reading the id does not load the row)
+            boolean hasSufficientLimit = currentApproverStep(instance, plan)
+                    .map(step -> step.canApprove(instance.getAmount()))
+                    .orElse(false);
 
             if (hasSufficientLimit) {
                 // Approver has sufficient limit - APPROVE immediately
@@ -585,13 +634,13 @@ public class WorkflowInstanceService {
                 // Approver's limit is insufficient - auto-escalate to next level
                 log.info("Amount {} exceeds approver limit. Auto-escalating to find approver with sufficient limit.",
                         instance.getAmount());
-                autoEscalateForAmount(instance, approver);
+                autoEscalateForAmount(instance, approver, plan);
                 return;
             }
         }
 
         // For non-financial workflows, use standard multi-level approval
-        handleStandardApproval(instance, approver, workflow, maxLevel, currentLevel);
+        handleStandardApproval(instance, approver, workflow, plan, maxLevel, currentLevel);
     }
 
     /**
@@ -603,9 +652,6 @@ public class WorkflowInstanceService {
         instance.setCurrentApprover(null);
         instance.setCurrentApproverOrder(null);
 
-        // Invalidate any remaining tokens for this instance
-        emailApprovalService.invalidateAllTokensForInstance(instance.getId());
-
         // Resolve seal: workflow-configured stamp → default seal from settings
         try {
             // Re-fetch the workflow with stamp eagerly loaded
@@ -667,25 +713,21 @@ public class WorkflowInstanceService {
      * Handles standard (non-financial) approval flow with multiple levels and approvers.
      */
     private void handleStandardApproval(WorkflowInstance instance, User approver, Workflow workflow,
-                                         Integer maxLevel, int currentLevel) {
+                                         ApprovalRoutingPlan plan, Integer maxLevel, int currentLevel) {
         int currentOrder = instance.getCurrentApproverOrder() != null ? instance.getCurrentApproverOrder() : 0;
 
         // Get all approvers at current level (sorted by displayOrder)
-        List<WorkflowApprover> currentLevelApprovers = workflowApproverRepository
-                .findByWorkflowIdAndLevel(workflow.getId(), currentLevel);
+        List<ApprovalRoutingPlan.Step> currentLevelApprovers = plan.getApprovers(currentLevel);
 
         // Check if there are more approvers at the same level
         int nextOrderIndex = currentOrder + 1;
         if (nextOrderIndex < currentLevelApprovers.size()) {
             // Move to next approver at the same level
-            WorkflowApprover nextApprover = currentLevelApprovers.get(nextOrderIndex);
-            instance.setCurrentApprover(nextApprover);
+            ApprovalRoutingPlan.Step nextApprover = currentLevelApprovers.get(nextOrderIndex);
+            assignApprover(instance, nextApprover);
             instance.setCurrentApproverOrder(nextOrderIndex);
 
-            // Invalidate tokens for current level since it's been processed
-            emailApprovalService.invalidateTokensForInstanceAndLevel(instance.getId(), currentLevel);
-
-            if (nextApprover.getNotifyOnPending()) {
+            if (nextApprover.notifyOnPending()) {
                 sendApprovalRequestNotification(instance, nextApprover);
             }
         } else if (maxLevel == null || currentLevel >= maxLevel) {
@@ -697,18 +739,14 @@ public class WorkflowInstanceService {
             instance.setCurrentLevel(nextLevel);
             instance.setCurrentApproverOrder(0);
 
-            // Invalidate tokens for current level
-            emailApprovalService.invalidateTokensForInstanceAndLevel(instance.getId(), currentLevel);
-
-            List<WorkflowApprover> nextApprovers = workflowApproverRepository
-                    .findByWorkflowIdAndLevel(workflow.getId(), nextLevel);
+            List<ApprovalRoutingPlan.Step> nextApprovers = plan.getApprovers(nextLevel);
 
             if (!nextApprovers.isEmpty()) {
                 // Get the first approver at the next level
-                WorkflowApprover nextApprover = nextApprovers.get(0);
-                instance.setCurrentApprover(nextApprover);
+                ApprovalRoutingPlan.Step nextApprover = nextApprovers.get(0);
+                assignApprover(instance, nextApprover);
 
-                if (nextApprover.getNotifyOnPending()) {
+                if (nextApprover.notifyOnPending()) {
                     sendApprovalRequestNotification(instance, nextApprover);
                 }
             }
@@ -719,20 +757,16 @@ public class WorkflowInstanceService {
      * Auto-escalates a financial workflow to an approver with sufficient limit for the amount.
      * Continues escalating until an approver with sufficient limit is found.
      */
-    private void autoEscalateForAmount(WorkflowInstance instance, User currentApprover) {
-        Workflow workflow = instance.getWorkflow();
+    private void autoEscalateForAmount(WorkflowInstance instance, User currentApprover, ApprovalRoutingPlan plan) {
         BigDecimal amount = instance.getAmount();
         int previousLevel = instance.getCurrentLevel();
 
-        // Invalidate all tokens for the current level since it's been processed
-        emailApprovalService.invalidateTokensForInstanceAndLevel(instance.getId(), previousLevel);
-
         // Find the minimum level with an approver who can approve this amount
-        Integer targetLevel = workflowApproverRepository.findMinLevelForAmount(workflow.getId(), amount);
+        Integer targetLevel = plan.findMinLevelForAmount(amount);
 
         if (targetLevel == null) {
             // No approver can approve this amount - escalate to max level with unlimited approver
-            Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(workflow.getId());
+            Integer maxLevel = plan.getMaxLevel();
             if (maxLevel != null) {
                 targetLevel = maxLevel;
                 log.warn("No approver with sufficient limit for amount {}. Escalating to max level {}",
@@ -745,16 +779,15 @@ public class WorkflowInstanceService {
             instance.setCurrentApproverOrder(0);
             instance.setStatus(WorkflowInstance.Status.ESCALATED);
 
-            List<WorkflowApprover> targetApprovers = workflowApproverRepository
-                    .findByWorkflowIdAndLevel(workflow.getId(), targetLevel);
+            List<ApprovalRoutingPlan.Step> targetApprovers = plan.getApprovers(targetLevel);
 
             if (!targetApprovers.isEmpty()) {
                 // Find first approver at target level with sufficient limit
-                WorkflowApprover nextApprover = findApproverWithSufficientLimit(targetApprovers, amount);
+                ApprovalRoutingPlan.Step nextApprover = plan.findApproverWithSufficientLimit(targetLevel, amount);
                 if (nextApprover == null) {
                     nextApprover = targetApprovers.get(0); // Fallback to first approver
                 }
-                instance.setCurrentApprover(nextApprover);
+                assignApprover(instance, nextApprover);
 
                 // Create escalation history
                 ApprovalHistory escalationHistory = ApprovalHistory.builder()
@@ -770,7 +803,7 @@ public class WorkflowInstanceService {
                         .build();
                 approvalHistoryRepository.save(escalationHistory);
 
-                if (nextApprover.getNotifyOnPending()) {
+                if (nextApprover.notifyOnPending()) {
                     sendApprovalRequestNotification(instance, nextApprover);
                 }
 
@@ -779,12 +812,11 @@ public class WorkflowInstanceService {
             }
         } else if (targetLevel != null && targetLevel.equals(previousLevel)) {
             // Same level but need to find an approver with sufficient limit at this level
-            List<WorkflowApprover> currentLevelApprovers = workflowApproverRepository
-                    .findByWorkflowIdAndLevel(workflow.getId(), targetLevel);
-            WorkflowApprover nextApprover = findApproverWithSufficientLimit(currentLevelApprovers, amount);
-            if (nextApprover != null && !nextApprover.equals(instance.getCurrentApprover())) {
-                instance.setCurrentApprover(nextApprover);
-                if (nextApprover.getNotifyOnPending()) {
+            ApprovalRoutingPlan.Step nextApprover = plan.findApproverWithSufficientLimit(targetLevel, amount);
+            UUID currentApproverId = instance.getCurrentApprover() != null ? instance.getCurrentApprover().getId() : null;
+            if (nextApprover != null && !nextApprover.id().equals(currentApproverId)) {
+                assignApprover(instance, nextApprover);
+                if (nextApprover.notifyOnPending()) {
                     sendApprovalRequestNotification(instance, nextApprover);
                 }
             }
@@ -792,18 +824,15 @@ public class WorkflowInstanceService {
     }
 
     /**
-     * Finds an approver from the list who has sufficient limit for the given amount.
+     * Points the instance at the approver for {@code step} without loading the approver row.
      */
-    private WorkflowApprover findApproverWithSufficientLimit(List<WorkflowApprover> approvers, BigDecimal amount) {
-        for (WorkflowApprover approver : approvers) {
-            if (Boolean.TRUE.equals(approver.getIsUnlimited())) {
-                return approver;
-            }
-            if (approver.getApprovalLimit() != null && amount.compareTo(approver.getApprovalLimit()) <= 0) {
-                return approver;
-            }
-        }
-        return null;
+    private void assignApprover(WorkflowInstance instance, ApprovalRoutingPlan.Step step) {
+        instance.setCurrentApprover(workflowApproverRepository.getReferenceById(step.id()));
+    }
+
+    private Optional<ApprovalRoutingPlan.Step> currentApproverStep(WorkflowInstance instance, ApprovalRoutingPlan plan) {
+        WorkflowApprover current = instance.getCurrentApprover();
+        return current != null ? plan.getStep(current.getId()) : Optional.empty();
     }
 
     private void handleRejection(WorkflowInstance instance, User approver, String comments) {
@@ -812,9 +841,6 @@ public class WorkflowInstanceService {
         instance.setCurrentApprover(null);
         instance.setCurrentApproverOrder(null);
 
-        // Invalidate all tokens for this instance since it's been rejected
-        emailApprovalService.invalidateAllTokensForInstance(instance.getId());
-
         // Notify initiator
         emailService.sendApprovalNotificationEmail(
                 instance.getInitiator().getEmail(),
@@ -829,34 +855,33 @@ public class WorkflowInstanceService {
     }
 
     private void handleEscalation(WorkflowInstance instance, User approver, UUID escalateToUserId) {
+        ApprovalRoutingPlan plan = approvalRoutingService.getPlan(instance.getWorkflow());
         if (escalateToUserId != null) {
-            WorkflowApprover escalateTo = workflowApproverRepository
-                    .findByUserIdAndWorkflowId(escalateToUserId, instance.getWorkflow().getId())
+            ApprovalRoutingPlan.Step escalateTo = plan.findByUserId(escalateToUserId)
                     .orElseThrow(() -> new BusinessException("Escalation target not found"));
-            instance.setCurrentApprover(escalateTo);
+            assignApprover(instance, escalateTo);
             instance.setStatus(WorkflowInstance.Status.PENDING);
-            log.info("Escalated to specific user: {}", escalateTo.getApproverEmail());
+            log.info("Escalated to specific user: {}", escalateTo.email());
 
-            if (escalateTo.getNotifyOnPending()) {
+            if (escalateTo.notifyOnPending()) {
                 sendApprovalRequestNotification(instance, escalateTo);
             }
         } else {
             // Escalate to next level in the approval matrix
             int nextLevel = instance.getCurrentLevel() + 1;
-            Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(instance.getWorkflow().getId());
+            Integer maxLevel = plan.getMaxLevel();
 
             if (maxLevel != null && nextLevel <= maxLevel) {
-                List<WorkflowApprover> nextApprovers = workflowApproverRepository
-                        .findByWorkflowIdAndLevel(instance.getWorkflow().getId(), nextLevel);
+                List<ApprovalRoutingPlan.Step> nextApprovers = plan.getApprovers(nextLevel);
 
                 if (!nextApprovers.isEmpty()) {
                     instance.setCurrentLevel(nextLevel);
-                    WorkflowApprover nextApprover = findEligibleApprover(nextApprovers, instance);
-                    instance.setCurrentApprover(nextApprover);
+                    ApprovalRoutingPlan.Step nextApprover = findEligibleApprover(plan, nextLevel, instance);
+                    assignApprover(instance, nextApprover);
                     instance.setStatus(WorkflowInstance.Status.PENDING);
-                    log.info("Escalated to next level {}: approver {}", nextLevel, nextApprover.getApproverEmail());
+                    log.info("Escalated to next level {}: approver {}", nextLevel, nextApprover.email());
 
-                    if (nextApprover.getNotifyOnPending()) {
+                    if (nextApprover.notifyOnPending()) {
                         sendApprovalRequestNotification(instance, nextApprover);
                     }
                 } else {
@@ -881,6 +906,7 @@ public class WorkflowInstanceService {
 
         instance.setStatus(WorkflowInstance.Status.CANCELLED);
         instance.setCompletedAt(LocalDateTime.now());
+        workflowReminderService.scheduleNext(instance);
 
         ApprovalHistory history = ApprovalHistory.builder()
                 .workflowInstance(instance)
@@ -1003,16 +1029,23 @@ public class WorkflowInstanceService {
         approvalHistoryRepository.save(history);
 
         // Reset instance to draft status
+        WorkflowApprover recalledFrom = instance.getCurrentApprover();
         instance.setStatus(WorkflowInstance.Status.DRAFT);
         instance.setCurrentLevel(0);
         instance.setCurrentApproverOrder(null);
         instance.setCurrentApprover(null);
         instance.setSubmittedAt(null);
+        workflowReminderService.scheduleNext(instance);
 
         workflowInstanceRepository.save(instance);
 
         auditService.logWorkflowAction(AuditLog.AuditAction.UPDATE, instance,
                 "Workflow instance recalled: " + instance.getReferenceNumber() + ". Reason: " + reason, null, null);
+        if (recalledFrom != null) {
+            notificationHubService.publish(
+                    notificationHubService.resolveUserId(recalledFrom.getUser(), recalledFrom.getApproverEmail()),
+                    liveEvent(instance, LiveEventDTO.Type.APPROVAL_WITHDRAWN, currentUser.getFullName()));
+        }
 
         return toDTO(instance);
     }
@@ -1341,20 +1374,18 @@ public class WorkflowInstanceService {
         }
     }
 
-    private WorkflowApprover findEligibleApprover(List<WorkflowApprover> approvers, WorkflowInstance instance) {
+    private ApprovalRoutingPlan.Step findEligibleApprover(ApprovalRoutingPlan plan, int level, WorkflowInstance instance) {
         BigDecimal amount = instance.getAmount();
         if (amount != null) {
-            for (WorkflowApprover approver : approvers) {
-                if (approver.getIsUnlimited() ||
-                    (approver.getApprovalLimit() != null && approver.getApprovalLimit().compareTo(amount) >= 0)) {
-                    return approver;
-                }
+            ApprovalRoutingPlan.Step eligible = plan.findApproverWithSufficientLimit(level, amount);
+            if (eligible != null) {
+                return eligible;
             }
         }
-        return approvers.get(0);
+        return plan.getApprovers(level).get(0);
     }
 
-    private void sendApprovalRequestNotification(WorkflowInstance instance, WorkflowApprover approver) {
+    private void sendApprovalRequestNotification(WorkflowInstance instance, ApprovalRoutingPlan.Step approver) {
         String baseUrl = emailApprovalService.getBaseUrl();
         String approvalLink = baseUrl + "/approvals/" + instance.getId();
 
@@ -1370,15 +1401,15 @@ public class WorkflowInstanceService {
             // Generate all action tokens
             EmailApprovalService.EmailApprovalTokens tokens = emailApprovalService.createAllActionTokens(
                     instance,
-                    approver.getApproverEmail(),
-                    approver.getApproverName(),
+                    approver.email(),
+                    approver.name(),
                     instance.getCurrentLevel()
             );
 
-            approveLink = emailApprovalService.generateApprovalUrl(tokens.approveToken().getToken(), EmailApprovalToken.ActionType.APPROVE);
-            rejectLink = emailApprovalService.generateApprovalUrl(tokens.rejectToken().getToken(), EmailApprovalToken.ActionType.REJECT);
-            escalateLink = emailApprovalService.generateApprovalUrl(tokens.escalateToken().getToken(), EmailApprovalToken.ActionType.ESCALATE);
-            reviewLink = emailApprovalService.generateApprovalUrl(tokens.reviewToken().getToken(), EmailApprovalToken.ActionType.REVIEW);
+            approveLink = emailApprovalService.generateApprovalUrl(tokens.approveToken(), EmailApprovalToken.ActionType.APPROVE);
+            rejectLink = emailApprovalService.generateApprovalUrl(tokens.rejectToken(), EmailApprovalToken.ActionType.REJECT);
+            escalateLink = emailApprovalService.generateApprovalUrl(tokens.escalateToken(), EmailApprovalToken.ActionType.ESCALATE);
+            reviewLink = emailApprovalService.generateApprovalUrl(tokens.reviewToken(), EmailApprovalToken.ActionType.REVIEW);
         }
 
         // Get amount if this is a financial workflow
@@ -1395,18 +1426,19 @@ public class WorkflowInstanceService {
 
         // Build approval matrix if enabled on the workflow
         Workflow workflow = instance.getWorkflow();
+        ApprovalRoutingPlan plan = approvalRoutingService.getPlan(workflow);
         List<Map<String, Object>> approvalMatrix = null;
         if (Boolean.TRUE.equals(workflow.getShowApprovalMatrix())) {
-            approvalMatrix = buildApprovalMatrix(workflow, instance.getCurrentLevel(), instance.getAmount());
+            approvalMatrix = buildApprovalMatrix(workflow, plan, instance.getCurrentLevel(), instance.getAmount());
         }
 
         // Get max approval level for "Level X of Y" display
-        Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(workflow.getId());
+        Integer maxLevel = plan.getMaxLevel();
         String submissionTitle = instance.getTitle() != null ? instance.getTitle() : instance.getReferenceNumber();
 
         emailService.sendApprovalRequestEmail(
-                approver.getApproverEmail(),
-                approver.getApproverName(),
+                approver.email(),
+                approver.name(),
                 instance.getWorkflow().getName(),
                 instance.getReferenceNumber(),
                 instance.getInitiator().getFullName(),
@@ -1460,20 +1492,14 @@ public class WorkflowInstanceService {
         return summaryFields;
     }
 
-    private List<Map<String, Object>> buildApprovalMatrix(Workflow workflow, int currentLevel, BigDecimal amount) {
+    private List<Map<String, Object>> buildApprovalMatrix(Workflow workflow, ApprovalRoutingPlan plan,
+                                                          int currentLevel, BigDecimal amount) {
         List<Map<String, Object>> matrix = new ArrayList<>();
-        List<WorkflowApprover> allApprovers = workflowApproverRepository
-                .findByWorkflowId(workflow.getId());
 
         boolean isFinancial = workflow.getWorkflowCategory() == Workflow.WorkflowCategory.FINANCIAL && amount != null;
 
-        // Group by level
-        Map<Integer, List<WorkflowApprover>> byLevel = new LinkedHashMap<>();
-        for (WorkflowApprover a : allApprovers) {
-            byLevel.computeIfAbsent(a.getLevel(), k -> new ArrayList<>()).add(a);
-        }
-
-        for (Map.Entry<Integer, List<WorkflowApprover>> entry : byLevel.entrySet()) {
+        // The plan already holds approvers grouped by level
+        for (Map.Entry<Integer, List<ApprovalRoutingPlan.Step>> entry : plan.getLevels().entrySet()) {
             Map<String, Object> levelData = new HashMap<>();
             int level = entry.getKey();
             levelData.put("level", level);
@@ -1485,11 +1511,7 @@ public class WorkflowInstanceService {
             // For financial workflows, check if this completed level was actually skipped
             // A level is skipped if the approver's limit is less than the submission amount
             if (isFinancial && isCompleted) {
-                boolean allBelowLimit = entry.getValue().stream().allMatch(a -> {
-                    if (Boolean.TRUE.equals(a.getIsUnlimited())) return false;
-                    if (a.getApprovalLimit() == null) return true;
-                    return amount.compareTo(a.getApprovalLimit()) > 0;
-                });
+                boolean allBelowLimit = plan.findApproverWithSufficientLimit(level, amount) == null;
                 if (allBelowLimit) {
                     isSkipped = true;
                 }
@@ -1499,10 +1521,10 @@ public class WorkflowInstanceService {
             levelData.put("isSkipped", isSkipped);
 
             List<Map<String, String>> approvers = new ArrayList<>();
-            for (WorkflowApprover a : entry.getValue()) {
+            for (ApprovalRoutingPlan.Step a : entry.getValue()) {
                 Map<String, String> approverData = new HashMap<>();
-                approverData.put("name", a.getApproverName() != null ? a.getApproverName() : "Approver");
-                approverData.put("email", a.getApproverEmail() != null ? a.getApproverEmail() : "");
+                approverData.put("name", a.name() != null ? a.name() : "Approver");
+                approverData.put("email", a.email() != null ? a.email() : "");
                 approvers.add(approverData);
             }
             levelData.put("approvers", approvers);
@@ -1539,15 +1561,16 @@ public class WorkflowInstanceService {
     }
 
     private WorkflowInstanceDTO toDTO(WorkflowInstance instance) {
+        ApprovalRoutingPlan plan = approvalRoutingService.getPlan(instance.getWorkflow());
+
         // Get total approvers at current level
         Integer totalApproversAtLevel = null;
         if (instance.getCurrentLevel() != null && instance.getCurrentLevel() > 0) {
-            totalApproversAtLevel = workflowApproverRepository.countByWorkflowIdAndLevel(
-                    instance.getWorkflow().getId(), instance.getCurrentLevel());
+            totalApproversAtLevel = plan.countApprovers(instance.getCurrentLevel());
         }
 
         // Get max approval level for this workflow
-        Integer maxLevel = workflowApproverRepository.findMaxLevelByWorkflowId(instance.getWorkflow().getId());
+        Integer maxLevel = plan.getMaxLevel();
 
         return WorkflowInstanceDTO.builder()
                 .id(instance.getId())
@@ -1694,24 +1717,23 @@ public class WorkflowInstanceService {
                 .orElseThrow(() -> new BusinessException("Workflow instance not found"));
 
         int currentLevel = instance.getCurrentLevel();
-        UUID workflowId = instance.getWorkflow().getId();
 
         // Get approvers at next level and above
-        List<WorkflowApprover> higherLevelApprovers = workflowApproverRepository
-                .findByWorkflowId(workflowId)
-                .stream()
-                .filter(a -> a.getLevel() > currentLevel)
+        List<ApprovalRoutingPlan.Step> higherLevelApprovers = approvalRoutingService.getPlan(instance.getWorkflow())
+                .getLevels().values().stream()
+                .flatMap(List::stream)
+                .filter(a -> a.level() > currentLevel)
                 .toList();
 
         return higherLevelApprovers.stream()
                 .map(approver -> {
                     Map<String, Object> target = new HashMap<>();
-                    target.put("id", approver.getUser() != null ? approver.getUser().getId() : null);
-                    target.put("name", approver.getApproverName());
-                    target.put("email", approver.getApproverEmail());
-                    target.put("level", approver.getLevel());
-                    target.put("approvalLimit", approver.getApprovalLimit());
-                    target.put("isUnlimited", approver.getIsUnlimited());
+                    target.put("id", approver.userId());
+                    target.put("name", approver.name());
+                    target.put("email", approver.email());
+                    target.put("level", approver.level());
+                    target.put("approvalLimit", approver.approvalLimit());
+                    target.put("isUnlimited", approver.unlimited());
                     return target;
                 })
                 .collect(Collectors.toList());
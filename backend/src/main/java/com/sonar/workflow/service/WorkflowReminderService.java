@@ -1,17 +1,23 @@
 package com.sonar.workflow.service;
 
+import com.sonar.workflow.dto.LiveEventDTO;
 import com.sonar.workflow.entity.*;
 import com.sonar.workflow.repository.WorkflowApproverRepository;
 import com.sonar.workflow.repository.WorkflowInstanceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -23,32 +29,147 @@ public class WorkflowReminderService {
     private final EmailService emailService;
     private final SettingService settingService;
     private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseService jobLeaseService;
+    private final NotificationHubService notificationHubService;
+
+    private static final String JOB_NAME = "workflow-reminders";
+    private static final String BACKFILL_JOB_NAME = "workflow-reminders-backfill";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(1);
+    private static final int MAX_BATCHES_PER_RUN = 200;
+    private static final int RETRY_MINUTES = 15;
+    private static final String SYSTEM_ACTOR = "System";
+
+    @Value("${app.reminders.batch-size:50}")
+    private int batchSize;
 
     /**
-     * Runs every 15 minutes to check for pending workflow instances
-     * that need reminders or escalation.
+     * Gives pending instances created before due-time tracking a due time so the
+     * scheduler picks them up once. Runs on the node that takes the backfill lease; the
+     * others skip it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDueTimes() {
+        jobLeaseService.runExclusive(BACKFILL_JOB_NAME, LOCK_AT_MOST, Duration.ZERO, this::backfill);
+    }
+
+    private int backfill() {
+        Integer updated = transactionTemplate.execute(status -> instanceRepository.backfillReminderDueTimes());
+        if (updated != null && updated > 0) {
+            log.info("Scheduled reminder evaluation for {} pending workflow instances", updated);
+        }
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Runs every 15 minutes and works through instances whose reminder or escalation is due,
+     * one short transaction per batch. Only the node holding the job lease runs it; rows are
+     * also claimed with FOR UPDATE SKIP LOCKED so an overlapping run cannot double-send.
      */
     @Scheduled(cron = "0 */15 * * * *")
-    @Transactional
     public void processReminders() {
         if (!settingService.getBooleanValue("workflow.reminders.global.enabled", true)) {
             return;
         }
+        jobLeaseService.runExclusive(JOB_NAME, LOCK_AT_MOST, LOCK_AT_LEAST, this::processDueReminders);
+    }
 
-        List<WorkflowInstance> pendingInstances;
-        try {
-            pendingInstances = instanceRepository.findPendingWithRemindersEnabled();
-        } catch (Exception e) {
-            log.error("Failed to fetch pending instances for reminders", e);
-            return;
+    private int processDueReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        int processed = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN && !jobLeaseService.isLeaseLost(); batch++) {
+            Integer count = transactionTemplate.execute(status -> processDueBatch(now));
+            processed += count != null ? count : 0;
+            if (count == null || count < batchSize) break;
+        }
+        if (processed > 0) {
+            log.info("Processed reminders for {} workflow instances", processed);
         }
+        return processed;
+    }
+
+    private int processDueBatch(LocalDateTime now) {
+        List<UUID> dueIds = instanceRepository.lockDueForReminders(now, batchSize);
+        if (dueIds.isEmpty()) return 0;
 
-        for (WorkflowInstance instance : pendingInstances) {
+        for (WorkflowInstance instance : instanceRepository.findAllWithWorkflowByIdIn(dueIds)) {
             try {
                 processInstance(instance);
+                reschedule(instance, now);
             } catch (Exception e) {
                 log.error("Failed to process reminders for instance {}", instance.getReferenceNumber(), e);
+                instance.setNextReminderAt(now.plusMinutes(RETRY_MINUTES));
+                instance.setNextEscalationAt(null);
             }
+            instanceRepository.save(instance);
+        }
+        return dueIds.size();
+    }
+
+    /**
+     * Recomputes the instance's reminder and escalation due times from its submission time,
+     * reminder history and workflow settings. Call whenever those or its level or status change;
+     * instances that are no longer pending get none.
+     */
+    public void scheduleNext(WorkflowInstance instance) {
+        Workflow workflow = instance.getWorkflow();
+        LocalDateTime submittedAt = instance.getSubmittedAt();
+        if (submittedAt == null || instance.getStatus() != WorkflowInstance.Status.PENDING) {
+            instance.setNextReminderAt(null);
+            instance.setNextEscalationAt(null);
+            return;
+        }
+
+        int startAfterHours = workflow.getReminderStartAfterHours() != null ? workflow.getReminderStartAfterHours() : 24;
+        int frequencyHours = workflow.getReminderFrequencyHours() != null ? workflow.getReminderFrequencyHours() : 24;
+        int maxCount = workflow.getReminderMaxCount() != null ? workflow.getReminderMaxCount() : 3;
+        int remindersSent = instance.getReminderCount() != null ? instance.getReminderCount() : 0;
+
+        LocalDateTime nextReminder = null;
+        if (remindersSent < maxCount) {
+            nextReminder = submittedAt.plusHours(startAfterHours);
+            LocalDateTime lastReminder = instance.getLastReminderSentAt();
+            if (lastReminder != null && lastReminder.plusHours(frequencyHours).isAfter(nextReminder)) {
+                nextReminder = lastReminder.plusHours(frequencyHours);
+            }
+        }
+
+        // Escalation is only considered once reminders are exhausted
+        LocalDateTime nextEscalation = null;
+        if (Boolean.TRUE.equals(workflow.getEscalationEnabled()) && instance.getEscalatedAt() == null
+                && remindersSent >= maxCount) {
+            int escalationAfterHours = workflow.getEscalationAfterHours() != null ? workflow.getEscalationAfterHours() : 72;
+            nextEscalation = submittedAt.plusHours(escalationAfterHours);
+        }
+
+        instance.setNextReminderAt(nextReminder);
+        instance.setNextEscalationAt(nextEscalation);
+    }
+
+    /**
+     * Recomputes the due times of the workflow's pending instances after its reminder or
+     * escalation settings changed.
+     */
+    public int rescheduleWorkflow(UUID workflowId) {
+        List<WorkflowInstance> pending = instanceRepository.findPendingByWorkflowId(workflowId);
+        for (WorkflowInstance instance : pending) {
+            scheduleNext(instance);
+        }
+        instanceRepository.saveAll(pending);
+        return pending.size();
+    }
+
+    /**
+     * Reschedules after processing; anything still due (e.g. a failed email) is retried on a later run.
+     */
+    private void reschedule(WorkflowInstance instance, LocalDateTime now) {
+        scheduleNext(instance);
+        if (instance.getNextReminderAt() != null && !instance.getNextReminderAt().isAfter(now)) {
+            instance.setNextReminderAt(now.plusMinutes(RETRY_MINUTES));
+        }
+        if (instance.getNextEscalationAt() != null && !instance.getNextEscalationAt().isAfter(now)) {
+            instance.setNextEscalationAt(now.plusMinutes(RETRY_MINUTES));
         }
     }
 
@@ -199,6 +320,8 @@ public class WorkflowReminderService {
         instance.setStatus(WorkflowInstance.Status.APPROVED);
         instance.setCompletedAt(LocalDateTime.now());
         instanceRepository.save(instance);
+        publishToApprover(instance, instance.getCurrentApprover(), LiveEventDTO.Type.APPROVAL_WITHDRAWN);
+        publishToInitiator(instance);
 
         auditService.log(AuditLog.AuditAction.UPDATE, "WorkflowInstance", instance.getId(),
                 instance.getReferenceNumber(), "Auto-approved: approval timeout exceeded after " +
@@ -214,12 +337,16 @@ public class WorkflowReminderService {
         // Find the next level approver
         List<WorkflowApprover> nextApprovers = approverRepository.findByWorkflowIdAndLevel(workflow.getId(), currentLevel + 1);
         if (!nextApprovers.isEmpty()) {
+            WorkflowApprover previousApprover = instance.getCurrentApprover();
             WorkflowApprover nextApprover = nextApprovers.get(0);
             instance.setCurrentApprover(nextApprover);
             instance.setCurrentLevel(currentLevel + 1);
             instance.setReminderCount(0);
             instance.setLastReminderSentAt(null);
             instanceRepository.save(instance);
+            publishToApprover(instance, previousApprover, LiveEventDTO.Type.APPROVAL_WITHDRAWN);
+            publishToApprover(instance, nextApprover, LiveEventDTO.Type.APPROVAL_REQUESTED);
+            publishToInitiator(instance);
 
             auditService.log(AuditLog.AuditAction.UPDATE, "WorkflowInstance", instance.getId(),
                     instance.getReferenceNumber(), "Reassigned to level " + (currentLevel + 1) +
@@ -232,6 +359,34 @@ public class WorkflowReminderService {
         }
     }
 
+    // ==================== LIVE EVENTS ====================
+
+    private void publishToApprover(WorkflowInstance instance, WorkflowApprover approver, LiveEventDTO.Type type) {
+        if (approver == null) return;
+        notificationHubService.publish(
+                notificationHubService.resolveUserId(approver.getUser(), approver.getApproverEmail()),
+                liveEvent(instance, type));
+    }
+
+    private void publishToInitiator(WorkflowInstance instance) {
+        if (instance.getInitiator() == null) return;
+        notificationHubService.publish(instance.getInitiator().getId(),
+                liveEvent(instance, LiveEventDTO.Type.STATUS_CHANGED));
+    }
+
+    private LiveEventDTO liveEvent(WorkflowInstance instance, LiveEventDTO.Type type) {
+        return LiveEventDTO.builder()
+                .type(type)
+                .module(LiveEventDTO.Module.WORKFLOW)
+                .entityId(instance.getId())
+                .referenceNumber(instance.getReferenceNumber())
+                .title(instance.getTitle())
+                .status(instance.getStatus().name())
+                .message(instance.getWorkflow().getName())
+                .actorName(SYSTEM_ACTOR)
+                .build();
+    }
+
     private String replacePlaceholders(String template, WorkflowInstance instance, Workflow workflow,
                                         String approverName, String approverEmail, int reminderNumber, int maxCount) {
         String workflowName = workflow.getName();
@@ -9,6 +9,7 @@ import com.sonar.workflow.exception.BusinessException;
 import com.sonar.workflow.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -91,6 +92,8 @@ public class WorkflowService {
     private final ScreenRepository screenRepository;
     private final ScreenNotifierRepository screenNotifierRepository;
     private final WorkflowApproverRepository workflowApproverRepository;
+    private final ApprovalRoutingService approvalRoutingService;
+    private final WorkflowReminderService workflowReminderService;
     private final SBURepository sbuRepository;
     private final DepartmentRepository departmentRepository;
     private final CorporateRepository corporateRepository;
@@ -104,6 +107,9 @@ public class WorkflowService {
     private final SqlObjectService sqlObjectService;
     private final AccessScopeService accessScopeService;
 
+    @Value("${app.sql-query.inline-options-limit:100}")
+    private int inlineOptionsLimit;
+
     @Transactional(readOnly = true)
     public List<WorkflowDTO> getAllWorkflows() {
         User currentUser = accessScopeService.getCurrentUser();
@@ -453,6 +459,7 @@ public class WorkflowService {
         validateApproversIfRequired(dto.getApprovers());
 
         WorkflowDTO oldValues = toDTO(workflow);
+        List<Object> oldReminderTiming = reminderTiming(workflow);
 
         workflow.setName(dto.getName());
         workflow.setDescription(dto.getDescription());
@@ -543,6 +550,11 @@ public class WorkflowService {
 
         Workflow saved = workflowRepository.save(workflow);
 
+        // Pending instances carry due times computed from the old reminder settings
+        if (!oldReminderTiming.equals(reminderTiming(saved))) {
+            workflowReminderService.rescheduleWorkflow(saved.getId());
+        }
+
         // Propagate access to child workflows if setting is enabled
         if (settingService.getBooleanValue("workflow.child.inherit.access", true)) {
             propagateAccessToChildren(saved);
@@ -567,6 +579,14 @@ public class WorkflowService {
         return toFullDTO(saved);
     }
 
+    /**
+     * The settings that WorkflowReminderService derives due times from.
+     */
+    private static List<Object> reminderTiming(Workflow workflow) {
+        return Arrays.asList(workflow.getReminderStartAfterHours(), workflow.getReminderFrequencyHours(),
+                workflow.getReminderMaxCount(), workflow.getEscalationEnabled(), workflow.getEscalationAfterHours());
+    }
+
     @Transactional
     public WorkflowDTO setWorkflowActive(UUID id, boolean active) {
         Workflow workflow = workflowRepository.findById(id)
@@ -771,6 +791,7 @@ public class WorkflowService {
         field.setTableDataSource(dto.getTableDataSource());
         field.setSqlQuery(dto.getSqlQuery());
         field.setSqlTableColumns(dto.getSqlTableColumns());
+        field.setSqlCacheTtlSeconds(dto.getSqlCacheTtlSeconds());
 
         WorkflowField saved = workflowFieldRepository.save(field);
 
@@ -841,6 +862,7 @@ public class WorkflowService {
         }
 
         WorkflowApprover saved = workflowApproverRepository.save(approver);
+        approvalRoutingService.invalidate(workflowId);
         return toApproverDTO(saved);
     }
 
@@ -885,6 +907,7 @@ public class WorkflowService {
         WorkflowApprover approver = workflowApproverRepository.findById(approverId)
                 .orElseThrow(() -> new BusinessException("Approver not found"));
         workflowApproverRepository.delete(approver);
+        approvalRoutingService.invalidate(approver.getWorkflow().getId());
     }
 
     @Transactional
@@ -1303,6 +1326,7 @@ public class WorkflowService {
                     field.setTableDataSource(fieldDto.getTableDataSource());
                     field.setSqlQuery(fieldDto.getSqlQuery());
                     field.setSqlTableColumns(fieldDto.getSqlTableColumns());
+                    field.setSqlCacheTtlSeconds(fieldDto.getSqlCacheTtlSeconds());
 
                     WorkflowField savedField = workflowFieldRepository.save(field);
                     fieldIdsToKeepByForm.get(savedForm.getId()).add(savedField.getId());
@@ -1421,6 +1445,8 @@ public class WorkflowService {
      * Process approvers for a workflow from DTOs.
      */
     private void processApproversForWorkflow(Workflow workflow, List<WorkflowApproverDTO> approverDtos) {
+        approvalRoutingService.invalidate(workflow.getId());
+
         // Build set of incoming IDs to determine which existing approvers to remove
         Set<UUID> incomingIds = approverDtos.stream()
                 .map(dto -> parseUuid(dto.getId()))
@@ -1908,11 +1934,21 @@ public class WorkflowService {
     private WorkflowFieldDTO toFieldDTO(WorkflowField field) {
         // Determine options source - use SQL Object options if configured
         List<FieldOptionDTO> fieldOptions;
+        boolean optionsPartial = false;
         // Fetch SQL Object options for SQL_OBJECT field type or if optionsSource is SQL
         if ((field.getFieldType() == WorkflowField.FieldType.SQL_OBJECT || "SQL".equals(field.getOptionsSource()))
                 && field.getSqlObjectId() != null) {
-            // Fetch options from SQL Object table
-            fieldOptions = getSqlObjectOptionsAsFieldOptions(field.getSqlObjectId());
+            if (isDropdown(field)) {
+                // Dropdowns carry the first options only and search the rest as the user types
+                fieldOptions = getSqlObjectOptionsAsFieldOptions(field.getSqlObjectId(), inlineOptionsLimit + 1);
+                optionsPartial = fieldOptions.size() > inlineOptionsLimit;
+                if (optionsPartial) {
+                    fieldOptions = new ArrayList<>(fieldOptions.subList(0, inlineOptionsLimit));
+                }
+            } else {
+                // Radio buttons and checkbox groups show every option
+                fieldOptions = getSqlObjectOptionsAsFieldOptions(field.getSqlObjectId(), null);
+            }
         } else {
             // Use static options defined on the field
             fieldOptions = field.getOptions().stream().map(this::toOptionDTO).collect(Collectors.toList());
@@ -1952,6 +1988,7 @@ public class WorkflowService {
                 .width(field.getWidth())
                 .cssClass(field.getCssClass())
                 .options(fieldOptions)
+                .optionsPartial(optionsPartial)
                 .optionsLayout(field.getOptionsLayout())
                 .dropdownSource(field.getDropdownSource())
                 .dropdownDisplayField(field.getDropdownDisplayField())
@@ -2004,15 +2041,28 @@ public class WorkflowService {
                 .tableDataSource(field.getTableDataSource())
                 .sqlQuery(field.getSqlQuery())
                 .sqlTableColumns(field.getSqlTableColumns())
+                .sqlCacheTtlSeconds(field.getSqlCacheTtlSeconds())
                 .build();
     }
 
+    private boolean isDropdown(WorkflowField field) {
+        if (field.getFieldType() == WorkflowField.FieldType.SQL_OBJECT) {
+            return field.getViewType() == null || field.getViewType() == WorkflowField.ViewType.SELECT
+                    || field.getViewType() == WorkflowField.ViewType.MULTISELECT;
+        }
+        return field.getFieldType() == WorkflowField.FieldType.SELECT
+                || field.getFieldType() == WorkflowField.FieldType.MULTISELECT;
+    }
+
     /**
-     * Fetch options from SQL Object table and convert to FieldOptionDTO list
+     * Fetch options from SQL Object table and convert to FieldOptionDTO list.
+     * With a limit, only the first options in label order are returned.
      */
-    private List<FieldOptionDTO> getSqlObjectOptionsAsFieldOptions(UUID sqlObjectId) {
+    private List<FieldOptionDTO> getSqlObjectOptionsAsFieldOptions(UUID sqlObjectId, Integer limit) {
         try {
-            List<Map<String, String>> sqlOptions = sqlObjectService.getOptionsFromSqlObject(sqlObjectId);
+            List<Map<String, String>> sqlOptions = limit != null
+                    ? sqlObjectService.searchOptionsFromSqlObject(sqlObjectId, null, "prefix", limit)
+                    : sqlObjectService.getOptionsFromSqlObject(sqlObjectId);
             List<FieldOptionDTO> options = new ArrayList<>();
             int order = 0;
             for (Map<String, String> sqlOption : sqlOptions) {
@@ -0,0 +1,213 @@
+package com.sonar.workflow.deadlines.service;
+
+import com.sonar.workflow.deadlines.entity.DeadlineItem;
+import com.sonar.workflow.deadlines.entity.DeadlineItem.BusinessDayAdjustment;
+import com.sonar.workflow.deadlines.repository.DeadlineInstanceRepository;
+import com.sonar.workflow.deadlines.repository.DeadlineItemRepository;
+import com.sonar.workflow.leave.service.LeaveCalculationService;
+import com.sonar.workflow.service.SettingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineRecurrenceServiceTest {
+
+    @Mock
+    private DeadlineItemRepository itemRepository;
+
+    @Mock
+    private DeadlineInstanceRepository instanceRepository;
+
+    @Mock
+    private DeadlineReminderScheduleService reminderScheduleService;
+
+    @Mock
+    private LeaveCalculationService calendar;
+
+    @Mock
+    private SettingService settingService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private DeadlineRecurrenceService service;
+    private final Set<LocalDate> holidays = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new DeadlineRecurrenceService(itemRepository, instanceRepository, reminderScheduleService,
+                calendar, settingService, transactionTemplate);
+        lenient().when(calendar.isWorkingDay(any())).thenAnswer(inv -> {
+            LocalDate date = inv.getArgument(0);
+            return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                    && !holidays.contains(date);
+        });
+        lenient().when(instanceRepository.insertOccurrences(any(), anyString(), anyString()))
+                .thenAnswer(inv -> ((String) inv.getArgument(2)).split(",").length);
+    }
+
+    // ==================== ADJUST ====================
+
+    @Test
+    void adjustLeavesWorkingDaysAndUnadjustedDatesAlone() {
+        LocalDate friday = LocalDate.of(2026, 1, 30);
+        LocalDate saturday = LocalDate.of(2026, 1, 31);
+
+        assertThat(service.adjust(friday, BusinessDayAdjustment.FOLLOWING)).isEqualTo(friday);
+        assertThat(service.adjust(saturday, BusinessDayAdjustment.NONE)).isEqualTo(saturday);
+        assertThat(service.adjust(saturday, null)).isEqualTo(saturday);
+    }
+
+    @Test
+    void adjustFollowingAndPrecedingSkipWeekendsAndHolidays() {
+        LocalDate saturday = LocalDate.of(2026, 1, 17);
+
+        assertThat(service.adjust(saturday, BusinessDayAdjustment.FOLLOWING)).isEqualTo(LocalDate.of(2026, 1, 19));
+        assertThat(service.adjust(saturday, BusinessDayAdjustment.PRECEDING)).isEqualTo(LocalDate.of(2026, 1, 16));
+
+        holidays.add(LocalDate.of(2026, 1, 19));
+        holidays.add(LocalDate.of(2026, 1, 16));
+        assertThat(service.adjust(saturday, BusinessDayAdjustment.FOLLOWING)).isEqualTo(LocalDate.of(2026, 1, 20));
+        assertThat(service.adjust(saturday, BusinessDayAdjustment.PRECEDING)).isEqualTo(LocalDate.of(2026, 1, 15));
+    }
+
+    @Test
+    void adjustModifiedFollowingStaysInTheMonth() {
+        // Mid-month it moves forward like FOLLOWING
+        assertThat(service.adjust(LocalDate.of(2026, 1, 17), BusinessDayAdjustment.MODIFIED_FOLLOWING))
+                .isEqualTo(LocalDate.of(2026, 1, 19));
+        // Saturday 31 January: the following Monday is in February, so it moves back to Friday
+        assertThat(service.adjust(LocalDate.of(2026, 1, 31), BusinessDayAdjustment.MODIFIED_FOLLOWING))
+                .isEqualTo(LocalDate.of(2026, 1, 30));
+    }
+
+    @Test
+    void adjustGivesUpWhenNoWorkingDayIsNear() {
+        when(calendar.isWorkingDay(any())).thenReturn(false);
+        LocalDate date = LocalDate.of(2026, 1, 31);
+
+        assertThat(service.adjust(date, BusinessDayAdjustment.FOLLOWING)).isEqualTo(date);
+    }
+
+    // ==================== MATERIALIZE ====================
+
+    @Test
+    void monthEndAnchorDoesNotDrift() {
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 31),
+                BusinessDayAdjustment.NONE);
+
+        int created = service.materialize(item, LocalDate.of(2026, 5, 31));
+
+        assertThat(created).isEqualTo(5);
+        String scheduled = "{2026-01-31,2026-02-28,2026-03-31,2026-04-30,2026-05-31}";
+        verify(instanceRepository).insertOccurrences(item.getId(), scheduled, scheduled);
+        verify(reminderScheduleService).scheduleNew(item.getId());
+    }
+
+    @Test
+    void monthEndOccurrencesAreAdjustedButKeepTheirScheduledDate() {
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 31),
+                BusinessDayAdjustment.FOLLOWING);
+
+        service.materialize(item, LocalDate.of(2026, 5, 31));
+
+        // 31 Jan and 28 Feb are Saturdays, 31 May a Sunday
+        verify(instanceRepository).insertOccurrences(item.getId(),
+                "{2026-02-02,2026-03-02,2026-03-31,2026-04-30,2026-06-01}",
+                "{2026-01-31,2026-02-28,2026-03-31,2026-04-30,2026-05-31}");
+    }
+
+    @Test
+    void quarterlyOccurrencesCountFromTheAnchor() {
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.QUARTERLY, LocalDate.of(2026, 11, 30),
+                BusinessDayAdjustment.NONE);
+
+        service.materialize(item, LocalDate.of(2027, 8, 31));
+
+        // February is short, but May and August fall on the 30th again
+        String scheduled = "{2026-11-30,2027-02-28,2027-05-30,2027-08-30}";
+        verify(instanceRepository).insertOccurrences(item.getId(), scheduled, scheduled);
+    }
+
+    @Test
+    void rollingTheHorizonOnlyAddsNewOccurrences() {
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 15),
+                BusinessDayAdjustment.NONE);
+        item.setMaterializedThrough(LocalDate.of(2026, 6, 30));
+        when(instanceRepository.findLastScheduledDate(item.getId())).thenReturn(LocalDate.of(2026, 6, 15));
+
+        int created = service.materialize(item, LocalDate.of(2026, 8, 31));
+
+        assertThat(created).isEqualTo(2);
+        verify(instanceRepository).insertOccurrences(item.getId(), "{2026-07-15,2026-08-15}", "{2026-07-15,2026-08-15}");
+        assertThat(item.getMaterializedThrough()).isEqualTo(LocalDate.of(2026, 8, 31));
+        verify(itemRepository).save(item);
+    }
+
+    @Test
+    void rollingTheHorizonDoesNotRecreateOccurrencesAlreadyMaterialized() {
+        // 15 July was materialized before and has since been removed; it is not generated again
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 15),
+                BusinessDayAdjustment.NONE);
+        item.setMaterializedThrough(LocalDate.of(2026, 7, 31));
+        when(instanceRepository.findLastScheduledDate(item.getId())).thenReturn(LocalDate.of(2026, 6, 15));
+
+        service.materialize(item, LocalDate.of(2026, 9, 30));
+
+        verify(instanceRepository).insertOccurrences(item.getId(), "{2026-08-15,2026-09-15}", "{2026-08-15,2026-09-15}");
+    }
+
+    @Test
+    void rollingToTheSameHorizonInsertsNothing() {
+        DeadlineItem item = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 15),
+                BusinessDayAdjustment.NONE);
+        item.setMaterializedThrough(LocalDate.of(2026, 8, 31));
+        when(instanceRepository.findLastScheduledDate(item.getId())).thenReturn(LocalDate.of(2026, 8, 15));
+
+        int created = service.materialize(item, LocalDate.of(2026, 8, 31));
+
+        assertThat(created).isZero();
+        verify(instanceRepository, never()).insertOccurrences(any(), anyString(), anyString());
+        verify(reminderScheduleService, never()).scheduleNew(any());
+    }
+
+    @Test
+    void oneTimeAndInactiveItemsAreNotMaterialized() {
+        DeadlineItem oneTime = recurringItem(DeadlineItem.RecurrenceType.ONE_TIME, LocalDate.of(2026, 1, 15),
+                BusinessDayAdjustment.NONE);
+        DeadlineItem inactive = recurringItem(DeadlineItem.RecurrenceType.MONTHLY, LocalDate.of(2026, 1, 15),
+                BusinessDayAdjustment.NONE);
+        inactive.setIsActive(false);
+
+        assertThat(service.materialize(oneTime, LocalDate.of(2026, 12, 31))).isZero();
+        assertThat(service.materialize(inactive, LocalDate.of(2026, 12, 31))).isZero();
+        verifyNoInteractions(instanceRepository);
+    }
+
+    private static DeadlineItem recurringItem(DeadlineItem.RecurrenceType type, LocalDate anchor,
+                                              BusinessDayAdjustment adjustment) {
+        DeadlineItem item = new DeadlineItem();
+        item.setId(UUID.randomUUID());
+        item.setIsActive(true);
+        item.setStatus(DeadlineItem.DeadlineItemStatus.ACTIVE);
+        item.setRecurrenceType(type);
+        item.setRecurrenceAnchor(anchor);
+        item.setBusinessDayAdjustment(adjustment);
+        return item;
+    }
+}
@@ -0,0 +1,270 @@
+package com.sonar.workflow.projects.service;
+
+import com.sonar.workflow.exception.BusinessException;
+import com.sonar.workflow.projects.entity.Project;
+import com.sonar.workflow.projects.entity.ProjectTask;
+import com.sonar.workflow.projects.repository.ProjectRepository;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository.DependencyRow;
+import com.sonar.workflow.projects.repository.ProjectTaskRepository.ScheduleRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectScheduleServiceTest {
+
+    private static final UUID PROJECT_ID = UUID.randomUUID();
+    private static final LocalDate DAY0 = LocalDate.of(2026, 1, 5);
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private ProjectTaskRepository taskRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ProjectScheduleService service;
+    private final Map<UUID, ProjectTask> tasks = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new ProjectScheduleService(projectRepository, taskRepository, transactionTemplate);
+
+        Project project = new Project();
+        project.setId(PROJECT_ID);
+        project.setStartDate(DAY0);
+        lenient().when(projectRepository.findById(PROJECT_ID)).thenReturn(Optional.of(project));
+        lenient().when(taskRepository.findScheduleRows(PROJECT_ID))
+                .thenAnswer(inv -> tasks.values().stream().map(ProjectScheduleServiceTest::scheduleRow).toList());
+        lenient().when(taskRepository.findDependencyRows(eq(PROJECT_ID)))
+                .thenAnswer(inv -> dependencyRows());
+        lenient().when(taskRepository.findAllById(any())).thenAnswer(inv -> {
+            List<ProjectTask> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(0)) {
+                if (tasks.containsKey(id)) found.add(tasks.get(id));
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void forwardAndBackwardPassesScheduleChainAndParallelTask() {
+        ProjectTask design = task("Design", DAY0, DAY0.plusDays(2), null);
+        ProjectTask build = task("Build", null, null, "16", design);
+        ProjectTask docs = task("Docs", null, null, "8");
+
+        service.recalculate(PROJECT_ID);
+
+        assertSchedule(design, DAY0, DAY0.plusDays(2), DAY0, DAY0.plusDays(2));
+        assertSchedule(build, DAY0.plusDays(3), DAY0.plusDays(4), DAY0.plusDays(3), DAY0.plusDays(4));
+        assertSchedule(docs, DAY0, DAY0, DAY0.plusDays(4), DAY0.plusDays(4));
+        assertThat(design.getIsCriticalPath()).isTrue();
+        assertThat(build.getIsCriticalPath()).isTrue();
+        assertThat(docs.getIsCriticalPath()).isFalse();
+    }
+
+    @Test
+    void totalFloatIsSlackAgainstTheLatestFinish() {
+        ProjectTask longTask = task("Long", DAY0, DAY0.plusDays(9), null);
+        ProjectTask lateStart = task("Late start", DAY0.plusDays(3), DAY0.plusDays(4), null);
+        ProjectTask follower = task("Follower", null, null, "12", lateStart);
+
+        service.recalculate(PROJECT_ID);
+
+        assertThat(longTask.getTotalFloat()).isZero();
+        // Late start finishes on day 4 and its follower (two days) on day 6, against day 9
+        assertThat(follower.getEarlyFinish()).isEqualTo(DAY0.plusDays(6));
+        assertThat(follower.getTotalFloat()).isEqualTo(3);
+        assertThat(lateStart.getTotalFloat()).isEqualTo(3);
+        assertThat(follower.getIsCriticalPath()).isFalse();
+    }
+
+    @Test
+    void incrementalRescheduleMatchesFullPassWhenFinishMoves() {
+        ProjectTask a = task("A", DAY0, DAY0.plusDays(1), null);
+        ProjectTask b = task("B", null, null, "16", a);
+        ProjectTask c = task("C", null, null, "8", a);
+        ProjectTask d = task("D", null, null, "8", b, c);
+        task("E", null, null, "24");
+        service.recalculate(PROJECT_ID);
+
+        // Lengthen a predecessor on the critical path: every later task and the finish move
+        b.setEstimatedHours(new BigDecimal("40"));
+        service.reschedule(PROJECT_ID, List.of(b.getId()), List.of());
+
+        assertMatchesFullPass();
+        assertThat(d.getEarlyFinish()).isEqualTo(DAY0.plusDays(7));
+    }
+
+    @Test
+    void incrementalRescheduleMatchesFullPassWhenFinishStays() {
+        ProjectTask a = task("A", DAY0, DAY0.plusDays(1), null);
+        ProjectTask b = task("B", null, null, "40", a);
+        ProjectTask c = task("C", null, null, "8", a);
+        task("D", null, null, "8", b, c);
+        service.recalculate(PROJECT_ID);
+
+        // Lengthen the non-critical branch within its float, then rewire it to depend on nothing
+        c.setEstimatedHours(new BigDecimal("16"));
+        service.reschedule(PROJECT_ID, List.of(c.getId()), List.of());
+        assertMatchesFullPass();
+
+        c.setDependencyTaskIds(new ArrayList<>());
+        service.reschedule(PROJECT_ID, List.of(c.getId()), List.of(a.getId()));
+        assertMatchesFullPass();
+    }
+
+    @Test
+    void tasksInADependencyCycleAreLeftUnscheduled() {
+        ProjectTask a = task("A", DAY0, DAY0, null);
+        ProjectTask b = task("B", null, null, "8", a);
+        ProjectTask c = task("C", null, null, "8", b);
+        b.getDependencyTaskIds().add(c.getId());
+        ProjectTask free = task("Free", null, null, "8");
+
+        service.recalculate(PROJECT_ID);
+
+        assertThat(a.getEarlyStart()).isEqualTo(DAY0);
+        assertThat(free.getEarlyStart()).isEqualTo(DAY0);
+        assertThat(b.getEarlyStart()).isNull();
+        assertThat(c.getTotalFloat()).isNull();
+    }
+
+    @Test
+    void assertAcyclicAcceptsDependenciesWithoutCycle() {
+        ProjectTask a = task("A", DAY0, DAY0, null);
+        ProjectTask b = task("B", null, null, "8", a);
+        ProjectTask c = task("C", null, null, "8");
+
+        assertThatCode(() -> service.assertAcyclic(PROJECT_ID, c.getId(), List.of(a.getId(), b.getId())))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void assertAcyclicRejectsSelfDependency() {
+        ProjectTask a = task("A", DAY0, DAY0, null);
+
+        assertThatThrownBy(() -> service.assertAcyclic(PROJECT_ID, a.getId(), List.of(a.getId())))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("A task cannot depend on itself");
+    }
+
+    @Test
+    void assertAcyclicDescribesTheCycleItWouldClose() {
+        ProjectTask a = task("A", DAY0, DAY0, null);
+        ProjectTask b = task("B", null, null, "8", a);
+        ProjectTask c = task("C", null, null, "8", b);
+
+        assertThatThrownBy(() -> service.assertAcyclic(PROJECT_ID, a.getId(), List.of(c.getId())))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Dependency would create a cycle: 'A' depends on 'C' depends on 'B' depends on 'A'");
+    }
+
+    /**
+     * Recomputes the current inputs from scratch and compares with the incrementally maintained
+     * schedule.
+     */
+    private void assertMatchesFullPass() {
+        Map<UUID, List<Object>> incremental = new HashMap<>();
+        tasks.values().forEach(t -> incremental.put(t.getId(), scheduleOf(t)));
+
+        tasks.values().forEach(t -> {
+            t.setEarlyStart(null);
+            t.setEarlyFinish(null);
+            t.setLateStart(null);
+            t.setLateFinish(null);
+            t.setTotalFloat(null);
+            t.setIsCriticalPath(false);
+        });
+        service.recalculate(PROJECT_ID);
+
+        tasks.values().forEach(t -> assertThat(incremental.get(t.getId()))
+                .as("schedule of %s", t.getName())
+                .isEqualTo(scheduleOf(t)));
+    }
+
+    private static List<Object> scheduleOf(ProjectTask t) {
+        return Arrays.asList(t.getEarlyStart(), t.getEarlyFinish(), t.getLateStart(), t.getLateFinish(),
+                t.getTotalFloat(), t.getIsCriticalPath());
+    }
+
+    private static void assertSchedule(ProjectTask t, LocalDate es, LocalDate ef, LocalDate ls, LocalDate lf) {
+        assertThat(List.of(t.getEarlyStart(), t.getEarlyFinish(), t.getLateStart(), t.getLateFinish()))
+                .as("schedule of %s", t.getName())
+                .containsExactly(es, ef, ls, lf);
+    }
+
+    private ProjectTask task(String name, LocalDate start, LocalDate due, String estimatedHours,
+                             ProjectTask... dependsOn) {
+        ProjectTask task = new ProjectTask();
+        task.setId(UUID.randomUUID());
+        task.setName(name);
+        task.setStartDate(start);
+        task.setDueDate(due);
+        task.setEstimatedHours(estimatedHours != null ? new BigDecimal(estimatedHours) : null);
+        task.setIsCriticalPath(false);
+        task.setDependencyTaskIds(new ArrayList<>(Arrays.stream(dependsOn).map(ProjectTask::getId).toList()));
+        tasks.put(task.getId(), task);
+        return task;
+    }
+
+    private List<DependencyRow> dependencyRows() {
+        List<DependencyRow> rows = new ArrayList<>();
+        for (ProjectTask task : tasks.values()) {
+            for (UUID dependsOn : task.getDependencyTaskIds()) {
+                UUID taskId = task.getId();
+                rows.add(new DependencyRow() {
+                    public UUID getTaskId() { return taskId; }
+                    public UUID getDependsOnTaskId() { return dependsOn; }
+                });
+            }
+        }
+        return rows;
+    }
+
+    /** Snapshot of the task as the projection query would return it. */
+    private static ScheduleRow scheduleRow(ProjectTask t) {
+        UUID id = t.getId();
+        String name = t.getName();
+        LocalDate startDate = t.getStartDate();
+        LocalDate dueDate = t.getDueDate();
+        BigDecimal estimatedHours = t.getEstimatedHours();
+        LocalDate earlyStart = t.getEarlyStart();
+        LocalDate earlyFinish = t.getEarlyFinish();
+        LocalDate lateStart = t.getLateStart();
+        LocalDate lateFinish = t.getLateFinish();
+        Integer totalFloat = t.getTotalFloat();
+        Boolean critical = t.getIsCriticalPath();
+        return new ScheduleRow() {
+            public UUID getId() { return id; }
+            public String getName() { return name; }
+            public UUID getMilestoneId() { return null; }
+            public LocalDate getStartDate() { return startDate; }
+            public LocalDate getDueDate() { return dueDate; }
+            public BigDecimal getEstimatedHours() { return estimatedHours; }
+            public LocalDate getEarlyStart() { return earlyStart; }
+            public LocalDate getEarlyFinish() { return earlyFinish; }
+            public LocalDate getLateStart() { return lateStart; }
+            public LocalDate getLateFinish() { return lateFinish; }
+            public Integer getTotalFloat() { return totalFloat; }
+            public Boolean getIsCriticalPath() { return critical; }
+        };
+    }
+}
@@ -160,6 +160,7 @@ export interface WorkflowField {
   width?: number;
   cssClass?: string;
   options?: FieldOption[];
+  optionsPartial?: boolean;
   optionsLayout?: 'vertical' | 'horizontal';
   dropdownSource?: string;
   dropdownDisplayField?: string;
@@ -220,6 +221,7 @@ export interface WorkflowField {
   // SQL_TABLE field
   sqlQuery?: string;
   sqlTableColumns?: string; // JSON: [{key: "db_column", label: "Display Name"}]
+  sqlCacheTtlSeconds?: number; // 0/empty = always run the query
 }
 
 export interface TableColumn {
@@ -522,10 +524,18 @@ export interface SqlColumn {
   isNullable: boolean;
   isPrimaryKey: boolean;
   defaultValue?: string;
+  isIndexed?: boolean;
   displayOrder: number;
   booleanControl?: 'TOGGLE' | 'CHECKBOX' | 'DROPDOWN' | 'RADIO';
 }
 
+export interface SqlDataPage {
+  rows: any[];
+  nextCursor?: number;
+  hasMore: boolean;
+  pageSize: number;
+}
+
 export enum SqlColumnDataType {
   VARCHAR = 'VARCHAR',
   TEXT = 'TEXT',
@@ -0,0 +1,68 @@
+import { Injectable } from '@angular/core';
+import { BehaviorSubject, Observable, Subscription } from 'rxjs';
+import { ApiService } from './api.service';
+import { LiveEventsService } from './live-events.service';
+
+export interface BadgeCounts {
+  pendingApprovals: number;
+  mySubmissions: number;
+  myPendingSubmissions: number;
+  leavePendingApprovals: number;
+  leaveMyPending: number;
+  leaveApprovedUpcoming: number;
+  deadlineOverdue: number;
+  deadlineDueSoon: number;
+}
+
+const EMPTY_COUNTS: BadgeCounts = {
+  pendingApprovals: 0,
+  mySubmissions: 0,
+  myPendingSubmissions: 0,
+  leavePendingApprovals: 0,
+  leaveMyPending: 0,
+  leaveApprovedUpcoming: 0,
+  deadlineOverdue: 0,
+  deadlineDueSoon: 0
+};
+
+/**
+ * Navigation badge counts: loaded from /badges whenever the live event stream opens, then kept
+ * current by the {@code badges} events pushed on it instead of polling each module.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class BadgeService {
+  private counts$ = new BehaviorSubject<BadgeCounts>(EMPTY_COUNTS);
+  private subscriptions: Subscription[] = [];
+
+  constructor(private api: ApiService, private liveEvents: LiveEventsService) {}
+
+  get counts(): Observable<BadgeCounts> {
+    return this.counts$.asObservable();
+  }
+
+  connect(): void {
+    if (this.subscriptions.length) return;
+    this.subscriptions = [
+      this.liveEvents.badges.subscribe(counts => this.counts$.next(counts as BadgeCounts)),
+      this.liveEvents.opened.subscribe(() => this.load())
+    ];
+    this.liveEvents.connect();
+  }
+
+  disconnect(): void {
+    this.subscriptions.forEach(s => s.unsubscribe());
+    this.subscriptions = [];
+    this.liveEvents.disconnect();
+    this.counts$.next(EMPTY_COUNTS);
+  }
+
+  private load(): void {
+    this.api.get<BadgeCounts>('/badges').subscribe({
+      next: (res) => {
+        if (res.success && res.data) this.counts$.next(res.data);
+      }
+    });
+  }
+}
@@ -0,0 +1,123 @@
+import { Injectable, NgZone, OnDestroy } from '@angular/core';
+import { Observable, Subject } from 'rxjs';
+import { filter } from 'rxjs/operators';
+import { environment } from '../../../environments/environment';
+import { AuthService } from './auth.service';
+
+export type LiveEventType = 'APPROVAL_REQUESTED' | 'APPROVAL_WITHDRAWN' | 'STATUS_CHANGED';
+export type LiveEventModule = 'WORKFLOW' | 'LEAVE' | 'DEADLINE';
+
+export interface LiveEvent {
+  id: string;
+  type: LiveEventType;
+  module: LiveEventModule;
+  entityId: string;
+  referenceNumber?: string;
+  title?: string;
+  status?: string;
+  message?: string;
+  actorName?: string;
+  occurredAt: string;
+}
+
+/**
+ * The user's live event stream: one Server-Sent Events connection per session carrying
+ * notifications, badge counts and resync requests. The browser resumes from the last event
+ * id on reconnect, so notifications are not lost across short disconnects.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class LiveEventsService implements OnDestroy {
+  private readonly reconnectDelayMs = 10000;
+  private events$ = new Subject<LiveEvent>();
+  private badges$ = new Subject<unknown>();
+  private resync$ = new Subject<void>();
+  private opened$ = new Subject<void>();
+  private source: EventSource | null = null;
+  private reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+  private lastEventId: string | null = null;
+
+  constructor(private authService: AuthService, private zone: NgZone) {}
+
+  /** Notifications, optionally limited to one module. */
+  events(module?: LiveEventModule): Observable<LiveEvent> {
+    return module ? this.events$.pipe(filter(e => e.module === module)) : this.events$.asObservable();
+  }
+
+  get badges(): Observable<unknown> {
+    return this.badges$.asObservable();
+  }
+
+  /** Emits whenever the stream opens or the browser reconnects it. */
+  get opened(): Observable<void> {
+    return this.opened$.asObservable();
+  }
+
+  /** Emits when the stream (re)opens without a replay, so anything derived from it should reload. */
+  get resync(): Observable<void> {
+    return this.resync$.asObservable();
+  }
+
+  connect(): void {
+    if (this.source || this.reconnectTimer) return;
+    this.open();
+  }
+
+  disconnect(): void {
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    this.source?.close();
+    this.source = null;
+    this.lastEventId = null;
+  }
+
+  ngOnDestroy(): void {
+    this.disconnect();
+  }
+
+  private open(): void {
+    const token = this.authService.token;
+    if (!token || typeof EventSource === 'undefined') return;
+
+    // EventSource cannot send headers, so the JWT goes in the query string
+    let url = `${environment.apiUrl}/events/stream?token=${encodeURIComponent(token)}`;
+    if (this.lastEventId) {
+      url += `&lastEventId=${encodeURIComponent(this.lastEventId)}`;
+    }
+    const source = new EventSource(url);
+    source.addEventListener('notification', (event) => {
+      const message = event as MessageEvent;
+      this.lastEventId = message.lastEventId || this.lastEventId;
+      const data = JSON.parse(message.data) as LiveEvent;
+      this.zone.run(() => this.events$.next(data));
+    });
+    source.addEventListener('badges', (event) => {
+      const data = JSON.parse((event as MessageEvent).data);
+      this.zone.run(() => this.badges$.next(data));
+    });
+    source.addEventListener('resync', () => {
+      this.zone.run(() => this.resync$.next());
+    });
+    source.onopen = () => {
+      this.zone.run(() => this.opened$.next());
+      // Without an event id to resume from, whatever happened meanwhile is unknown
+      if (!this.lastEventId) {
+        this.zone.run(() => this.resync$.next());
+      }
+    };
+    source.onerror = () => {
+      // The browser retries by itself unless the server refused the stream (e.g. expired token)
+      if (source.readyState === EventSource.CLOSED) {
+        this.source = null;
+        this.reconnectTimer = setTimeout(() => {
+          this.reconnectTimer = null;
+          this.open();
+        }, this.reconnectDelayMs);
+      }
+    };
+    this.source = source;
+  }
+}
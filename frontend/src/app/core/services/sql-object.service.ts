@@ -1,8 +1,8 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, map } from 'rxjs';
 import { environment } from '../../../environments/environment';
-import { SqlObject } from '../models/workflow.model';
+import { SqlObject, SqlDataPage } from '../models/workflow.model';
 
 interface ApiResponse<T> {
   success: boolean;
@@ -73,6 +73,30 @@ export class SqlObjectService {
     );
   }
 
+  getTableDataPage(sqlObjectId: string, options: {
+    afterId?: number;
+    size?: number;
+    direction?: 'ASC' | 'DESC';
+    search?: string;
+    searchColumn?: string;
+    searchMode?: 'prefix' | 'contains';
+    filters?: { [column: string]: string };
+  } = {}): Observable<SqlDataPage> {
+    let params = new HttpParams();
+    if (options.afterId != null) params = params.set('afterId', options.afterId);
+    if (options.size) params = params.set('size', options.size);
+    if (options.direction) params = params.set('direction', options.direction);
+    if (options.search) params = params.set('search', options.search);
+    if (options.searchColumn) params = params.set('searchColumn', options.searchColumn);
+    if (options.searchMode) params = params.set('searchMode', options.searchMode);
+    Object.entries(options.filters || {}).forEach(([column, value]) => {
+      params = params.set(`filter.${column}`, value);
+    });
+    return this.http.get<ApiResponse<SqlDataPage>>(`${this.apiUrl}/${sqlObjectId}/data/page`, { params }).pipe(
+      map(response => response.data)
+    );
+  }
+
   addTableRow(sqlObjectId: string, rowData: any): Observable<any> {
     return this.http.post<ApiResponse<any>>(`${this.apiUrl}/${sqlObjectId}/data`, rowData).pipe(
       map(response => response.data)
@@ -98,6 +122,15 @@ export class SqlObjectService {
     );
   }
 
+  // Type-ahead options for dropdown fields
+  searchOptions(sqlObjectId: string, term: string, mode: 'prefix' | 'contains' = 'prefix',
+                limit = 50): Observable<{ value: string; label: string }[]> {
+    const params = new HttpParams().set('q', term).set('mode', mode).set('limit', limit);
+    return this.http.get<ApiResponse<{ value: string; label: string }[]>>(`${this.apiUrl}/${sqlObjectId}/options/search`, { params }).pipe(
+      map(response => response.data)
+    );
+  }
+
   // Template / Import / Export
   downloadTemplate(sqlObjectId: string): Observable<Blob> {
     return this.http.get(`${this.apiUrl}/${sqlObjectId}/template`, { responseType: 'blob' });
@@ -107,9 +140,10 @@ export class SqlObjectService {
     return this.http.get(`${this.apiUrl}/${sqlObjectId}/export`, { responseType: 'blob' });
   }
 
-  importData(sqlObjectId: string, file: File): Observable<Blob> {
+  importData(sqlObjectId: string, file: File, upsert = false): Observable<Blob> {
     const formData = new FormData();
     formData.append('file', file);
-    return this.http.post(`${this.apiUrl}/${sqlObjectId}/import`, formData, { responseType: 'blob' });
+    return this.http.post(`${this.apiUrl}/${sqlObjectId}/import`, formData,
+      { params: { upsert: String(upsert) }, responseType: 'blob' });
   }
 }
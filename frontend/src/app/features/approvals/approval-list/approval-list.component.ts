@@ -1,4 +1,6 @@
-import { Component, OnInit, ViewChild, Inject } from '@angular/core';
+import { Component, OnInit, OnDestroy, ViewChild, Inject } from '@angular/core';
+import { Subscription, merge } from 'rxjs';
+import { filter } from 'rxjs/operators';
 import { CommonModule } from '@angular/common';
 import { Router, RouterModule } from '@angular/router';
 import { FormsModule } from '@angular/forms';
@@ -16,6 +18,7 @@ import { MatSnackBar, MatSnackBarModule } from '@angular/material/snack-bar';
 import { MatDialog, MatDialogModule, MatDialogRef, MAT_DIALOG_DATA } from '@angular/material/dialog';
 import { WorkflowService } from '@core/services/workflow.service';
 import { WorkflowInstance } from '@core/models/workflow.model';
+import { LiveEventsService } from '@core/services/live-events.service';
 
 @Component({
   selector: 'app-reject-dialog',
@@ -277,7 +280,7 @@ export class RejectDialogComponent {
     }
   `]
 })
-export class ApprovalListComponent implements OnInit {
+export class ApprovalListComponent implements OnInit, OnDestroy {
   displayedColumns = ['title', 'workflowName', 'initiatorName', 'currentApprovalLevel', 'createdAt', 'actions'];
   dataSource = new MatTableDataSource<WorkflowInstance>([]);
   searchTerm = '';
@@ -288,15 +291,27 @@ export class ApprovalListComponent implements OnInit {
   @ViewChild(MatPaginator) paginator!: MatPaginator;
   @ViewChild(MatSort) sort!: MatSort;
 
+  private liveSubscription?: Subscription;
+
   constructor(
     private workflowService: WorkflowService,
     private router: Router,
     private snackBar: MatSnackBar,
-    private dialog: MatDialog
+    private dialog: MatDialog,
+    private liveEvents: LiveEventsService
   ) {}
 
   ngOnInit() {
     this.loadApprovals();
+    // Reload only when the server reports a change that affects this list
+    this.liveSubscription = merge(
+      this.liveEvents.events('WORKFLOW').pipe(filter(e => e.type !== 'STATUS_CHANGED')),
+      this.liveEvents.resync
+    ).subscribe(() => this.loadApprovals());
+  }
+
+  ngOnDestroy() {
+    this.liveSubscription?.unsubscribe();
   }
 
   ngAfterViewInit() {
@@ -111,6 +111,16 @@ import { UserService } from '../../../core/services/user.service';
                   </mat-select>
                 </mat-form-field>
 
+                <mat-form-field appearance="outline" *ngIf="form.get('recurrenceType')?.value !== 'ONE_TIME'">
+                  <mat-label>Weekends &amp; Holidays</mat-label>
+                  <mat-select formControlName="businessDayAdjustment">
+                    <mat-option value="NONE">Keep the scheduled date</mat-option>
+                    <mat-option value="FOLLOWING">Move to next working day</mat-option>
+                    <mat-option value="MODIFIED_FOLLOWING">Next working day, same month</mat-option>
+                    <mat-option value="PRECEDING">Move to previous working day</mat-option>
+                  </mat-select>
+                </mat-form-field>
+
                 <mat-form-field appearance="outline">
                   <mat-label>Next Due Date</mat-label>
                   <input matInput [matDatepicker]="picker" formControlName="nextDueDate">
@@ -354,6 +364,7 @@ export class DeadlineDetailComponent implements OnInit {
       priority: ['MEDIUM'],
       status: ['ACTIVE'],
       recurrenceType: ['ONE_TIME'],
+      businessDayAdjustment: ['NONE'],
       nextDueDate: [null],
       reminderDaysBefore: ['30,7,1'],
       ownerId: [null]
@@ -384,6 +395,7 @@ export class DeadlineDetailComponent implements OnInit {
             priority: item.priority,
             status: item.status,
             recurrenceType: item.recurrenceType,
+            businessDayAdjustment: item.businessDayAdjustment || 'NONE',
             nextDueDate: item.nextDueDate ? new Date(item.nextDueDate) : null,
             reminderDaysBefore: item.reminderDaysBefore,
             ownerId: item.ownerId
@@ -96,7 +96,12 @@ import { DeadlineService, DeadlineDashboardDTO, DeadlineInstanceDTO } from './se
             <mat-card-header>
               <mat-icon mat-card-avatar class="section-icon overdue-icon">error</mat-icon>
               <mat-card-title>Overdue Deadlines</mat-card-title>
-              <mat-card-subtitle>{{ dashboard.overdueDeadlines.length }} item(s) past due date</mat-card-subtitle>
+              <mat-card-subtitle>
+                {{ dashboard.overdueCount }} item(s) past due date
+                @if (dashboard.overdueDeadlines.length < dashboard.overdueCount) {
+                  &middot; showing the {{ dashboard.overdueDeadlines.length }} oldest
+                }
+              </mat-card-subtitle>
             </mat-card-header>
             <mat-card-content>
               <table mat-table [dataSource]="dashboard.overdueDeadlines" class="deadline-table">
@@ -20,6 +20,7 @@ export interface DeadlineItemDTO {
   priority: string;
   status: string;
   recurrenceType: string;
+  businessDayAdjustment?: string;
   reminderDaysBefore?: string;
   ownerId?: string;
   ownerName?: string;
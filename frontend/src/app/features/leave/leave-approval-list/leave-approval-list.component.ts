@@ -1,4 +1,6 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnInit, OnDestroy } from '@angular/core';
+import { Subscription, merge } from 'rxjs';
+import { filter } from 'rxjs/operators';
 import { CommonModule } from '@angular/common';
 import { RouterModule } from '@angular/router';
 import { MatCardModule } from '@angular/material/card';
@@ -13,6 +15,7 @@ import { MatSnackBar, MatSnackBarModule } from '@angular/material/snack-bar';
 import { MatDialog, MatDialogModule } from '@angular/material/dialog';
 import { LeaveService, LeaveRequestDTO } from '../services/leave.service';
 import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/confirm-dialog/confirm-dialog.component';
+import { LiveEventsService } from '@core/services/live-events.service';
 
 @Component({
   selector: 'app-leave-approval-list',
@@ -122,7 +125,7 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/co
     .level-badge.single { background: #f5f5f5; color: #666; }
   `]
 })
-export class LeaveApprovalListComponent implements OnInit {
+export class LeaveApprovalListComponent implements OnInit, OnDestroy {
   requests: LeaveRequestDTO[] = [];
   loading = true;
   columns = ['employeeName', 'leaveType', 'dates', 'totalDays', 'level', 'reason', 'actions'];
@@ -130,13 +133,27 @@ export class LeaveApprovalListComponent implements OnInit {
   pageSize = 20;
   page = 0;
 
+  private liveSubscription?: Subscription;
+
   constructor(
     private leaveService: LeaveService,
     private snackBar: MatSnackBar,
-    private dialog: MatDialog
+    private dialog: MatDialog,
+    private liveEvents: LiveEventsService
   ) {}
 
-  ngOnInit() { this.load(); }
+  ngOnInit() {
+    this.load();
+    // Reload only when the server reports a change that affects this list
+    this.liveSubscription = merge(
+      this.liveEvents.events('LEAVE').pipe(filter(e => e.type !== 'STATUS_CHANGED')),
+      this.liveEvents.resync
+    ).subscribe(() => this.load());
+  }
+
+  ngOnDestroy() {
+    this.liveSubscription?.unsubscribe();
+  }
 
   load() {
     this.loading = true;
@@ -165,7 +165,7 @@ export class LeaveBalanceListComponent implements OnInit {
       this.leaveService.initializeYear(this.selectedYear).subscribe({
         next: (res) => {
           if (res.success) {
-            this.snackBar.open(`Balances initialized for ${this.selectedYear}`, 'Close', { duration: 3000 });
+            this.snackBar.open(`${res.data?.created ?? 0} balances initialized for ${this.selectedYear}`, 'Close', { duration: 3000 });
             this.load();
           }
         },
@@ -8,7 +8,12 @@ import { MatFormFieldModule } from '@angular/material/form-field';
 import { MatSelectModule } from '@angular/material/select';
 import { MatProgressSpinnerModule } from '@angular/material/progress-spinner';
 import { MatTooltipModule } from '@angular/material/tooltip';
-import { LeaveService, LeaveRequestDTO, PublicHolidayDTO } from '../services/leave.service';
+import { forkJoin, of } from 'rxjs';
+import { catchError } from 'rxjs/operators';
+import { LeaveService, LeaveOccupancyDTO, PublicHolidayDTO } from '../services/leave.service';
+import { AuthService } from '@core/services/auth.service';
+import { DepartmentService } from '@core/services/department.service';
+import { Department } from '@core/models/department.model';
 
 interface CalendarDay {
   date: Date;
@@ -18,7 +23,8 @@ interface CalendarDay {
   isWeekend: boolean;
   isHoliday: boolean;
   holidayName?: string;
-  leaves: { employeeName: string; leaveTypeName: string; leaveTypeColor: string }[];
+  onLeave: number;
+  headcount: number;
 }
 
 @Component({
@@ -33,8 +39,18 @@ interface CalendarDay {
       <div class="page-header">
         <div>
           <h1>Team Calendar</h1>
-          <p class="subtitle">View who is on leave</p>
+          <p class="subtitle">How many of a department's staff are on leave each day</p>
         </div>
+        @if (departments.length > 0) {
+          <mat-form-field appearance="outline" class="department-select">
+            <mat-label>Department</mat-label>
+            <mat-select [(ngModel)]="selectedDepartmentId" (selectionChange)="loadCalendar()">
+              @for (dept of departments; track dept.id) {
+                <mat-option [value]="dept.id">{{ dept.name }}</mat-option>
+              }
+            </mat-select>
+          </mat-form-field>
+        }
       </div>
 
       <mat-card>
@@ -48,6 +64,8 @@ interface CalendarDay {
 
           @if (loading) {
             <div class="loading-container"><mat-spinner diameter="40"></mat-spinner></div>
+          } @else if (!selectedDepartmentId) {
+            <div class="empty-state">You are not assigned to a department.</div>
           } @else {
             <div class="calendar-grid">
               <div class="calendar-header">
@@ -63,10 +81,10 @@ interface CalendarDay {
                     @if (day.isHoliday) {
                       <div class="holiday-label" [matTooltip]="day.holidayName || ''">{{ day.holidayName }}</div>
                     }
-                    @for (leave of day.leaves; track leave.employeeName) {
-                      <div class="leave-entry" [style.backgroundColor]="leave.leaveTypeColor"
-                           [matTooltip]="leave.employeeName + ' - ' + leave.leaveTypeName">
-                        {{ leave.employeeName | slice:0:15 }}
+                    @if (day.onLeave > 0) {
+                      <div class="leave-entry" [class.high]="isHighOccupancy(day)"
+                           [matTooltip]="day.onLeave + ' of ' + day.headcount + ' on leave'">
+                        {{ day.onLeave }} / {{ day.headcount }} on leave
                       </div>
                     }
                   </div>
@@ -97,7 +115,10 @@ interface CalendarDay {
     .calendar-cell.holiday { background: #fff3e0; }
     .day-number { font-weight: 500; font-size: 13px; display: block; margin-bottom: 2px; }
     .holiday-label { font-size: 10px; color: #e65100; overflow: hidden; text-overflow: ellipsis; white-space: nowrap; }
-    .leave-entry { font-size: 10px; color: white; padding: 1px 4px; border-radius: 3px; margin-top: 1px; overflow: hidden; text-overflow: ellipsis; white-space: nowrap; }
+    .leave-entry { font-size: 10px; color: white; background: #1976d2; padding: 1px 4px; border-radius: 3px; margin-top: 1px; overflow: hidden; text-overflow: ellipsis; white-space: nowrap; }
+    .leave-entry.high { background: #d32f2f; }
+    .department-select { min-width: 240px; }
+    .empty-state { text-align: center; padding: 48px; color: #666; }
   `]
 })
 export class LeaveCalendarComponent implements OnInit {
@@ -105,65 +126,80 @@ export class LeaveCalendarComponent implements OnInit {
   currentMonth = new Date().getMonth();
   calendarDays: CalendarDay[] = [];
   loading = false;
-  leaveRequests: LeaveRequestDTO[] = [];
+  departments: Department[] = [];
+  selectedDepartmentId: string | null = null;
+  occupancy: LeaveOccupancyDTO[] = [];
   holidays: PublicHolidayDTO[] = [];
 
   weekDays = ['Sun', 'Mon', 'Tue', 'Wed', 'Thu', 'Fri', 'Sat'];
   monthNames = ['January', 'February', 'March', 'April', 'May', 'June',
     'July', 'August', 'September', 'October', 'November', 'December'];
 
-  constructor(private leaveService: LeaveService) {}
+  constructor(
+    private leaveService: LeaveService,
+    private authService: AuthService,
+    private departmentService: DepartmentService
+  ) {}
 
-  ngOnInit() { this.loadCalendar(); }
+  ngOnInit() { this.loadDepartments(); }
 
-  loadCalendar() {
+  loadDepartments() {
+    const user = this.authService.currentUser;
+    const admin = this.authService.hasPrivilege('ADMIN') || this.authService.hasPrivilege('LEAVE_ADMIN');
+    const ownIds = user?.departmentIds || [];
     this.loading = true;
-    const firstDay = new Date(this.currentYear, this.currentMonth, 1);
-    const lastDay = new Date(this.currentYear, this.currentMonth + 1, 0);
-    const from = this.formatDate(firstDay);
-    const to = this.formatDate(lastDay);
-
-    // Load team calendar data and holidays in parallel
-    this.leaveService.getTeamCalendar(from, to).subscribe({
+    this.departmentService.getActiveDepartments().subscribe({
       next: (res) => {
-        if (res.success) this.leaveRequests = res.data || [];
-        this.leaveService.getHolidays(this.currentYear).subscribe({
-          next: (hRes) => {
-            if (hRes.success) this.holidays = hRes.data || [];
-            this.buildCalendar();
-            this.loading = false;
-          },
-          error: () => { this.buildCalendar(); this.loading = false; }
-        });
+        // Occupancy is only served for the user's own departments unless they administer leave
+        const all = res.success ? res.data || [] : [];
+        this.departments = admin ? all : all.filter(d => ownIds.includes(d.id));
+        this.selectedDepartmentId = this.departments.find(d => ownIds.includes(d.id))?.id
+          || this.departments[0]?.id || null;
+        this.loadCalendar();
       },
       error: () => { this.loading = false; }
     });
   }
 
+  loadCalendar() {
+    this.loading = true;
+    const gridStart = this.gridStart();
+    const gridEnd = new Date(gridStart);
+    gridEnd.setDate(gridEnd.getDate() + 41);
+
+    // Per-day occupancy for the whole grid and the year's holidays in parallel
+    const occupancy$ = this.selectedDepartmentId
+      ? this.leaveService.getDepartmentOccupancy(this.selectedDepartmentId, this.formatDate(gridStart), this.formatDate(gridEnd))
+      : of({ success: true, data: [] });
+    forkJoin({
+      occupancy: occupancy$,
+      holidays: this.leaveService.getHolidays(this.currentYear).pipe(catchError(() => of({ success: false, data: [] })))
+    }).subscribe({
+      next: ({ occupancy, holidays }) => {
+        this.occupancy = occupancy.success ? occupancy.data || [] : [];
+        this.holidays = holidays.success ? holidays.data || [] : [];
+        this.buildCalendar();
+        this.loading = false;
+      },
+      error: () => { this.occupancy = []; this.buildCalendar(); this.loading = false; }
+    });
+  }
+
+  isHighOccupancy(day: CalendarDay): boolean {
+    return day.headcount > 0 && day.onLeave * 2 >= day.headcount;
+  }
+
   buildCalendar() {
     const today = new Date();
-    const firstDay = new Date(this.currentYear, this.currentMonth, 1);
-    const lastDay = new Date(this.currentYear, this.currentMonth + 1, 0);
-    const startDay = new Date(firstDay);
-    startDay.setDate(startDay.getDate() - startDay.getDay());
+    const occupancyByDate = new Map(this.occupancy.map(o => [o.date, o]));
 
     this.calendarDays = [];
-    const current = new Date(startDay);
+    const current = this.gridStart();
 
     for (let i = 0; i < 42; i++) {
       const dateStr = this.formatDate(current);
       const holiday = this.holidays.find(h => h.date === dateStr);
-      const dayLeaves: any[] = [];
-
-      for (const lr of this.leaveRequests) {
-        if (dateStr >= lr.startDate && dateStr <= lr.endDate) {
-          dayLeaves.push({
-            employeeName: lr.employeeName,
-            leaveTypeName: lr.leaveTypeName,
-            leaveTypeColor: lr.leaveTypeColor || '#1976d2'
-          });
-        }
-      }
+      const dayOccupancy = occupancyByDate.get(dateStr);
 
       this.calendarDays.push({
         date: new Date(current),
@@ -173,7 +209,8 @@ export class LeaveCalendarComponent implements OnInit {
         isWeekend: current.getDay() === 0 || current.getDay() === 6,
         isHoliday: !!holiday,
         holidayName: holiday?.name,
-        leaves: dayLeaves
+        onLeave: dayOccupancy?.onLeave || 0,
+        headcount: dayOccupancy?.headcount || 0
       });
 
       current.setDate(current.getDate() + 1);
@@ -198,6 +235,12 @@ export class LeaveCalendarComponent implements OnInit {
     this.loadCalendar();
   }
 
+  private gridStart(): Date {
+    const start = new Date(this.currentYear, this.currentMonth, 1);
+    start.setDate(start.getDate() - start.getDay());
+    return start;
+  }
+
   private formatDate(date: Date): string {
     const y = date.getFullYear();
     const m = String(date.getMonth() + 1).padStart(2, '0');
@@ -1,4 +1,6 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnInit, OnDestroy } from '@angular/core';
+import { Subscription, merge } from 'rxjs';
+import { filter } from 'rxjs/operators';
 import { CommonModule } from '@angular/common';
 import { RouterModule } from '@angular/router';
 import { MatCardModule } from '@angular/material/card';
@@ -15,6 +17,7 @@ import { LeaveService, LeaveRequestDTO } from '../services/leave.service';
 import { ImportExportService } from '@core/services/import-export.service';
 import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/confirm-dialog/confirm-dialog.component';
 import { LeaveRequestFormComponent } from '../leave-request-form/leave-request-form.component';
+import { LiveEventsService } from '@core/services/live-events.service';
 
 @Component({
   selector: 'app-leave-request-list',
@@ -123,7 +126,7 @@ import { LeaveRequestFormComponent } from '../leave-request-form/leave-request-f
     .status-recalled { background-color: #607d8b !important; color: white !important; }
   `]
 })
-export class LeaveRequestListComponent implements OnInit {
+export class LeaveRequestListComponent implements OnInit, OnDestroy {
   requests: LeaveRequestDTO[] = [];
   loading = true;
   columns = ['referenceNumber', 'leaveType', 'startDate', 'endDate', 'totalDays', 'status', 'actions'];
@@ -131,14 +134,28 @@ export class LeaveRequestListComponent implements OnInit {
   pageSize = 20;
   page = 0;
 
+  private liveSubscription?: Subscription;
+
   constructor(
     private leaveService: LeaveService,
     private importExportService: ImportExportService,
     private snackBar: MatSnackBar,
-    private dialog: MatDialog
+    private dialog: MatDialog,
+    private liveEvents: LiveEventsService
   ) {}
 
-  ngOnInit() { this.load(); }
+  ngOnInit() {
+    this.load();
+    // Reload only when the server reports a change that affects this list
+    this.liveSubscription = merge(
+      this.liveEvents.events('LEAVE').pipe(filter(e => e.type === 'STATUS_CHANGED')),
+      this.liveEvents.resync
+    ).subscribe(() => this.load());
+  }
+
+  ngOnDestroy() {
+    this.liveSubscription?.unsubscribe();
+  }
 
   openNewRequest() {
     const dialogRef = this.dialog.open(LeaveRequestFormComponent, {
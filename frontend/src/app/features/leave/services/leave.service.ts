@@ -121,6 +121,12 @@ export interface LeaveDashboardDTO {
   totalPendingApprovals: number;
 }
 
+export interface LeaveOccupancyDTO {
+  date: string;
+  onLeave: number;
+  headcount: number;
+}
+
 export interface LeaveBalanceAdjustmentDTO {
   employeeId: string;
   leaveTypeId: string;
@@ -319,4 +325,8 @@ export class LeaveService {
   getTeamCalendar(from: string, to: string): Observable<any> {
     return this.api.get(`${this.basePath}/dashboard/team`, { from, to });
   }
+
+  getDepartmentOccupancy(departmentId: string, from: string, to: string): Observable<any> {
+    return this.api.get(`${this.basePath}/dashboard/occupancy`, { departmentId, from, to });
+  }
 }
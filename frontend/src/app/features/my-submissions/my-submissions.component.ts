@@ -1,4 +1,6 @@
-import { Component, OnInit, ViewChild } from '@angular/core';
+import { Component, OnInit, OnDestroy, ViewChild } from '@angular/core';
+import { Subscription, merge } from 'rxjs';
+import { filter } from 'rxjs/operators';
 import { CommonModule } from '@angular/common';
 import { RouterModule, Router } from '@angular/router';
 import { FormsModule } from '@angular/forms';
@@ -19,6 +21,7 @@ import { MatSnackBar, MatSnackBarModule } from '@angular/material/snack-bar';
 import { WorkflowService } from '@core/services/workflow.service';
 import { WorkflowInstance, InstanceStatus } from '@core/models/workflow.model';
 import { ConfirmDialogComponent } from '@shared/components/confirm-dialog/confirm-dialog.component';
+import { LiveEventsService } from '@core/services/live-events.service';
 
 @Component({
   selector: 'app-my-submissions',
@@ -276,7 +279,7 @@ import { ConfirmDialogComponent } from '@shared/components/confirm-dialog/confir
     }
   `]
 })
-export class MySubmissionsComponent implements OnInit {
+export class MySubmissionsComponent implements OnInit, OnDestroy {
   displayedColumns = ['title', 'workflowName', 'status', 'currentApprovalLevel', 'createdAt', 'updatedAt', 'actions'];
   dataSource = new MatTableDataSource<WorkflowInstance>([]);
   searchTerm = '';
@@ -290,15 +293,27 @@ export class MySubmissionsComponent implements OnInit {
   @ViewChild(MatPaginator) paginator!: MatPaginator;
   @ViewChild(MatSort) sort!: MatSort;
 
+  private liveSubscription?: Subscription;
+
   constructor(
     private workflowService: WorkflowService,
     private dialog: MatDialog,
     private snackBar: MatSnackBar,
-    private router: Router
+    private router: Router,
+    private liveEvents: LiveEventsService
   ) {}
 
   ngOnInit() {
     this.loadSubmissions();
+    // Reload only when the server reports a change that affects this list
+    this.liveSubscription = merge(
+      this.liveEvents.events('WORKFLOW').pipe(filter(e => e.type === 'STATUS_CHANGED')),
+      this.liveEvents.resync
+    ).subscribe(() => this.loadSubmissions());
+  }
+
+  ngOnDestroy() {
+    this.liveSubscription?.unsubscribe();
   }
 
   ngAfterViewInit() {
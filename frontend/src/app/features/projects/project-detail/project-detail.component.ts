@@ -617,7 +617,8 @@ import { UserService } from '@core/services/user.service';
                         <input matInput [(ngModel)]="editTaskData.tags" placeholder="Comma-separated tags">
                       </mat-form-field>
                       <div style="display: flex; align-items: center; gap: 16px; padding-bottom: 22px;">
-                        <mat-checkbox [(ngModel)]="editTaskData.isCriticalPath">Critical Path</mat-checkbox>
+                        <mat-checkbox [checked]="editTaskData.isCriticalPath" disabled
+                                      matTooltip="Set from the project schedule: the task has no float">Critical Path</mat-checkbox>
                       </div>
                     </div>
                     <div style="display: flex; gap: 8px; justify-content: flex-end;">
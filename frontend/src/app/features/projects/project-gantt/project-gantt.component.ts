@@ -121,7 +121,7 @@ interface DisplayTask extends GanttTask {
                      [class.milestone-bar]="task.isMilestone"
                      [class.critical-bar]="task.isCriticalPath"
                      [class.completed-bar]="task.status === 'DONE' || task.status === 'COMPLETED'"
-                     [matTooltip]="task.name + ' (' + task.completionPercentage + '%)'">
+                     [matTooltip]="task.name + ' (' + task.completionPercentage + '%)' + (task.totalFloat != null ? ' · float ' + task.totalFloat + 'd' : '')">
                   <div class="bar-fill" [style.width.%]="task.completionPercentage"></div>
                 </div>
               </div>
@@ -410,6 +410,8 @@ export interface GanttChartDTO {
   tasks: GanttTask[];
   projectStartDate: string;
   projectEndDate: string;
+  scheduledFinishDate?: string;
+  unscheduledTaskIds?: string[];
 }
 
 export interface GanttTask {
@@ -425,6 +427,11 @@ export interface GanttTask {
   assigneeName: string;
   isCriticalPath: boolean;
   isMilestone: boolean;
+  earlyStart?: string;
+  earlyFinish?: string;
+  lateStart?: string;
+  lateFinish?: string;
+  totalFloat?: number;
 }
 
 export interface ProjectReportDTO {
@@ -281,6 +281,7 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/co
                           }
 
                           <mat-checkbox [(ngModel)]="col.isNullable" [disabled]="isExistingColumn(col)">Nullable</mat-checkbox>
+                          <mat-checkbox [(ngModel)]="col.isIndexed" matTooltip="Index this column for lookups, filters and type-ahead search">Indexed</mat-checkbox>
 
                           <button mat-icon-button class="delete-col-btn" (click)="confirmRemoveColumn(i, col)" matTooltip="Remove column">
                             <mat-icon>delete</mat-icon>
@@ -374,11 +375,25 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/co
                   <mat-icon>refresh</mat-icon>
                   Refresh
                 </button>
+                <mat-form-field appearance="outline" class="data-search-column">
+                  <mat-label>Search in</mat-label>
+                  <mat-select [(ngModel)]="dataSearchColumn" (selectionChange)="refreshData()">
+                    @for (col of selectedObject?.columns || []; track col.columnName) {
+                      <mat-option [value]="col.columnName">{{ col.displayName }}</mat-option>
+                    }
+                  </mat-select>
+                </mat-form-field>
+                <mat-form-field appearance="outline" class="data-search">
+                  <mat-label>Search</mat-label>
+                  <input matInput [(ngModel)]="dataSearch" (ngModelChange)="onDataSearchChange()" placeholder="Starts with...">
+                </mat-form-field>
                 <span class="toolbar-spacer"></span>
                 <button mat-stroked-button matTooltip="Download Template" (click)="downloadDataTemplate()">
                   <mat-icon>description</mat-icon>
                   Template
                 </button>
+                <mat-checkbox [(ngModel)]="importUpdatesExisting"
+                              matTooltip="Rows whose primary key already exists update that row instead of failing">Update existing</mat-checkbox>
                 <button mat-stroked-button matTooltip="Import Data from Excel" (click)="dataFileInput.click()">
                   <mat-icon>upload</mat-icon>
                   Import
@@ -469,7 +484,19 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/co
                 @if (tableData.length === 0) {
                   <div class="empty-data">
                     <mat-icon>inbox</mat-icon>
-                    <p>No data in this table. Add some rows to get started.</p>
+                    <p>{{ dataSearch ? 'No rows match the search.' : 'No data in this table. Add some rows to get started.' }}</p>
+                  </div>
+                }
+
+                @if (dataHasMore) {
+                  <div class="load-more">
+                    <button mat-stroked-button (click)="loadMoreData()" [disabled]="loadingMoreData">
+                      @if (loadingMoreData) {
+                        <mat-spinner diameter="20"></mat-spinner>
+                      } @else {
+                        Load more
+                      }
+                    </button>
                   </div>
                 }
               }
@@ -805,6 +832,20 @@ import { ConfirmDialogComponent, ConfirmDialogData } from '@shared/components/co
       flex: 1;
     }
 
+    .data-search-column {
+      width: 160px;
+    }
+
+    .data-search {
+      width: 220px;
+    }
+
+    .load-more {
+      display: flex;
+      justify-content: center;
+      padding: 1rem;
+    }
+
     .data-table-container {
       overflow-x: auto;
     }
@@ -922,6 +963,13 @@ export class SqlObjectsComponent implements OnInit {
   tableData: any[] = [];
   dataColumns: string[] = [];
   loadingData = false;
+  loadingMoreData = false;
+  dataHasMore = false;
+  dataNextCursor: number | undefined;
+  dataSearch = '';
+  importUpdatesExisting = false;
+  dataSearchColumn: string | undefined;
+  private dataSearchTimer: any;
   showRowForm = false;
   newRowData: any = {};
   editingRowId: number | null = null;
@@ -1019,6 +1067,7 @@ export class SqlObjectsComponent implements OnInit {
       dataType: SqlColumnDataType.VARCHAR,
       columnLength: 255,
       isNullable: true,
+      isIndexed: false,
       isPrimaryKey: false,
       displayOrder: this.formData.columns.length,
       booleanControl: 'TOGGLE'
@@ -1168,6 +1217,8 @@ export class SqlObjectsComponent implements OnInit {
     this.selectedObject = obj;
     this.showDataManager = true;
     this.dataColumns = ['id', ...(obj.columns?.map(c => c.columnName) || []), 'actions'];
+    this.dataSearch = '';
+    this.dataSearchColumn = obj.labelColumn || obj.columns?.[0]?.columnName;
     this.refreshData();
   }
 
@@ -1175,6 +1226,9 @@ export class SqlObjectsComponent implements OnInit {
     this.showDataManager = false;
     this.selectedObject = null;
     this.tableData = [];
+    this.dataHasMore = false;
+    this.dataNextCursor = undefined;
+    clearTimeout(this.dataSearchTimer);
     this.showRowForm = false;
     this.editingRowId = null;
   }
@@ -1182,9 +1236,11 @@ export class SqlObjectsComponent implements OnInit {
   refreshData() {
     if (!this.selectedObject) return;
     this.loadingData = true;
-    this.sqlObjectService.getTableData(this.selectedObject.id).subscribe({
-      next: (data) => {
-        this.tableData = data;
+    this.sqlObjectService.getTableDataPage(this.selectedObject.id, this.dataPageOptions()).subscribe({
+      next: (page) => {
+        this.tableData = page.rows;
+        this.dataHasMore = page.hasMore;
+        this.dataNextCursor = page.nextCursor;
         this.loadingData = false;
       },
       error: () => {
@@ -1194,6 +1250,36 @@ export class SqlObjectsComponent implements OnInit {
     });
   }
 
+  loadMoreData() {
+    if (!this.selectedObject || !this.dataHasMore) return;
+    this.loadingMoreData = true;
+    this.sqlObjectService.getTableDataPage(this.selectedObject.id,
+      { ...this.dataPageOptions(), afterId: this.dataNextCursor }).subscribe({
+      next: (page) => {
+        this.tableData = [...this.tableData, ...page.rows];
+        this.dataHasMore = page.hasMore;
+        this.dataNextCursor = page.nextCursor;
+        this.loadingMoreData = false;
+      },
+      error: () => {
+        this.snackBar.open('Failed to load data', 'Close', { duration: 3000 });
+        this.loadingMoreData = false;
+      }
+    });
+  }
+
+  onDataSearchChange() {
+    clearTimeout(this.dataSearchTimer);
+    this.dataSearchTimer = setTimeout(() => this.refreshData(), 300);
+  }
+
+  private dataPageOptions() {
+    const search = this.dataSearch.trim();
+    return search && this.dataSearchColumn
+      ? { search, searchColumn: this.dataSearchColumn, searchMode: 'prefix' as const }
+      : {};
+  }
+
   addRow() {
     this.showRowForm = true;
     this.editingRowId = null;
@@ -1306,7 +1392,7 @@ export class SqlObjectsComponent implements OnInit {
     event.target.value = '';
     const objName = this.selectedObject.displayName;
 
-    this.sqlObjectService.importData(this.selectedObject.id, file).subscribe({
+    this.sqlObjectService.importData(this.selectedObject.id, file, this.importUpdatesExisting).subscribe({
       next: (blob) => {
         // Download the result Excel
         const url = window.URL.createObjectURL(blob);
@@ -1175,6 +1175,12 @@ import { FunctionHelpDialogComponent } from '@shared/components/function-help-di
                                   }
                                 </mat-form-field>
 
+                                <mat-form-field appearance="outline" class="full-width">
+                                  <mat-label>Cache Results (seconds)</mat-label>
+                                  <input matInput type="number" min="0" [(ngModel)]="field.sqlCacheTtlSeconds" placeholder="0">
+                                  <mat-hint>Reuse query results for this long. Leave empty or 0 to run the query on every load.</mat-hint>
+                                </mat-form-field>
+
                                 <h4 class="config-section-title" style="margin-top: 16px;">
                                   <mat-icon>view_column</mat-icon>
                                   Column Definitions (Optional)
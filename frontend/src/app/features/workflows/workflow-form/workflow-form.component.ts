@@ -30,6 +30,7 @@ import { HttpClient } from '@angular/common/http';
 import { WorkflowService } from '@core/services/workflow.service';
 import { AuthService } from '@core/services/auth.service';
 import { UserService } from '@core/services/user.service';
+import { SqlObjectService } from '@core/services/sql-object.service';
 import { environment } from '../../../../environments/environment';
 import { Workflow, WorkflowField, FieldGroup, Screen } from '@core/models/workflow.model';
 import { User } from '@core/models/user.model';
@@ -305,7 +306,7 @@ import { User } from '@core/models/user.model';
                               <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" (opened)="onSelectOpened(field.name)">
                                 <div class="select-search-box">
                                   <mat-icon>search</mat-icon>
-                                  <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                  <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                 </div>
                                 @for (option of getFilteredOptions(field); track option.value) {
                                   <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -327,7 +328,7 @@ import { User } from '@core/models/user.model';
                               <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" multiple (opened)="onSelectOpened(field.name)">
                                 <div class="select-search-box">
                                   <mat-icon>search</mat-icon>
-                                  <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                  <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                 </div>
                                 @for (option of getFilteredOptions(field); track option.value) {
                                   <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -842,7 +843,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -864,7 +865,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" multiple (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -917,7 +918,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -1966,7 +1967,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -1988,7 +1989,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" multiple (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -2041,7 +2042,7 @@ import { User } from '@core/models/user.model';
                                   <mat-select [formControlName]="field.name" [placeholder]="field.placeholder || ''" [disabled]="isFieldReadonly(field)" (opened)="onSelectOpened(field.name)">
                                     <div class="select-search-box">
                                       <mat-icon>search</mat-icon>
-                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name)" (keydown)="$event.stopPropagation()">
+                                      <input class="select-search-input" placeholder="Search..." (input)="onSelectSearch($any($event.target).value, field.name, field)" (keydown)="$event.stopPropagation()">
                                     </div>
                                     @for (option of getFilteredOptions(field); track option.value) {
                                       <mat-option [value]="option.value">{{ option.label }}</mat-option>
@@ -4560,6 +4561,8 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
   // Track pending unique validation checks
   private pendingUniqueChecks: Map<string, boolean> = new Map();
   private uniqueCheckCache: Map<string, boolean> = new Map();
+  // SQL function results prefetched in one batch request, keyed by request payload
+  private sqlFunctionCache: Map<string, any> = new Map();
 
   // User field data
   allUsers: User[] = [];
@@ -4571,6 +4574,7 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
 
   // Select field search
   selectSearchTerms: Record<string, string> = {};
+  private sqlOptionSearchTimers: Record<string, any> = {};
 
   // Accordion expansion state: accordionFieldId -> array of expanded collapsible indices
   accordionExpandedState: Record<string, Set<number>> = {};
@@ -4590,6 +4594,7 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
     private dialog: MatDialog,
     private userService: UserService,
     private workflowService: WorkflowService,
+    private sqlObjectService: SqlObjectService,
     private authService: AuthService,
     private router: Router,
     private route: ActivatedRoute,
@@ -4608,6 +4613,7 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
 
   ngOnDestroy() {
     this.subscriptions.forEach(sub => sub.unsubscribe());
+    Object.values(this.sqlOptionSearchTimers).forEach(timer => clearTimeout(timer));
   }
 
   loadWorkflow() {
@@ -4618,8 +4624,10 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
           if (this.isEditMode && this.instanceId) {
             this.loadInstance();
           } else {
-            this.loading = false;
-            this.initializeForm();
+            this.prefetchSqlFunctions(() => {
+              this.loading = false;
+              this.initializeForm();
+            });
           }
         } else {
           this.loading = false;
@@ -4678,8 +4686,10 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
           console.log('[DEBUG loadInstance] Response not successful or no data. success:', res.success, 'data:', !!res.data);
         }
         // Always initialize form after loading instance (workflow should already be loaded)
-        this.loading = false;
-        this.initializeForm();
+        this.prefetchSqlFunctions(() => {
+          this.loading = false;
+          this.initializeForm();
+        });
       },
       error: () => {
         this.loading = false;
@@ -5040,7 +5050,8 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
     this.sqlTableState[field.name] = { search: '', sortField: '', sortDir: 'asc', page: 0 };
     this.http.post<any>(`${environment.apiUrl}/sql-objects/execute-query`, {
       query: field.sqlQuery,
-      columns: field.sqlTableColumns || null
+      columns: field.sqlTableColumns || null,
+      fieldId: field.id || null
     }).subscribe({
       next: (res) => {
         if (res.success && res.data) {
@@ -9308,7 +9319,60 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
     }
   }
 
+  /**
+   * Collects SQL_* calls whose arguments are all literals from the workflow definition and
+   * resolves them with one batch request, so evaluating them later needs no round trip.
+   */
+  private prefetchSqlFunctions(done: () => void) {
+    const source = JSON.stringify(this.workflow || {});
+    const literal = `(?:'[^'{}]*'|\\\\"[^"{}\\\\]*\\\\")`;
+    const callPattern = new RegExp(`SQL_(LOOKUP|QUERY|COUNT|SUM|AVG|MIN|MAX|DISTINCT|EXISTS)\\((\\s*${literal}(?:\\s*,\\s*${literal})*\\s*)\\)`, 'gi');
+    const payloads = new Set<string>();
+    let match: RegExpExecArray | null;
+    while ((match = callPattern.exec(source)) !== null) {
+      const func = 'SQL_' + match[1].toUpperCase();
+      const args = (match[2].match(new RegExp(literal, 'g')) || [])
+        .map(a => a.replace(/^\\?["']|\\?["']$/g, ''));
+      const a = (i: number) => args[i] ?? '';
+      let request: any;
+      switch (func) {
+        case 'SQL_COUNT':
+          request = { function: func, table: a(0), column: '', whereColumn: a(1), whereValue: a(2) };
+          break;
+        case 'SQL_EXISTS':
+          request = { function: func, table: a(0), column: '', whereColumn: a(1), whereValue: a(2) };
+          break;
+        case 'SQL_QUERY':
+          request = { function: func, table: a(0), column: a(1) || '*', whereColumn: a(2), whereValue: a(3) };
+          break;
+        default:
+          request = { function: func, table: a(0), column: a(1), whereColumn: a(2), whereValue: a(3) };
+      }
+      payloads.add(JSON.stringify(request));
+    }
+    if (payloads.size === 0) {
+      done();
+      return;
+    }
+    const keys = Array.from(payloads);
+    this.http.post<any>(`${environment.apiUrl}/sql-objects/function-query/batch`, keys.map(k => JSON.parse(k))).subscribe({
+      next: (res) => {
+        if (res?.success && Array.isArray(res.data)) {
+          res.data.forEach((entry: any, i: number) => {
+            if (entry?.success) this.sqlFunctionCache.set(keys[i], entry.data);
+          });
+        }
+        done();
+      },
+      error: () => done()
+    });
+  }
+
   private executeSqlFunctionSync(func: string, table: string, column: string, whereColumn: string, whereValue: string): any {
+    const payload = JSON.stringify({ function: func, table, column, whereColumn, whereValue });
+    if (this.sqlFunctionCache.has(payload)) {
+      return this.sqlFunctionCache.get(payload);
+    }
     const xhr = new XMLHttpRequest();
     xhr.open('POST', `${environment.apiUrl}/sql-objects/function-query`, false);
     xhr.setRequestHeader('Content-Type', 'application/json');
@@ -9316,7 +9380,7 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
     if (token) {
       xhr.setRequestHeader('Authorization', `Bearer ${token}`);
     }
-    xhr.send(JSON.stringify({ function: func, table, column, whereColumn, whereValue }));
+    xhr.send(payload);
     if (xhr.status === 200) {
       const response = JSON.parse(xhr.responseText);
       return response?.data;
@@ -9955,8 +10019,33 @@ export class WorkflowFormComponent implements OnInit, OnDestroy {
 
   // ========== SELECT SEARCH METHODS ==========
 
-  onSelectSearch(term: string, fieldName: string): void {
+  onSelectSearch(term: string, fieldName: string, field?: any): void {
     this.selectSearchTerms[fieldName] = (term || '').toLowerCase();
+    if (field?.optionsPartial && field.sqlObjectId) {
+      this.searchSqlOptions(field, (term || '').trim());
+    }
+  }
+
+  /**
+   * SQL option lists larger than the first page arrive partial; matches for the
+   * typed prefix are fetched from the server and merged into the field's options.
+   */
+  private searchSqlOptions(field: any, term: string): void {
+    clearTimeout(this.sqlOptionSearchTimers[field.name]);
+    if (!term) return;
+    this.sqlOptionSearchTimers[field.name] = setTimeout(() => {
+      this.sqlObjectService.searchOptions(field.sqlObjectId, term).subscribe({
+        next: (options) => {
+          const known = new Set((field.options || []).map((o: any) => o.value));
+          const added = options.filter(o => !known.has(o.value));
+          if (added.length > 0) {
+            field.options = [...(field.options || []), ...added];
+            this.cdr.detectChanges();
+          }
+        },
+        error: () => {}
+      });
+    }, 300);
   }
 
   getFilteredOptions(field: any): any[] {
@@ -1,4 +1,5 @@
-import { Component, OnInit, HostListener } from '@angular/core';
+import { Component, OnInit, OnDestroy, HostListener } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { trigger, state, style, transition, animate } from '@angular/animations';
 import { CommonModule } from '@angular/common';
 import { RouterModule, Router } from '@angular/router';
@@ -13,13 +14,14 @@ import { MatExpansionModule } from '@angular/material/expansion';
 import { MatBadgeModule } from '@angular/material/badge';
 import { MatDividerModule } from '@angular/material/divider';
 import { MatDialog, MatDialogModule } from '@angular/material/dialog';
+import { MatSnackBar, MatSnackBarModule } from '@angular/material/snack-bar';
 import { AuthService } from '@core/services/auth.service';
 import { WorkflowService } from '@core/services/workflow.service';
 import { ThemeService } from '@core/services/theme.service';
 import { ReportService } from '@core/services/report.service';
 import { SettingService } from '@core/services/setting.service';
-import { DeadlineService } from '../../features/deadlines/services/deadline.service';
-import { LeaveService } from '../../features/leave/services/leave.service';
+import { BadgeService } from '@core/services/badge.service';
+import { LiveEvent, LiveEventsService } from '@core/services/live-events.service';
 import { Workflow } from '@core/models/workflow.model';
 import { ProfileDialogComponent } from '@shared/components/profile-dialog/profile-dialog.component';
 import { SignatureDialogComponent } from '../../features/signature/signature-dialog.component';
@@ -67,6 +69,7 @@ interface ReportCategory {
     MatBadgeModule,
     MatDividerModule,
     MatDialogModule,
+    MatSnackBarModule,
     MatTooltipModule],
   template: `
     <div class="layout-container">
@@ -826,7 +829,7 @@ interface ReportCategory {
     }
   `]
 })
-export class MainLayoutComponent implements OnInit {
+export class MainLayoutComponent implements OnInit, OnDestroy {
   workflows: Workflow[] = [];
   activeWorkflows: Workflow[] = [];
   reportCategories: ReportCategory[] = [];
@@ -846,6 +849,8 @@ export class MainLayoutComponent implements OnInit {
   leavePendingApprovalsCount = 0;
   leaveMyPendingCount = 0;
   leaveApprovedUpcomingCount = 0;
+  private badgeSubscription?: Subscription;
+  private liveEventSubscription?: Subscription;
 
   constructor(
     private authService: AuthService,
@@ -853,8 +858,9 @@ export class MainLayoutComponent implements OnInit {
     private themeService: ThemeService,
     private reportService: ReportService,
     private settingService: SettingService,
-    private deadlineService: DeadlineService,
-    private leaveService: LeaveService,
+    private badgeService: BadgeService,
+    private liveEvents: LiveEventsService,
+    private snackBar: MatSnackBar,
     private router: Router,
     private dialog: MatDialog
   ) {}
@@ -869,10 +875,7 @@ export class MainLayoutComponent implements OnInit {
     this.themeService.loadTheme();
     this.loadModuleStates();
     this.loadWorkflows();
-    this.loadPendingApprovalsCount();
-    this.loadMySubmissionsCount();
-    this.loadDeadlineBadgeCounts();
-    this.loadLeaveBadgeCounts();
+    this.subscribeToBadges();
     this.loadReportCategories();
     this.loadLogoUrl();
   }
@@ -930,62 +933,40 @@ export class MainLayoutComponent implements OnInit {
     }));
   }
 
-  loadPendingApprovalsCount() {
-    this.workflowService.getPendingApprovalsCount().subscribe({
-      next: (res) => {
-        if (res.success) {
-          this.pendingApprovalsCount = res.data || 0;
-        }
-      },
-      error: () => {
-        this.pendingApprovalsCount = 0;
-      }
-    });
-  }
-
-  loadMySubmissionsCount() {
-    this.workflowService.getMySubmissionsCount().subscribe({
-      next: (res) => {
-        if (res.success) {
-          this.mySubmissionsCount = res.data || 0;
-        }
-      },
-      error: () => {
-        this.mySubmissionsCount = 0;
-      }
-    });
+  ngOnDestroy() {
+    this.badgeSubscription?.unsubscribe();
+    this.liveEventSubscription?.unsubscribe();
   }
 
-  loadDeadlineBadgeCounts() {
-    this.deadlineService.getBadgeCounts().subscribe({
-      next: (res) => {
-        if (res.success && res.data) {
-          this.deadlineOverdueCount = res.data.overdue || 0;
-          this.deadlineDueSoonCount = res.data.dueSoon || 0;
-        }
-      },
-      error: () => {
-        this.deadlineOverdueCount = 0;
-        this.deadlineDueSoonCount = 0;
-      }
+  subscribeToBadges() {
+    this.badgeSubscription = this.badgeService.counts.subscribe(counts => {
+      this.pendingApprovalsCount = counts.pendingApprovals;
+      this.mySubmissionsCount = counts.mySubmissions;
+      this.deadlineOverdueCount = counts.deadlineOverdue;
+      this.deadlineDueSoonCount = counts.deadlineDueSoon;
+      this.leavePendingApprovalsCount = counts.leavePendingApprovals;
+      this.leaveMyPendingCount = counts.leaveMyPending;
+      this.leaveApprovedUpcomingCount = counts.leaveApprovedUpcoming;
     });
+    this.liveEventSubscription = this.liveEvents.events().subscribe(event => this.showLiveEvent(event));
+    this.badgeService.connect();
   }
 
-  loadLeaveBadgeCounts() {
-    this.leaveService.getBadgeCounts().subscribe({
-      next: (res) => {
-        if (res.success && res.data) {
-          this.leavePendingApprovalsCount = res.data.pendingApprovals || 0;
-          this.leaveMyPendingCount = res.data.myPending || 0;
-          this.leaveApprovedUpcomingCount = res.data.approvedUpcoming || 0;
-        }
-      },
-      error: () => {
-        this.leavePendingApprovalsCount = 0;
-        this.leaveMyPendingCount = 0;
-        this.leaveApprovedUpcomingCount = 0;
-      }
-    });
+  showLiveEvent(event: LiveEvent) {
+    const subject = event.referenceNumber || event.title || 'An item';
+    const by = event.actorName ? ` by ${event.actorName}` : '';
+    let message: string;
+    switch (event.type) {
+      case 'APPROVAL_REQUESTED':
+        message = `${subject} is waiting for your approval`;
+        break;
+      case 'APPROVAL_WITHDRAWN':
+        message = `${subject} no longer needs your approval`;
+        break;
+      default:
+        message = `${subject} is now ${(event.status || 'updated').toLowerCase()}${by}`;
+    }
+    this.snackBar.open(message, 'Close', { duration: 5000 });
   }
 
   get fullName(): string {
@@ -1053,6 +1034,7 @@ export class MainLayoutComponent implements OnInit {
   }
 
   logout() {
+    this.badgeService.disconnect();
     this.authService.logout();
   }
 